@@ -37,6 +37,7 @@ public class CreateKymos extends JPanel implements PropertyChangeListener {
 	JButton startComputationButton = new JButton("Start");
 	JSpinner diskRadiusSpinner = new JSpinner(new SpinnerNumberModel(3, 1, 100, 1));
 	JCheckBox allSeriesCheckBox = new JCheckBox("ALL series (current to last)", false);
+	JCheckBox resumeCheckBox = new JCheckBox("reuse built columns", false);
 	JComboBox<String> downsampleCombo = new JComboBox<>();
 	JLabel samplingHintLabel = new JLabel(" ");
 
@@ -62,6 +63,9 @@ public class CreateKymos extends JPanel implements PropertyChangeListener {
 		allSeriesCheckBox.setToolTipText("Build kymographs for the current experiment through the last in the browse list.");
 		panel0.add(startComputationButton);
 		panel0.add(allSeriesCheckBox);
+		resumeCheckBox.setToolTipText(
+				"Keep the columns of existing or interrupted kymographs built from the same frames and settings; analyze only the new frames.");
+		panel0.add(resumeCheckBox);
 		add(panel0);
 
 		DefaultComboBoxModel<String> dsModel = new DefaultComboBoxModel<>();
@@ -201,6 +205,7 @@ public class CreateKymos extends JPanel implements PropertyChangeListener {
 		options.t_Ms_First = getStartMs();
 		options.t_Ms_Last = getEndMs();
 		options.kymoDownsampleFactor = getDownsampleFactor();
+		options.kymoResumeFromExisting = resumeCheckBox.isSelected();
 
 		options.diskRadius = (int) diskRadiusSpinner.getValue();
 		options.doRegistration = false;
@@ -480,7 +480,7 @@ public class CreateBlobsPanel extends JPanel implements ChangeListener, Property
 			if (bOnlySelectedCages && !cage.getRoi().isSelected())
 				continue;
 
-			List<Spot> cageSpots = cage.getSpotList(allSpots);
+			List<Spot> cageSpots = new ArrayList<>(cage.getSpotList(allSpots));
 			if (limitSpotsPerCage && cageSpots.size() > nMaxSpotsPerCage) {
 				cageSpots.sort((a, b) -> {
 					Rectangle ra = a.getRoi() != null ? a.getRoi().getBounds() : null;
@@ -373,17 +373,33 @@ public class Experiment {
 		if (t0 < 0) {
 			t0 = 0;
 		}
+		attachFrameTimestampIndex(false);
 		FrameTimeScale built = FrameTimeScale.fromSeqCamData(seqCamData, t0);
 		if (built == null || built.isEmpty()) {
 			return;
 		}
+		attachFrameTimestampIndex(true);
+		seqCamData.getTimeManager().saveTimestampIndex();
 		setFrameTimeScale(built);
-		ensureResultsDirectoryFromImagesFolder();
 		if (resultsDirectory != null) {
 			built.save(resultsDirectory);
 		}
 	}
 
+	/**
+	 * Frame times resolved from the cam stack are persisted in the results directory when it
+	 * already exists, or once a time scale has been built from them ({@code scaleBuilt}): merely
+	 * opening an image folder writes nothing.
+	 */
+	private void attachFrameTimestampIndex(boolean scaleBuilt) {
+		if (seqCamData == null || resultsDirectory == null) {
+			return;
+		}
+		if (scaleBuilt || new File(resultsDirectory).isDirectory()) {
+			seqCamData.getTimeManager().setTimestampIndexDirectory(resultsDirectory);
+		}
+	}
+
 	/**
 	 * Native measure kymo: column count must equal analysis-interval frame count.
 	 */
@@ -1024,12 +1040,14 @@ public class Experiment {
 	}
 
 	public long[] build_MsTimeIntervalsArray_From_SeqCamData_FileNamesList(long firstImage_ms) {
+		attachFrameTimestampIndex(false);
 		long[] ms = timeManager.build_MsTimeIntervalsArray_From_SeqCamData_FileNamesList(seqCamData, firstImage_ms);
 		if (seqCamData != null && ms != null && ms.length > 0) {
 			FrameTimeScale built = FrameTimeScale.fromSeqCamData(seqCamData, firstImage_ms);
 			if (built != null && !built.isEmpty()) {
+				attachFrameTimestampIndex(true);
+				seqCamData.getTimeManager().saveTimestampIndex();
 				setFrameTimeScale(built);
-				ensureResultsDirectoryFromImagesFolder();
 				if (resultsDirectory != null) {
 					built.save(resultsDirectory);
 				}
@@ -2016,6 +2034,7 @@ public class Experiment {
 		int viewerSeqId = v.getSequence().getId();
 
 		if (seqCamData != null && seqCamData.getSequence() != null && viewerSeqId == seqCamData.getSequence().getId()) {
+			seqCamData.onViewerFrameChanged(t);
 			v.setTitle(seqCamData.getDecoratedImageName(t));
 			if (saveDetRoisToPositions)
 				saveDetRoisToPositions();
@@ -34,6 +34,7 @@ import plugins.fmp.multitools.experiment.spots.Spots;
 import plugins.fmp.multitools.tools.Comparators;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.ROI2D.ROIType;
+import plugins.fmp.multitools.tools.csv.CsvRow;
 import plugins.fmp.multitools.tools.toExcel.enums.EnumXLSColumnHeader;
 import plugins.kernel.roi.roi2d.ROI2DEllipse;
 import plugins.kernel.roi.roi2d.ROI2DPolygon;
@@ -64,6 +65,9 @@ public class Cage implements Comparable<Cage>, AutoCloseable {
 
 	private final AtomicBoolean closed = new AtomicBoolean(false);
 
+	/** Last result of {@link #getSpotList(Spots)}, reused while the spots and spotIDs are unchanged. */
+	private volatile SpotListSnapshot spotListSnapshot = null;
+
 	/** Throttle identical redundant-slot warnings per cage (UI refresh can call getSpotList very often). */
 	private static final ConcurrentHashMap<Integer, Long> REDUNDANT_SPOT_WARN_LAST_MS = new ConcurrentHashMap<>();
 	private static final long REDUNDANT_SPOT_WARN_MIN_INTERVAL_MS = 5000L;
@@ -137,44 +141,64 @@ public class Cage implements Comparable<Cage>, AutoCloseable {
 
 	/**
 	 * Resolves SpotIDs to actual Spot objects from the global SpotsArray.
+	 * <p>
+	 * The result is a read-only snapshot, cached until {@code allSpots} changes
+	 * ({@link Spots#getVersion()}) or this cage's spot IDs or cage ID change; copy it
+	 * before sorting or editing.
 	 * 
 	 * @param allSpots the global SpotsArray containing all spots
 	 * @return list of Spot objects for this cage
 	 */
 	public List<Spot> getSpotList(Spots allSpots) {
-		List<Spot> result = new ArrayList<>();
 		if (allSpots == null) {
-			return result;
+			return new ArrayList<>();
 		}
-		List<Spot> globalSpots = allSpots.copySpotListForRead();
+		long version = allSpots.getVersion();
+		int cageID = prop.getCageID();
+		SpotListSnapshot snapshot = spotListSnapshot;
+		if (snapshot != null && snapshot.matches(allSpots, version, cageID, spotIDs)) {
+			return snapshot.spots;
+		}
+		List<Spot> result;
 		if (!spotIDs.isEmpty()) {
+			result = new ArrayList<>(spotIDs.size());
 			Set<SpotID> seenIds = new LinkedHashSet<>();
 			for (SpotID spotID : spotIDs) {
 				if (spotID == null || !seenIds.add(spotID)) {
 					continue;
 				}
-				for (Spot spot : globalSpots) {
-					if (spot == null) {
-						continue;
-					}
-					if (spot.getSpotUniqueID() != null && spot.getSpotUniqueID().equals(spotID)) {
-						result.add(spot);
-						break;
-					}
+				Spot spot = allSpots.findSpotwithID(spotID);
+				if (spot != null) {
+					result.add(spot);
 				}
 			}
-			return dedupeSpotListForCage(result);
+		} else {
+			result = allSpots.findSpotsInCage(cageID);
 		}
-		int cageID = prop.getCageID();
-		for (Spot spot : globalSpots) {
-			if (spot == null) {
-				continue;
-			}
-			if (spot.getProperties() != null && spot.getProperties().getCageID() == cageID) {
-				result.add(spot);
-			}
+		List<Spot> spots = Collections.unmodifiableList(dedupeSpotListForCage(result));
+		spotListSnapshot = new SpotListSnapshot(allSpots, version, cageID, spotIDs, spots);
+		return spots;
+	}
+
+	private static final class SpotListSnapshot {
+		final Spots source;
+		final long version;
+		final int cageID;
+		final List<SpotID> spotIDs;
+		final List<Spot> spots;
+
+		SpotListSnapshot(Spots source, long version, int cageID, List<SpotID> spotIDs, List<Spot> spots) {
+			this.source = source;
+			this.version = version;
+			this.cageID = cageID;
+			this.spotIDs = new ArrayList<>(spotIDs);
+			this.spots = spots;
+		}
+
+		boolean matches(Spots source, long version, int cageID, List<SpotID> spotIDs) {
+			return this.source == source && this.version == version && this.cageID == cageID
+					&& this.spotIDs.equals(spotIDs);
 		}
-		return dedupeSpotListForCage(result);
 	}
 
 	/**
@@ -1466,6 +1490,10 @@ public class Cage implements Comparable<Cage>, AutoCloseable {
 		flyPositions.cvsImport_Parameter_FromRow(data);
 	}
 
+	public void csvImport_MEASURE_Data_Parameters(CsvRow data) {
+		flyPositions.cvsImport_Parameter_FromRow(data);
+	}
+
 	// ----------------------------------------
 
 	@Override
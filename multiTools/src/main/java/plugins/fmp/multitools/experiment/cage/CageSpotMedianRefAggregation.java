@@ -1,7 +1,6 @@
 package plugins.fmp.multitools.experiment.cage;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import plugins.fmp.multitools.experiment.Experiment;
@@ -9,6 +8,7 @@ import plugins.fmp.multitools.experiment.spot.Spot;
 import plugins.fmp.multitools.experiment.spot.SpotMeasure;
 import plugins.fmp.multitools.experiment.spots.Spots;
 import plugins.fmp.multitools.tools.results.ResultsOptions;
+import plugins.fmp.multitools.tools.stats.RobustStats;
 
 /**
  * Cage-level reference curve: per time bin, median of {@code AREA_SUM} across spots in a cage,
@@ -83,7 +83,7 @@ public final class CageSpotMedianRefAggregation {
 					scratch[m++] = v;
 				}
 			}
-			out.add(m > 0 ? medianOfFirst(scratch, m) : Double.NaN);
+			out.add(m > 0 ? RobustStats.median(scratch, m) : Double.NaN);
 		}
 		return out;
 	}
@@ -152,15 +152,4 @@ public final class CageSpotMedianRefAggregation {
 		return found ? n : 0;
 	}
 
-	private static double medianOfFirst(double[] values, int m) {
-		if (m <= 0 || values == null) {
-			return Double.NaN;
-		}
-		double[] copy = Arrays.copyOf(values, m);
-		Arrays.sort(copy);
-		if ((m & 1) == 1) {
-			return copy[m / 2];
-		}
-		return (copy[m / 2 - 1] + copy[m / 2]) / 2.0;
-	}
 }
@@ -1,7 +1,6 @@
 package plugins.fmp.multitools.experiment.cage;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
@@ -15,6 +14,7 @@ import plugins.fmp.multitools.experiment.spots.Spots;
 import plugins.fmp.multitools.tools.results.AggSumCleanPolicy;
 import plugins.fmp.multitools.tools.results.EnumResults;
 import plugins.fmp.multitools.tools.results.ResultsOptions;
+import plugins.fmp.multitools.tools.stats.RobustStats;
 
 /**
  * Builds cage-level spot aggregates grouped by (stimulus, concentration).
@@ -231,7 +231,7 @@ public final class CageSpotStimulusAggregation {
 	private static ArrayList<Double> computeNormalizedConsumptionNative(Experiment exp, Spot spot, ResultsOptions options,
 			double[] camTimeMin, int n, double[] cageMedianDriftFromT0, double[] refMedianDriftFromT0) {
 		SpotMeasure intensity = depletionIntensitySeries(spot, options.resultType);
-		if (spot == null || intensity == null || intensity.getValues() == null || n <= 0) {
+		if (spot == null || intensity == null || intensity.getValuesColumn() == null || n <= 0) {
 			return null;
 		}
 		int count = Math.min(n, intensity.getCount());
@@ -355,22 +355,11 @@ public final class CageSpotStimulusAggregation {
 					scratch[m++] = v;
 				}
 			}
-			out[i] = m > 0 ? medianOfFirst(scratch, m) : Double.NaN;
+			out[i] = m > 0 ? RobustStats.median(scratch, m) : Double.NaN;
 		}
 		return out;
 	}
 
-	private static double medianOfFirst(double[] values, int m) {
-		if (m <= 0 || values == null) {
-			return Double.NaN;
-		}
-		double[] copy = Arrays.copyOf(values, m);
-		Arrays.sort(copy);
-		if ((m & 1) == 1) {
-			return copy[m / 2];
-		}
-		return (copy[m / 2 - 1] + copy[m / 2]) / 2.0;
-	}
 
 	private static double[] driftCorrectionFromT0(double[] series) {
 		if (series == null || series.length == 0) {
@@ -531,7 +520,7 @@ public final class CageSpotStimulusAggregation {
 			return null;
 		}
 		SpotMeasure intensity = s.getAreaCountV5();
-		if (intensity == null || intensity.getValues() == null) {
+		if (intensity == null || intensity.getValuesColumn() == null) {
 			return null;
 		}
 		int avail = intensity.getCount();
@@ -624,7 +613,7 @@ public final class CageSpotStimulusAggregation {
 			return null;
 		}
 		SpotMeasure intensity = s.getAreaCountColor();
-		if (intensity == null || intensity.getValues() == null) {
+		if (intensity == null || intensity.getValuesColumn() == null) {
 			return null;
 		}
 		int avail = intensity.getCount();
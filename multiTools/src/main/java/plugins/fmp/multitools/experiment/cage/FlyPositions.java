@@ -12,6 +12,7 @@ import org.w3c.dom.Node;
 import icy.util.XMLUtil;
 import plugins.fmp.multitools.tools.Comparators;
 import plugins.fmp.multitools.tools.ROI2D.Measures;
+import plugins.fmp.multitools.tools.csv.CsvRow;
 import plugins.fmp.multitools.tools.results.EnumResults;
 import plugins.kernel.roi.roi2d.ROI2DArea;
 
@@ -807,12 +808,89 @@ public class FlyPositions {
 		return true;
 	}
 
+	/**
+	 * One parameter of every position, as exported by {@link #cvsExport_Parameter_ToRow}:
+	 * {@code measureType} is 't', 'x', 'y', 'w', 'h' or 'p'.
+	 */
+	public double[] getParameterValues(char measureType) {
+		int npoints = flyPositionList != null ? flyPositionList.size() : 0;
+		double[] values = new double[npoints];
+		for (int i = 0; i < npoints; i++) {
+			FlyPosition pos = flyPositionList.get(i);
+			switch (measureType) {
+			case 't':
+				values[i] = pos.flyIndexT;
+				break;
+			case 'x':
+				values[i] = pos.rectPosition.getX();
+				break;
+			case 'y':
+				values[i] = pos.rectPosition.getY();
+				break;
+			case 'w':
+				values[i] = pos.rectPosition.getWidth();
+				break;
+			case 'h':
+				values[i] = pos.rectPosition.getHeight();
+				break;
+			case 'p':
+				values[i] = pos.illumPhase;
+				break;
+			default:
+				break;
+			}
+		}
+		return values;
+	}
+
+	/** Counterpart of {@link #getParameterValues}, same effect as {@link #cvsImport_Parameter_FromRow}. */
+	public void setParameterValues(char measureType, double[] values) {
+		int npoints = values.length;
+		if (flyPositionList.size() != npoints) {
+			flyPositionList = new ArrayList<FlyPosition>(npoints);
+			for (int i = 0; i < npoints; i++)
+				flyPositionList.add(new FlyPosition());
+		}
+		for (int i = 0; i < npoints; i++) {
+			FlyPosition pos = flyPositionList.get(i);
+			Rectangle2D r = pos.rectPosition;
+			double v = values[i];
+			switch (measureType) {
+			case 't':
+				pos.flyIndexT = (int) v;
+				break;
+			case 'x':
+				r.setRect(v, r.getY(), r.getWidth(), r.getHeight());
+				break;
+			case 'y':
+				r.setRect(r.getX(), v, r.getWidth(), r.getHeight());
+				break;
+			case 'w':
+				r.setRect(r.getX(), r.getY(), v, r.getHeight());
+				break;
+			case 'h':
+				r.setRect(r.getX(), r.getY(), r.getWidth(), v);
+				break;
+			case 'p':
+				pos.illumPhase = (int) v;
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
 	public boolean cvsImport_Parameter_FromRow(String[] data) {
-		if (data.length < 1)
+		return cvsImport_Parameter_FromRow(CsvRow.of(data));
+	}
+
+	/** Same as {@link #cvsImport_Parameter_FromRow(String[])}, cells parsed in place. */
+	public boolean cvsImport_Parameter_FromRow(CsvRow data) {
+		if (data.size() < 1)
 			return false;
 
-		char measureType = data[1].charAt(0);
-		int npoints = Integer.valueOf(data[2]);
+		char measureType = data.charAt(1, 0);
+		int npoints = data.getInt(2);
 		if (flyPositionList.size() != npoints) {
 			flyPositionList = new ArrayList<FlyPosition>(npoints);
 			for (int i = 0; i < npoints; i++) {
@@ -822,24 +900,32 @@ public class FlyPositions {
 		}
 		int offset = 3;
 
-		if (measureType == 't')
-			for (int i = 0; i < npoints; i++)
-				flyPositionList.get(i).cvsImportT(data[i + offset]);
-		else if (measureType == 'x')
-			for (int i = 0; i < npoints; i++)
-				flyPositionList.get(i).cvsImportX(data[i + offset]);
-		else if (measureType == 'y')
-			for (int i = 0; i < npoints; i++)
-				flyPositionList.get(i).cvsImportY(data[i + offset]);
-		else if (measureType == 'w')
-			for (int i = 0; i < npoints; i++)
-				flyPositionList.get(i).cvsImportWidth(data[i + offset]);
-		else if (measureType == 'h')
-			for (int i = 0; i < npoints; i++)
-				flyPositionList.get(i).cvsImportHeight(data[i + offset]);
-		else if (measureType == 'p')
-			for (int i = 0; i < npoints; i++)
-				flyPositionList.get(i).cvsImportIllumPhase(data[i + offset]);
+		for (int i = 0; i < npoints; i++) {
+			FlyPosition pos = flyPositionList.get(i);
+			Rectangle2D r = pos.rectPosition;
+			switch (measureType) {
+			case 't':
+				pos.flyIndexT = data.getInt(i + offset);
+				break;
+			case 'x':
+				r.setRect(data.getDouble(i + offset), r.getY(), r.getWidth(), r.getHeight());
+				break;
+			case 'y':
+				r.setRect(r.getX(), data.getDouble(i + offset), r.getWidth(), r.getHeight());
+				break;
+			case 'w':
+				r.setRect(r.getX(), r.getY(), data.getDouble(i + offset), r.getHeight());
+				break;
+			case 'h':
+				r.setRect(r.getX(), r.getY(), r.getWidth(), data.getDouble(i + offset));
+				break;
+			case 'p':
+				pos.illumPhase = data.getInt(i + offset);
+				break;
+			default:
+				return true;
+			}
+		}
 
 		return true;
 	}
@@ -3,14 +3,17 @@ package plugins.fmp.multitools.experiment.cages;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import plugins.fmp.multitools.experiment.Experiment;
+import plugins.fmp.multitools.experiment.cage.Cage;
+import plugins.fmp.multitools.experiment.persistence.MeasuresBinaryFile;
 import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.csv.CsvReader;
+import plugins.fmp.multitools.tools.csv.CsvWriter;
 
 public class CagesPersistence {
 
@@ -345,70 +348,54 @@ public class CagesPersistence {
 				return loaded;
 			}
 
-			// Validate version header before committing to new format parser
-			try {
-				BufferedReader csvReader = new BufferedReader(new FileReader(pathToCsv));
-				String firstLine = csvReader.readLine();
-				csvReader.close();
-
-				if (firstLine == null || !firstLine.startsWith("#")) {
-					Logger.info("CagesPersistence: No header found in " + ID_V2_CAGESMEASURES_CSV
-							+ ", using legacy parser");
-					boolean loaded = CagesPersistenceLegacy.loadMeasuresWithFallback(cages, binDirectory);
-					if (loaded) {
-						saveMeasures(cages, binDirectory);
+			// single pass: the header is checked, then the POSITION section is parsed from the same reader
+			String legacyReason;
+			try (CsvReader reader = CsvReader.open(csvFile, csvSep.charAt(0))) {
+				if (!reader.nextRow() || !reader.isComment()) {
+					legacyReason = "No header found in ";
+				} else if (reader.size() < 3 || !reader.cellEquals(1, "version")) {
+					legacyReason = "First line is not version header in ";
+				} else {
+					if (!reader.cellEquals(2, CSV_VERSION)) {
+						Logger.warn("CagesPersistence: File version " + reader.get(2) + " differs from current version "
+								+ CSV_VERSION);
 					}
-					return loaded;
-				}
 
-				String sep = String.valueOf(firstLine.charAt(1));
-				String[] versionData = firstLine.split(sep);
-				if (versionData.length < 3 || !versionData[1].equals("version")) {
-					Logger.info("CagesPersistence: First line is not version header in " + ID_V2_CAGESMEASURES_CSV
-							+ ", using legacy parser");
-					boolean loaded = CagesPersistenceLegacy.loadMeasuresWithFallback(cages, binDirectory);
-					if (loaded) {
-						saveMeasures(cages, binDirectory);
+					MeasuresBinaryFile binary = MeasuresBinaryFile.readIfCurrent(csvFile.toPath());
+					if (binary != null && loadMeasuresFromBinary(cages, binary)) {
+						return true;
 					}
-					return loaded;
-				}
 
-				String fileVersion = versionData[2];
-				if (!fileVersion.equals(CSV_VERSION)) {
-					Logger.warn("CagesPersistence: File version " + fileVersion + " differs from current version "
-							+ CSV_VERSION);
+					// Version validated - proceed with new format parser
+					return loadPositionSection(cages, reader);
 				}
 			} catch (IOException e) {
 				Logger.error("CagesPersistence: Error reading file header: " + e.getMessage(), e);
 				return CagesPersistenceLegacy.loadMeasuresWithFallback(cages, binDirectory);
 			}
 
-			// Version validated - proceed with new format parser
-			try {
-				BufferedReader csvReader = new BufferedReader(new FileReader(pathToCsv));
-				String row;
-				String sep = csvSep;
-
-				while ((row = csvReader.readLine()) != null) {
-					if (row.length() > 0 && row.charAt(0) == '#') {
-						sep = String.valueOf(row.charAt(1));
-					}
+			// the v2 file is closed before the migration overwrites it
+			Logger.info("CagesPersistence: " + legacyReason + ID_V2_CAGESMEASURES_CSV + ", using legacy parser");
+			boolean loaded = CagesPersistenceLegacy.loadMeasuresWithFallback(cages, binDirectory);
+			if (loaded) {
+				saveMeasures(cages, binDirectory);
+			}
+			return loaded;
+		}
 
-					String[] data = row.split(sep);
-					if (data.length > 0 && data[0].equals("#")) {
-						if (data.length > 1) {
-							if (data[1].equals("version")) {
-								continue;
-							}
-							if (data[1].equals("POSITION")) {
-								CagesPersistenceLegacy.csvLoad_Measures(cages, csvReader, "POSITION", sep);
-								csvReader.close();
-								return true;
-							}
+		private static boolean loadPositionSection(Cages cages, CsvReader reader) {
+			try {
+				while (reader.nextRow()) {
+					if (reader.size() > 1 && reader.cellEquals(0, "#")) {
+						if (reader.cellEquals(1, "version")) {
+							continue;
+						}
+						if (reader.cellEquals(1, "POSITION")) {
+							CagesPersistenceLegacy.csvLoad_Measures(cages, reader, "POSITION");
+							return true;
 						}
 					}
 				}
-				csvReader.close();
 				return false;
 			} catch (Exception e) {
 				Logger.error("CagesPersistence:loadMeasures() Error: " + e.getMessage(), e);
@@ -433,13 +420,11 @@ public class CagesPersistence {
 				return false;
 			}
 
-			try {
-				FileWriter csvWriter = new FileWriter(resultsDirectory + File.separator + ID_V2_CAGESDESCRIPTION_CSV);
+			try (CsvWriter csvWriter = CsvWriter.open(Paths.get(resultsDirectory, ID_V2_CAGESDESCRIPTION_CSV))) {
 				csvWriter.write("#" + csvSep + "version" + csvSep + CSV_VERSION + "\n");
 				CagesPersistenceLegacy.csvSaveDESCRIPTIONSection(cages, csvWriter, csvSep);
 				CagesPersistenceLegacy.csvSaveCAGESection(cages, csvWriter, csvSep);
-				csvWriter.flush();
-				csvWriter.close();
+				csvWriter.commit();
 				Logger.debug("CagesPersistence:saveCages() Saved descriptions to " + ID_V2_CAGESDESCRIPTION_CSV);
 				return true;
 			} catch (IOException e) {
@@ -464,18 +449,59 @@ public class CagesPersistence {
 				return false;
 			}
 
-			try {
-				FileWriter csvWriter = new FileWriter(binDirectory + File.separator + ID_V2_CAGESMEASURES_CSV);
+			try (CsvWriter csvWriter = CsvWriter.open(Paths.get(binDirectory, ID_V2_CAGESMEASURES_CSV))) {
 				csvWriter.write("#" + csvSep + "version" + csvSep + CSV_VERSION + "\n");
 				CagesPersistenceLegacy.csvSaveMeasuresSection(cages, csvWriter, "POSITION", csvSep);
-				csvWriter.flush();
-				csvWriter.close();
+				csvWriter.commit();
 				Logger.debug("CagesPersistence:saveCagesMeasures() Saved measures to " + ID_V2_CAGESMEASURES_CSV);
-				return true;
 			} catch (IOException e) {
 				Logger.error("CagesPersistence:saveCagesMeasures() Error: " + e.getMessage(), e);
 				return false;
 			}
+			saveMeasuresBinary(cages, Paths.get(binDirectory, ID_V2_CAGESMEASURES_CSV));
+			return true;
+		}
+
+		private static final String SECTION_POSITION = "POSITION";
+		private static final String[] POSITION_PARAMETERS = { "t(i)", "x(i)", "y(i)", "w(i)", "h(i)", "p(i)" };
+
+		/**
+		 * Mirrors the POSITION section of CagesMeasures.csv (one column per cage and parameter)
+		 * into its binary sibling ({@link MeasuresBinaryFile}).
+		 */
+		private static void saveMeasuresBinary(Cages cages, Path csvPath) {
+			MeasuresBinaryFile binary = new MeasuresBinaryFile();
+			for (Cage cage : cages.cagesList) {
+				if (cage.flyPositions == null) {
+					continue;
+				}
+				int cageID = cage.getProperties().getCageID();
+				for (String parameter : POSITION_PARAMETERS) {
+					double[] values = cage.flyPositions.getParameterValues(parameter.charAt(0));
+					binary.addDoubles(SECTION_POSITION, parameter, cageID, values, values.length);
+				}
+			}
+			binary.writeNextTo(csvPath);
+		}
+
+		/** Same effect as the CSV parser of {@link #loadMeasures}; false if no position was found. */
+		private static boolean loadMeasuresFromBinary(Cages cages, MeasuresBinaryFile binary) {
+			boolean loaded = false;
+			for (MeasuresBinaryFile.Column column : binary.getColumns()) {
+				if (!SECTION_POSITION.equals(column.getSection()) || column.getRow().isEmpty()) {
+					continue;
+				}
+				int cageID = column.getIndex();
+				Cage cage = cages.getCageFromID(cageID);
+				if (cage == null) {
+					cage = new Cage();
+					cages.cagesList.add(cage);
+					cage.prop.setCageID(cageID);
+				}
+				cage.flyPositions.setParameterValues(column.getRow().charAt(0), column.getDoubles());
+				loaded = true;
+			}
+			return loaded;
 		}
 	}
 
@@ -4,8 +4,8 @@ import java.awt.Color;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,6 +26,7 @@ import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.ROI2D.ROI2DUtilities;
 import plugins.fmp.multitools.tools.ROI2D.ROIPersistenceUtils;
 import plugins.fmp.multitools.tools.ROI2D.ROIType;
+import plugins.fmp.multitools.tools.csv.CsvReader;
 
 /**
  * Legacy persistence for cages files. Handles loading from legacy XML and CSV
@@ -865,9 +866,52 @@ public class CagesPersistenceLegacy {
 		}
 	}
 
+	/**
+	 * Same as {@link #csvLoad_Measures(Cages, BufferedReader, String, String)} on the rows of
+	 * {@code reader}, whose cells are parsed in place.
+	 */
+	static void csvLoad_Measures(Cages cages, CsvReader reader, String measureType) {
+		try {
+			boolean header = reader.nextRow();
+			boolean complete = header && reader.lineContains("w(i)");
+			boolean v0 = header && reader.lineContains("x(i)");
+
+			while (reader.nextRow()) {
+				if (reader.size() > 0 && reader.cellEquals(0, "#")) {
+					return;
+				}
+
+				if (reader.size() > 0) {
+					int cageID = -1;
+					try {
+						cageID = reader.getInt(0);
+					} catch (NumberFormatException e) {
+						Logger.warn("CagesPersistenceLegacy:csvLoad_Measures() Invalid integer input: " + reader.get(0));
+						continue;
+					}
+					Cage cage = cages.getCageFromID(cageID);
+					if (cage == null) {
+						cage = new Cage();
+						cages.cagesList.add(cage);
+						cage.prop.setCageID(cageID);
+					}
+
+					if (v0) {
+						cage.csvImport_MEASURE_Data_v0(measureType, reader.toArray(), complete);
+					} else {
+						cage.csvImport_MEASURE_Data_Parameters(reader);
+					}
+				}
+			}
+		} catch (IOException e) {
+			Logger.error("CagesPersistenceLegacy:csvLoad_Measures() Error: " + e.getMessage(), e);
+			e.printStackTrace();
+		}
+	}
+
 	// CSV saving helper methods (for backward compatibility)
 
-	static boolean csvSaveDESCRIPTIONSection(Cages cages, FileWriter csvWriter, String csvSep) {
+	static boolean csvSaveDESCRIPTIONSection(Cages cages, Writer csvWriter, String csvSep) {
 		try {
 			csvWriter.append("#" + csvSep + "DESCRIPTION" + csvSep + "Cages data\n");
 			csvWriter.append("n cages=" + csvSep + Integer.toString(cages.cagesList.size()) + "\n");
@@ -878,7 +922,7 @@ public class CagesPersistenceLegacy {
 		return true;
 	}
 
-	static boolean csvSaveCAGESection(Cages cages, FileWriter csvWriter, String csvSep) {
+	static boolean csvSaveCAGESection(Cages cages, Writer csvWriter, String csvSep) {
 		try {
 			csvWriter.append("#" + csvSep + "CAGE" + csvSep + "Cage properties\n");
 			csvWriter.append("cageID" + csvSep + "nFlies" + csvSep + "age" + csvSep + "Comment" + csvSep + "strain"
@@ -950,7 +994,7 @@ public class CagesPersistenceLegacy {
 		return true;
 	}
 
-	static boolean csvSaveMeasuresSection(Cages cages, FileWriter csvWriter, String measuresType,
+	static boolean csvSaveMeasuresSection(Cages cages, Writer csvWriter, String measuresType,
 			String csvSep) {
 		try {
 			if (cages.cagesList.size() <= 0) {
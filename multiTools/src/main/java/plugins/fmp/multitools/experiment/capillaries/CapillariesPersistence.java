@@ -3,16 +3,22 @@ package plugins.fmp.multitools.experiment.capillaries;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.DirectoryStream;
 
 import plugins.fmp.multitools.experiment.Experiment;
+import plugins.fmp.multitools.experiment.capillary.Capillary;
+import plugins.fmp.multitools.experiment.capillary.CapillaryMeasure;
+import plugins.fmp.multitools.experiment.persistence.MeasuresBinaryFile;
+import plugins.fmp.multitools.tools.polyline.Level2D;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.csv.CsvNumberParsing;
+import plugins.fmp.multitools.tools.csv.CsvReader;
+import plugins.fmp.multitools.tools.csv.CsvWriter;
 import plugins.fmp.multitools.tools.results.EnumResults;
 
 public class CapillariesPersistence {
@@ -182,7 +188,8 @@ public class CapillariesPersistence {
 
 	/**
 	 * Reads the nominal interval (s) from the comment line
-	 * {@code # nominal_interval_sec=N} in CapillariesMeasures.csv if present.
+	 * {@code # nominal_interval_sec=N} in CapillariesMeasures.csv if present. Only the
+	 * comment lines at the head of the file are read.
 	 *
 	 * @param binDirectory the bin directory (e.g., results/bin_60)
 	 * @return nominal interval in seconds, or -1 if not found
@@ -193,7 +200,7 @@ public class CapillariesPersistence {
 		String pathToCsv = binDirectory + File.separator + ID_V2_CAPILLARIESMEASURES_CSV;
 		try (BufferedReader r = new BufferedReader(new FileReader(pathToCsv))) {
 			String line;
-			while ((line = r.readLine()) != null) {
+			while ((line = r.readLine()) != null && line.startsWith("#")) {
 				if (line.startsWith("# nominal_interval_sec=")) {
 					String val = line.substring("# nominal_interval_sec=".length()).trim();
 					return Math.max(1, Integer.parseInt(val));
@@ -463,129 +470,110 @@ public class CapillariesPersistence {
 				return loaded;
 			}
 
-			// Validate version header before committing to new format parser
-			try {
-				BufferedReader csvReader = new BufferedReader(new FileReader(pathToCsv));
-				String firstLine = csvReader.readLine();
-				csvReader.close();
-
-				if (firstLine == null || !firstLine.startsWith("#")) {
-					boolean loaded = CapillariesPersistenceLegacy.loadMeasuresWithFallback(capillaries, binDirectory);
-					if (loaded) {
-						saveMeasures(capillaries, binDirectory, -1);
-						Logger.info(
-								"CapillariesPersistence:loadMeasures() Migrated headerless capillaries measures file to v2 CSV in "
-										+ binDirectory);
-					}
-					return loaded;
-				}
-
-				String sep = String.valueOf(firstLine.charAt(1));
-				String[] versionData = firstLine.split(sep);
-				if (versionData.length < 3 || !versionData[1].equals("version")) {
-					boolean loaded = CapillariesPersistenceLegacy.loadMeasuresWithFallback(capillaries, binDirectory);
-					if (loaded) {
-						saveMeasures(capillaries, binDirectory, -1);
-						Logger.info(
-								"CapillariesPersistence:loadMeasures() Migrated invalid-header capillaries measures file to v2 CSV in "
-										+ binDirectory);
+			// single pass: the header is checked, then the sections are parsed from the same reader
+			String migratedFrom;
+			try (CsvReader reader = CsvReader.open(csvFile, csvSep.charAt(0))) {
+				if (!reader.nextRow() || !reader.isComment()) {
+					migratedFrom = "headerless capillaries measures file to v2 CSV";
+				} else if (reader.size() < 3 || !reader.cellEquals(1, "version")) {
+					migratedFrom = "invalid-header capillaries measures file to v2 CSV";
+				} else {
+					MeasuresBinaryFile binary = MeasuresBinaryFile.readIfCurrent(csvFile.toPath());
+					if (binary != null && loadMeasuresFromBinary(capillaries, binary)) {
+						capillaries.migrateThresholdFromCapillariesIfNeeded();
+						return true;
 					}
-					return loaded;
+					// Version validated - proceed with new format parser
+					return loadMeasuresSections(capillaries, reader);
 				}
 			} catch (IOException e) {
-				boolean loaded = CapillariesPersistenceLegacy.loadMeasuresWithFallback(capillaries, binDirectory);
-				if (loaded) {
-					saveMeasures(capillaries, binDirectory, -1);
-					Logger.info(
-							"CapillariesPersistence:loadMeasures() Migrated capillaries measures from legacy after IO error in v2 header in "
-									+ binDirectory);
-				}
-				return loaded;
+				migratedFrom = "capillaries measures from legacy after IO error in v2 header";
 			}
 
-			// Version validated - proceed with new format parser
+			// the v2 file is closed before the migration overwrites it
+			boolean loaded = CapillariesPersistenceLegacy.loadMeasuresWithFallback(capillaries, binDirectory);
+			if (loaded) {
+				saveMeasures(capillaries, binDirectory, -1);
+				Logger.info("CapillariesPersistence:loadMeasures() Migrated " + migratedFrom + " in " + binDirectory);
+			}
+			return loaded;
+		}
+
+		private static boolean loadMeasuresSections(Capillaries capillaries, CsvReader reader) {
 			try {
-				BufferedReader csvReader = new BufferedReader(new FileReader(pathToCsv));
-				String row;
-				String sep = csvSep;
 				boolean seenGulpsFlat = false;
 				boolean measuresLoaded = false;
 
-				while ((row = csvReader.readLine()) != null) {
-					if (row.length() > 0 && row.charAt(0) == '#')
-						sep = String.valueOf(row.charAt(1));
-
-					String[] data = row.split(sep);
-					if (data.length > 0 && data[0].equals("#")) {
-						switch (data.length > 1 ? data[1] : "") {
+				while (reader.nextRow()) {
+					if (reader.size() > 0 && reader.cellEquals(0, "#")) {
+						switch (reader.size() > 1 ? reader.get(1) : "") {
 						case "version":
 							break;
 						case "DESCRIPTION":
-							CapillariesPersistenceLegacy.csvSkipSection(csvReader, sep);
+							CapillariesPersistenceLegacy.csvSkipSection(reader);
 							break;
 						case "CAPILLARIES":
-							CapillariesPersistenceLegacy.csvSkipSection(csvReader, sep);
+							CapillariesPersistenceLegacy.csvSkipSection(reader);
 							break;
 						case "TOPLEVEL":
 						case "TOPRAW":
 							measuresLoaded = true;
-							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, csvReader,
-									EnumResults.TOPRAW, sep, row.contains("xi"));
+							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, reader,
+									EnumResults.TOPRAW, reader.lineContains("xi"));
 							break;
 						case "TOPLEVEL_CORRECTED":
 							measuresLoaded = true;
-							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, csvReader,
-									EnumResults.TOPLEVEL, sep, row.contains("xi"));
+							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, reader,
+									EnumResults.TOPLEVEL, reader.lineContains("xi"));
 							break;
 						case "BOTTOMLEVEL":
 						case "BOTTOM":
 							measuresLoaded = true;
-							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, csvReader,
-									EnumResults.BOTTOMLEVEL, sep, row.contains("xi"));
+							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, reader,
+									EnumResults.BOTTOMLEVEL, reader.lineContains("xi"));
 							break;
 						case "TOPLEVELDIRECT":
 						case "BOTTOMLEVELDIRECT":
 							// Deprecated: direct-from-cam levels are now stored as standard TOPLEVEL/BOTTOMLEVEL.
-							CapillariesPersistenceLegacy.csvSkipSection(csvReader, sep);
+							CapillariesPersistenceLegacy.csvSkipSection(reader);
 							break;
 						case "TOPDERIVATIVE":
 						case "TOPDER":
 							measuresLoaded = true;
-							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, csvReader,
-									EnumResults.DERIVEDVALUES, sep, row.contains("xi"));
+							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, reader,
+									EnumResults.DERIVEDVALUES, reader.lineContains("xi"));
 							break;
 						case "THRESHOLD":
 							measuresLoaded = true;
-							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, csvReader,
-									EnumResults.THRESHOLD, sep, row.contains("xi"));
+							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, reader,
+									EnumResults.THRESHOLD, reader.lineContains("xi"));
 							break;
 						case "GULPS":
 						case "GULPS_CORRECTED":
 							if (seenGulpsFlat) {
-								CapillariesPersistenceLegacy.csvSkipSection(csvReader, sep);
+								CapillariesPersistenceLegacy.csvSkipSection(reader);
 								break;
 							}
 							measuresLoaded = true;
-							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, csvReader,
-									EnumResults.GULPS_FLAT, sep, true);
+							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, reader,
+									EnumResults.GULPS_FLAT, true);
 							break;
 						case "GULPS_FLAT":
 						case "GULPS_F":
 							seenGulpsFlat = true;
 							measuresLoaded = true;
-							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, csvReader,
-									EnumResults.GULPS_FLAT, sep, true);
+							CapillariesPersistenceLegacy.csvLoad_Capillaries_Measures(capillaries, reader,
+									EnumResults.GULPS_FLAT, true);
 							break;
 						case "REFERENCE":
 							measuresLoaded = true;
-							CapillariesPersistenceLegacy.csvLoad_ReferenceMeasures(capillaries, csvReader, sep);
+							CapillariesPersistenceLegacy.csvLoad_ReferenceMeasures(capillaries, reader);
 							break;
 						default:
 							break;
 						}
 					}
 				}
-				csvReader.close();
 				capillaries.migrateThresholdFromCapillariesIfNeeded();
 				return measuresLoaded;
 			} catch (Exception e) {
@@ -621,14 +609,11 @@ public class CapillariesPersistence {
 				}
 			}
 
-			try {
-				FileWriter csvWriter = new FileWriter(
-						resultsDirectory + File.separator + ID_V2_CAPILLARIESDESCRIPTION_CSV);
+			try (CsvWriter csvWriter = CsvWriter.open(Paths.get(resultsDirectory, ID_V2_CAPILLARIESDESCRIPTION_CSV))) {
 				csvWriter.write("#" + csvSep + "version" + csvSep + CSV_VERSION + "\n");
 				writeProvenanceHeaderComments(csvWriter);
 				CapillariesPersistenceLegacy.csvSave_DescriptionSection(capillaries, csvWriter, csvSep);
-				csvWriter.flush();
-				csvWriter.close();
+				csvWriter.commit();
 				return true;
 			} catch (IOException e) {
 				Logger.error(
@@ -654,9 +639,8 @@ public class CapillariesPersistence {
 				return false;
 			}
 
-			try {
-				capillaries.copyThresholdToFirstEmptyCapillaryForLegacySave();
-				FileWriter csvWriter = new FileWriter(binDirectory + File.separator + ID_V2_CAPILLARIESMEASURES_CSV);
+			capillaries.copyThresholdToFirstEmptyCapillaryForLegacySave();
+			try (CsvWriter csvWriter = CsvWriter.open(Paths.get(binDirectory, ID_V2_CAPILLARIESMEASURES_CSV))) {
 				csvWriter.write("#" + csvSep + "version" + csvSep + CSV_VERSION + "\n");
 				writeProvenanceHeaderComments(csvWriter);
 				if (nominalIntervalSec > 0)
@@ -674,16 +658,119 @@ public class CapillariesPersistence {
 				CapillariesPersistenceLegacy.csvSave_MeasuresSection(capillaries, csvWriter,
 						EnumResults.GULPS_FLAT, csvSep);
 				CapillariesPersistenceLegacy.csvSave_ReferenceSection(capillaries, csvWriter, csvSep);
-				csvWriter.flush();
-				csvWriter.close();
-				return true;
+				csvWriter.commit();
 			} catch (IOException e) {
 				return false;
 			}
+			saveMeasuresBinary(capillaries, Paths.get(binDirectory, ID_V2_CAPILLARIESMEASURES_CSV));
+			return true;
+		}
+
+		private static final EnumResults[] LEVEL_MEASURES = { EnumResults.TOPRAW, EnumResults.TOPLEVEL,
+				EnumResults.BOTTOMLEVEL, EnumResults.DERIVEDVALUES, EnumResults.THRESHOLD };
+		private static final String SECTION_REFERENCE = "REFERENCE";
+
+		private static CapillaryMeasure getLevelMeasure(Capillary cap, EnumResults measureType) {
+			switch (measureType) {
+			case TOPRAW:
+				return cap.getTopRaw();
+			case TOPLEVEL:
+				return cap.getTopCorrected();
+			case BOTTOMLEVEL:
+				return cap.getBottomRaw();
+			case DERIVEDVALUES:
+				return cap.getDerivative();
+			case THRESHOLD:
+				return cap.getThreshold();
+			default:
+				return null;
+			}
+		}
+
+		/**
+		 * Mirrors the sections of CapillariesMeasures.csv (levels, flat gulps, reference) into
+		 * its binary sibling ({@link MeasuresBinaryFile}).
+		 */
+		private static void saveMeasuresBinary(Capillaries capillaries, Path csvPath) {
+			MeasuresBinaryFile binary = new MeasuresBinaryFile();
+			// same rule as the CSV: no measure sections for a single capillary
+			if (capillaries.getList().size() > 1) {
+				for (EnumResults measureType : LEVEL_MEASURES) {
+					for (Capillary cap : capillaries.getList()) {
+						CapillaryMeasure measure = getLevelMeasure(cap, measureType);
+						if (measure == null || measure.polylineLevel == null) {
+							continue;
+						}
+						if ((measureType == EnumResults.TOPLEVEL || measureType == EnumResults.THRESHOLD)
+								&& !measure.isThereAnyMeasuresDone()) {
+							continue;
+						}
+						binary.addDoubles(measureType.name(), cap.getKymographPrefix(), cap.getKymographIndex(),
+								measure.polylineLevel.ypoints, measure.polylineLevel.npoints);
+					}
+				}
+				for (Capillary cap : capillaries.getList()) {
+					Level2D heights = cap.getGulps().getHeightSeries();
+					if (heights != null) {
+						binary.addDoubles(EnumResults.GULPS_FLAT.name(), cap.getKymographPrefix(),
+								cap.getKymographIndex(), heights.ypoints, heights.npoints);
+					}
+				}
+			}
+			ReferenceMeasures ref = capillaries.getReferenceMeasures();
+			for (String id : ReferenceMeasures.getIds()) {
+				CapillaryMeasure measure = ref.getMeasureById(id);
+				if (measure.isThereAnyMeasuresDone()) {
+					binary.addDoubles(SECTION_REFERENCE, id, 0, measure.polylineLevel.ypoints,
+							measure.polylineLevel.npoints);
+				}
+			}
+			binary.writeNextTo(csvPath);
+		}
+
+		/** Same effect as the CSV parser of {@link #loadMeasures}; false if nothing was loaded. */
+		private static boolean loadMeasuresFromBinary(Capillaries capillaries, MeasuresBinaryFile binary) {
+			boolean measuresLoaded = false;
+			for (MeasuresBinaryFile.Column column : binary.getColumns()) {
+				if (SECTION_REFERENCE.equals(column.getSection())) {
+					CapillaryMeasure measure = capillaries.getReferenceMeasures().getMeasureById(column.getRow());
+					if (measure != null) {
+						measure.setLevelFromYValues(column.getDoubles());
+						measuresLoaded = true;
+					}
+					continue;
+				}
+				EnumResults measureType;
+				try {
+					measureType = EnumResults.valueOf(column.getSection());
+				} catch (IllegalArgumentException e) {
+					continue;
+				}
+				Capillary cap = capillaries.getCapillaryFromRoiNamePrefix(column.getRow());
+				if (cap == null) {
+					Logger.warn("CapillariesPersistence:loadMeasures() Capillary not found for prefix: "
+							+ column.getRow());
+					continue;
+				}
+				if (measureType == EnumResults.GULPS_FLAT) {
+					double[] heights = column.getDoubles();
+					cap.getGulps().clear();
+					cap.getGulps().ensureSize(heights.length);
+					System.arraycopy(heights, 0, cap.getGulps().getHeightSeries().ypoints, 0, heights.length);
+					measuresLoaded = true;
+					continue;
+				}
+				CapillaryMeasure measure = getLevelMeasure(cap, measureType);
+				if (measure != null) {
+					measure.setLevelFromYValues(column.getDoubles());
+					measuresLoaded = true;
+				}
+			}
+			return measuresLoaded;
 		}
 	}
 
-	private static void writeProvenanceHeaderComments(FileWriter csvWriter) throws IOException {
+	private static void writeProvenanceHeaderComments(Writer csvWriter) throws IOException {
 		csvWriter.write("# program=" + Experiment.programNameForExport() + "\n");
 		csvWriter.write("# multicafe_version=" + Experiment.multiCafeVersionForExport() + "\n");
 		csvWriter.write("# multitools_version=" + Experiment.multiToolsVersion() + "\n");
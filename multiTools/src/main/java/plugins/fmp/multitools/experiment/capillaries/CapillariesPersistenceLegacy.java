@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Path;
@@ -26,6 +27,7 @@ import plugins.fmp.multitools.experiment.capillary.Capillary;
 import plugins.fmp.multitools.experiment.capillary.CapillaryPersistence;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.ROI2D.AlongT;
+import plugins.fmp.multitools.tools.csv.CsvReader;
 import plugins.fmp.multitools.tools.results.EnumResults;
 import plugins.kernel.roi.roi2d.ROI2DShape;
 
@@ -476,6 +478,14 @@ public class CapillariesPersistenceLegacy {
 		}
 	}
 
+	/** Same as {@link #csvSkipSection(BufferedReader, String)} on the rows of {@code reader}. */
+	static void csvSkipSection(CsvReader reader) throws IOException {
+		while (reader.nextRow()) {
+			if (reader.size() > 0 && reader.cellEquals(0, "#"))
+				return;
+		}
+	}
+
 	static void csvLoad_ReferenceMeasures(Capillaries capillaries, BufferedReader csvReader, String sep)
 			throws IOException {
 		String row;
@@ -490,7 +500,19 @@ public class CapillariesPersistenceLegacy {
 		}
 	}
 
-	static void csvSave_ReferenceSection(Capillaries capillaries, FileWriter csvWriter, String csvSep)
+	/** Same as {@link #csvLoad_ReferenceMeasures(Capillaries, BufferedReader, String)} on the rows of {@code reader}. */
+	static void csvLoad_ReferenceMeasures(Capillaries capillaries, CsvReader reader) throws IOException {
+		ReferenceMeasures ref = capillaries.getReferenceMeasures();
+		while (reader.nextRow()) {
+			if (reader.size() > 0 && reader.cellEquals(0, "#"))
+				return;
+			if (reader.size() >= 2 && reader.get(0).startsWith("_ref_")) {
+				ref.csvImportRow(reader);
+			}
+		}
+	}
+
+	static void csvSave_ReferenceSection(Capillaries capillaries, Writer csvWriter, String csvSep)
 			throws IOException {
 		ReferenceMeasures ref = capillaries.getReferenceMeasures();
 		if (!ref.hasAnyData())
@@ -654,6 +676,51 @@ public class CapillariesPersistenceLegacy {
 		return null;
 	}
 
+	/**
+	 * Same as
+	 * {@link #csvLoad_Capillaries_Measures(Capillaries, BufferedReader, EnumResults, String, boolean)}
+	 * on the rows of {@code reader}, whose cells are parsed in place.
+	 */
+	static String csvLoad_Capillaries_Measures(Capillaries capillaries, CsvReader reader, EnumResults measureType,
+			boolean x) {
+		final boolean y = true;
+		int rowsProcessed = 0;
+		int rowsSkipped = 0;
+		try {
+			while (reader.nextRow()) {
+				if (reader.size() > 0 && reader.cellEquals(0, "#"))
+					return reader.size() > 1 ? reader.get(1) : null;
+
+				if (reader.size() < 1 || reader.cellEquals(0, "")) {
+					rowsSkipped++;
+					continue;
+				}
+
+				String prefix = reader.get(0);
+				Capillary cap = capillaries.getCapillaryFromRoiNamePrefix(prefix);
+				if (cap == null) {
+					String warnMsg = "CapillariesPersistenceLegacy:csvLoad_Capillaries_Measures() Capillary not found for prefix: "
+							+ prefix;
+					Logger.warn(warnMsg);
+					rowsSkipped++;
+					continue;
+				}
+
+				cap.csvImport_CapillaryData(measureType, reader, x, y);
+				rowsProcessed++;
+			}
+			String msg = "CapillariesPersistenceLegacy:csvLoad_Capillaries_Measures() " + measureType + " - processed: "
+					+ rowsProcessed + ", skipped: " + rowsSkipped;
+			Logger.info(msg);
+		} catch (IOException e) {
+			Logger.error("CapillariesPersistenceLegacy:csvLoad_Capillaries_Measures() Failed to read CSV file", e);
+		} catch (Exception e) {
+			Logger.error("CapillariesPersistenceLegacy:csvLoad_Capillaries_Measures() Error processing " + measureType,
+					e);
+		}
+		return null;
+	}
+
 	/**
 	 * Saves capillaries to legacy CSV format.
 	 */
@@ -685,7 +752,7 @@ public class CapillariesPersistenceLegacy {
 	/**
 	 * Saves description section to CSV.
 	 */
-	static void csvSave_DescriptionSection(Capillaries capillaries, FileWriter csvWriter, String csvSep)
+	static void csvSave_DescriptionSection(Capillaries capillaries, Writer csvWriter, String csvSep)
 			throws IOException {
 		csvWriter.append(capillaries.getCapillariesDescription().csvExportSectionHeader(csvSep));
 		csvWriter.append(capillaries.getCapillariesDescription().csvExportExperimentDescriptors(csvSep));
@@ -704,7 +771,7 @@ public class CapillariesPersistenceLegacy {
 		}
 	}
 
-	static void csvSave_AlongTSection(Capillaries capillaries, FileWriter csvWriter, String csvSep) throws IOException {
+	static void csvSave_AlongTSection(Capillaries capillaries, Writer csvWriter, String csvSep) throws IOException {
 		csvWriter.append("#" + csvSep + "ALONGT" + csvSep + "roi_name;start;roiType;npoints;x1;y1;...\n");
 		for (Capillary cap : capillaries.getList()) {
 			List<AlongT> list = cap.getAlongTList();
@@ -747,7 +814,7 @@ public class CapillariesPersistenceLegacy {
 	/**
 	 * Saves measures section to CSV.
 	 */
-	static boolean csvSave_MeasuresSection(Capillaries capillaries, FileWriter csvWriter,
+	static boolean csvSave_MeasuresSection(Capillaries capillaries, Writer csvWriter,
 			EnumResults measureType, String csvSep) {
 		try {
 			if (capillaries.getList().size() <= 1)
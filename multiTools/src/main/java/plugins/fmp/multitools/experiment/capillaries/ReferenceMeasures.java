@@ -1,6 +1,7 @@
 package plugins.fmp.multitools.experiment.capillaries;
 
 import plugins.fmp.multitools.experiment.capillary.CapillaryMeasure;
+import plugins.fmp.multitools.tools.csv.CsvRow;
 import plugins.fmp.multitools.tools.polyline.Level2D;
 
 public class ReferenceMeasures {
@@ -59,6 +60,24 @@ public class ReferenceMeasures {
 			derivativeThreshold.clear();
 	}
 
+	/** Row ids of the REFERENCE section, in file order. */
+	public static String[] getIds() {
+		return new String[] { ID_EVAPORATION, ID_EVAPORATION_L, ID_EVAPORATION_R, ID_THRESHOLD };
+	}
+
+	/** Measure stored under REFERENCE row {@code id}, or null for an unknown id. */
+	public CapillaryMeasure getMeasureById(String id) {
+		if (ID_EVAPORATION.equals(id))
+			return evaporation;
+		if (ID_EVAPORATION_L.equals(id))
+			return evaporationL;
+		if (ID_EVAPORATION_R.equals(id))
+			return evaporationR;
+		if (ID_THRESHOLD.equals(id))
+			return derivativeThreshold;
+		return null;
+	}
+
 	public void clear() {
 		evaporation.clear();
 		evaporationL.clear();
@@ -95,9 +114,13 @@ public class ReferenceMeasures {
 	}
 
 	public boolean csvImportRow(String[] data, String sep) {
-		if (data == null || data.length < 2)
+		return data != null && csvImportRow(CsvRow.of(data));
+	}
+
+	public boolean csvImportRow(CsvRow data) {
+		if (data == null || data.size() < 2)
 			return false;
-		String id = data[0];
+		String id = data.get(0);
 		if (ID_EVAPORATION.equals(id))
 			return evaporation.csvImportYDataFromRow(data, 2);
 		if (ID_EVAPORATION_L.equals(id))
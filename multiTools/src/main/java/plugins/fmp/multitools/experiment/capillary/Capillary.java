@@ -27,6 +27,7 @@ import plugins.fmp.multitools.tools.toExcel.enums.EnumXLSColumnHeader;
 import plugins.kernel.roi.roi2d.ROI2DLine;
 import plugins.kernel.roi.roi2d.ROI2DPolyLine;
 import plugins.fmp.multitools.tools.csv.CsvNumberParsing;
+import plugins.fmp.multitools.tools.csv.CsvRow;
 
 public class Capillary implements Comparable<Capillary> {
 
@@ -1420,6 +1421,10 @@ public class Capillary implements Comparable<Capillary> {
 		CapillaryPersistence.csvImportCapillaryData(this, measureType, data, x, y);
 	}
 
+	public void csvImport_CapillaryData(EnumResults measureType, CsvRow data, boolean x, boolean y) {
+		CapillaryPersistence.csvImportCapillaryData(this, measureType, data, x, y);
+	}
+
 	// -----------------------------------------------------------------------------
 
 	/**
@@ -12,7 +12,7 @@ import org.w3c.dom.Node;
 import icy.roi.ROI;
 import icy.roi.ROI2D;
 import icy.type.geom.Polyline2D;
-import plugins.fmp.multitools.tools.csv.CsvNumberParsing;
+import plugins.fmp.multitools.tools.csv.CsvRow;
 import icy.util.StringUtil;
 import icy.util.XMLUtil;
 import plugins.fmp.multitools.tools.polyline.Level2D;
@@ -267,16 +267,21 @@ public class CapillaryGulps {
 	}
 
 	public void csvImportDataFromRow(String[] data, int startAt) {
+		if (data != null)
+			csvImportDataFromRow(CsvRow.of(data), startAt);
+	}
+
+	public void csvImportDataFromRow(CsvRow data, int startAt) {
 		// Need at least one value at index startAt (npoints / ngulps)
-		if (data == null || data.length <= startAt)
+		if (data == null || data.size() <= startAt)
 			return;
 
 		clear();
-		int firstValue = (int) CsvNumberParsing.parseDouble(data[startAt]);
+		int firstValue = (int) data.getDouble(startAt);
 		int offset = startAt + 1;
 
 		// Check for legacy sparse format: "ngulps", "g0", ...
-		if (offset < data.length && data[offset].trim().startsWith("g")) {
+		if (offset < data.size() && data.get(offset).trim().startsWith("g")) {
 			int ngulps = firstValue;
 			for (int i = 0; i < ngulps; i++) {
 				offset = csvImportOneGulp(data, offset);
@@ -286,26 +291,26 @@ public class CapillaryGulps {
 			int npoints = firstValue;
 			ensureSize(npoints);
 			for (int i = 0; i < npoints; i++) {
-				if (offset >= data.length)
+				if (offset >= data.size())
 					break;
-				double val = CsvNumberParsing.parseDouble(data[offset]);
+				double val = data.getDouble(offset);
 				offset++;
 				gulpHeights.ypoints[i] = val;
 			}
 		}
 	}
 
-	private int csvImportOneGulp(String[] data, int offset) {
+	private int csvImportOneGulp(CsvRow data, int offset) {
 		offset++;
-		int npoints = (int) CsvNumberParsing.parseDouble(data[offset]);
+		int npoints = (int) data.getDouble(offset);
 		offset++;
 
 		int[] x = new int[npoints];
 		int[] y = new int[npoints];
 		for (int i = 0; i < npoints; i++) {
-			x[i] = (int) CsvNumberParsing.parseDouble(data[offset]);
+			x[i] = (int) data.getDouble(offset);
 			offset++;
-			y[i] = (int) CsvNumberParsing.parseDouble(data[offset]);
+			y[i] = (int) data.getDouble(offset);
 			offset++;
 		}
 		int xPixel = npoints > 0 ? x[0] : 0;
@@ -11,6 +11,7 @@ import icy.roi.ROI;
 import icy.type.geom.Polyline2D;
 import icy.util.StringUtil;
 import icy.util.XMLUtil;
+import plugins.fmp.multitools.tools.csv.CsvRow;
 import plugins.fmp.multitools.tools.polyline.Level2D;
 import plugins.kernel.roi.roi2d.ROI2DPolyLine;
 
@@ -420,18 +421,22 @@ public class CapillaryMeasure {
 	}
 
 	public boolean csvImportXYDataFromRow(String[] data, int startAt) {
-		if (data.length < startAt)
+		return csvImportXYDataFromRow(CsvRow.of(data), startAt);
+	}
+
+	public boolean csvImportXYDataFromRow(CsvRow data, int startAt) {
+		if (data.size() < startAt)
 			return false;
 
-		int npoints = Integer.valueOf(data[startAt]);
+		int npoints = data.getInt(startAt);
 		if (npoints > 0) {
 			double[] x = new double[npoints];
 			double[] y = new double[npoints];
 			int offset = startAt + 1;
 			for (int i = 0; i < npoints; i++) {
-				x[i] = Double.valueOf(data[offset]);
+				x[i] = data.getDouble(offset);
 				offset++;
-				y[i] = Double.valueOf(data[offset]);
+				y[i] = data.getDouble(offset);
 				offset++;
 			}
 			polylineLevel = new Level2D(x, y, npoints);
@@ -439,19 +444,33 @@ public class CapillaryMeasure {
 		return true;
 	}
 
+	/** Replaces the level by {@code y} sampled at x = 0..n-1 (same result as a y-only CSV row). */
+	public void setLevelFromYValues(double[] y) {
+		if (y == null || y.length == 0)
+			return;
+		double[] x = new double[y.length];
+		for (int i = 0; i < y.length; i++)
+			x[i] = i;
+		polylineLevel = new Level2D(x, y, y.length);
+	}
+
 	public boolean csvImportYDataFromRow(String[] data, int startAt) {
-		int len = data.length;
+		return csvImportYDataFromRow(CsvRow.of(data), startAt);
+	}
+
+	public boolean csvImportYDataFromRow(CsvRow data, int startAt) {
+		int len = data.size();
 		if (len <= startAt)
 			return false;
 
-		int npoints = Integer.valueOf(data[startAt]);
+		int npoints = data.getInt(startAt);
 		if (npoints > 0) {
 			double[] x = new double[npoints];
 			double[] y = new double[npoints];
 			int offset = startAt + 1;
 			for (int i = 0; i < npoints; i++) {
 				x[i] = i;
-				y[i] = Double.valueOf(data[offset]);
+				y[i] = data.getDouble(offset);
 				offset++;
 			}
 			polylineLevel = new Level2D(x, y, npoints);
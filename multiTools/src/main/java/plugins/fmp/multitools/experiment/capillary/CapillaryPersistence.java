@@ -17,6 +17,7 @@ import plugins.fmp.multitools.tools.ROI2D.AlongT;
 import plugins.fmp.multitools.tools.ROI2D.ROI2DUtilities;
 import plugins.fmp.multitools.tools.ROI2D.ROIPersistenceUtils;
 import plugins.fmp.multitools.tools.ROI2D.ROIType;
+import plugins.fmp.multitools.tools.csv.CsvRow;
 import plugins.fmp.multitools.tools.results.EnumResults;
 import plugins.kernel.roi.roi2d.ROI2DLine;
 import plugins.kernel.roi.roi2d.ROI2DPolyLine;
@@ -539,6 +540,12 @@ public class CapillaryPersistence {
 
 	public static void csvImportCapillaryData(Capillary cap, EnumResults measureType, String[] data,
 			boolean x, boolean y) {
+		csvImportCapillaryData(cap, measureType, CsvRow.of(data), x, y);
+	}
+
+	/** Same as {@link #csvImportCapillaryData(Capillary, EnumResults, String[], boolean, boolean)} on a reader row. */
+	public static void csvImportCapillaryData(Capillary cap, EnumResults measureType, CsvRow data, boolean x,
+			boolean y) {
 		try {
 			switch (measureType) {
 			case TOPRAW:
@@ -580,7 +587,7 @@ public class CapillaryPersistence {
 		} catch (Exception e) {
 			String capId = cap.getKymographPrefix() != null ? cap.getKymographPrefix() : "unknown";
 			String errorMsg = "CapillaryPersistence:csvImportCapillaryData() Error importing " + measureType
-					+ " for capillary " + capId + " (data.length=" + data.length + "): " + e.getMessage();
+					+ " for capillary " + capId + " (data.length=" + data.size() + "): " + e.getMessage();
 			Logger.error(errorMsg, e);
 			e.printStackTrace();
 		}
@@ -0,0 +1,541 @@
+package plugins.fmp.multitools.experiment.persistence;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.results.MeasureColumn;
+
+/**
+ * Binary companion of a measures CSV file ({@code SpotsMeasures.csv} is mirrored by
+ * {@code SpotsMeasures.mbin}): the same sections and rows, stored as little-endian primitive
+ * columns behind a small directory, so loading is a bulk read instead of a text parse.
+ * <p>
+ * Layout: a {@value #HEADER_BYTES}-byte header (magic, version, column count, reserved), one
+ * directory entry per column (section and row names as length-prefixed UTF-8, row index, element
+ * type, element count, data offset), then the column data, each column aligned on 8 bytes.
+ * <p>
+ * The CSV stays the reference: the binary file is always written after it and is read only when
+ * it is at least as recent ({@link #readIfCurrent}), so a CSV rewritten by an older version or
+ * edited by hand always wins.
+ * <p>
+ * {@link #readIndex} reads the directory alone; its columns fetch their samples from disk when
+ * asked, which lets large experiments open without holding every measure in memory.
+ */
+public final class MeasuresBinaryFile {
+
+	public static final String EXTENSION = ".mbin";
+
+	private static final int MAGIC = 0x4E49424D; // "MBIN"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 16;
+	private static final byte TYPE_DOUBLE = 0;
+	private static final byte TYPE_INT = 1;
+	private static final int WRITE_CHUNK = 1 << 16;
+	private static final int INDEX_PROBE_BYTES = 1 << 16;
+
+	/**
+	 * One row of one section: {@code double[]} or {@code int[]} samples, held in memory or, for a
+	 * file opened with {@link #readIndex}, read from disk on each {@link #readDoubles()} /
+	 * {@link #readInts()}.
+	 */
+	public static final class Column {
+		private final String section;
+		private final String row;
+		private final int index;
+		private final double[] doubles;
+		private final int[] ints;
+		private final LazySource source;
+		// location in the file (lazy columns), refreshed when the file is rewritten
+		private volatile byte type;
+		private volatile int length;
+		private volatile long offset;
+
+		private Column(String section, String row, int index, double[] doubles, int[] ints) {
+			this.section = section != null ? section : "";
+			this.row = row != null ? row : "";
+			this.index = index;
+			this.doubles = doubles;
+			this.ints = ints;
+			this.source = null;
+			this.type = ints != null ? TYPE_INT : TYPE_DOUBLE;
+			this.length = ints != null ? ints.length : doubles.length;
+		}
+
+		private Column(String section, String row, int index, byte type, int length, long offset,
+				LazySource source) {
+			this.section = section;
+			this.row = row;
+			this.index = index;
+			this.doubles = null;
+			this.ints = null;
+			this.source = source;
+			this.type = type;
+			this.length = length;
+			this.offset = offset;
+		}
+
+		public String getSection() {
+			return section;
+		}
+
+		public String getRow() {
+			return row;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public boolean isInt() {
+			return type == TYPE_INT;
+		}
+
+		/** Number of samples (known without reading a lazy column). */
+		public int size() {
+			return Math.max(0, length);
+		}
+
+		/** Samples as doubles (int columns are widened). */
+		public double[] getDoubles() {
+			if (doubles != null) {
+				return doubles;
+			}
+			if (ints == null) {
+				throw new IllegalStateException("lazy column, use readDoubles()");
+			}
+			double[] out = new double[ints.length];
+			for (int i = 0; i < ints.length; i++) {
+				out[i] = ints[i];
+			}
+			return out;
+		}
+
+		/** Samples as ints (double columns are truncated). */
+		public int[] getInts() {
+			if (ints != null) {
+				return ints;
+			}
+			if (doubles == null) {
+				throw new IllegalStateException("lazy column, use readInts()");
+			}
+			int[] out = new int[doubles.length];
+			for (int i = 0; i < doubles.length; i++) {
+				out[i] = (int) doubles[i];
+			}
+			return out;
+		}
+
+		/** Like {@link #getDoubles()}; a lazy column is read from its file (fresh array each call). */
+		public double[] readDoubles() throws IOException {
+			if (source == null) {
+				return getDoubles();
+			}
+			ByteBuffer data = source.read(this);
+			double[] out = new double[length];
+			if (type == TYPE_INT) {
+				for (int i = 0; i < out.length; i++) {
+					out[i] = data.getInt();
+				}
+			} else {
+				data.asDoubleBuffer().get(out);
+			}
+			return out;
+		}
+
+		/** Like {@link #getInts()}; a lazy column is read from its file (fresh array each call). */
+		public int[] readInts() throws IOException {
+			if (source == null) {
+				return getInts();
+			}
+			ByteBuffer data = source.read(this);
+			int[] out = new int[length];
+			if (type == TYPE_INT) {
+				data.asIntBuffer().get(out);
+			} else {
+				for (int i = 0; i < out.length; i++) {
+					out[i] = (int) data.getDouble();
+				}
+			}
+			return out;
+		}
+
+		private int length() {
+			return length;
+		}
+
+		private int elementBytes() {
+			return type == TYPE_INT ? 4 : 8;
+		}
+
+		private String key() {
+			return section + '\u0000' + row + '\u0000' + index;
+		}
+	}
+
+	/**
+	 * File behind the columns of {@link #readIndex}. Each read checks the file size and time: when
+	 * the file was rewritten (typically by the next save, which writes the same values), the
+	 * directory is read again and every column is relocated by section, row and index.
+	 */
+	private static final class LazySource {
+		private final Path file;
+		private final List<Column> columns = new ArrayList<Column>();
+		private long size;
+		private FileTime modified;
+
+		LazySource(Path file, long size, FileTime modified) {
+			this.file = file;
+			this.size = size;
+			this.modified = modified;
+		}
+
+		synchronized ByteBuffer read(Column column) throws IOException {
+			relocateIfChanged();
+			if (column.length < 0) {
+				throw new IOException(column.section + "/" + column.row + " is no longer in " + file);
+			}
+			ByteBuffer buf = ByteBuffer.allocate(column.length * column.elementBytes()).order(ByteOrder.LITTLE_ENDIAN);
+			try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+				long pos = column.offset;
+				while (buf.hasRemaining()) {
+					int n = ch.read(buf, pos);
+					if (n < 0) {
+						throw new IOException("unexpected end of " + file);
+					}
+					pos += n;
+				}
+			}
+			buf.flip();
+			return buf;
+		}
+
+		private void relocateIfChanged() throws IOException {
+			long currentSize = Files.size(file);
+			FileTime currentTime = Files.getLastModifiedTime(file);
+			if (currentSize == size && currentTime.equals(modified)) {
+				return;
+			}
+			MeasuresBinaryFile fresh = readIndex(file);
+			Map<String, Column> byKey = new HashMap<String, Column>();
+			for (Column c : fresh.columns) {
+				byKey.put(c.key(), c);
+			}
+			for (Column c : columns) {
+				Column moved = byKey.get(c.key());
+				if (moved == null) {
+					c.length = -1;
+				} else {
+					c.type = moved.type;
+					c.length = moved.length;
+					c.offset = moved.offset;
+				}
+			}
+			size = currentSize;
+			modified = currentTime;
+		}
+	}
+
+	private final List<Column> columns = new ArrayList<Column>();
+
+	public List<Column> getColumns() {
+		return Collections.unmodifiableList(columns);
+	}
+
+	public void addDoubles(String section, String row, int index, double[] values, int count) {
+		if (values == null || count <= 0) {
+			return;
+		}
+		double[] v = count == values.length ? values : Arrays.copyOf(values, count);
+		columns.add(new Column(section, row, index, v, null));
+	}
+
+	public void addDoubles(String section, String row, int index, MeasureColumn values) {
+		if (values == null || values.size() == 0) {
+			return;
+		}
+		double[] raw = values.doublesOrNull();
+		columns.add(new Column(section, row, index, raw != null ? raw : values.toDoubleArray(), null));
+	}
+
+	public void addInts(String section, String row, int index, int[] values) {
+		if (values == null || values.length == 0) {
+			return;
+		}
+		columns.add(new Column(section, row, index, null, values));
+	}
+
+	// ------------------------------------------------------------------------
+
+	/** {@code SpotsMeasures.csv} -> {@code SpotsMeasures.mbin} in the same directory. */
+	public static Path siblingOf(Path csvPath) {
+		String name = csvPath.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		String base = dot > 0 ? name.substring(0, dot) : name;
+		return csvPath.resolveSibling(base + EXTENSION);
+	}
+
+	/**
+	 * Reads the binary sibling of {@code csvPath} when it exists and is not older than the CSV;
+	 * null otherwise (or when it cannot be read), in which case the caller parses the CSV.
+	 */
+	public static MeasuresBinaryFile readIfCurrent(Path csvPath) {
+		Path bin = siblingOf(csvPath);
+		if (!isCurrent(csvPath, bin)) {
+			return null;
+		}
+		try {
+			return read(bin);
+		} catch (IOException e) {
+			Logger.warn("MeasuresBinaryFile: ignoring " + bin + " (" + e.getMessage() + "), using CSV");
+			return null;
+		}
+	}
+
+	private static boolean isCurrent(Path csvPath, Path bin) {
+		if (!Files.isRegularFile(bin)) {
+			return false;
+		}
+		try {
+			FileTime binTime = Files.getLastModifiedTime(bin);
+			return !Files.exists(csvPath) || binTime.compareTo(Files.getLastModifiedTime(csvPath)) >= 0;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/** Writes this file next to {@code csvPath}; failures are logged (the CSV remains valid). */
+	public boolean writeNextTo(Path csvPath) {
+		Path bin = siblingOf(csvPath);
+		try {
+			write(bin);
+			return true;
+		} catch (IOException e) {
+			Logger.warn("MeasuresBinaryFile: could not write " + bin + " : " + e.getMessage());
+			return false;
+		}
+	}
+
+	public static MeasuresBinaryFile read(Path file) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+				throw new IOException("unexpected size " + size);
+			}
+			// heap copy, not a mapping: a mapped file cannot be replaced on Windows until the
+			// buffer is garbage collected, which would break the next save
+			ByteBuffer whole = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+			long pos = 0;
+			while (whole.hasRemaining()) {
+				int n = ch.read(whole, pos);
+				if (n < 0) {
+					throw new IOException("unexpected end of " + file);
+				}
+				pos += n;
+			}
+			whole.flip();
+			MeasuresBinaryFile result = new MeasuresBinaryFile();
+			for (Column entry : readDirectory(whole, size, null)) {
+				ByteBuffer data = whole.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+				data.position((int) entry.offset);
+				if (entry.isInt()) {
+					int[] v = new int[entry.length];
+					data.asIntBuffer().get(v);
+					result.columns.add(new Column(entry.section, entry.row, entry.index, null, v));
+				} else {
+					double[] v = new double[entry.length];
+					data.asDoubleBuffer().get(v);
+					result.columns.add(new Column(entry.section, entry.row, entry.index, v, null));
+				}
+			}
+			return result;
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("truncated measures binary file " + file, e);
+		}
+	}
+
+	/**
+	 * Reads only the directory of {@code file}; samples are read on demand with positional reads
+	 * ({@link Column#readDoubles()}), without keeping the file open or mapped so that the next save
+	 * can replace it.
+	 */
+	public static MeasuresBinaryFile readIndex(Path file) throws IOException {
+		FileTime modified = Files.getLastModifiedTime(file);
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+				throw new IOException("unexpected size " + size);
+			}
+			LazySource source = new LazySource(file, size, modified);
+			// the directory length is only known once parsed: grow the buffer until it fits
+			int probe = (int) Math.min(size, INDEX_PROBE_BYTES);
+			while (true) {
+				ByteBuffer head = ByteBuffer.allocate(probe).order(ByteOrder.LITTLE_ENDIAN);
+				long pos = 0;
+				while (head.hasRemaining()) {
+					int n = ch.read(head, pos);
+					if (n < 0) {
+						break;
+					}
+					pos += n;
+				}
+				head.flip();
+				try {
+					MeasuresBinaryFile result = new MeasuresBinaryFile();
+					result.columns.addAll(readDirectory(head, size, source));
+					source.columns.addAll(result.columns);
+					return result;
+				} catch (BufferUnderflowException e) {
+					if (probe >= size) {
+						throw new IOException("truncated measures binary file " + file, e);
+					}
+					probe = (int) Math.min(size, (long) probe * 2);
+				}
+			}
+		}
+	}
+
+	/** {@link #readIndex} of the binary sibling of {@code csvPath}, under the rules of {@link #readIfCurrent}. */
+	public static MeasuresBinaryFile readIndexIfCurrent(Path csvPath) {
+		Path bin = siblingOf(csvPath);
+		if (!isCurrent(csvPath, bin)) {
+			return null;
+		}
+		try {
+			return readIndex(bin);
+		} catch (IOException e) {
+			Logger.warn("MeasuresBinaryFile: ignoring " + bin + " (" + e.getMessage() + "), using CSV");
+			return null;
+		}
+	}
+
+	private static List<Column> readDirectory(ByteBuffer buf, long size, LazySource source) throws IOException {
+		if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+			throw new IOException("not a measures binary file");
+		}
+		int n = buf.getInt();
+		buf.getInt();
+		List<Column> entries = new ArrayList<Column>(Math.max(0, n));
+		for (int i = 0; i < n; i++) {
+			String section = readString(buf);
+			String row = readString(buf);
+			int index = buf.getInt();
+			byte type = buf.get();
+			int length = buf.getInt();
+			long offset = buf.getLong();
+			int elementBytes = type == TYPE_INT ? 4 : 8;
+			if (length < 0 || offset < 0 || offset + (long) length * elementBytes > size) {
+				throw new IOException("column " + i + " out of bounds");
+			}
+			entries.add(new Column(section, row, index, type, length, offset, source));
+		}
+		return entries;
+	}
+
+	/** Writes the file (temp file, then replace). */
+	public void write(Path file) throws IOException {
+		byte[][] sections = new byte[columns.size()][];
+		byte[][] rows = new byte[columns.size()][];
+		long directoryBytes = 0;
+		for (int i = 0; i < columns.size(); i++) {
+			if (columns.get(i).source != null) {
+				throw new IllegalStateException("columns of readIndex() cannot be written");
+			}
+			sections[i] = columns.get(i).section.getBytes(StandardCharsets.UTF_8);
+			rows[i] = columns.get(i).row.getBytes(StandardCharsets.UTF_8);
+			directoryBytes += 2 + sections[i].length + 2 + rows[i].length + 4 + 1 + 4 + 8;
+		}
+		long dataStart = align8(HEADER_BYTES + directoryBytes);
+
+		ByteBuffer head = ByteBuffer.allocate((int) dataStart).order(ByteOrder.LITTLE_ENDIAN);
+		head.putInt(MAGIC).putInt(VERSION).putInt(columns.size()).putInt(0);
+		long offset = dataStart;
+		for (int i = 0; i < columns.size(); i++) {
+			Column column = columns.get(i);
+			putString(head, sections[i]);
+			putString(head, rows[i]);
+			head.putInt(column.index);
+			head.put(column.isInt() ? TYPE_INT : TYPE_DOUBLE);
+			head.putInt(column.length());
+			head.putLong(offset);
+			offset = align8(offset + (long) column.length() * column.elementBytes());
+		}
+		head.position(0);
+
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(ch, head);
+			ByteBuffer chunk = ByteBuffer.allocate(WRITE_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+			for (Column column : columns) {
+				for (int i = 0; i < column.length(); i++) {
+					if (chunk.remaining() < 8) {
+						chunk.flip();
+						writeFully(ch, chunk);
+						chunk.clear();
+					}
+					if (column.ints != null) {
+						chunk.putInt(column.ints[i]);
+					} else {
+						chunk.putDouble(column.doubles[i]);
+					}
+				}
+				if (column.isInt() && (column.length() & 1) != 0) {
+					// keep the next column 8-byte aligned
+					if (chunk.remaining() < 4) {
+						chunk.flip();
+						writeFully(ch, chunk);
+						chunk.clear();
+					}
+					chunk.putInt(0);
+				}
+			}
+			chunk.flip();
+			writeFully(ch, chunk);
+		}
+		try {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			// e.g. Windows while a previous read is still mapped: the old file stays older than the CSV
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+	}
+
+	private static long align8(long v) {
+		return (v + 7) & ~7L;
+	}
+
+	private static void putString(ByteBuffer buf, byte[] utf8) {
+		buf.putShort((short) utf8.length);
+		buf.put(utf8);
+	}
+
+	private static String readString(ByteBuffer buf) {
+		int len = buf.getShort() & 0xFFFF;
+		byte[] b = new byte[len];
+		buf.get(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			ch.write(buf);
+		}
+	}
+}
@@ -12,6 +12,7 @@ import plugins.fmp.multitools.tools.Logger;
 public class FileNameTimePattern {
 
 	public DateFormat dateFormat = null;
+	public String dateFormatString = null;
 	public String patternString = null;
 	public Pattern patternCompiled = null;
 
@@ -20,6 +21,7 @@ public class FileNameTimePattern {
 	FileNameTimePattern(String dateFormatString, String patternString) {
 
 		this.dateFormat = new SimpleDateFormat(dateFormatString);
+		this.dateFormatString = dateFormatString;
 		this.patternString = patternString;
 		patternCompiled = Pattern.compile(patternString);
 	}
@@ -28,12 +30,16 @@ public class FileNameTimePattern {
 
 	}
 
-	long getTimeFromString(String fileName, int t) {
+	/**
+	 * Time written in {@code fileName}, or {@link FrameTimestampIndex#MISSING} when it does not match
+	 * this pattern or cannot be parsed.
+	 */
+	long parseTime(String fileName) {
 
 		if (dateFormat == null)
-			return getDummyTime(t);
+			return FrameTimestampIndex.MISSING;
 
-		long timeInMs = 0;
+		long timeInMs = FrameTimestampIndex.MISSING;
 		Matcher m = patternCompiled.matcher(fileName);
 		if (m.find()) {
 			try {
@@ -41,17 +47,20 @@ public class FileNameTimePattern {
 				timeInMs = date.getTime();
 			} catch (ParseException e) {
 				e.printStackTrace();
-				Logger.error("FileNamePatterns:getTimeFromString() Error parsing filename: " + fileName);
-				timeInMs = getDummyTime(t);
+				Logger.error("FileNamePatterns:parseTime() Error parsing filename: " + fileName);
 			}
 
 		} else {
-			Logger.error("FileNamePatterns:getTimeFromString() Error finding time in filename: " + fileName);
-			timeInMs = getDummyTime(t);
+			Logger.error("FileNamePatterns:parseTime() Error finding time in filename: " + fileName);
 		}
 		return timeInMs;
 	}
 
+	/** Identifies this pattern in {@link FrameTimestampIndex} records read from file names. */
+	String getKey() {
+		return dateFormatString != null ? dateFormatString : "";
+	}
+
 	public boolean findMatch(String fileName) {
 		Matcher m = patternCompiled.matcher(fileName);
 		return m.find();
@@ -0,0 +1,238 @@
+package plugins.fmp.multitools.experiment.sequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import plugins.fmp.multitools.tools.Logger;
+
+/**
+ * Epoch time of each camera frame as resolved once by {@link TimeManager} (file name pattern,
+ * file attributes or EXIF), persisted under {@code results/FrameTimestamps.bin} so that opening
+ * an experiment again does not re-parse every name or metadata block.
+ * <p>
+ * Records are keyed by a 64-bit hash of the frame file name and by the time source; a time read
+ * from the name is also keyed by the name pattern that parsed it, and stays valid as long as the
+ * name is listed and read with that pattern. A time read from the file itself
+ * also stores the file size and modification time and is dropped when they change. Frames added
+ * to the stack are simply missing from the index: only they are resolved again.
+ * <p>
+ * Layout (little endian): magic, version, record count, then per record name hash (long),
+ * pattern hash (long), size (long), mtime (long), epoch ms (long) and source (byte).
+ */
+public final class FrameTimestampIndex {
+
+	public static final String FILENAME = "FrameTimestamps.bin";
+
+	public static final byte SOURCE_NAME = 1;
+	public static final byte SOURCE_ATTRIBUTES = 2;
+	public static final byte SOURCE_EXIF = 3;
+
+	/** Returned by {@link #lookup} when the frame has no valid record. */
+	public static final long MISSING = Long.MIN_VALUE;
+
+	private static final int MAGIC = 0x58495446; // "FTIX"
+	private static final int VERSION = 2;
+	private static final int HEADER_BYTES = 12;
+	private static final int RECORD_BYTES = 5 * 8 + 1;
+
+	private long[] nameHash = new long[64];
+	private long[] patternHash = new long[64];
+	private long[] size = new long[64];
+	private long[] mtime = new long[64];
+	private long[] epochMs = new long[64];
+	private byte[] source = new byte[64];
+	private int count = 0;
+	private final HashMap<Long, Integer> slots = new HashMap<Long, Integer>();
+	private boolean dirty = false;
+
+	public synchronized int size() {
+		return count;
+	}
+
+	public synchronized boolean isDirty() {
+		return dirty;
+	}
+
+	/** {@link #lookup(String, byte, String)} for a time read from the file itself. */
+	public long lookup(String path, byte from) {
+		return lookup(path, from, null);
+	}
+
+	/**
+	 * Epoch time recorded for frame {@code path} from {@code from} with name pattern {@code pattern},
+	 * or {@link #MISSING} when there is none or when the file changed since.
+	 */
+	public synchronized long lookup(String path, byte from, String pattern) {
+		if (path == null) {
+			return MISSING;
+		}
+		long hash = hashName(path);
+		long patternKey = hashPattern(pattern);
+		Integer slot = slots.get(slotKey(hash, from, patternKey));
+		if (slot == null || nameHash[slot] != hash || patternHash[slot] != patternKey || source[slot] != from) {
+			return MISSING;
+		}
+		if (from != SOURCE_NAME) {
+			File file = new File(path);
+			if (file.length() != size[slot] || file.lastModified() != mtime[slot]) {
+				return MISSING;
+			}
+		}
+		return epochMs[slot];
+	}
+
+	/** {@link #record(String, byte, String, long)} for a time read from the file itself. */
+	public void record(String path, byte from, long timeMs) {
+		record(path, from, null, timeMs);
+	}
+
+	public synchronized void record(String path, byte from, String pattern, long timeMs) {
+		if (path == null) {
+			return;
+		}
+		long hash = hashName(path);
+		long patternKey = hashPattern(pattern);
+		long fileSize = 0;
+		long fileMtime = 0;
+		if (from != SOURCE_NAME) {
+			File file = new File(path);
+			fileSize = file.length();
+			fileMtime = file.lastModified();
+		}
+		Long key = slotKey(hash, from, patternKey);
+		Integer slot = slots.get(key);
+		if (slot == null) {
+			ensureCapacity(count + 1);
+			slot = count++;
+			slots.put(key, slot);
+		}
+		nameHash[slot] = hash;
+		patternHash[slot] = patternKey;
+		size[slot] = fileSize;
+		mtime[slot] = fileMtime;
+		epochMs[slot] = timeMs;
+		source[slot] = from;
+		dirty = true;
+	}
+
+	public static FrameTimestampIndex load(Path file) {
+		FrameTimestampIndex index = new FrameTimestampIndex();
+		if (file == null || !Files.isRegularFile(file)) {
+			return index;
+		}
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			long bytes = ch.size();
+			if (bytes < HEADER_BYTES || bytes > Integer.MAX_VALUE) {
+				return index;
+			}
+			ByteBuffer buf = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+			while (buf.hasRemaining() && ch.read(buf) >= 0) {
+				// read fully
+			}
+			buf.flip();
+			if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+				Logger.warn("FrameTimestampIndex: ignoring " + file + " (unknown format)");
+				return index;
+			}
+			int n = buf.getInt();
+			if (n < 0 || (long) n * RECORD_BYTES > buf.remaining()) {
+				Logger.warn("FrameTimestampIndex: ignoring truncated " + file);
+				return index;
+			}
+			index.ensureCapacity(n);
+			for (int i = 0; i < n; i++) {
+				index.nameHash[i] = buf.getLong();
+				index.patternHash[i] = buf.getLong();
+				index.size[i] = buf.getLong();
+				index.mtime[i] = buf.getLong();
+				index.epochMs[i] = buf.getLong();
+				index.source[i] = buf.get();
+				index.slots.put(slotKey(index.nameHash[i], index.source[i], index.patternHash[i]), i);
+			}
+			index.count = n;
+		} catch (IOException e) {
+			Logger.warn("FrameTimestampIndex: cannot read " + file + ": " + e.getMessage());
+		}
+		return index;
+	}
+
+	/** Writes the index if it changed since it was loaded or last saved. */
+	public synchronized boolean save(Path file) {
+		if (!dirty || file == null) {
+			return false;
+		}
+		ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + count * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buf.putInt(MAGIC).putInt(VERSION).putInt(count);
+		for (int i = 0; i < count; i++) {
+			buf.putLong(nameHash[i]).putLong(patternHash[i]).putLong(size[i]).putLong(mtime[i]).putLong(epochMs[i]).put(source[i]);
+		}
+		buf.flip();
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			Files.createDirectories(file.getParent());
+			try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (buf.hasRemaining()) {
+					ch.write(buf);
+				}
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			dirty = false;
+			return true;
+		} catch (IOException e) {
+			Logger.warn("FrameTimestampIndex: cannot write " + file + ": " + e.getMessage());
+			try {
+				Files.deleteIfExists(tmp);
+			} catch (IOException ignored) {
+				// nothing left to clean
+			}
+			return false;
+		}
+	}
+
+	private void ensureCapacity(int n) {
+		if (n <= nameHash.length) {
+			return;
+		}
+		int capacity = Math.max(n, nameHash.length * 2);
+		nameHash = Arrays.copyOf(nameHash, capacity);
+		patternHash = Arrays.copyOf(patternHash, capacity);
+		size = Arrays.copyOf(size, capacity);
+		mtime = Arrays.copyOf(mtime, capacity);
+		epochMs = Arrays.copyOf(epochMs, capacity);
+		source = Arrays.copyOf(source, capacity);
+	}
+
+	private static Long slotKey(long hash, byte from, long pattern) {
+		return (hash * 31 + from) * 31 + pattern;
+	}
+
+	/** 64-bit FNV-1a of the file name component of {@code path}. */
+	static long hashName(String path) {
+		int start = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1;
+		return fnv1a64(path.substring(start));
+	}
+
+	private static long hashPattern(String pattern) {
+		return pattern != null ? fnv1a64(pattern) : 0L;
+	}
+
+	private static long fnv1a64(String text) {
+		long h = 0xcbf29ce484222325L;
+		for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+			h ^= b & 0xFF;
+			h *= 0x100000001b3L;
+		}
+		return h;
+	}
+}
@@ -1,7 +1,6 @@
 package plugins.fmp.multitools.experiment.sequence;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
+import java.awt.Rectangle;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -11,14 +10,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
 import icy.file.Loader;
 import icy.file.SequenceFileImporter;
 import icy.image.IcyBufferedImage;
 import icy.sequence.Sequence;
 import icy.sequence.SequenceUtil;
+import plugins.fmp.multitools.tools.DecodedFrameCache;
 import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.registration.FrameTransformTable;
 
 public class ImageLoader {
 
@@ -110,18 +109,8 @@ public class ImageLoader {
 		getNTotalFrames();
 		List<String> validList = filterLikelyReadableJpegs(getImagesList(true));
 		nTotalFrames = validList.size();
-		Sequence seq;
-		if (needsIndependentFrameLoadForMixedTiffExtensions(validList)) {
-			seq = loadSequenceFromIndependentFilesConcatT(validList);
-		} else {
-			seq = loadSequenceFromImagesList(validList);
-		}
-		if (seq != null) {
-			// Sequence is already in beginUpdate() mode from loadSequenceFromImagesList()
-			seqCamData.attachSequence(seq);
-			// Note: endUpdate() will be called after our viewer is created in updateViewerForSequenceCam()
-		}
-		return (seq != null);
+		// Note: endUpdate() will be called after our viewer is created in updateViewerForSequenceCam()
+		return attachStack(validList, seqCamData);
 	}
 
 	public boolean loadFirstImage(SequenceCamData seqCamData) {
@@ -152,16 +141,34 @@ public class ImageLoader {
 
 		List<String> validList = filterLikelyReadableJpegs(getImagesList(true));
 		nTotalFrames = validList.size();
-		Sequence seq;
+		attachStack(validList, seqCamData);
+	}
+
+	/**
+	 * Loads the valid frames into a sequence attached to {@code seqCamData}: a
+	 * {@link VirtualCamStack} for large JPEG stacks, otherwise the whole stack in memory.
+	 */
+	private boolean attachStack(List<String> validList, SequenceCamData seqCamData) {
 		if (needsIndependentFrameLoadForMixedTiffExtensions(validList)) {
-			seq = loadSequenceFromIndependentFilesConcatT(validList);
-		} else {
-			seq = loadSequenceFromImagesList(validList);
+			Sequence seq = loadSequenceFromIndependentFilesConcatT(validList);
+			if (seq != null) {
+				seqCamData.attachSequence(seq);
+			}
+			return seq != null;
 		}
+		if (seqCamData.supportsVirtualStack()) {
+			VirtualCamStack stack = VirtualCamStack.openIfLarge(this, validList, getFileName());
+			if (stack != null) {
+				seqCamData.attachVirtualStack(stack);
+				return true;
+			}
+		}
+		Sequence seq = loadSequenceFromImagesList(validList);
 		if (seq != null) {
 			// Sequence is already in beginUpdate() mode from loadSequenceFromImagesList()
 			seqCamData.attachSequence(seq);
 		}
+		return seq != null;
 	}
 
 	/**
@@ -297,16 +304,32 @@ public class ImageLoader {
 	}
 
 	public IcyBufferedImage imageIORead(String name) {
-		BufferedImage image = null;
 		try {
-			image = ImageIO.read(new File(name));
-			return IcyBufferedImage.createFrom(image);
+			return FrameTransformTable.applyTo(name, DecodedFrameCache.shared().read(name));
 		} catch (IOException e) {
 			Logger.error("Failed to read image: " + name + " - " + e.getMessage());
 			return null;
 		}
 	}
 
+	/**
+	 * Part of frame {@code name} inside {@code region}, one pixel in {@code subsampling} along x
+	 * and y; see {@link DecodedFrameCache#readRegion}. Corrected frames are read whole.
+	 */
+	public IcyBufferedImage imageIOReadRegion(String name, Rectangle region, int subsampling) {
+		try {
+			if (FrameTransformTable.hasTransform(name)) {
+				return DecodedFrameCache.subImage(
+						FrameTransformTable.applyTo(name, DecodedFrameCache.shared().readStreaming(name)), region,
+						subsampling);
+			}
+			return DecodedFrameCache.shared().readRegion(name, region, subsampling);
+		} catch (IOException e) {
+			Logger.error("Failed to read image region: " + name + " - " + e.getMessage());
+			return null;
+		}
+	}
+
 	/**
 	 * Loads a sequence from an image list. Single responsibility: load only; does not
 	 * close viewers (caller or displayON handles viewer lifecycle; matches xMultiCAFE0).
@@ -56,6 +56,8 @@ public class SequenceCamData implements AutoCloseable {
 	private volatile boolean closed = false;
 
 	private Sequence seq = null;
+	/** Set when {@link #seq} is a {@link VirtualCamStack} (frames decoded on demand). */
+	private VirtualCamStack virtualStack = null;
 	private EnumStatus status = EnumStatus.REGULAR;
 	private int currentFrame = 0;
 	private IcyBufferedImage referenceImage = null;
@@ -219,6 +221,9 @@ public class SequenceCamData implements AutoCloseable {
 		lock.lock();
 		try {
 			currentFrame = t;
+			if (virtualStack != null) {
+				return virtualStack.getImage(t);
+			}
 			return seq.getImage(t, z);
 		} catch (Exception e) {
 			Logger.warn("Failed to get image at t=" + t + ", z=" + z, e);
@@ -696,6 +701,7 @@ public class SequenceCamData implements AutoCloseable {
 				}
 			}
 
+			closeVirtualStack();
 			this.seq = sequence;
 			this.status = EnumStatus.FILESTACK;
 		} finally {
@@ -703,6 +709,41 @@ public class SequenceCamData implements AutoCloseable {
 		}
 	}
 
+	/** Attaches the sequence of {@code stack}, whose frames are then decoded on demand. */
+	public void attachVirtualStack(VirtualCamStack stack) {
+		attachSequence(stack.getSequence());
+		lock.lock();
+		try {
+			this.virtualStack = stack;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean isVirtualStack() {
+		return virtualStack != null;
+	}
+
+	/** Keeps the pixels of a virtual stack in step with the frame shown by the viewer. */
+	public void onViewerFrameChanged(int t) {
+		VirtualCamStack stack = virtualStack;
+		if (stack != null) {
+			stack.showFrame(t);
+		}
+	}
+
+	/** Whether {@link ImageLoader} may open large stacks as a {@link VirtualCamStack}. */
+	protected boolean supportsVirtualStack() {
+		return true;
+	}
+
+	private void closeVirtualStack() {
+		if (virtualStack != null) {
+			virtualStack.close();
+			virtualStack = null;
+		}
+	}
+
 	/**
 	 * Closes the sequence and cleans up resources.
 	 */
@@ -724,6 +765,7 @@ public class SequenceCamData implements AutoCloseable {
 				seq.close();
 				seq = null;
 			}
+			closeVirtualStack();
 		} finally {
 			lock.unlock();
 		}
@@ -758,6 +800,9 @@ public class SequenceCamData implements AutoCloseable {
 	}
 
 	public void setSequence(Sequence seq) {
+		if (seq != this.seq) {
+			closeVirtualStack();
+		}
 		this.seq = seq;
 	}
 
@@ -126,6 +126,12 @@ public class SequenceKymos extends SequenceCamData {
 		return new Builder();
 	}
 
+	/** Kymographs are edited per frame (ROIs, pixel release), so they always load in memory. */
+	@Override
+	protected boolean supportsVirtualStack() {
+		return false;
+	}
+
 	// === KYMOGRAPH OPERATIONS ===
 
 	/**
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.util.Date;
@@ -37,6 +38,12 @@ public class TimeManager {
 
 	private long deltaImage;
 
+	/** Where {@link FrameTimestampIndex} is persisted; defaults to the results folder of the images. */
+	private String timestampIndexDirectory = null;
+	private FrameTimestampIndex timestampIndex = null;
+	private Path timestampIndexFile = null;
+	private boolean timestampIndexResolved = false;
+
 	private FileNameTimePattern[] timePatternArray = new FileNameTimePattern[] { new FileNameTimePattern(),
 			new FileNameTimePattern("yyyy-MM-dd_HH-mm-ss", "\\d{4}-\\d{2}-\\d{2}_\\d{2}\\-\\d{2}\\-\\d{2}"),
 			new FileNameTimePattern("yy-MM-dd_HH-mm-ss", "\\d{2}-\\d{2}-\\d{2}_\\d{2}\\-\\d{2}\\-\\d{2}"),
@@ -47,9 +54,12 @@ public class TimeManager {
 
 	public FileTime getFileTimeFromStructuredName(ImageLoader imageLoader, int t) {
 		long timeInMs = 0;
-		String fileName = fileComponent(imageLoader.getFileNameFromImageList(t));
+		String path = imageLoader.getFileNameFromImageList(t);
+		String fileName = fileComponent(path);
 		int nFrames = (imageLoader != null) ? imageLoader.getNTotalFrames() : 0;
 
+		FrameTimestampIndex index = getTimestampIndex(imageLoader);
+
 		// Debug flags to understand which timing source is used per frame.
 		boolean usedPattern = false;
 		boolean usedAttributes = false;
@@ -70,8 +80,19 @@ public class TimeManager {
 
 			if (patternToUse >= 1) {
 				FileNameTimePattern tp = timePatternArray[patternToUse];
-				timeInMs = tp.getTimeFromString(fileName, t);
-				usedPattern = true;
+				// a time read with another pattern is not reused
+				long indexed = index.lookup(path, FrameTimestampIndex.SOURCE_NAME, tp.getKey());
+				if (indexed != FrameTimestampIndex.MISSING)
+					return FileTime.fromMillis(indexed);
+				timeInMs = tp.parseTime(fileName);
+				if (timeInMs != FrameTimestampIndex.MISSING) {
+					usedPattern = true;
+					index.record(path, FrameTimestampIndex.SOURCE_NAME, tp.getKey(), timeInMs);
+				} else {
+					// dummy times are not recorded: they depend on when the stack was opened
+					timeInMs = tp.getDummyTime(t);
+					usedDummy = true;
+				}
 			} else {
 				// Fallback: try file attributes; if not available, use dummy time.
 				FileTime ft = getFileTimeFromFileAttributes(imageLoader, t);
@@ -109,6 +130,10 @@ public class TimeManager {
 			}
 			return null;
 		}
+		FrameTimestampIndex index = getTimestampIndex(imageLoader);
+		long indexed = index.lookup(filename, FrameTimestampIndex.SOURCE_ATTRIBUTES);
+		if (indexed != FrameTimestampIndex.MISSING)
+			return FileTime.fromMillis(indexed);
 
 		FileTime filetime = null;
 		try {
@@ -119,6 +144,7 @@ public class TimeManager {
 			if ((milliseconds > Long.MIN_VALUE) && (milliseconds < Long.MAX_VALUE)) {
 				Date creationDate = new Date(attributes.creationTime().to(TimeUnit.MILLISECONDS));
 				filetime = FileTime.fromMillis(creationDate.getTime());
+				index.record(filename, FrameTimestampIndex.SOURCE_ATTRIBUTES, filetime.toMillis());
 			}
 		} catch (IOException e) {
 			Logger.warn("Failed to get file attributes: " + e.getMessage());
@@ -134,6 +160,10 @@ public class TimeManager {
 			}
 			return null;
 		}
+		FrameTimestampIndex index = getTimestampIndex(imageLoader);
+		long indexed = index.lookup(filename, FrameTimestampIndex.SOURCE_EXIF);
+		if (indexed != FrameTimestampIndex.MISSING)
+			return FileTime.fromMillis(indexed);
 
 		FileTime filetime = null;
 		try {
@@ -144,6 +174,7 @@ public class TimeManager {
 			if (directory != null && directory.containsTag(ExifSubIFDDirectory.TAG_DATETIME_ORIGINAL)) {
 				Date date = directory.getDate(ExifSubIFDDirectory.TAG_DATETIME_ORIGINAL);
 				filetime = FileTime.fromMillis(date.getTime());
+				index.record(filename, FrameTimestampIndex.SOURCE_EXIF, filetime.toMillis());
 			} else {
 				Logger.warn("EXIF data not found in file: " + filename);
 			}
@@ -169,6 +200,59 @@ public class TimeManager {
 			long image_ms = image_FileTime.toMillis() - firstImage_ms;
 			camImages_time_ms[i] = image_ms;
 		}
+		saveTimestampIndex();
+	}
+
+	/**
+	 * Persists frame times into {@code directory} (the experiment results folder) from now on; the
+	 * index already there is used for lookups.
+	 */
+	public synchronized void setTimestampIndexDirectory(String directory) {
+		timestampIndexDirectory = directory;
+		timestampIndexResolved = false;
+	}
+
+	/**
+	 * Writes the frame times resolved since the index was loaded, into the directory set last; no-op
+	 * when nothing changed or no directory is known.
+	 */
+	public boolean saveTimestampIndex() {
+		FrameTimestampIndex index;
+		Path file;
+		synchronized (this) {
+			if (timestampIndex == null)
+				return false;
+			index = getTimestampIndex(null);
+			file = timestampIndexFile;
+		}
+		return index != null && file != null && index.save(file);
+	}
+
+	private synchronized FrameTimestampIndex getTimestampIndex(ImageLoader imageLoader) {
+		if (timestampIndex != null && timestampIndexResolved)
+			return timestampIndex;
+		Path file = resolveTimestampIndexFile(imageLoader);
+		timestampIndexResolved = true;
+		if (timestampIndex == null || (file != null && !file.equals(timestampIndexFile))) {
+			if (timestampIndex != null && timestampIndexFile != null)
+				timestampIndex.save(timestampIndexFile);
+			// times resolved before the results folder was known are kept when it has no index yet
+			if (timestampIndex == null || timestampIndexFile != null || Files.isRegularFile(file))
+				timestampIndex = FrameTimestampIndex.load(file);
+			timestampIndexFile = file;
+		}
+		return timestampIndex;
+	}
+
+	private Path resolveTimestampIndexFile(ImageLoader imageLoader) {
+		String dir = timestampIndexDirectory;
+		if (dir == null && imageLoader != null) {
+			String images = imageLoader.getImagesDirectory();
+			// only next to an existing results folder: never create one for a plain image stack
+			if (images != null && new File(images, "results").isDirectory())
+				dir = images + File.separator + "results";
+		}
+		return dir != null ? Paths.get(dir, FrameTimestampIndex.FILENAME) : null;
 	}
 
 	public int findNearestIntervalWithBinarySearch(long value, int low, int high) {
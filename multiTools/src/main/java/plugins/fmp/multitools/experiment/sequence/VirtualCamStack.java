@@ -0,0 +1,226 @@
+package plugins.fmp.multitools.experiment.sequence;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import icy.image.IcyBufferedImage;
+import icy.sequence.Sequence;
+import icy.system.thread.Processor;
+import plugins.fmp.multitools.tools.DecodedFrameCache;
+import plugins.fmp.multitools.tools.Logger;
+
+/**
+ * Camera stack decoded on demand instead of being loaded into the {@link Sequence} up front. The
+ * sequence stores one shared placeholder plane per frame, so T navigation covers the whole stack, and
+ * only the frame shown by the viewer ({@link #showFrame}) is stored with real pixels. Decoded frames
+ * are kept in the shared {@link DecodedFrameCache}, and the frames ahead of the viewer, in the
+ * direction it is moving, are decoded into it in the background.
+ * <p>
+ * {@link SequenceCamData#getSeqImage} and {@code getSequence().getImage(t, z)} both resolve frame
+ * {@code t} through the cache; the placeholder itself is never handed out, a frame that cannot be
+ * decoded reads as a new blank plane. Large JPEG stacks open this way ({@link #openIfLarge});
+ * {@link #open} opens any JPEG stack this way.
+ */
+public class VirtualCamStack implements AutoCloseable {
+
+	private static final int READ_AHEAD_FRAMES = 4;
+	/** Stacks estimated above this fraction of the maximum heap open virtual. */
+	private static final double AUTO_HEAP_FRACTION = 0.25;
+
+	private final ImageLoader loader;
+	private final List<String> files;
+	/** Stored in the sequence for every frame but the one on display; never returned to callers. */
+	private final IcyBufferedImage blank;
+	private final int capacityFrames;
+	private final PlaneSequence seq;
+	private final Processor readAhead;
+	private final AtomicInteger generation = new AtomicInteger();
+	private int shownFrame = -1;
+	private volatile boolean closed = false;
+
+	private VirtualCamStack(ImageLoader loader, List<String> files, IcyBufferedImage first, String name) {
+		this.loader = loader;
+		this.files = files;
+		this.blank = new IcyBufferedImage(first.getSizeX(), first.getSizeY(), first.getSizeC(), first.getDataType_());
+		long frameBytes = DecodedFrameCache.bytesOf(first);
+		this.capacityFrames = (int) Math.max(2L,
+				Math.min(Integer.MAX_VALUE, DecodedFrameCache.shared().getBudgetBytes() / frameBytes));
+		this.readAhead = new Processor(1);
+		readAhead.setThreadName("camReadAhead");
+		readAhead.setPriority(Processor.NORM_PRIORITY);
+
+		seq = new PlaneSequence();
+		if (name != null) {
+			seq.setName(name);
+		}
+		// left in update mode like loadSequenceFromImagesList(): ended once the viewer is set up
+		seq.beginUpdate();
+		for (int t = 0; t < files.size(); t++) {
+			seq.setImage(t, 0, t == 0 ? first : blank);
+		}
+		shownFrame = 0;
+	}
+
+	/**
+	 * Opens {@code files} (valid frames, in order) as a virtual stack when they are JPEGs and the
+	 * whole stack would not comfortably fit in memory; returns null when the stack should be loaded
+	 * the regular way, or when its first frame cannot be decoded.
+	 */
+	public static VirtualCamStack openIfLarge(ImageLoader loader, List<String> files, String name) {
+		return open(loader, files, name, true);
+	}
+
+	/**
+	 * Opens {@code files} as a virtual stack whatever their size; null when they are not JPEGs or
+	 * the first frame cannot be decoded.
+	 */
+	public static VirtualCamStack open(ImageLoader loader, List<String> files, String name) {
+		return open(loader, files, name, false);
+	}
+
+	private static VirtualCamStack open(ImageLoader loader, List<String> files, String name, boolean onlyIfLarge) {
+		if (files == null || files.size() < 2 || !isJpeg(files.get(0)) || !isJpeg(files.get(files.size() - 1))) {
+			return null;
+		}
+		IcyBufferedImage first = loader.imageIORead(files.get(0));
+		if (first == null) {
+			return null;
+		}
+		long stackBytes = DecodedFrameCache.bytesOf(first) * files.size();
+		if (onlyIfLarge && stackBytes < Runtime.getRuntime().maxMemory() * AUTO_HEAP_FRACTION) {
+			return null;
+		}
+		VirtualCamStack stack = new VirtualCamStack(loader, files, first, name);
+		Logger.info("VirtualCamStack: " + files.size() + " frames (" + (stackBytes >> 20)
+				+ " MB decoded) opened on demand, frame cache holds " + stack.capacityFrames + " frames");
+		return stack;
+	}
+
+	public Sequence getSequence() {
+		return seq;
+	}
+
+	public int getSizeT() {
+		return files.size();
+	}
+
+	public int getCapacityFrames() {
+		return capacityFrames;
+	}
+
+	/** Frame {@code t} from the cache, decoded now if needed; null if it cannot be read. */
+	public IcyBufferedImage getImage(int t) {
+		if (t < 0 || t >= files.size()) {
+			return null;
+		}
+		return checkFormat(t, loader.imageIORead(files.get(t)));
+	}
+
+	/**
+	 * The viewer moved to frame {@code t}: put its pixels into the sequence (the previous frame goes
+	 * back to the blank plane) and decode the next frames in the same direction and stride.
+	 */
+	public void showFrame(int t) {
+		if (closed || t < 0 || t >= files.size()) {
+			return;
+		}
+		int previous;
+		synchronized (this) {
+			previous = shownFrame;
+			shownFrame = t;
+		}
+		if (previous == t) {
+			return;
+		}
+		IcyBufferedImage img = getImage(t);
+		seq.beginUpdate();
+		try {
+			if (previous >= 0 && previous < files.size()) {
+				seq.setImage(previous, 0, blank);
+			}
+			if (img != null) {
+				seq.setImage(t, 0, img);
+			}
+		} finally {
+			seq.endUpdate();
+		}
+		scheduleReadAhead(previous < 0 ? 1 : t - previous, t);
+	}
+
+	/**
+	 * Plane {@code t} of the sequence: the frame on display as stored, any other frame from the cache,
+	 * or a new blank plane when it cannot be read; null outside the stack.
+	 */
+	IcyBufferedImage resolvePlane(int t) {
+		if (t < 0 || t >= files.size()) {
+			return null;
+		}
+		IcyBufferedImage img;
+		synchronized (this) {
+			img = t == shownFrame ? seq.stored(t) : null;
+		}
+		if (img == null || img == blank) {
+			img = getImage(t);
+		}
+		return img != null ? img : newBlank();
+	}
+
+	private IcyBufferedImage newBlank() {
+		return new IcyBufferedImage(blank.getSizeX(), blank.getSizeY(), blank.getSizeC(), blank.getDataType_());
+	}
+
+	private void scheduleReadAhead(int step, int t) {
+		final int gen = generation.incrementAndGet();
+		int depth = Math.min(READ_AHEAD_FRAMES, capacityFrames / 2);
+		for (int k = 1; k <= depth; k++) {
+			final int target = t + k * step;
+			if (target < 0 || target >= files.size()) {
+				break;
+			}
+			readAhead.submit(() -> {
+				// dropped once the viewer has moved again
+				if (closed || generation.get() != gen) {
+					return;
+				}
+				DecodedFrameCache.shared().prefetch(files.get(target));
+			});
+		}
+	}
+
+	private IcyBufferedImage checkFormat(int t, IcyBufferedImage img) {
+		if (img != null && (img.getSizeX() != blank.getSizeX() || img.getSizeY() != blank.getSizeY()
+				|| img.getSizeC() != blank.getSizeC() || img.getDataType_() != blank.getDataType_())) {
+			Logger.warn("VirtualCamStack: frame " + t + " does not match the stack format: " + files.get(t));
+			return null;
+		}
+		return img;
+	}
+
+	/** Resolves its planes through the stack instead of returning the shared placeholder. */
+	private class PlaneSequence extends Sequence {
+
+		IcyBufferedImage stored(int t) {
+			return super.getImage(t, 0);
+		}
+
+		@Override
+		public IcyBufferedImage getImage(int t, int z) {
+			if (closed || z != 0 || shownFrame < 0) {
+				return super.getImage(t, z);
+			}
+			return resolvePlane(t);
+		}
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		generation.incrementAndGet();
+		readAhead.shutdownNow();
+	}
+
+	private static boolean isJpeg(String path) {
+		String lower = path != null ? path.toLowerCase() : "";
+		return lower.endsWith(".jpg") || lower.endsWith(".jpeg");
+	}
+}
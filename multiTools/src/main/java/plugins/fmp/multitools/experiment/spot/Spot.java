@@ -5,8 +5,11 @@ import java.awt.Rectangle;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.w3c.dom.Node;
 
@@ -16,6 +19,7 @@ import icy.roi.ROI2D;
 import plugins.fmp.multitools.experiment.ids.SpotID;
 import plugins.fmp.multitools.tools.ROI2D.ROI2DWithMask;
 import plugins.fmp.multitools.tools.results.EnumResults;
+import plugins.fmp.multitools.tools.results.MeasureColumn;
 import plugins.fmp.multitools.tools.toExcel.utils.SpotExcelTimeline;
 import plugins.fmp.multitools.tools.toExcel.enums.EnumXLSColumnHeader;
 import plugins.kernel.roi.roi2d.ROI2DEllipse;
@@ -230,7 +234,10 @@ public class Spot implements Comparable<Spot> {
 	 * @param roi the ROI to set
 	 */
 	public void setRoi(ROI2DShape roi) {
-		this.spotROI2D = roi;
+		if (this.spotROI2D != roi) {
+			this.spotROI2D = roi;
+			SpotProperties.keysChanged();
+		}
 	}
 
 	/**
@@ -887,6 +894,20 @@ public class Spot implements Comparable<Spot> {
 		return measure.getValuesResampledToExcelGrid(grid);
 	}
 
+	/**
+	 * Re-encodes the values of every measure of this spot (see
+	 * {@link SpotMeasure#compactValues(MeasureColumn.Encoding)}).
+	 */
+	public void compactMeasures(MeasureColumn.Encoding encoding) {
+		Set<SpotMeasure> done = Collections.newSetFromMap(new IdentityHashMap<SpotMeasure, Boolean>());
+		for (EnumResults resultType : EnumResults.values()) {
+			SpotMeasure measure = getMeasurements(resultType);
+			if (measure != null && done.add(measure)) {
+				measure.compactValues(encoding);
+			}
+		}
+	}
+
 	/**
 	 * Restores clipped spot measures.
 	 */
@@ -1,21 +1,40 @@
 package plugins.fmp.multitools.experiment.spot;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-import plugins.fmp.multitools.tools.csv.CsvNumberParsing;
+import plugins.fmp.multitools.experiment.persistence.MeasuresBinaryFile;
+import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.csv.CsvRow;
+import plugins.fmp.multitools.tools.results.MeasureColumn;
+import plugins.fmp.multitools.tools.results.MeasureColumnCache;
 import plugins.fmp.multitools.tools.toExcel.utils.SpotExcelTimeline;
 
-public class SpotMeasure {
+public class SpotMeasure implements MeasureColumnCache.Evictable {
 
 	// === CONSTANTS ===
 	private static final double DEFAULT_FACTOR = 1.0;
 
 	// === CORE FIELDS ===
-	private double[] values;
-	private int[] isPresent;
+	private volatile double[] values;
+	/** Compact storage of {@link #values} (then null) until a caller needs the raw array. */
+	private MeasureColumn compactValues;
+	/**
+	 * Set once the values were compacted to float: they are then written at float precision, also
+	 * after an edit expanded them back to double. Cleared when the values are replaced.
+	 */
+	private boolean floatPrecision;
+	private volatile int[] isPresent;
+	/**
+	 * Column of a measures file backing {@link #values} (or {@link #isPresent} for an int column)
+	 * while they are unmodified: read on first access, dropped by {@link MeasureColumnCache} under
+	 * memory pressure and read again on next access. Null once the samples are computed or modified
+	 * in memory.
+	 */
+	private volatile MeasuresBinaryFile.Column lazyColumn;
 	private double factor;
 	private int measuredFromNSpots = 1;
 	private String name;
@@ -42,11 +61,17 @@ public class SpotMeasure {
 		if (source == null) {
 			return;
 		}
-		if (source.values != null && source.values.length > 0) {
-			this.values = Arrays.copyOf(source.values, source.values.length);
+		MeasureColumn sourceValues = source.valuesView();
+		if (sourceValues != null && sourceValues.size() > 0) {
+			releaseLazyColumn(false);
+			this.values = sourceValues.toDoubleArray();
+			this.compactValues = null;
+			this.floatPrecision = source.floatPrecision;
 		}
-		if (source.isPresent != null && source.isPresent.length > 0) {
-			this.isPresent = Arrays.copyOf(source.isPresent, source.isPresent.length);
+		int[] sourcePresence = source.presenceSnapshot();
+		if (sourcePresence != null && sourcePresence.length > 0) {
+			releaseLazyColumn(true);
+			this.isPresent = Arrays.copyOf(sourcePresence, sourcePresence.length);
 		}
 	}
 
@@ -54,11 +79,13 @@ public class SpotMeasure {
 		if (source == null) {
 			return;
 		}
-		if (source.values != null && source.values.length > 0) {
-			addValues(source.values);
+		MeasureColumn sourceValues = source.valuesView();
+		if (sourceValues != null && sourceValues.size() > 0) {
+			addValues(sourceValues);
 		}
-		if (source.isPresent != null && source.isPresent.length > 0) {
-			addPresence(source.isPresent);
+		int[] sourcePresence = source.presenceSnapshot();
+		if (sourcePresence != null && sourcePresence.length > 0) {
+			addPresence(sourcePresence);
 		}
 		measuredFromNSpots++;
 	}
@@ -73,18 +100,20 @@ public class SpotMeasure {
 		if (measure1 == null || measure2 == null) {
 			return;
 		}
+		MeasureColumn values1 = measure1.valuesView();
+		MeasureColumn values2 = measure2.valuesView();
 		// assume normalized - if not, compute it
-		if (measure1.values != null && measure1.values.length > 0 && measure2.values != null
-				&& measure2.values.length > 0) {
-			this.values = new double[measure1.values.length];
+		if (values1 != null && values1.size() > 0 && values2 != null && values2.size() > 0) {
 			double max1 = measure1.getMaximumValue();
 			double max2 = measure2.getMaximumValue();
-			for (int i = 0; i < values.length; i++) {
-				double value1 = measure1.values[i] / max1;
-				double value2 = measure2.values[i] / max2;
+			double[] pi = new double[values1.size()];
+			for (int i = 0; i < pi.length; i++) {
+				double value1 = values1.get(i) / max1;
+				double value2 = values2.get(i) / max2;
 				double sum = value1 + value2;
-				this.values[i] = sum > 0 ? (value1 - value2) / sum : 0;
+				pi[i] = sum > 0 ? (value1 - value2) / sum : 0;
 			}
+			setValues(pi);
 		}
 	}
 
@@ -98,26 +127,32 @@ public class SpotMeasure {
 		if (measure1 == null || measure2 == null) {
 			return;
 		}
+		MeasureColumn values1 = measure1.valuesView();
+		MeasureColumn values2 = measure2.valuesView();
 
-		if (measure1.values != null && measure1.values.length > 0 && measure2.values != null
-				&& measure2.values.length > 0) {
-			this.values = new double[measure1.values.length];
-			for (int i = 0; i < measure1.values.length; i++) {
-				this.values[i] = measure1.values[i] / (double) n1 + measure2.values[i] / (double) n2;
+		if (values1 != null && values1.size() > 0 && values2 != null && values2.size() > 0) {
+			double[] sum = new double[values1.size()];
+			for (int i = 0; i < sum.length; i++) {
+				sum[i] = values1.get(i) / (double) n1 + values2.get(i) / (double) n2;
 			}
+			setValues(sum);
 		}
 	}
 
 	public double getMaximumValue() {
 		double maximum = 0.;
-		for (int i = 0; i < values.length; i++) {
-			if (this.values[i] > maximum)
-				maximum = this.values[i];
+		MeasureColumn view = valuesView();
+		int n = view != null ? view.size() : 0;
+		for (int i = 0; i < n; i++) {
+			double v = view.get(i);
+			if (v > maximum)
+				maximum = v;
 		}
 		return maximum;
 	}
 
 	public void normalizeValuesTo(double norm) {
+		inflate();
 		for (int i = 0; i < values.length; i++) {
 			values[i] = values[i] / norm;
 		}
@@ -139,12 +174,15 @@ public class SpotMeasure {
 			return;
 		}
 
-		if (isPresent != null && measure1.isPresent != null && measure2.isPresent != null) {
-			if (isPresent.length != measure1.isPresent.length) {
-				isPresent = new int[measure1.isPresent.length];
+		detachLazyColumn(true);
+		int[] presence1 = measure1.presenceSnapshot();
+		int[] presence2 = measure2.presenceSnapshot();
+		if (isPresent != null && presence1 != null && presence2 != null) {
+			if (isPresent.length != presence1.length) {
+				isPresent = new int[presence1.length];
 			}
 			for (int i = 0; i < isPresent.length; i++) {
-				isPresent[i] = measure1.isPresent[i] + measure2.isPresent[i];
+				isPresent[i] = presence1[i] + presence2[i];
 			}
 		}
 	}
@@ -172,52 +210,161 @@ public class SpotMeasure {
 	// === DATA ACCESS ===
 
 	public int getCount() {
-		if (values != null) {
-			return values.length;
+		double[] v = values;
+		if (v != null) {
+			return v.length;
+		}
+		MeasureColumn c = compactValues;
+		if (c != null) {
+			return c.size();
+		}
+		MeasuresBinaryFile.Column lazy = lazyColumn;
+		if (lazy != null) {
+			return lazy.size();
 		}
-		if (isPresent != null) {
-			return isPresent.length;
+		int[] p = isPresent;
+		if (p != null) {
+			return p.length;
 		}
 		return 0;
 	}
 
+	/**
+	 * Raw values, for callers that modify them in place; a compacted or file-backed measure is
+	 * expanded back to {@code double[]} for good. Readers use {@link #getValuesColumn()},
+	 * {@link #getValueAt} or {@link #getCount()} instead.
+	 */
 	public double[] getValues() {
-		return values;
+		return inflate();
 	}
 
 	public void setValues(double[] values) {
+		releaseLazyColumn(false);
 		this.values = values;
+		this.compactValues = null;
+		this.floatPrecision = false;
+	}
+
+	/**
+	 * Read-only view of the values in their current storage (no copy, no expansion; a file-backed
+	 * measure is read if needed but stays evictable).
+	 */
+	public MeasureColumn getValuesColumn() {
+		return valuesView();
+	}
+
+	/**
+	 * Backs the values (or, for an int column, the presence flags) with a column of a measures file:
+	 * nothing is read until the samples are first used (see {@link #lazyColumn}).
+	 */
+	public void bindLazyColumn(MeasuresBinaryFile.Column column) {
+		synchronized (this) {
+			if (column.isInt()) {
+				isPresent = null;
+			} else {
+				values = null;
+				compactValues = null;
+				floatPrecision = false;
+			}
+			lazyColumn = column;
+		}
+		MeasureColumnCache.shared().remove(this);
+	}
+
+	/** True while the samples can still be (re)read from a measures file. */
+	public boolean isFileBacked() {
+		return lazyColumn != null;
+	}
+
+	/** Drops file-backed samples (called by {@link MeasureColumnCache}); they are read again on next use. */
+	@Override
+	public synchronized void evictColumn() {
+		MeasuresBinaryFile.Column column = lazyColumn;
+		if (column == null) {
+			return;
+		}
+		if (column.isInt()) {
+			isPresent = null;
+		} else {
+			values = null;
+		}
+	}
+
+	/**
+	 * Re-encodes the values ({@link MeasureColumn.Encoding#FLOAT} or {@code INT16}) to cut their
+	 * heap use while the measure is only read (charts, exports). Any method needing the raw array
+	 * transparently expands it again.
+	 */
+	public void compactValues(MeasureColumn.Encoding encoding) {
+		if (values == null || encoding == null) {
+			return;
+		}
+		MeasuresBinaryFile.Column lazy = lazyColumn;
+		if (lazy != null && !lazy.isInt()) {
+			// already bounded by the column cache
+			return;
+		}
+		if (encoding == MeasureColumn.Encoding.DOUBLE) {
+			inflate();
+			return;
+		}
+		compactValues = MeasureColumn.encode(values, encoding);
+		values = null;
+		if (encoding == MeasureColumn.Encoding.FLOAT)
+			floatPrecision = true;
 	}
 
 	public void setValueAt(int index, double value) {
+		inflate();
 		if (values != null && index >= 0 && index < values.length) {
 			values[index] = value;
 		}
 	}
 
 	public double getValueAt(int index) {
-		if (values != null) {
-			return values[index];
+		double[] v = values;
+		if (v != null) {
+			return v[index];
 		}
-		if (isPresent != null) {
-			return isPresent[index];
+		MeasureColumn view = valuesView();
+		if (view != null) {
+			return view.get(index);
+		}
+		int[] p = presenceSnapshot();
+		if (p != null) {
+			return p[index];
 		}
 		return Double.NaN;
 	}
 
+	/**
+	 * Presence flags for callers that modify them in place; a file-backed column is kept in memory
+	 * for good. Readers use {@link #getIsPresentView()}.
+	 */
 	public int[] getIsPresent() {
+		detachLazyColumn(true);
 		return isPresent;
 	}
 
+	/**
+	 * Presence flags for reading only (do not modify the array): a file-backed column is read if
+	 * needed but stays evictable, like {@link #getValuesColumn()}.
+	 */
+	public int[] getIsPresentView() {
+		return presenceSnapshot();
+	}
+
 	public void setIsPresent(int[] isPresent) {
+		releaseLazyColumn(true);
 		this.isPresent = isPresent;
 	}
 
 	public int getIsPresentAt(int index) {
-		return isPresent[index];
+		return presenceSnapshot()[index];
 	}
 
 	public void setIsPresentAt(int index, int value) {
+		detachLazyColumn(true);
 		if (isPresent != null && index >= 0 && index < isPresent.length) {
 			isPresent[index] = value;
 		}
@@ -246,26 +393,149 @@ public class SpotMeasure {
 	}
 
 	public void transferValuesToLevel2D() {
-		spotLevel2D.transferValues(values);
+		spotLevel2D.transferValues(valuesArray());
 	}
 
 	public void transferIsPresentToLevel2D() {
-		spotLevel2D.transferIsPresent(isPresent);
+		spotLevel2D.transferIsPresent(presenceSnapshot());
 	}
 
 	// === PRIVATE HELPER METHODS ===
 
-	private void addValues(double[] sourceValues) {
+	private double[] inflate() {
+		detachLazyColumn(false);
+		if (compactValues != null) {
+			values = compactValues.toDoubleArray();
+			compactValues = null;
+		}
+		return values;
+	}
+
+	/** Current values (a file-backed column is read first); null when there are none. */
+	private MeasureColumn valuesView() {
+		while (true) {
+			double[] v = values;
+			MeasuresBinaryFile.Column lazy = lazyColumn;
+			if (v != null) {
+				if (lazy != null && !lazy.isInt()) {
+					MeasureColumnCache.shared().touch(this, 8L * v.length);
+				}
+				return MeasureColumn.of(v);
+			}
+			MeasureColumn c = compactValues;
+			if (c != null) {
+				return c;
+			}
+			if (values != null) {
+				continue; // expanded meanwhile
+			}
+			if (lazy == null || lazy.isInt() || !loadLazyColumn(lazy)) {
+				return null;
+			}
+		}
+	}
+
+	/** Values as a {@code double[]} for comparisons (the stored array itself when uncompacted). */
+	private double[] valuesArray() {
+		MeasureColumn view = valuesView();
+		if (view == null) {
+			return null;
+		}
+		double[] raw = view.doublesOrNull();
+		return raw != null ? raw : view.toDoubleArray();
+	}
+
+	/** Current presence flags (a file-backed column is read first); null when there are none. */
+	private int[] presenceSnapshot() {
+		while (true) {
+			int[] p = isPresent;
+			MeasuresBinaryFile.Column lazy = lazyColumn;
+			if (p != null) {
+				return p;
+			}
+			if (lazy == null || !lazy.isInt() || !loadLazyColumn(lazy)) {
+				return null;
+			}
+		}
+	}
+
+	/** Reads {@code column} unless already loaded; false (and no longer file-backed) on I/O error. */
+	private boolean loadLazyColumn(MeasuresBinaryFile.Column column) {
+		long bytes;
+		synchronized (this) {
+			if (lazyColumn != column) {
+				return true; // detached or rebound meanwhile: the caller reads the fields again
+			}
+			try {
+				if (column.isInt()) {
+					if (isPresent == null) {
+						isPresent = column.readInts();
+					}
+				} else if (values == null) {
+					values = column.readDoubles();
+				}
+			} catch (IOException e) {
+				Logger.warn("SpotMeasure: cannot read " + name + " from measures file: " + e.getMessage());
+				lazyColumn = null;
+				return false;
+			}
+			bytes = (long) column.size() * (column.isInt() ? 4 : 8);
+		}
+		MeasureColumnCache.shared().touch(this, bytes);
+		return true;
+	}
+
+	/** The samples are about to be modified or handed out as a raw array: keep them in memory for good. */
+	private void detachLazyColumn(boolean intColumn) {
+		MeasuresBinaryFile.Column column = lazyColumn;
+		if (column == null || column.isInt() != intColumn) {
+			return;
+		}
+		synchronized (this) {
+			if (lazyColumn != column) {
+				return;
+			}
+			try {
+				if (intColumn && isPresent == null) {
+					isPresent = column.readInts();
+				} else if (!intColumn && values == null) {
+					values = column.readDoubles();
+				}
+			} catch (IOException e) {
+				Logger.warn("SpotMeasure: cannot read " + name + " from measures file: " + e.getMessage());
+			}
+			lazyColumn = null;
+		}
+		MeasureColumnCache.shared().remove(this);
+	}
+
+	/** The samples are about to be replaced as a whole: forget the file column without reading it. */
+	private void releaseLazyColumn(boolean intColumn) {
+		MeasuresBinaryFile.Column column = lazyColumn;
+		if (column == null || column.isInt() != intColumn) {
+			return;
+		}
+		synchronized (this) {
+			if (lazyColumn == column) {
+				lazyColumn = null;
+			}
+		}
+		MeasureColumnCache.shared().remove(this);
+	}
+
+	private void addValues(MeasureColumn sourceValues) {
+		inflate();
 		if (this.values == null) {
-			this.values = new double[sourceValues.length];
+			this.values = new double[sourceValues.size()];
 		}
 
-		for (int i = 0; i < sourceValues.length; i++) {
-			this.values[i] += sourceValues[i];
+		for (int i = 0; i < sourceValues.size(); i++) {
+			this.values[i] += sourceValues.get(i);
 		}
 	}
 
 	private void addPresence(int[] sourcePresence) {
+		detachLazyColumn(true);
 		if (this.isPresent == null) {
 			this.isPresent = new int[sourcePresence.length];
 		}
@@ -298,7 +568,9 @@ public class SpotMeasure {
 	 * between them (handles cameras whose interval differs slightly from the Excel step).
 	 */
 	public List<Double> getValuesAsSubsampledList(long seriesBinMs, long outputBinMs) {
-		int n = seriesSampleCountForSubsampling();
+		MeasureColumn view = valuesView();
+		int[] presence = view != null && view.size() > 0 ? null : presenceSnapshot();
+		int n = seriesSampleCount(view, presence);
 		if (n < 1 || seriesBinMs <= 0 || outputBinMs <= 0) {
 			return new ArrayList<>();
 		}
@@ -307,7 +579,7 @@ public class SpotMeasure {
 		List<Double> result = new ArrayList<>((int) Math.min(npoints, Integer.MAX_VALUE));
 		for (long i = 0; i < npoints; i++) {
 			long timeMs = i * outputBinMs;
-			result.add(interpolateLinearAtMs(timeMs, seriesBinMs, n));
+			result.add(interpolateLinearAtMs(view, presence, timeMs, seriesBinMs, n));
 		}
 		return result;
 	}
@@ -321,7 +593,9 @@ public class SpotMeasure {
 			return new ArrayList<>();
 		}
 		long[] tAll = grid.getFrameElapsedMsRelative();
-		int nm = seriesSampleCountForSubsampling();
+		MeasureColumn view = valuesView();
+		int[] presence = view != null && view.size() > 0 ? null : presenceSnapshot();
+		int nm = seriesSampleCount(view, presence);
 		if (nm < 1 || tAll.length < 1) {
 			return new ArrayList<>();
 		}
@@ -332,46 +606,46 @@ public class SpotMeasure {
 		ArrayList<Double> result = new ArrayList<>(Math.max(1, nBins));
 		for (int k = 0; k < nBins; k++) {
 			long queryMs = grid.getClipStartMs() + (long) k * grid.getExcelDeltaMs();
-			result.add(interpolateAlongFrameTimes(queryMs, tAll, nPair));
+			result.add(interpolateAlongFrameTimes(view, presence, queryMs, tAll, nPair));
 		}
 		return result;
 	}
 
-	private int seriesSampleCountForSubsampling() {
-		if (values != null && values.length > 0) {
-			return values.length;
+	private static int seriesSampleCount(MeasureColumn view, int[] presence) {
+		if (view != null && view.size() > 0) {
+			return view.size();
 		}
-		if (isPresent != null && isPresent.length > 0) {
-			return isPresent.length;
+		if (presence != null && presence.length > 0) {
+			return presence.length;
 		}
 		return 0;
 	}
 
-	private double seriesSampleDoubleAt(int index) {
-		if (values != null && index >= 0 && index < values.length) {
-			return values[index];
+	private static double seriesSampleDoubleAt(MeasureColumn view, int[] presence, int index) {
+		if (view != null && index >= 0 && index < view.size()) {
+			return view.get(index);
 		}
-		if (isPresent != null && index >= 0 && index < isPresent.length) {
-			return isPresent[index];
+		if (presence != null && index >= 0 && index < presence.length) {
+			return presence[index];
 		}
 		return Double.NaN;
 	}
 
-	private double interpolateLinearAtMs(long timeMs, long seriesBinMs, int n) {
+	private static double interpolateLinearAtMs(MeasureColumn view, int[] presence, long timeMs, long seriesBinMs, int n) {
 		double pos = timeMs / (double) seriesBinMs;
 		if (n == 1) {
-			return seriesSampleDoubleAt(0);
+			return seriesSampleDoubleAt(view, presence, 0);
 		}
 		if (pos <= 0) {
-			return seriesSampleDoubleAt(0);
+			return seriesSampleDoubleAt(view, presence, 0);
 		}
 		if (pos >= n - 1) {
-			return seriesSampleDoubleAt(n - 1);
+			return seriesSampleDoubleAt(view, presence, n - 1);
 		}
 		int i0 = (int) Math.floor(pos);
 		int i1 = i0 + 1;
-		double v0 = seriesSampleDoubleAt(i0);
-		double v1 = seriesSampleDoubleAt(i1);
+		double v0 = seriesSampleDoubleAt(view, presence, i0);
+		double v1 = seriesSampleDoubleAt(view, presence, i1);
 		double alpha = pos - i0;
 		if (!Double.isFinite(v0) || !Double.isFinite(v1)) {
 			return Double.NaN;
@@ -379,23 +653,23 @@ public class SpotMeasure {
 		return v0 + alpha * (v1 - v0);
 	}
 
-	private double interpolateAlongFrameTimes(long queryMs, long[] t, int nPair) {
+	private static double interpolateAlongFrameTimes(MeasureColumn view, int[] presence, long queryMs, long[] t, int nPair) {
 		if (nPair < 1) {
 			return Double.NaN;
 		}
 		if (nPair == 1) {
-			double v = seriesSampleDoubleAt(0);
+			double v = seriesSampleDoubleAt(view, presence, 0);
 			return Double.isFinite(v) ? v : Double.NaN;
 		}
 
 		long tLast = t[nPair - 1];
 
 		if (queryMs <= t[0]) {
-			double v = seriesSampleDoubleAt(0);
+			double v = seriesSampleDoubleAt(view, presence, 0);
 			return Double.isFinite(v) ? v : Double.NaN;
 		}
 		if (queryMs >= tLast) {
-			double v = seriesSampleDoubleAt(nPair - 1);
+			double v = seriesSampleDoubleAt(view, presence, nPair - 1);
 			return Double.isFinite(v) ? v : Double.NaN;
 		}
 
@@ -407,19 +681,19 @@ public class SpotMeasure {
 			}
 			long dt = tHi - tLo;
 			if (dt <= 0L) {
-				double vHi = seriesSampleDoubleAt(i);
+				double vHi = seriesSampleDoubleAt(view, presence, i);
 				return Double.isFinite(vHi) ? vHi : Double.NaN;
 			}
 			double alpha = (queryMs - tLo) / (double) dt;
-			double v0 = seriesSampleDoubleAt(i - 1);
-			double v1 = seriesSampleDoubleAt(i);
+			double v0 = seriesSampleDoubleAt(view, presence, i - 1);
+			double v1 = seriesSampleDoubleAt(view, presence, i);
 			if (!Double.isFinite(v0) || !Double.isFinite(v1)) {
 				return Double.NaN;
 			}
 			return v0 + alpha * (v1 - v0);
 		}
 
-		double v = seriesSampleDoubleAt(nPair - 1);
+		double v = seriesSampleDoubleAt(view, presence, nPair - 1);
 		return Double.isFinite(v) ? v : Double.NaN;
 	}
 
@@ -431,49 +705,20 @@ public class SpotMeasure {
 			return false;
 		SpotMeasure other = (SpotMeasure) obj;
 		return Objects.equals(name, other.name) && Double.compare(factor, other.factor) == 0
-				&& Arrays.equals(values, other.values) && Arrays.equals(isPresent, other.isPresent);
+				&& Arrays.equals(valuesArray(), other.valuesArray())
+				&& Arrays.equals(presenceSnapshot(), other.presenceSnapshot());
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(name, factor, Arrays.hashCode(values), Arrays.hashCode(isPresent));
+		return Objects.hash(name, factor, Arrays.hashCode(valuesArray()), Arrays.hashCode(presenceSnapshot()));
 	}
 
 	@Override
 	public String toString() {
 		return String.format("SpotMeasure{name='%s', factor=%.2f, hasValues=%b, hasPresence=%b}", name, factor,
-				values != null, isPresent != null);
-	}
-
-	// === MEDIAN PROCESSING ===
-
-	/**
-	 * Builds running median.
-	 * 
-	 * @param span    the span
-	 * @param yvalues the Y values
-	 */
-	public void buildRunningMedianFromValuesArray(int span, double[] yvalues) {
-		if (yvalues == null || yvalues.length == 0) {
-			return;
-		}
-
-		int npoints = yvalues.length;
-
-		for (int i = 0; i < npoints; i++) {
-			int start = Math.max(0, i - span / 2);
-			int end = Math.min(npoints - 1, i + span / 2);
-			int count = end - start + 1;
-
-			double[] window = new double[count];
-			for (int j = 0; j < count; j++) {
-				window[j] = yvalues[start + j];
-			}
-
-			Arrays.sort(window);
-			values[i] = window[count / 2];
-		}
-
+				values != null || compactValues != null || (lazyColumn != null && !lazyColumn.isInt()),
+				isPresent != null || (lazyColumn != null && lazyColumn.isInt()));
 	}
 
 	// === CSV EXPORT/IMPORT ===
@@ -486,16 +731,25 @@ public class SpotMeasure {
 	 * @return true if successful
 	 */
 	public boolean exportYDataToCsv(StringBuilder sbf, String separator) {
-		if (values == null || values.length < 1) {
+		MeasureColumn view = valuesView();
+		int n = view != null ? view.size() : 0;
+		if (n < 1) {
 			return false;
 		}
-		sbf.append(values.length);
+		sbf.append(n);
 		sbf.append(separator);
-		for (int i = 0; i < values.length; i++) {
+		// float samples are written at float precision, not as their widened double expansion;
+		// values edited since then are not floats any more and keep their double precision
+		boolean floats = floatPrecision;
+		for (int i = 0; i < n; i++) {
 			if (i > 0) {
 				sbf.append(separator);
 			}
-			sbf.append(values[i]);
+			double v = view.get(i);
+			if (floats && (float) v == v)
+				sbf.append((float) v);
+			else
+				sbf.append(v);
 		}
 
 		return true;
@@ -511,16 +765,17 @@ public class SpotMeasure {
 	 * @return true if successful
 	 */
 	public boolean exportIsPresentToCsv(StringBuilder sbf, String separator) {
-		if (isPresent == null || isPresent.length < 1) {
+		int[] presence = presenceSnapshot();
+		if (presence == null || presence.length < 1) {
 			return false;
 		}
-		sbf.append(isPresent.length);
+		sbf.append(presence.length);
 		sbf.append(separator);
-		for (int i = 0; i < isPresent.length; i++) {
+		for (int i = 0; i < presence.length; i++) {
 			if (i > 0) {
 				sbf.append(separator);
 			}
-			sbf.append(isPresent[i]);
+			sbf.append(presence[i]);
 		}
 		return true;
 	}
@@ -533,17 +788,25 @@ public class SpotMeasure {
 	 * @return true if successful
 	 */
 	public boolean importXYDataFromCsv(String[] data, int startAt) {
-		if (data == null || data.length < startAt + 2) {
+		return data != null && importXYDataFromCsv(CsvRow.of(data), startAt);
+	}
+
+	/** Same as {@link #importXYDataFromCsv(String[], int)}, cells parsed in place. */
+	public boolean importXYDataFromCsv(CsvRow data, int startAt) {
+		if (data == null || data.size() < startAt + 2) {
 			return false;
 		}
 
 		try {
-			int npoints = (data.length - startAt) / 2;
+			int npoints = (data.size() - startAt) / 2;
+			releaseLazyColumn(false);
+			compactValues = null;
+			floatPrecision = false;
 			if (values == null || values.length != npoints)
 				values = new double[npoints];
 
 			for (int i = 0; i < npoints; i++) {
-				values[i] = CsvNumberParsing.parseDouble(data[startAt + i * 2 + 1]);
+				values[i] = data.getDouble(startAt + i * 2 + 1);
 			}
 
 			return true;
@@ -560,17 +823,25 @@ public class SpotMeasure {
 	 * @return true if successful
 	 */
 	public boolean importYDataFromCsv(String[] data, int startAt) {
-		if (data == null || data.length < startAt + 1) {
+		return data != null && importYDataFromCsv(CsvRow.of(data), startAt);
+	}
+
+	/** Same as {@link #importYDataFromCsv(String[], int)}, cells parsed in place. */
+	public boolean importYDataFromCsv(CsvRow data, int startAt) {
+		if (data == null || data.size() < startAt + 1) {
 			return false;
 		}
 
 		try {
-			int npoints = data.length - startAt;
+			int npoints = data.size() - startAt;
+			releaseLazyColumn(false);
+			compactValues = null;
+			floatPrecision = false;
 			if (values == null || values.length != npoints)
 				values = new double[npoints];
 
 			for (int i = 0; i < npoints; i++) {
-				values[i] = CsvNumberParsing.parseDouble(data[startAt + i]);
+				values[i] = data.getDouble(startAt + i);
 			}
 			return true;
 
@@ -587,16 +858,22 @@ public class SpotMeasure {
 	 * @return true if successful
 	 */
 	public boolean importIsPresentFromCsv(String[] data, int startAt) {
-		if (data == null || data.length < startAt + 1) {
+		return data != null && importIsPresentFromCsv(CsvRow.of(data), startAt);
+	}
+
+	/** Same as {@link #importIsPresentFromCsv(String[], int)}, cells parsed in place. */
+	public boolean importIsPresentFromCsv(CsvRow data, int startAt) {
+		if (data == null || data.size() < startAt + 1) {
 			return false;
 		}
 		try {
-			int npoints = data.length - startAt;
+			int npoints = data.size() - startAt;
+			releaseLazyColumn(true);
 			if (isPresent == null || isPresent.length != npoints) {
 				isPresent = new int[npoints];
 			}
 			for (int i = 0; i < npoints; i++) {
-				isPresent[i] = Integer.parseInt(data[startAt + i]);
+				isPresent[i] = data.getInt(startAt + i);
 			}
 			return true;
 		} catch (NumberFormatException e) {
@@ -6,6 +6,7 @@ import java.util.List;
 
 import icy.roi.ROI2D;
 import plugins.fmp.multitools.series.options.BuildSeriesOptions;
+import plugins.fmp.multitools.tools.stats.RunningMedian;
 
 /**
  * Spot measures for the color-distance pipeline ({@code EnumResults} keys {@code AREA_COUNT_V6}, {@code GREY_SUM_V6},
@@ -132,7 +133,7 @@ public final class SpotMeasurementsColor {
 				suppressUpwardSpikesPastMedian(work, spikeHw, spikeRatio);
 			}
 		}
-		double[] out = runningMedianIgnoringNaN(work, GREY_SUM_CLEAN_MEDIAN_SPAN);
+		double[] out = RunningMedian.centered(work, GREY_SUM_CLEAN_MEDIAN_SPAN);
 		fillNaNPlateausFromFirstLastFinite(out);
 		greySumClean.setValues(out);
 	}
@@ -357,35 +358,6 @@ public final class SpotMeasurementsColor {
 		}
 	}
 
-	private static double[] runningMedianIgnoringNaN(double[] values, int span) {
-		int n = values.length;
-		double[] out = new double[n];
-		for (int i = 0; i < n; i++) {
-			int start = Math.max(0, i - span / 2);
-			int end = Math.min(n - 1, i + span / 2);
-			int count = end - start + 1;
-
-			double[] window = new double[count];
-			int m = 0;
-			for (int j = start; j <= end; j++) {
-				double v = values[j];
-				if (Double.isFinite(v)) {
-					window[m++] = v;
-				}
-			}
-
-			if (m == 0) {
-				out[i] = Double.NaN;
-				continue;
-			}
-
-			double[] finite = (m == window.length) ? window : Arrays.copyOf(window, m);
-			Arrays.sort(finite);
-			out[i] = finite[m / 2];
-		}
-		return out;
-	}
-
 	private static void fillNaNPlateausFromFirstLastFinite(double[] a) {
 		if (a == null || a.length == 0) {
 			return;
@@ -13,6 +13,7 @@ import plugins.fmp.multitools.tools.ROI2D.ROIPersistenceUtils;
 import plugins.fmp.multitools.tools.results.EnumResults;
 import plugins.kernel.roi.roi2d.ROI2DShape;
 import plugins.fmp.multitools.tools.csv.CsvNumberParsing;
+import plugins.fmp.multitools.tools.csv.CsvRow;
 
 /**
  * Handles persistence (XML loading/saving, CSV export/import) for Spot.
@@ -338,7 +339,7 @@ public class SpotPersistence {
 		return Math.max(min, Math.min(max, v));
 	}
 
-	private static void importKymoY(SpotMeasure measure, String[] data, boolean x, boolean y) {
+	private static void importKymoY(SpotMeasure measure, CsvRow data, boolean x, boolean y) {
 		if (measure == null) {
 			return;
 		}
@@ -350,6 +351,11 @@ public class SpotPersistence {
 	}
 
 	public static void csvImportSpotData(Spot spot, EnumResults measureType, String[] data, boolean x, boolean y) {
+		csvImportSpotData(spot, measureType, CsvRow.of(data), x, y);
+	}
+
+	/** Same as {@link #csvImportSpotData(Spot, EnumResults, String[], boolean, boolean)} on a reader row. */
+	public static void csvImportSpotData(Spot spot, EnumResults measureType, CsvRow data, boolean x, boolean y) {
 		switch (measureType) {
 		case AREA_SUM:
 			if (x && y) {
@@ -9,6 +9,7 @@ import icy.roi.ROI2D;
 import plugins.fmp.multitools.experiment.Experiment;
 import plugins.fmp.multitools.experiment.spots.Spots;
 import plugins.fmp.multitools.tools.results.AggSumCleanPolicy;
+import plugins.fmp.multitools.tools.results.MeasureColumn;
 import plugins.fmp.multitools.tools.results.ResultsOptions;
 
 /**
@@ -299,12 +300,12 @@ public final class SpotPreConsumedSupport {
 		if (m == null) {
 			return 1.0;
 		}
-		double[] values = m.getValues();
-		if (values == null || values.length == 0) {
+		MeasureColumn values = m.getValuesColumn();
+		if (values == null || values.size() == 0) {
 			return 1.0;
 		}
 
-		int n = values.length;
+		int n = values.size();
 		if (camTimeMin != null) {
 			n = Math.min(n, camTimeMin.length);
 		}
@@ -344,7 +345,7 @@ public final class SpotPreConsumedSupport {
 			if (baselineEndMin > 0.0 && t > baselineEndMin) {
 				break;
 			}
-			double v = values[i];
+			double v = values.get(i);
 			if (Double.isFinite(v) && v > max) {
 				max = v;
 				stableCount = 0;
@@ -3,6 +3,7 @@ package plugins.fmp.multitools.experiment.spot;
 import java.awt.Color;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -51,6 +52,12 @@ public class SpotProperties {
 	/** ROI stroke width before pre-consumed visual; NaN = not saved. */
 	private float roiStrokeBeforePreConsumed = Float.NaN;
 
+	/**
+	 * Bumped whenever a name, cage ID, unique ID or spot ROI changes, so lookups keyed on them
+	 * ({@link plugins.fmp.multitools.experiment.spots.Spots}) know when to rebuild.
+	 */
+	private static final AtomicInteger KEY_REVISION = new AtomicInteger();
+
 	// === XML CONSTANTS ===
 	static final String IDS_SPOTPROPS = "spotProperties";
 	private static final String ID_DESCOK = "descriptionOK";
@@ -120,7 +127,20 @@ public class SpotProperties {
 	 */
 	public SpotProperties(SpotProperties source) {
 		Objects.requireNonNull(source, "Source properties cannot be null");
-		copyFrom(source);
+		// not in any spot list yet: no key revision
+		copyFields(source);
+	}
+
+	/**
+	 * Current revision of the spot keys (name, cage ID, unique ID, ROI) over all spots; compare two
+	 * reads to know whether any of them changed in between.
+	 */
+	public static int getKeyRevision() {
+		return KEY_REVISION.get();
+	}
+
+	static void keysChanged() {
+		KEY_REVISION.incrementAndGet();
 	}
 
 	// === CORE OPERATIONS ===
@@ -133,7 +153,15 @@ public class SpotProperties {
 	 */
 	public void copyFrom(SpotProperties source) {
 		Objects.requireNonNull(source, "Source properties cannot be null");
+		boolean keysChange = !Objects.equals(name, source.name) || cageID != source.cageID
+				|| !Objects.equals(spotUniqueID, source.spotUniqueID);
+		copyFields(source);
+		if (keysChange) {
+			keysChanged();
+		}
+	}
 
+	private void copyFields(SpotProperties source) {
 		this.version = source.version;
 		this.name = source.name;
 		this.cageID = source.cageID;
@@ -203,7 +231,10 @@ public class SpotProperties {
 	 * @param sourceName the source name
 	 */
 	public void setName(String sourceName) {
-		this.name = sourceName;
+		if (!Objects.equals(this.name, sourceName)) {
+			this.name = sourceName;
+			keysChanged();
+		}
 	}
 
 	/**
@@ -221,7 +252,10 @@ public class SpotProperties {
 	 * @param cageID the cage ID
 	 */
 	public void setCageID(int cageID) {
-		this.cageID = cageID;
+		if (this.cageID != cageID) {
+			this.cageID = cageID;
+			keysChanged();
+		}
 	}
 
 	/**
@@ -245,7 +279,10 @@ public class SpotProperties {
 			throw new IllegalStateException("Cannot modify spotUniqueID after it has been set. Current value: "
 					+ this.spotUniqueID + ", attempted value: " + spotUniqueID);
 		}
-		this.spotUniqueID = spotUniqueID;
+		if (this.spotUniqueID == null && spotUniqueID != null) {
+			this.spotUniqueID = spotUniqueID;
+			keysChanged();
+		}
 	}
 
 	/**
@@ -719,6 +756,7 @@ public class SpotProperties {
 			if (loadedSpotUniqueID >= 0) {
 				this.spotUniqueID = new SpotID(loadedSpotUniqueID);
 			}
+			keysChanged();
 			this.cagePosition = XMLUtil.getElementIntValue(spotPropertiesNode, ID_CAGEPOSITION, cagePosition);
 			this.cageColumn = XMLUtil.getElementIntValue(spotPropertiesNode, ID_CAGECOLUMN, cageColumn);
 			this.cageRow = XMLUtil.getElementIntValue(spotPropertiesNode, ID_CAGEROW, cageRow);
@@ -4,9 +4,11 @@ import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -25,11 +27,15 @@ import plugins.fmp.multitools.experiment.sequence.SequenceCamData;
 import plugins.fmp.multitools.experiment.spot.Spot;
 import plugins.fmp.multitools.experiment.spot.SpotMeasure;
 import plugins.fmp.multitools.experiment.spot.SpotPreConsumedSupport;
+import plugins.fmp.multitools.experiment.spot.SpotProperties;
 import plugins.fmp.multitools.series.options.BuildSeriesOptions;
 import plugins.fmp.multitools.tools.Comparators;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.ROI2D.ROI2DWithMask;
 import plugins.fmp.multitools.tools.results.EnumResults;
+import plugins.fmp.multitools.tools.results.MeasureColumn;
+import plugins.fmp.multitools.tools.stats.RobustStats;
+import plugins.fmp.multitools.tools.stats.RunningMedian;
 import plugins.kernel.roi.roi2d.ROI2DShape;
 
 /**
@@ -61,14 +67,41 @@ public class Spots {
 	private static final int DEFAULT_VERSION = 2;
 
 	// === CORE FIELDS ===
-	private final List<Spot> spotList;
+	private final SpotList spotList;
 	private SpotsPersistence persistence = new SpotsPersistence();
 	private int cachedMaxSpotId = -1;
+	/** Storage of measures once loaded or saved; DOUBLE keeps them exactly as measured. */
+	private MeasureColumn.Encoding measuresEncoding = MeasureColumn.Encoding.DOUBLE;
+
+	// Lookup indexes (guarded by this), valid while the list version and key revision match
+	private final Map<SpotID, Spot> spotsByID = new HashMap<>();
+	private final Map<String, Spot> spotsByName = new HashMap<>();
+	private final Map<Integer, List<Spot>> spotsByCage = new HashMap<>();
+	private int indexedListVersion = -1;
+	private int indexedKeyRevision = -1;
+
+	/**
+	 * Spot list that exposes its structural modification count, so the indexes see changes made
+	 * through {@link #getSpotList()} as well; {@code set} counts as a modification here.
+	 */
+	private static final class SpotList extends ArrayList<Spot> {
+		private static final long serialVersionUID = 1L;
+
+		int version() {
+			return modCount;
+		}
+
+		@Override
+		public Spot set(int index, Spot spot) {
+			modCount++;
+			return super.set(index, spot);
+		}
+	}
 
 	// === CONSTRUCTORS ===
 
 	public Spots() {
-		this.spotList = new ArrayList<>();
+		this.spotList = new SpotList();
 	}
 
 	// === PERSISTENCE ===
@@ -77,6 +110,18 @@ public class Spots {
 		return persistence;
 	}
 
+	public MeasureColumn.Encoding getMeasuresEncoding() {
+		return measuresEncoding;
+	}
+
+	/**
+	 * Opt-in compaction of the measures after {@link #loadMeasures} and {@link #saveMeasures}: FLOAT
+	 * or INT16 cut their heap use on large plates, at the cost of precision in the next save.
+	 */
+	public void setMeasuresEncoding(MeasureColumn.Encoding encoding) {
+		this.measuresEncoding = encoding != null ? encoding : MeasureColumn.Encoding.DOUBLE;
+	}
+
 	// === SPOTS MANAGEMENT ===
 
 	public List<Spot> getSpotList() {
@@ -173,20 +218,73 @@ public class Spots {
 		}
 	}
 
+	/**
+	 * Number that changes whenever spots are added, removed or replaced, or when a name, cage ID,
+	 * unique ID or ROI of any spot changes; views derived from the list stay valid while it is
+	 * unchanged.
+	 */
+	public long getVersion() {
+		synchronized (this) {
+			return ((long) spotList.version() << 32) | (SpotProperties.getKeyRevision() & 0xffffffffL);
+		}
+	}
+
 	// === SPOT SEARCH ===
 
+	/** Rebuilds the lookup indexes if the list or a spot key changed; caller holds the lock. */
+	private void ensureIndexes() {
+		int listVersion = spotList.version();
+		int keyRevision = SpotProperties.getKeyRevision();
+		if (listVersion == indexedListVersion && keyRevision == indexedKeyRevision) {
+			return;
+		}
+		spotsByID.clear();
+		spotsByName.clear();
+		spotsByCage.clear();
+		for (Spot spot : spotList) {
+			if (spot == null) {
+				continue;
+			}
+			// first spot in list order wins, as with a linear search
+			SpotID spotID = spot.getSpotUniqueID();
+			if (spotID != null) {
+				spotsByID.putIfAbsent(spotID, spot);
+			}
+			String name = spot.getName();
+			if (name != null) {
+				spotsByName.putIfAbsent(name, spot);
+			}
+			if (spot.getProperties() != null) {
+				spotsByCage.computeIfAbsent(spot.getProperties().getCageID(), k -> new ArrayList<>()).add(spot);
+			}
+		}
+		// revision read before the pass: a name filled in lazily above triggers one more rebuild
+		indexedListVersion = listVersion;
+		indexedKeyRevision = keyRevision;
+	}
+
 	public Spot findSpotByName(String name) {
 		if (name == null || name.trim().isEmpty()) {
 			return null;
 		}
 		synchronized (this) {
-			for (Spot spot : spotList) {
-				if (spot != null && name.equals(spot.getName())) {
-					return spot;
-				}
-			}
+			ensureIndexes();
+			return spotsByName.get(name);
+		}
+	}
+
+	/**
+	 * Spots whose cage ID is {@code cageID}, in list order.
+	 * 
+	 * @param cageID the cage ID
+	 * @return a new list, empty if none
+	 */
+	public List<Spot> findSpotsInCage(int cageID) {
+		synchronized (this) {
+			ensureIndexes();
+			List<Spot> spots = spotsByCage.get(cageID);
+			return spots != null ? new ArrayList<>(spots) : new ArrayList<>();
 		}
-		return null;
 	}
 
 	public List<Spot> findSpotsContainingPattern(String pattern) {
@@ -207,13 +305,9 @@ public class Spots {
 			return false;
 		}
 		synchronized (this) {
-			for (Spot spot : spotList) {
-				if (spot != null && newSpotName.equals(spot.getName())) {
-					return true;
-				}
-			}
+			ensureIndexes();
+			return spotsByName.containsKey(newSpotName);
 		}
-		return false;
 	}
 
 	public Spot findSpotwithID(SpotID spotID) {
@@ -221,13 +315,9 @@ public class Spots {
 			return null;
 		}
 		synchronized (this) {
-			for (Spot spot : spotList) {
-				if (spot != null && spot.getSpotUniqueID() != null && spot.getSpotUniqueID().equals(spotID)) {
-					return spot;
-				}
-			}
+			ensureIndexes();
+			return spotsByID.get(spotID);
 		}
-		return null;
 	}
 
 	// === DATA LOADING ===
@@ -252,7 +342,11 @@ public class Spots {
 	 * @return true if successful
 	 */
 	public boolean loadMeasures(String binDirectory) {
-		return persistence.loadMeasures(this, binDirectory);
+		boolean loaded = persistence.loadMeasures(this, binDirectory);
+		if (loaded && measuresEncoding != MeasureColumn.Encoding.DOUBLE) {
+			compactMeasures(measuresEncoding);
+		}
+		return loaded;
 	}
 
 	/**
@@ -288,7 +382,12 @@ public class Spots {
 	 * @return true if successful
 	 */
 	public boolean saveMeasures(String binDirectory) {
-		return persistence.saveMeasures(this, binDirectory);
+		boolean saved = persistence.saveMeasures(this, binDirectory);
+		if (saved && measuresEncoding != MeasureColumn.Encoding.DOUBLE) {
+			// measures are now mostly read (charts, exports) until the next detection
+			compactMeasures(measuresEncoding);
+		}
+		return saved;
 	}
 
 	/**
@@ -656,6 +755,20 @@ public class Spots {
 		}
 	}
 
+	/**
+	 * Stores every spot measure as float or int16 columns while they are only read (charts,
+	 * exports of large plates); values expand back to double on the next edit. Called after
+	 * {@link #loadMeasures} and {@link #saveMeasures} when {@link #setMeasuresEncoding} asked for it;
+	 * file-backed measures are skipped.
+	 */
+	public void compactMeasures(MeasureColumn.Encoding encoding) {
+		for (Spot spot : copySpotListForRead()) {
+			if (spot != null) {
+				spot.compactMeasures(encoding);
+			}
+		}
+	}
+
 	/**
 	 * Pushes 1D measure values into Level2D for the given spots (e.g. after
 	 * in-memory rebuild of sumNoFly / sumClean).
@@ -965,8 +1078,8 @@ public class Spots {
 		if (sc == null) {
 			return false;
 		}
-		double[] v = sc.getValues();
-		return v != null && v.length > 0;
+		MeasureColumn v = sc.getValuesColumn();
+		return v != null && v.size() > 0;
 	}
 
 	private static List<Spot> filterSpotsReadyForSumCleanV3(List<Spot> in) {
@@ -1009,13 +1122,13 @@ public class Spots {
 					scratch[m++] = val - spotBaseline[i];
 				}
 			}
-			rRaw[t] = medianOfFirstM(scratch, m);
+			rRaw[t] = RobustStats.upperMedian(scratch, m);
 		}
 		int span = Math.max(1, wSmoothBins);
 		if ((span & 1) == 0) {
 			span++;
 		}
-		double[] rSmooth = runningMedianIgnoringNaN(rRaw, span);
+		double[] rSmooth = RunningMedian.centered(rRaw, span);
 		for (int i = 0; i < nPool; i++) {
 			Spot s = pool.get(i);
 			double bi = spotBaseline[i];
@@ -1057,16 +1170,7 @@ public class Spots {
 		if (m == 0) {
 			return 0.0;
 		}
-		Arrays.sort(scratch, 0, m);
-		return scratch[m / 2];
-	}
-
-	private static double medianOfFirstM(double[] scratch, int m) {
-		if (m <= 0) {
-			return Double.NaN;
-		}
-		java.util.Arrays.sort(scratch, 0, m);
-		return scratch[m / 2];
+		return RobustStats.upperMedian(scratch, m);
 	}
 
 	/**
@@ -1120,7 +1224,7 @@ public class Spots {
 		if (values == null || values.length == 0) {
 			return;
 		}
-		int[] fly = spot.getFlyPresent() != null ? spot.getFlyPresent().getIsPresent() : null;
+		int[] fly = spot.getFlyPresent() != null ? spot.getFlyPresent().getIsPresentView() : null;
 		if (fly == null || fly.length != values.length) {
 			return;
 		}
@@ -1221,7 +1325,7 @@ public class Spots {
 			return;
 		}
 
-		int[] fly = spot.getFlyPresent() != null ? spot.getFlyPresent().getIsPresent() : null;
+		int[] fly = spot.getFlyPresent() != null ? spot.getFlyPresent().getIsPresentView() : null;
 		double[] reconstructed;
 		if (fly != null && fly.length == sumIn.length) {
 			int minFlyPx = computeMinFlyPixelsToTreatOccupiedForReconstruction(spot,
@@ -1255,7 +1359,7 @@ public class Spots {
 			return;
 		}
 
-		int[] fly = spot.getFlyPresent() != null ? spot.getFlyPresent().getIsPresent() : null;
+		int[] fly = spot.getFlyPresent() != null ? spot.getFlyPresent().getIsPresentView() : null;
 		double[] reconstructed;
 		if (fly != null && fly.length == sumV2.length) {
 			int minFlyPx = computeMinFlyPixelsToTreatOccupiedForReconstruction(spot,
@@ -1288,7 +1392,7 @@ public class Spots {
 		if (in == null || in.length == 0) {
 			return;
 		}
-		double[] out = runningMedianIgnoringNaN(in, span);
+		double[] out = RunningMedian.centered(in, span);
 		fillNaNPlateausFromFirstLastFinite(out);
 		sumClean.setValues(out);
 	}
@@ -1307,7 +1411,7 @@ public class Spots {
 		if (in == null || in.length == 0) {
 			return;
 		}
-		double[] out = runningMedianIgnoringNaN(in, span);
+		double[] out = RunningMedian.centered(in, span);
 		for (int i = 0; i < out.length; i++) {
 			double v = out[i];
 			if (Double.isFinite(v) && v < 0.0) {
@@ -1349,35 +1453,6 @@ public class Spots {
 		}
 	}
 
-	private static double[] runningMedianIgnoringNaN(double[] values, int span) {
-		int n = values.length;
-		double[] out = new double[n];
-		for (int i = 0; i < n; i++) {
-			int start = Math.max(0, i - span / 2);
-			int end = Math.min(n - 1, i + span / 2);
-			int count = end - start + 1;
-
-			double[] window = new double[count];
-			int m = 0;
-			for (int j = start; j <= end; j++) {
-				double v = values[j];
-				if (Double.isFinite(v)) {
-					window[m++] = v;
-				}
-			}
-
-			if (m == 0) {
-				out[i] = Double.NaN;
-				continue;
-			}
-
-			double[] finite = (m == window.length) ? window : java.util.Arrays.copyOf(window, m);
-			java.util.Arrays.sort(finite);
-			out[i] = finite[m / 2];
-		}
-		return out;
-	}
-
 	private static double clampFlyOccupancyFraction(double f) {
 		if (!Double.isFinite(f) || f <= 0)
 			return DEFAULT_FLY_OCCUPANCY_FRACTION_OF_ROI_FOR_SUMNOFLY;
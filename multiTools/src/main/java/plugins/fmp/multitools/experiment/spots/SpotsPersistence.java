@@ -2,13 +2,18 @@ package plugins.fmp.multitools.experiment.spots;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import plugins.fmp.multitools.experiment.ids.SpotID;
+import plugins.fmp.multitools.experiment.persistence.MeasuresBinaryFile;
+import plugins.fmp.multitools.experiment.spot.Spot;
+import plugins.fmp.multitools.experiment.spot.SpotMeasure;
 import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.csv.CsvReader;
+import plugins.fmp.multitools.tools.csv.CsvWriter;
 import plugins.fmp.multitools.tools.results.EnumResults;
 
 /**
@@ -375,9 +380,10 @@ public class SpotsPersistence {
 				return false;
 			}
 
-			try (BufferedReader reader = new BufferedReader(new FileReader(csvPath.toFile()))) {
-				String firstLine = reader.readLine();
-				if (firstLine == null || !firstLine.startsWith("#")) {
+			// single pass: the header is checked, then the sections are parsed from the same reader
+			boolean headerRead = false;
+			try (CsvReader reader = CsvReader.open(csvPath.toFile(), ';')) {
+				if (!reader.nextRow() || !reader.isComment()) {
 					if (kymoSectionsOnly) {
 						return false;
 					}
@@ -386,9 +392,7 @@ public class SpotsPersistence {
 					return SpotsPersistenceLegacy.loadMeasuresWithFallback(spotsArray, binDirectory);
 				}
 
-				String sep = String.valueOf(firstLine.charAt(1));
-				String[] versionData = firstLine.split(sep);
-				if (versionData.length < 3 || !versionData[1].equals("version")) {
+				if (reader.size() < 3 || !reader.cellEquals(1, "version")) {
 					if (kymoSectionsOnly) {
 						return false;
 					}
@@ -397,48 +401,44 @@ public class SpotsPersistence {
 					return SpotsPersistenceLegacy.loadMeasuresWithFallback(spotsArray, binDirectory);
 				}
 
-				String fileVersion = versionData[2];
-				if (!fileVersion.equals(CSV_VERSION)) {
-					Logger.warn("SpotsPersistence: File version " + fileVersion + " differs from current version "
+				if (!reader.cellEquals(2, CSV_VERSION)) {
+					Logger.warn("SpotsPersistence: File version " + reader.get(2) + " differs from current version "
 							+ CSV_VERSION);
 				}
-			} catch (IOException e) {
-				if (kymoSectionsOnly) {
-					return false;
-				}
-				Logger.error("SpotsPersistence: Error reading file header: " + e.getMessage(), e);
-				return SpotsPersistenceLegacy.loadMeasuresWithFallback(spotsArray, binDirectory);
-			}
-
-			boolean any = false;
-			try (BufferedReader reader = new BufferedReader(new FileReader(csvPath.toFile()))) {
-				String line;
-				String sep = ";";
+				headerRead = true;
 
-				while ((line = reader.readLine()) != null) {
-					if (line.length() > 0 && line.charAt(0) == '#')
-						sep = String.valueOf(line.charAt(1));
+				// index only: each spot measure reads its column on first use (see SpotMeasure#bindLazyColumn)
+				MeasuresBinaryFile binary = MeasuresBinaryFile.readIndexIfCurrent(csvPath);
+				if (binary != null) {
+					return loadMeasuresFromBinary(spotsArray, binary, kymoSectionsOnly);
+				}
 
-					String[] data = line.split(sep);
-					if (data.length > 0 && data[0].equals("#")) {
-						if (data.length > 1) {
-							if (data[1].equals("version")) {
-								continue;
-							}
-							EnumResults measure = EnumResults.findByPersistenceKey(data[1]);
-							if (measure == null || !measure.isPersistedIn(EnumResults.PersistenceDomain.SPOT)) {
-								continue;
-							}
-							if (kymoSectionsOnly && !measure.isPersistedKymographSpotMeasure()) {
-								continue;
-							}
-							SpotsPersistenceLegacy.csvLoad_Spots_Measures(spotsArray, reader, measure, sep);
-							any = true;
+				boolean any = false;
+				while (reader.nextRow()) {
+					if (reader.size() > 1 && reader.cellEquals(0, "#")) {
+						if (reader.cellEquals(1, "version")) {
+							continue;
+						}
+						EnumResults measure = EnumResults.findByPersistenceKey(reader.get(1));
+						if (measure == null || !measure.isPersistedIn(EnumResults.PersistenceDomain.SPOT)) {
+							continue;
+						}
+						if (kymoSectionsOnly && !measure.isPersistedKymographSpotMeasure()) {
+							continue;
 						}
+						SpotsPersistenceLegacy.csvLoad_Spots_Measures(spotsArray, reader, measure);
+						any = true;
 					}
 				}
 				return kymoSectionsOnly ? any : true;
 			} catch (Exception e) {
+				if (!headerRead && e instanceof IOException) {
+					if (kymoSectionsOnly) {
+						return false;
+					}
+					Logger.error("SpotsPersistence: Error reading file header: " + e.getMessage(), e);
+					return SpotsPersistenceLegacy.loadMeasuresWithFallback(spotsArray, binDirectory);
+				}
 				Logger.error("SpotsArrayPersistence:loadMeasures() Failed: " + e.getMessage(), e, true);
 				return false;
 			}
@@ -461,11 +461,12 @@ public class SpotsPersistence {
 			}
 
 			Path csvPath = Paths.get(resultsDirectory, ID_V2_SPOTSARRAY_CSV);
-			try (FileWriter writer = new FileWriter(csvPath.toFile())) {
+			try (CsvWriter writer = CsvWriter.open(csvPath)) {
 				writer.write("#;version;" + CSV_VERSION + "\n");
 				if (!SpotsPersistenceLegacy.csvSave_DescriptionSection(spotsArray, writer, ";")) {
 					return false;
 				}
+				writer.commit();
 				Logger.debug("SpotsArrayPersistence:saveSpotsArray() saved " + spotsArray.getSpotListCount()
 						+ " spot descriptions to " + ID_V2_SPOTSARRAY_CSV);
 				return true;
@@ -502,7 +503,7 @@ public class SpotsPersistence {
 			}
 
 			Path csvPath = Paths.get(binDirectory, ID_V2_SPOTSARRAYMEASURES_CSV);
-			try (FileWriter writer = new FileWriter(csvPath.toFile())) {
+			try (CsvWriter writer = CsvWriter.open(csvPath)) {
 				writer.write("#;version;" + CSV_VERSION + "\n");
 				if (!SpotsPersistenceLegacy.csvSave_MeasuresSection(spotsArray, writer, EnumResults.AREA_SUM, ";")) {
 					return false;
@@ -551,13 +552,15 @@ public class SpotsPersistence {
 						";")) {
 					return false;
 				}
+				writer.commit();
 				Logger.debug("SpotsArrayPersistence:save_SpotsArrayMeasures() saved measures to "
 						+ ID_V2_SPOTSARRAYMEASURES_CSV);
-				return true;
 			} catch (IOException e) {
 				Logger.error("SpotsArrayPersistence:save_SpotsArrayMeasures() Failed: " + e.getMessage(), e, true);
 				return false;
 			}
+			saveMeasuresBinary(spotsArray, csvPath, CAMERA_MEASURES);
+			return true;
 		}
 
 		public static boolean saveKymoMeasures(Spots spotsArray, String kymoBinDirectory) {
@@ -575,7 +578,7 @@ public class SpotsPersistence {
 				return false;
 			}
 			Path csvPath = Paths.get(kymoBinDirectory, ID_V2_SPOTSARRAYMEASURES_CSV);
-			try (FileWriter writer = new FileWriter(csvPath.toFile())) {
+			try (CsvWriter writer = CsvWriter.open(csvPath)) {
 				writer.write("#;version;" + CSV_VERSION + "\n");
 				if (!SpotsPersistenceLegacy.csvSave_MeasuresSection(spotsArray, writer, EnumResults.KYMO_FRACT, ";")) {
 					return false;
@@ -592,12 +595,91 @@ public class SpotsPersistence {
 						EnumResults.KYMO_GREEN_HEIGHT_RATIO, ";")) {
 					return false;
 				}
+				writer.commit();
 				Logger.debug("SpotsArrayPersistence:saveKymoMeasures() saved to " + ID_V2_SPOTSARRAYMEASURES_CSV);
-				return true;
 			} catch (IOException e) {
 				Logger.error("SpotsArrayPersistence:saveKymoMeasures() Failed: " + e.getMessage(), e, true);
 				return false;
 			}
+			saveMeasuresBinary(spotsArray, csvPath, KYMO_MEASURES);
+			return true;
+		}
+
+		/** Sections of {@code SpotsMeasures.csv} written by {@link #saveMeasures}, in file order. */
+		private static final EnumResults[] CAMERA_MEASURES = { EnumResults.AREA_SUM, EnumResults.AREA_SUMNOFLY,
+				EnumResults.AREA_FLYPRESENT, EnumResults.AREA_SUMCLEAN_V3, EnumResults.AREA_COUNT_V5,
+				EnumResults.GREY_SUM_V5, EnumResults.GREY_SUM_V5_PREFLY, EnumResults.GREY_SUM_CLEAN_V5,
+				EnumResults.AREA_COUNT_COLOR, EnumResults.GREY_SUM_COLOR, EnumResults.GREY_SUM_COLOR_PREFLY,
+				EnumResults.GREY_SUM_CLEAN_COLOR };
+
+		/** Sections written by {@link #saveKymoMeasures}. */
+		private static final EnumResults[] KYMO_MEASURES = { EnumResults.KYMO_FRACT, EnumResults.KYMO_ABS_DELTA,
+				EnumResults.KYMO_GREEN_HEIGHT, EnumResults.KYMO_GREEN_HEIGHT_RATIO };
+
+		/**
+		 * Mirrors the measures just written to {@code csvPath} into its binary sibling
+		 * ({@link MeasuresBinaryFile}); {@code AREA_FLYPRESENT} is stored as int presence flags.
+		 */
+		private static void saveMeasuresBinary(Spots spotsArray, Path csvPath, EnumResults[] measures) {
+			MeasuresBinaryFile binary = new MeasuresBinaryFile();
+			for (EnumResults measureType : measures) {
+				String section = measureType.toPersistenceKey();
+				for (Spot spot : spotsArray.getSpotList()) {
+					SpotMeasure measure = spot.getMeasurements(measureType);
+					if (measure == null) {
+						continue;
+					}
+					String name = spot.getProperties().getName();
+					int index = spot.getProperties().getSpotArrayIndex();
+					if (measureType == EnumResults.AREA_FLYPRESENT) {
+						binary.addInts(section, name, index, measure.getIsPresentView());
+					} else {
+						binary.addDoubles(section, name, index, measure.getValuesColumn());
+					}
+				}
+			}
+			binary.writeNextTo(csvPath);
+		}
+
+		/**
+		 * Same effect as the CSV parser of {@link #loadMeasures(Spots, String, boolean)}, except that
+		 * the samples stay on disk until a measure is first used.
+		 */
+		private static boolean loadMeasuresFromBinary(Spots spotsArray, MeasuresBinaryFile binary,
+				boolean kymoSectionsOnly) {
+			boolean any = false;
+			for (MeasuresBinaryFile.Column column : binary.getColumns()) {
+				EnumResults measureType = EnumResults.findByPersistenceKey(column.getSection());
+				if (measureType == null || !measureType.isPersistedIn(EnumResults.PersistenceDomain.SPOT)) {
+					continue;
+				}
+				if (kymoSectionsOnly && !measureType.isPersistedKymographSpotMeasure()) {
+					continue;
+				}
+				String spotName = column.getRow();
+				if (spotName.trim().isEmpty()) {
+					continue;
+				}
+				Spot spot = spotsArray.findSpotByName(spotName);
+				if (spot == null) {
+					spot = new Spot();
+					spot.getProperties().setName(spotName);
+					spot.setSpotUniqueID(new SpotID(spotsArray.getNextUniqueSpotID()));
+					spotsArray.addSpot(spot);
+				}
+				SpotMeasure measure = spot.getMeasurements(measureType);
+				if (measure == null) {
+					continue;
+				}
+				if (column.isInt() != (measureType == EnumResults.AREA_FLYPRESENT)) {
+					continue;
+				}
+				measure.bindLazyColumn(column);
+				any = true;
+			}
+			Logger.debug("SpotsArrayPersistence:loadMeasures() loaded " + binary.getColumns().size()
+					+ " columns from binary measures");
+			return kymoSectionsOnly ? any : true;
 		}
 	}
 }
@@ -2,8 +2,8 @@ package plugins.fmp.multitools.experiment.spots;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -12,6 +12,7 @@ import plugins.fmp.multitools.experiment.ids.SpotID;
 import plugins.fmp.multitools.experiment.spot.Spot;
 import plugins.fmp.multitools.experiment.spot.SpotPersistence;
 import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.csv.CsvReader;
 import plugins.fmp.multitools.tools.results.EnumResults;
 
 /**
@@ -345,11 +346,43 @@ public class SpotsPersistenceLegacy {
 		return null;
 	}
 
+	/**
+	 * Same as {@link #csvLoad_Spots_Measures(Spots, BufferedReader, EnumResults, String)} on the
+	 * rows of {@code reader}, whose cells are parsed in place.
+	 */
+	static String csvLoad_Spots_Measures(Spots spots, CsvReader reader, EnumResults measureType) throws IOException {
+		if (!reader.nextRow())
+			return null;
+		boolean y = true;
+		boolean x = reader.lineContains("xi");
+		while (reader.nextRow()) {
+			if (reader.size() == 0 || reader.cellEquals(0, "#"))
+				return reader.size() > 1 ? reader.get(1) : null;
+
+			String spotName = reader.get(0);
+			if (spotName.trim().isEmpty())
+				continue;
+
+			Spot spot = spots.findSpotByName(spotName);
+			if (spot == null) {
+				spot = new Spot();
+				spot.getProperties().setName(spotName);
+				if (spot.getSpotUniqueID() == null) {
+					int uniqueID = spots.getNextUniqueSpotID();
+					spot.setSpotUniqueID(new SpotID(uniqueID));
+				}
+				spots.addSpot(spot);
+			}
+			SpotPersistence.csvImportSpotData(spot, measureType, reader, x, y);
+		}
+		return null;
+	}
+
 	/**
 	 * Saves spots array section to CSV writer. Previously
 	 * csvSaveSpotsArraySection() in Spots.java.
 	 */
-	static boolean csvSave_DescriptionSection(Spots spots, FileWriter writer, String csvSeparator) throws IOException {
+	static boolean csvSave_DescriptionSection(Spots spots, Writer writer, String csvSeparator) throws IOException {
 		writer.write("#" + csvSeparator + "#\n");
 		writer.write("#" + csvSeparator + "SPOTS_ARRAY" + csvSeparator + "multiSPOTS data\n");
 		writer.write("n spots=" + csvSeparator + spots.getSpotListCount() + "\n");
@@ -373,7 +406,7 @@ public class SpotsPersistenceLegacy {
 	 * Saves spot measures section to CSV writer. Previously
 	 * csvSaveMeasuresSection() in Spots.java.
 	 */
-	static boolean csvSave_MeasuresSection(Spots spots, FileWriter writer, EnumResults measureType, String csvSeparator)
+	static boolean csvSave_MeasuresSection(Spots spots, Writer writer, EnumResults measureType, String csvSeparator)
 			throws IOException {
 		writer.write(SpotPersistence.csvExportMeasureSectionHeader(measureType, csvSeparator));
 
@@ -2,8 +2,6 @@ package plugins.fmp.multitools.series;
 
 import java.awt.Color;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -12,7 +10,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import javax.imageio.ImageIO;
 import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 
@@ -23,9 +20,11 @@ import icy.sequence.Sequence;
 import icy.system.thread.Processor;
 import plugins.fmp.multitools.experiment.Experiment;
 import plugins.fmp.multitools.series.options.BuildSeriesOptions;
+import plugins.fmp.multitools.tools.DecodedFrameCache;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.ViewerFMP;
 import plugins.fmp.multitools.tools.JComponents.JComboBoxExperimentLazy;
+import plugins.fmp.multitools.tools.registration.FrameTransformTable;
 import plugins.kernel.roi.roi2d.ROI2DRectangle;
 
 public abstract class BuildSeries extends SwingWorker<Integer, Integer> {
@@ -236,13 +235,12 @@ public abstract class BuildSeries extends SwingWorker<Integer, Integer> {
 	}
 
 	public IcyBufferedImage imageIORead(String name) {
-		BufferedImage image = null;
 		try {
-			image = ImageIO.read(new File(name));
+			return FrameTransformTable.applyTo(name, DecodedFrameCache.shared().read(name));
 		} catch (IOException e) {
 			e.printStackTrace();
+			return null;
 		}
-		return IcyBufferedImage.createFrom(image);
 	}
 
 	protected boolean loadSeqCamDataAndCages(Experiment exp) {
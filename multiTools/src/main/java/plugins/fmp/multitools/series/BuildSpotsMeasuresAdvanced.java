@@ -1,6 +1,7 @@
 package plugins.fmp.multitools.series;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,7 +27,9 @@ import plugins.fmp.multitools.tools.ROI2D.ProcessingException;
 import plugins.fmp.multitools.tools.ROI2D.ROI2DWithMask;
 import plugins.fmp.multitools.tools.ROI2D.ValidationException;
 import plugins.fmp.multitools.tools.imageTransform.CanvasImageTransformOptions;
+import plugins.fmp.multitools.tools.imageTransform.ImageRegions;
 import plugins.fmp.multitools.tools.imageTransform.ImageTransformInterface;
+import plugins.fmp.multitools.tools.imageTransform.TransformChain;
 
 /**
  * Advanced optimized version of BuildSpotsMeasures with streaming processing,
@@ -70,6 +73,10 @@ public class BuildSpotsMeasuresAdvanced extends BuildSeries {
 	ImageTransformInterface transformFunctionSpot = null;
 	CanvasImageTransformOptions transformOptions02 = null;
 	ImageTransformInterface transformFunctionFly = null;
+	private TransformChain transformChainSpot = null;
+	private TransformChain transformChainFly = null;
+	/** Bounds of the spot masks: the only pixels read from the transformed frames. */
+	private ImageRegions spotRegions = null;
 
 	// --------------------------------------------
 
@@ -172,7 +179,24 @@ public class BuildSpotsMeasuresAdvanced extends BuildSeries {
 			transformOptions02.transformOption = options.transform02;
 			transformOptions02.copyResultsToThe3planes = false;
 			transformFunctionFly = options.transform02.getFunction();
+
+			transformChainSpot = new TransformChain().add(options.transform01, transformOptions01);
+			transformChainFly = new TransformChain().add(options.transform02, transformOptions02);
+		}
+		spotRegions = buildSpotRegions(exp);
+	}
+
+	private ImageRegions buildSpotRegions(Experiment exp) {
+		List<Rectangle> rectangles = new ArrayList<Rectangle>();
+		Spots allSpots = exp.getSpots();
+		for (Cage cage : exp.getCages().cagesList) {
+			for (Spot spot : cage.getSpotList(allSpots)) {
+				ROI2DWithMask roiMask = spot.getROIMask();
+				if (roiMask != null && roiMask.getInputRoi() != null)
+					rectangles.add(roiMask.getInputRoi().getBounds());
+			}
 		}
+		return ImageRegions.of(rectangles);
 	}
 
 	private boolean measureSpotsAdvanced(Experiment exp) {
@@ -327,28 +351,29 @@ public class BuildSpotsMeasuresAdvanced extends BuildSeries {
 				transformToDetectFly = transformedImagePool.getImage();
 
 				if (transformToMeasureArea != null && transformToDetectFly != null) {
-					// Apply transformations to the pooled images
-					// Note: We need to copy the transformed data to the pooled images
-					IcyBufferedImage tempMeasureArea = transformFunctionSpot.getTransformedImage(sourceImage,
-							transformOptions01);
-					IcyBufferedImage tempDetectFly = transformFunctionFly.getTransformedImage(sourceImage,
-							transformOptions02);
-
-					// Copy data to pooled images
-					copyImageData(tempMeasureArea, transformToMeasureArea);
-					copyImageData(tempDetectFly, transformToDetectFly);
+					// Apply transformations to the pooled images; pixel-wise transforms write
+					// into them directly, others are copied
+					IcyBufferedImage tempMeasureArea = transformChainSpot.apply(sourceImage, transformToMeasureArea,
+							spotRegions);
+					IcyBufferedImage tempDetectFly = transformChainFly.apply(sourceImage, transformToDetectFly,
+							spotRegions);
+
+					if (tempMeasureArea != transformToMeasureArea)
+						copyImageData(tempMeasureArea, transformToMeasureArea);
+					if (tempDetectFly != transformToDetectFly)
+						copyImageData(tempDetectFly, transformToDetectFly);
 
 					totalTransformedImagesCreated += 2;
 				} else {
 					// Fallback to creating new images if pool is empty
-					transformToMeasureArea = transformFunctionSpot.getTransformedImage(sourceImage, transformOptions01);
-					transformToDetectFly = transformFunctionFly.getTransformedImage(sourceImage, transformOptions02);
+					transformToMeasureArea = transformChainSpot.apply(sourceImage, null, spotRegions);
+					transformToDetectFly = transformChainFly.apply(sourceImage, null, spotRegions);
 					totalTransformedImagesCreated += 2;
 				}
 			} else {
 				// Create new images if memory pool is disabled
-				transformToMeasureArea = transformFunctionSpot.getTransformedImage(sourceImage, transformOptions01);
-				transformToDetectFly = transformFunctionFly.getTransformedImage(sourceImage, transformOptions02);
+				transformToMeasureArea = transformChainSpot.apply(sourceImage, null, spotRegions);
+				transformToDetectFly = transformChainFly.apply(sourceImage, null, spotRegions);
 				totalTransformedImagesCreated += 2;
 			}
 
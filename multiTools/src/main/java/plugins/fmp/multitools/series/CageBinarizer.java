@@ -0,0 +1,186 @@
+package plugins.fmp.multitools.series;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import icy.image.IcyBufferedImage;
+import icy.roi.BooleanMask2D;
+import plugins.fmp.multitools.tools.polyline.Blobs;
+
+/**
+ * Fly binarization of one frame, computed cage by cage. For each cage, only its bounding box
+ * (grown by twice the closing radius, which is what a closing reads) is thresholded into rows of
+ * packed bits; the morphological close runs on those words and the result, restricted to the cage
+ * mask, is labelled with {@link Blobs}. Gives the same pixels as thresholding the whole frame,
+ * closing it with {@link DetectFlyTools#morphClose} and intersecting with the cage mask.
+ * <p>
+ * Scratch buffers are kept per thread, so cages of a frame can be processed in parallel and the
+ * steady state of a run does not allocate for binarization. A {@link Blobs} returned by
+ * {@link #label} reads the scratch buffer of the calling thread and must be used before that
+ * thread labels another cage.
+ */
+final class CageBinarizer {
+
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+	private final int width;
+	private final int height;
+	private final byte[] red;
+	private final byte[] green;
+	private final byte[] blue;
+	private final byte[] channel;
+	private final int threshold;
+	private final int radius;
+
+	/**
+	 * @param image       frame to binarize
+	 * @param threshold   flies are darker than threshold in {@code videoChannel}, or brighter on
+	 *                    average over RGB when {@code trackWhite}
+	 * @param closeRadius number of 3x3 dilations then erosions (clamped to 1-5), 0 for none
+	 */
+	CageBinarizer(IcyBufferedImage image, int threshold, boolean trackWhite, int videoChannel, int closeRadius) {
+		this.width = image.getSizeX();
+		this.height = image.getSizeY();
+		if (trackWhite) {
+			this.red = image.getDataXYAsByte(0);
+			this.green = image.getDataXYAsByte(1);
+			this.blue = image.getDataXYAsByte(2);
+			this.channel = null;
+			// (r + g + b) / 3 > threshold
+			this.threshold = 3 * threshold;
+		} else {
+			this.red = null;
+			this.green = null;
+			this.blue = null;
+			this.channel = image.getDataXYAsByte(videoChannel);
+			this.threshold = threshold;
+		}
+		this.radius = closeRadius <= 0 ? 0 : Math.min(5, closeRadius);
+	}
+
+	/** Blobs of the cage, or null when the cage does not overlap the frame. */
+	Blobs label(BooleanMask2D cageMask) {
+		return label(cageMask.bounds, cageMask.mask);
+	}
+
+	/**
+	 * Blobs of the foreground pixels within {@code cageMask} (covering {@code cageBounds}), in frame
+	 * coordinates, or null when the cage does not overlap the frame.
+	 */
+	Blobs label(Rectangle cageBounds, boolean[] cageMask) {
+		Rectangle cage = cageBounds.intersection(new Rectangle(0, 0, width, height));
+		if (cage.isEmpty())
+			return null;
+		Rectangle window = new Rectangle(cage);
+		window.grow(2 * radius, 2 * radius);
+		window = window.intersection(new Rectangle(0, 0, width, height));
+
+		Scratch scratch = SCRATCH.get();
+		int stride = (window.width + 63) >>> 6;
+		scratch.ensureBits(stride * window.height);
+		long[] bits = scratch.bits;
+		threshold(window, stride, bits);
+		if (radius > 0)
+			close(bits, scratch.work, stride, window.width, window.height);
+
+		int[] labels = scratch.ensureLabels(cage.width * cage.height);
+		for (int y = cage.y; y < cage.y + cage.height; y++) {
+			int bitRow = (y - window.y) * stride;
+			int maskRow = (y - cageBounds.y) * cageBounds.width - cageBounds.x;
+			int labelRow = (y - cage.y) * cage.width - cage.x;
+			for (int x = cage.x; x < cage.x + cage.width; x++) {
+				int bx = x - window.x;
+				boolean on = cageMask[maskRow + x] && (bits[bitRow + (bx >>> 6)] & (1L << bx)) != 0;
+				labels[labelRow + x] = on ? 1 : 0;
+			}
+		}
+		return new Blobs(labels, cage);
+	}
+
+	private void threshold(Rectangle window, int stride, long[] bits) {
+		Arrays.fill(bits, 0, stride * window.height, 0L);
+		for (int j = 0; j < window.height; j++) {
+			int offset = (window.y + j) * width + window.x;
+			int row = j * stride;
+			for (int i = 0; i < window.width; i++) {
+				boolean on;
+				if (channel != null) {
+					on = (channel[offset + i] & 0xFF) < threshold;
+				} else {
+					int k = offset + i;
+					on = (red[k] & 0xFF) + (green[k] & 0xFF) + (blue[k] & 0xFF) > threshold;
+				}
+				if (on)
+					bits[row + (i >>> 6)] |= 1L << i;
+			}
+		}
+	}
+
+	/**
+	 * Closing with a 3x3 square, {@link #radius} times, pixels outside the window being background.
+	 * Both 3x3 operations are separable: a horizontal pass on shifted words into {@code work}, then
+	 * a vertical pass back into {@code bits}.
+	 */
+	private void close(long[] bits, long[] work, int stride, int w, int h) {
+		long tail = (w & 63) == 0 ? -1L : (1L << (w & 63)) - 1;
+		for (int i = 0; i < radius; i++) {
+			horizontal(bits, work, stride, h, tail, true);
+			vertical(work, bits, stride, h, true);
+		}
+		for (int i = 0; i < radius; i++) {
+			horizontal(bits, work, stride, h, tail, false);
+			vertical(work, bits, stride, h, false);
+		}
+	}
+
+	private static void horizontal(long[] src, long[] dst, int stride, int h, long tail, boolean dilate) {
+		for (int y = 0; y < h; y++) {
+			int row = y * stride;
+			for (int k = 0; k < stride; k++) {
+				long word = src[row + k];
+				// bit x of "left" holds pixel x - 1, of "right" pixel x + 1
+				long left = word << 1;
+				if (k > 0)
+					left |= src[row + k - 1] >>> 63;
+				long right = word >>> 1;
+				if (k < stride - 1)
+					right |= src[row + k + 1] << 63;
+				dst[row + k] = dilate ? word | left | right : word & left & right;
+			}
+			dst[row + stride - 1] &= tail;
+		}
+	}
+
+	private static void vertical(long[] src, long[] dst, int stride, int h, boolean dilate) {
+		for (int y = 0; y < h; y++) {
+			int row = y * stride;
+			boolean hasUp = y > 0;
+			boolean hasDown = y < h - 1;
+			for (int k = 0; k < stride; k++) {
+				long up = hasUp ? src[row - stride + k] : 0L;
+				long down = hasDown ? src[row + stride + k] : 0L;
+				long word = src[row + k];
+				dst[row + k] = dilate ? word | up | down : word & up & down;
+			}
+		}
+	}
+
+	private static final class Scratch {
+		long[] bits = new long[0];
+		long[] work = new long[0];
+		int[] labels = new int[0];
+
+		void ensureBits(int n) {
+			if (bits.length < n) {
+				bits = new long[n];
+				work = new long[n];
+			}
+		}
+
+		int[] ensureLabels(int n) {
+			if (labels.length < n)
+				labels = new int[n];
+			return labels;
+		}
+	}
+}
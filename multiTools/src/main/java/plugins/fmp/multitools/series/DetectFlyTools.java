@@ -22,97 +22,89 @@ import plugins.fmp.multitools.experiment.cages.Cages;
 import plugins.fmp.multitools.experiment.spot.Spot;
 import plugins.fmp.multitools.series.options.BuildSeriesOptions;
 import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.imageTransform.ImageRegions;
+import plugins.fmp.multitools.tools.polyline.Blobs;
+import plugins.fmp.multitools.tools.polyline.Blobs.Blob;
 import plugins.kernel.roi.roi2d.ROI2DArea;
 
 public class DetectFlyTools {
 	public List<BooleanMask2D> cageMaskList = new ArrayList<BooleanMask2D>();
 	public Rectangle rectangleAllCages = null;
+	/** Pixels of the analysed cages: the only ones read from the transformed frames. */
+	public ImageRegions cageRegions = null;
 	public BuildSeriesOptions options = null;
 	public Cages cages = null;
 	private Experiment experiment = null;
 
-	private static final class ScoredMask {
-		final BooleanMask2D mask;
-		final int area;
-
-		ScoredMask(BooleanMask2D mask, int area) {
-			this.mask = mask;
-			this.area = area;
-		}
-	}
-
 	// -----------------------------------------------------
 
 	/**
 	 * Valid blobs in the cage ROI, sorted by descending pixel count. Count is capped when
-	 * {@link BuildSeriesOptions#blimitMaxBlobsPerCage} is true.
+	 * {@link BuildSeriesOptions#blimitMaxBlobsPerCage} is true. Blobs are labelled once over the
+	 * cage and filtered on their statistics; masks are built only for the blobs kept.
 	 */
-	List<BooleanMask2D> findBlobMasksForCage(ROI2DArea roiAll, BooleanMask2D cageMask, Cage cage, int t)
+	List<BooleanMask2D> findBlobMasksForCage(CageBinarizer binarizer, Cage cage, int t)
 			throws InterruptedException {
-		if (cageMask == null)
+		if (cage.cageMask2D == null)
 			return Collections.emptyList();
 
-		ROI2DArea roi = new ROI2DArea(roiAll.getBooleanMask(true).getIntersection(cageMask));
+		Blobs blobs = binarizer.label(cage.cageMask2D);
+		if (blobs == null)
+			return Collections.emptyList();
 
 		List<Point2D> prevCenters = Collections.emptyList();
 		if (options.bjitter && t > 0 && cage != null)
 			prevCenters = getPreviousFlyCenters(cage, t - 1);
 
-		List<ScoredMask> scored = new ArrayList<>();
-		BooleanMask2D roiBooleanMask = roi.getBooleanMask(true);
-		for (BooleanMask2D mask : roiBooleanMask.getComponents()) {
-			int len = scoreComponent(mask, prevCenters, cage);
-			if (len > 0)
-				scored.add(new ScoredMask(mask, len));
+		List<Blob> kept = new ArrayList<>();
+		for (Blob blob : blobs.getBlobs()) {
+			if (isValidBlob(blob, prevCenters, cage))
+				kept.add(blob);
 		}
 
-		scored.sort(Comparator.comparingInt((ScoredMask s) -> s.area).reversed());
+		kept.sort(Comparator.comparingInt(Blob::getArea).reversed());
 
-		int maxKeep = scored.size();
+		int maxKeep = kept.size();
 		if (options.blimitMaxBlobsPerCage) {
 			int cap = Math.max(1, options.nFliesPresent);
-			maxKeep = Math.min(cap, scored.size());
+			maxKeep = Math.min(cap, kept.size());
 		}
 
 		List<BooleanMask2D> out = new ArrayList<>(maxKeep);
 		for (int i = 0; i < maxKeep; i++)
-			out.add(scored.get(i).mask);
+			out.add(blobs.getBlobBooleanMask2D(kept.get(i).getNumber()));
 		return out;
 	}
 
-	private int scoreComponent(BooleanMask2D mask, List<Point2D> prevCenters, Cage cage) throws InterruptedException {
-		java.awt.Point[] pts = mask.getPoints();
-		int len = pts.length;
+	private boolean isValidBlob(Blob blob, List<Point2D> prevCenters, Cage cage) {
+		int len = blob.getArea();
 		if (options.blimitLow && len < options.limitLow)
-			return 0;
+			return false;
 		if (options.blimitUp && len > options.limitUp)
-			return 0;
+			return false;
 
-		if (options.bexcludeSpotBlobs && blobCenterInSpotRegion(cage, mask))
-			return 0;
+		Rectangle2D bounds = blob.getBounds();
+		if (options.bexcludeSpotBlobs && blobCenterInSpotRegion(cage, bounds))
+			return false;
 
-		double ratio = computeOrientedBoundingBoxAspectRatio(pts);
+		double ratio = blob.getOrientedAspectRatio();
 		if (options.blimitRatio && options.limitRatio > 0 && ratio > (double) options.limitRatio)
-			return 0;
+			return false;
 
-		if (len > 0 && options.bjitter && !prevCenters.isEmpty() && options.jitter >= 0) {
-			Rectangle2D ob = mask.getOptimizedBounds();
-			Point2D cur = new Point2D.Double(ob.getCenterX(), ob.getCenterY());
+		if (options.bjitter && !prevCenters.isEmpty() && options.jitter >= 0) {
+			Point2D cur = new Point2D.Double(bounds.getCenterX(), bounds.getCenterY());
 			double dmin = Double.MAX_VALUE;
 			for (Point2D p : prevCenters)
 				dmin = Math.min(dmin, cur.distance(p));
 			if (dmin > options.jitter)
-				return 0;
+				return false;
 		}
 
-		return len;
+		return true;
 	}
 
-	private boolean blobCenterInSpotRegion(Cage cage, BooleanMask2D mask) {
-		if (experiment == null || experiment.getSpots() == null || cage == null || mask == null)
-			return false;
-		Rectangle2D bounds = mask.getOptimizedBounds();
-		if (bounds == null)
+	private boolean blobCenterInSpotRegion(Cage cage, Rectangle2D bounds) {
+		if (experiment == null || experiment.getSpots() == null || cage == null || bounds == null)
 			return false;
 		double cx = bounds.getCenterX();
 		double cy = bounds.getCenterY();
@@ -125,79 +117,6 @@ public class DetectFlyTools {
 		return false;
 	}
 
-	/**
-	 * Returns an orientation-invariant aspect ratio estimate for a blob, based on a
-	 * PCA-derived orientation and an oriented bounding box in that frame.
-	 * <p>
-	 * ratio = max(extentU, extentV) / min(extentU, extentV)
-	 * </p>
-	 */
-	private static double computeOrientedBoundingBoxAspectRatio(java.awt.Point[] pts) {
-		if (pts == null || pts.length < 2) {
-			return 1.0;
-		}
-		final int n = pts.length;
-
-		// Compute mean
-		double mx = 0.0;
-		double my = 0.0;
-		for (int i = 0; i < n; i++) {
-			mx += pts[i].x;
-			my += pts[i].y;
-		}
-		mx /= n;
-		my /= n;
-
-		// Compute covariance matrix entries
-		double cxx = 0.0;
-		double cxy = 0.0;
-		double cyy = 0.0;
-		for (int i = 0; i < n; i++) {
-			double dx = pts[i].x - mx;
-			double dy = pts[i].y - my;
-			cxx += dx * dx;
-			cxy += dx * dy;
-			cyy += dy * dy;
-		}
-
-		// Principal axis orientation (angle of the largest eigenvector)
-		// theta = 0.5 * atan2(2*cxy, cxx - cyy)
-		double theta = 0.5 * Math.atan2(2.0 * cxy, cxx - cyy);
-		double cos = Math.cos(theta);
-		double sin = Math.sin(theta);
-
-		// Project points onto rotated axes and compute extents.
-		double minU = Double.POSITIVE_INFINITY;
-		double maxU = Double.NEGATIVE_INFINITY;
-		double minV = Double.POSITIVE_INFINITY;
-		double maxV = Double.NEGATIVE_INFINITY;
-
-		for (int i = 0; i < n; i++) {
-			double dx = pts[i].x - mx;
-			double dy = pts[i].y - my;
-			double u = dx * cos + dy * sin;
-			double v = -dx * sin + dy * cos;
-
-			if (u < minU)
-				minU = u;
-			if (u > maxU)
-				maxU = u;
-			if (v < minV)
-				minV = v;
-			if (v > maxV)
-				maxV = v;
-		}
-
-		double extentU = maxU - minU;
-		double extentV = maxV - minV;
-		double minExtent = Math.min(extentU, extentV);
-		double maxExtent = Math.max(extentU, extentV);
-		if (!(minExtent > 0.0)) {
-			return Double.POSITIVE_INFINITY;
-		}
-		return maxExtent / minExtent;
-	}
-
 	private static List<Point2D> getPreviousFlyCenters(Cage cage, int tPrev) {
 		List<Point2D> out = new ArrayList<>();
 		if (cage == null || cage.flyPositions == null || tPrev < 0)
@@ -219,7 +138,7 @@ public class DetectFlyTools {
 	public BooleanMask2D unionFilteredFlyBlobs(IcyBufferedImage negativeImage, int t) throws InterruptedException {
 		if (options == null || cages == null || negativeImage == null)
 			return null;
-		ROI2DArea binarizedImageRoi = binarizeImage(negativeImage, options.threshold);
+		CageBinarizer binarizer = newCageBinarizer(negativeImage);
 		java.awt.Rectangle ib = negativeImage.getBounds();
 		int w = ib.width;
 		int h = ib.height;
@@ -229,7 +148,7 @@ public class DetectFlyTools {
 		for (Cage cage : cages.cagesList) {
 			if (options.detectCage != -1 && cage.getProperties().getCageID() != options.detectCage)
 				continue;
-			for (BooleanMask2D m : findBlobMasksForCage(binarizedImageRoi, cage.cageMask2D, cage, t)) {
+			for (BooleanMask2D m : findBlobMasksForCage(binarizer, cage, t)) {
 				for (java.awt.Point p : m.getPoints()) {
 					int x = p.x - ib.x;
 					int y = p.y - ib.y;
@@ -241,6 +160,12 @@ public class DetectFlyTools {
 		return new BooleanMask2D(ib, acc);
 	}
 
+	/** Cage-by-cage binarization of {@code img} with the detection options (see {@link CageBinarizer}). */
+	CageBinarizer newCageBinarizer(IcyBufferedImage img) {
+		return new CageBinarizer(img, options.threshold, options.btrackWhite, options.videoChannel,
+				options.bmorphClose ? Math.max(1, options.morphCloseRadius) : 0);
+	}
+
 	public ROI2DArea binarizeImage(IcyBufferedImage img, int threshold) {
 		if (img == null)
 			return null;
@@ -348,7 +273,7 @@ public class DetectFlyTools {
 		ArrayList<Future<?>> futures = new ArrayList<Future<?>>(cages.cagesList.size());
 		futures.clear();
 
-		final ROI2DArea binarizedImageRoi = binarizeImage(workimage, options.threshold);
+		final CageBinarizer binarizer = newCageBinarizer(workimage);
 		final List<Rectangle2D> listRectangles = Collections.synchronizedList(new ArrayList<Rectangle2D>());
 
 		for (Cage cage : cages.cagesList) {
@@ -359,7 +284,7 @@ public class DetectFlyTools {
 				@Override
 				public void run() {
 					try {
-						saveMasksForCage(binarizedImageRoi, cage, t, illumPhase, listRectangles);
+						saveMasksForCage(binarizer, cage, t, illumPhase, listRectangles);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -372,9 +297,9 @@ public class DetectFlyTools {
 		return listRectangles;
 	}
 
-	private void saveMasksForCage(ROI2DArea binarizedImageRoi, Cage cage, int t, int illumPhase,
+	private void saveMasksForCage(CageBinarizer binarizer, Cage cage, int t, int illumPhase,
 			List<Rectangle2D> listRectangles) throws InterruptedException {
-		List<BooleanMask2D> masks = findBlobMasksForCage(binarizedImageRoi, cage.cageMask2D, cage, t);
+		List<BooleanMask2D> masks = findBlobMasksForCage(binarizer, cage, t);
 		if (masks.isEmpty()) {
 			cage.flyPositions.addPositionWithoutRoiArea(t, 0, null, illumPhase);
 			return;
@@ -425,15 +350,22 @@ public class DetectFlyTools {
 		cages = exp.getCages();
 		cages.computeBooleanMasksForCages();
 		rectangleAllCages = null;
+		List<Rectangle> cageRectangles = new ArrayList<Rectangle>();
 		for (Cage cage : cages.cagesList) {
 			if (options.detectCage != -1 && cage.getProperties().getCageID() != options.detectCage)
 				continue;
 			Rectangle rect = cage.getRoi().getBounds();
+			// closing (dilate then erode) reads up to 2 x radius pixels around the cage
+			int margin = options.bmorphClose ? 2 * Math.max(0, options.morphCloseRadius) : 0;
+			Rectangle analysed = new Rectangle(rect);
+			analysed.grow(margin, margin);
+			cageRectangles.add(analysed);
 			if (rectangleAllCages == null)
 				rectangleAllCages = new Rectangle(rect);
 			else
 				rectangleAllCages.add(rect);
 		}
+		cageRegions = ImageRegions.of(cageRectangles);
 	}
 
 	protected void waitDetectCompletion(Processor processor, ArrayList<Future<?>> futuresArray,
@@ -11,7 +11,7 @@ import plugins.fmp.multitools.experiment.ExperimentDirectories;
 import plugins.fmp.multitools.experiment.cage.Cage;
 import plugins.fmp.multitools.service.SequenceLoaderService;
 import plugins.fmp.multitools.tools.Logger;
-import plugins.fmp.multitools.tools.imageTransform.ImageTransformInterface;
+import plugins.fmp.multitools.tools.imageTransform.TransformChain;
 import plugins.fmp.multitools.tools.imageTransform.CanvasImageTransformOptions;
 
 public abstract class FlyDetect extends BuildSeries {
@@ -66,7 +66,8 @@ public abstract class FlyDetect extends BuildSeries {
 		ProgressFrame progressBar = new ProgressFrame("Detecting flies...");
 
 		CanvasImageTransformOptions transformOptions = setupTransformOptions(exp);
-		ImageTransformInterface transformFunction = transformOptions.transformOption.getFunction();
+		// only the cage areas of the transformed frame are analysed
+		TransformChain transformChain = new TransformChain().add(transformOptions.transformOption, transformOptions);
 
 		int t_previous = 0;
 		int totalFrames = exp.getSeqCamData().getImageLoader().getNTotalFrames();
@@ -83,7 +84,7 @@ public abstract class FlyDetect extends BuildSeries {
 			updateTransformOptions(exp, t, t_previous, transformOptions, workImage);
 			int illumPhase = computeIllumPhaseForFrame(workImage);
 
-			IcyBufferedImage negativeImage = transformFunction.getTransformedImage(workImage, transformOptions);
+			IcyBufferedImage negativeImage = transformChain.apply(workImage, null, find_flies.cageRegions);
 			try {
 				seqNegative.beginUpdate();
 				seqNegative.setImage(0, 0, negativeImage);
@@ -10,7 +10,7 @@ import plugins.fmp.multitools.series.options.BuildSeriesOptions;
 import plugins.fmp.multitools.service.SequenceLoaderService;
 import plugins.fmp.multitools.tools.imageTransform.CanvasImageTransformOptions;
 import plugins.fmp.multitools.tools.imageTransform.ImageTransformEnums;
-import plugins.fmp.multitools.tools.imageTransform.ImageTransformInterface;
+import plugins.fmp.multitools.tools.imageTransform.TransformChain;
 import plugins.fmp.multitools.tools.imageTransform.transforms.PatchPreviousFromReference;
 import plugins.fmp.multitools.tools.imageTransform.transforms.SubtractReferenceImage.DifferencePolarity;
 import plugins.fmp.multitools.tools.Logger;
@@ -56,20 +56,9 @@ public class FlyDetect1 extends FlyDetect {
 		fillFlyDetectBackgroundOptions(exp, t, bgOpts);
 		applyFlyDetectDifferencePolarity(bgOpts, options.btrackWhite);
 
-		IcyBufferedImage afterBg = workImage;
-		if (bg != ImageTransformEnums.NONE) {
-			IcyBufferedImage sub = bg.getFunction().getTransformedImage(workImage, bgOpts);
-			if (sub == null)
-				return null;
-			afterBg = sub;
-		}
-
-		if (src == ImageTransformEnums.NONE)
-			return afterBg;
-
 		CanvasImageTransformOptions srcOpts = new CanvasImageTransformOptions();
 		srcOpts.transformOption = src;
-		return src.getFunction().getTransformedImage(afterBg, srcOpts);
+		return new TransformChain().add(bg, bgOpts).add(src, srcOpts).apply(workImage, null);
 	}
 
 	public static void fillFlyDetectBackgroundOptions(Experiment exp, int t, CanvasImageTransformOptions bgOpts) {
@@ -204,6 +193,16 @@ public class FlyDetect1 extends FlyDetect {
 		int totalFrames = exp.getSeqCamData().getImageLoader().getNTotalFrames();
 		SequenceLoaderService loader = new SequenceLoaderService();
 
+		CanvasImageTransformOptions bgOpts = new CanvasImageTransformOptions();
+		bgOpts.transformOption = bg;
+		copyBackgroundHealParams(bgOpts, options);
+		applyFlyDetectDifferencePolarity(bgOpts, options.btrackWhite);
+		CanvasImageTransformOptions srcOpts = new CanvasImageTransformOptions();
+		srcOpts.transformOption = src;
+		TransformChain chain = new TransformChain().add(bg, bgOpts).add(src, srcOpts);
+		// two result buffers: the one shown in seqNegative is not overwritten by the next frame
+		IcyBufferedImage[] negativeBuffers = new IcyBufferedImage[2];
+
 		for (int index = 0; index < totalFrames; index++) {
 			if (stopFlag)
 				break;
@@ -213,26 +212,12 @@ public class FlyDetect1 extends FlyDetect {
 
 			IcyBufferedImage workImage = loader.imageIORead(exp.getSeqCamData().getFileNameFromImageList(t));
 
-			CanvasImageTransformOptions bgOpts = new CanvasImageTransformOptions();
-			bgOpts.transformOption = bg;
 			bgOpts.backgroundImage = null;
-			copyBackgroundHealParams(bgOpts, options);
 			fillFlyDetectBackgroundOptions(exp, t, bgOpts);
-			applyFlyDetectDifferencePolarity(bgOpts, options.btrackWhite);
-
-			IcyBufferedImage afterBg = workImage;
-			if (bg != ImageTransformEnums.NONE) {
-				ImageTransformInterface bgFn = bg.getFunction();
-				afterBg = bgFn.getTransformedImage(workImage, bgOpts);
-			}
-
-			CanvasImageTransformOptions srcOpts = new CanvasImageTransformOptions();
-			srcOpts.transformOption = src;
-			IcyBufferedImage negativeImage = afterBg;
-			if (src != ImageTransformEnums.NONE) {
-				ImageTransformInterface srcFn = src.getFunction();
-				negativeImage = srcFn.getTransformedImage(afterBg, srcOpts);
-			}
+			IcyBufferedImage negativeImage = chain.apply(workImage, negativeBuffers[index % 2],
+					find_flies.cageRegions);
+			if (negativeImage != workImage)
+				negativeBuffers[index % 2] = negativeImage;
 
 			int illumPhase = IlluminationPhase.phaseForFlyDetection(options, workImage);
 			try {
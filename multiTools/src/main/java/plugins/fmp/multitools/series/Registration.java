@@ -1,21 +1,28 @@
 package plugins.fmp.multitools.series;
 
 import java.awt.Rectangle;
-import java.awt.image.RenderedImage;
-import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.vecmath.Vector2d;
 
 import icy.gui.frame.progress.ProgressFrame;
 import icy.image.IcyBufferedImage;
 import icy.image.IcyBufferedImageUtil;
-import icy.image.ImageUtil;
+import icy.system.SystemUtil;
+import icy.system.thread.Processor;
 import icy.type.geom.Polygon2D;
 import plugins.fmp.multitools.experiment.Experiment;
+import plugins.fmp.multitools.tools.DecodedFrameCache;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.imageTransform.CanvasImageTransformOptions;
 import plugins.fmp.multitools.tools.imageTransform.ImageTransformInterface;
+import plugins.fmp.multitools.tools.registration.DriftEstimator;
+import plugins.fmp.multitools.tools.registration.FrameTransformTable;
 import plugins.fmp.multitools.tools.registration.GaspardRigidRegistration;
+import plugins.fmp.multitools.tools.registration.RigidRegistrationEngine;
 
 public class Registration extends BuildSeries {
 //	private final ImageProcessor imageProcessor;
@@ -128,6 +135,11 @@ public class Registration extends BuildSeries {
 	/** Minimum threshold for considering a rotation significant */
 	private static final double MIN_ROTATION_THRESHOLD = 0.001;
 
+	/**
+	 * Measures the drift of each frame against the reference frame and records the correction in
+	 * the experiment {@link FrameTransformTable}; the images on disk are left untouched and the
+	 * correction is applied when frames are read.
+	 */
 	private ProcessingResult<Void> correctDriftAndRotation(Experiment exp, int iiFirst, int iiLast,
 			int referenceFrame) {
 		ProgressFrame progressBar1 = new ProgressFrame("Analyze stack");
@@ -139,79 +151,162 @@ public class Registration extends BuildSeries {
 		Polygon2D polygon2D = exp.getCages().getPolygon2DEnclosingAllCages();
 		Rectangle rect = polygon2D.getBounds();
 
+		exp.ensureResultsDirectoryFromImagesFolder();
+		FrameTransformTable table = FrameTransformTable.load(exp.getResultsDirectory());
+		if (table == null)
+			table = new FrameTransformTable();
+
 		String fileNameReference = exp.getSeqCamData().getFileNameFromImageList(referenceFrame);
-		IcyBufferedImage referenceImage = imageIORead(fileNameReference);
+		IcyBufferedImage referenceImage = readRawFrame(fileNameReference);
+		if (referenceImage == null) {
+			progressBar1.close();
+			return ProcessingResult.failure("Cannot read reference frame " + fileNameReference);
+		}
 		IcyBufferedImage refImageTransformed = transformFunction.getTransformedImage(referenceImage, transformOptions);
 		final IcyBufferedImage reducedReferenceImage = IcyBufferedImageUtil.getSubImage(refImageTransformed, rect.x,
 				rect.y, rect.height, rect.width);
 		final int referenceChannel = 0;
-
-		for (int frame = iiFirst; frame < iiLast && !stopFlag; frame++) {
-			// Update progress
-			progressBar1.setMessage("Analyze frame: " + frame + "//" + iiLast);
-
-			String fileName = exp.getSeqCamData().getFileNameFromImageList(frame);
-			if (fileName == null) {
-				Logger.warn("filename null at t=" + frame);
-				continue;
-			}
-
-			IcyBufferedImage workImage = imageIORead(fileName);
-			IcyBufferedImage workImageTransformed = transformFunction.getTransformedImage(workImage, transformOptions);
-			IcyBufferedImage reducedWorkImage = IcyBufferedImageUtil.getSubImage(workImageTransformed, rect.x, rect.y,
-					rect.height, rect.width);
-
-			Vector2d translation = GaspardRigidRegistration.findTranslation2D(reducedWorkImage, referenceChannel,
-					reducedReferenceImage, referenceChannel);
-			boolean change = false;
-			if (translation.lengthSquared() > MIN_TRANSLATION_THRESHOLD) {
-				change = true;
-				workImage = GaspardRigidRegistration.applyTranslation2D(workImage, -1, translation, true);
-				Logger.info("Applied translation correction: (" + translation.x + ", " + translation.y + ")");
-			}
-
-			boolean rotate = false;
-			if (!change)
-				translation = null;
-			else {
-				workImageTransformed = transformFunction.getTransformedImage(workImage, transformOptions);
-				reducedWorkImage = IcyBufferedImageUtil.getSubImage(workImageTransformed, rect.x, rect.y, rect.height,
-						rect.width);
+		final DriftEstimator estimator = new DriftEstimator(reducedReferenceImage, referenceChannel);
+
+		// frames are registered concurrently; the table is updated in frame order afterwards
+		final int nFrames = Math.max(0, iiLast - iiFirst);
+		final FrameTransformTable.Transform[] transforms = new FrameTransformTable.Transform[nFrames];
+		final boolean[] measured = new boolean[nFrames];
+		final Processor processor = new Processor(SystemUtil.getNumberOfCPUs());
+		processor.setThreadName("registration");
+		processor.setPriority(Processor.NORM_PRIORITY);
+		ArrayList<Future<?>> tasks = new ArrayList<Future<?>>(nFrames);
+		try {
+			for (int frame = iiFirst; frame < iiLast && !stopFlag; frame++) {
+				final int index = frame - iiFirst;
+				final String fileName = exp.getSeqCamData().getFileNameFromImageList(frame);
+				if (fileName == null) {
+					Logger.warn("filename null at t=" + frame);
+					continue;
+				}
+				tasks.add(processor.submit(() -> {
+					if (stopFlag)
+						return;
+					IcyBufferedImage workImage = readRawFrame(fileName);
+					if (workImage == null)
+						return;
+					transforms[index] = registerFrame(estimator, workImage, transformFunction, transformOptions, rect,
+							referenceChannel);
+					measured[index] = true;
+				}));
 			}
-			double angle = GaspardRigidRegistration.findRotation2D(reducedWorkImage, referenceChannel,
-					reducedReferenceImage, referenceChannel, translation);
-			if (Math.abs(angle) > MIN_ROTATION_THRESHOLD) {
-				rotate = true;
-				workImage = GaspardRigidRegistration.applyRotation2D(workImage, -1, angle, true);
-				Logger.info("Applied rotation correction: " + Math.toDegrees(angle) + " degrees");
-
-				workImageTransformed = transformFunction.getTransformedImage(workImage, transformOptions);
-				reducedWorkImage = IcyBufferedImageUtil.getSubImage(workImageTransformed, rect.x, rect.y, rect.height,
-						rect.width);
-				Vector2d translation2 = GaspardRigidRegistration.findTranslation2D(reducedWorkImage, referenceChannel,
-						reducedReferenceImage, referenceChannel);
-				if (translation2.lengthSquared() > MIN_TRANSLATION_THRESHOLD) {
-					workImage = GaspardRigidRegistration.applyTranslation2D(workImage, -1, translation2, true);
+			for (int i = 0; i < tasks.size(); i++) {
+				progressBar1.setMessage("Analyze frame: " + (iiFirst + i) + "//" + iiLast);
+				try {
+					tasks.get(i).get();
+				} catch (ExecutionException e) {
+					Logger.warn("Registration: frame registration failed: " + e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
 				}
 			}
+		} finally {
+			processor.shutdownNow();
+		}
 
-			if (rotate)
-				GaspardRigidRegistration.getTranslation2D(workImage, referenceImage, referenceChannel);
-
-			if (change || rotate) {
-				Logger.debug("image:" + frame + "  change=" + change + "(" + translation + ") --  rotation=" + rotate
-						+ "(" + angle + ")");
-				File outputfile = new File(fileName);
-				RenderedImage image = ImageUtil.toRGBImage(workImage);
-				boolean success = ImageUtil.save(image, "jpg", outputfile);
-				Logger.debug("save file " + fileName + " --->" + success);
-			}
+		for (int i = 0; i < nFrames; i++) {
+			if (!measured[i])
+				continue;
+			String fileName = exp.getSeqCamData().getFileNameFromImageList(iiFirst + i);
+			if (transforms[i] != null)
+				table.put(fileName, transforms[i]);
+			else
+				table.remove(fileName);
 		}
 
+		Logger.info("Registration: " + estimator.summary());
 		progressBar1.close();
+		if (!table.save(exp.getResultsDirectory()))
+			return ProcessingResult.failure("Cannot save " + FrameTransformTable.FILENAME);
+		FrameTransformTable.register(exp.getSeqCamData().getImagesDirectory(), table);
 		return ProcessingResult.success();
 	}
 
+	/**
+	 * Correction of one frame: translation, then rotation about the centre, then residual
+	 * translation, each measured on the transformed cage area after the previous one is applied; null
+	 * when the frame does not drift. Frames found still at the coarse level of the estimator are not
+	 * registered at full resolution. The corrections are applied to the already transformed image,
+	 * which avoids transforming the frame again after each step.
+	 */
+	private static FrameTransformTable.Transform registerFrame(DriftEstimator estimator,
+			IcyBufferedImage workImage, ImageTransformInterface transformFunction,
+			CanvasImageTransformOptions transformOptions, Rectangle rect, int referenceChannel) {
+		IcyBufferedImage workImageTransformed = transformFunction.getTransformedImage(workImage, transformOptions);
+		IcyBufferedImage reducedWorkImage = IcyBufferedImageUtil.getSubImage(workImageTransformed, rect.x, rect.y,
+				rect.height, rect.width);
+		if (!estimator.hasMoved(reducedWorkImage, referenceChannel))
+			return null;
+
+		RigidRegistrationEngine engine = estimator.getFine();
+		Vector2d translation = engine.findTranslation(reducedWorkImage, referenceChannel);
+		if (translation.lengthSquared() > MIN_TRANSLATION_THRESHOLD) {
+			workImageTransformed = GaspardRigidRegistration.applyTranslation2D(workImageTransformed, -1, translation,
+					true);
+			reducedWorkImage = IcyBufferedImageUtil.getSubImage(workImageTransformed, rect.x, rect.y, rect.height,
+					rect.width);
+		} else {
+			translation = null;
+		}
+
+		double angle = engine.findRotation(reducedWorkImage, referenceChannel);
+		boolean rotate = Math.abs(angle) > MIN_ROTATION_THRESHOLD;
+		Vector2d translation2 = null;
+		if (rotate) {
+			workImageTransformed = GaspardRigidRegistration.applyRotation2D(workImageTransformed, -1, angle, true);
+			reducedWorkImage = IcyBufferedImageUtil.getSubImage(workImageTransformed, rect.x, rect.y, rect.height,
+					rect.width);
+			translation2 = engine.findTranslation(reducedWorkImage, referenceChannel);
+			if (translation2.lengthSquared() <= MIN_TRANSLATION_THRESHOLD)
+				translation2 = null;
+		}
+
+		if (translation == null && !rotate)
+			return null;
+		Logger.debug("Registration: translation=" + translation + " rotation=" + (rotate ? angle : 0.)
+				+ " residual=" + translation2);
+		return composeTransform(workImage.getSizeX(), workImage.getSizeY(), translation, rotate ? angle : 0.,
+				translation2);
+	}
+
+	/**
+	 * Single rotate-about-centre-then-translate equivalent to shifting by {@code t1}, rotating by
+	 * {@code angle} about the image centre, then shifting by {@code t2}: the first shift is carried
+	 * through the rotation.
+	 */
+	static FrameTransformTable.Transform composeTransform(int width, int height, Vector2d t1, double angle,
+			Vector2d t2) {
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		double dx = 0;
+		double dy = 0;
+		if (t1 != null) {
+			dx += cos * t1.x - sin * t1.y;
+			dy += sin * t1.x + cos * t1.y;
+		}
+		if (t2 != null) {
+			dx += t2.x;
+			dy += t2.y;
+		}
+		return new FrameTransformTable.Transform(dx, dy, angle, width / 2., height / 2.);
+	}
+
+	/** Frame as stored on disk, without the correction of a previous registration. */
+	private IcyBufferedImage readRawFrame(String fileName) {
+		try {
+			return DecodedFrameCache.shared().read(fileName);
+		} catch (IOException e) {
+			Logger.warn("Registration: cannot read " + fileName + ": " + e.getMessage());
+			return null;
+		}
+	}
+
 //	public IcyBufferedImage imageIORead(String name) {
 //		BufferedImage image = null;
 //		try {
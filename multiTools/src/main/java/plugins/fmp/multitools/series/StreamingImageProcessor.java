@@ -1,13 +1,12 @@
 package plugins.fmp.multitools.series;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
 
-import javax.imageio.ImageIO;
-
 import icy.image.IcyBufferedImage;
 import plugins.fmp.multitools.experiment.sequence.SequenceCamData;
+import plugins.fmp.multitools.tools.DecodedFrameCache;
+import plugins.fmp.multitools.tools.registration.FrameTransformTable;
 
 /**
  * Streaming image processor to avoid loading entire stack.
@@ -54,13 +53,11 @@ public class StreamingImageProcessor {
 
 	// Use the same imageIORead method as BuildSeries
 	private IcyBufferedImage imageIORead(String fileName) {
-		BufferedImage image = null;
 		try {
-			image = ImageIO.read(new java.io.File(fileName));
+			return FrameTransformTable.applyTo(fileName, DecodedFrameCache.shared().read(fileName));
 		} catch (IOException e) {
 			System.err.println("Error loading image: " + fileName + " - " + e.getMessage());
 			return null;
 		}
-		return IcyBufferedImage.createFrom(image);
 	}
 }
\ No newline at end of file
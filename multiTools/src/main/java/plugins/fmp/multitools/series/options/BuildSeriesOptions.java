@@ -52,6 +52,17 @@ public class BuildSeriesOptions implements XMLPersistent {
 	 * Keep every Nth analysis-interval frame when building kymographs (1 = native).
 	 */
 	public int kymoDownsampleFactor = 1;
+	/**
+	 * Sample all ROIs of a frame in one ascending pass over the pixels
+	 * ({@link plugins.fmp.multitools.service.FrameMajorKymoEngine}) instead of ROI by ROI.
+	 */
+	public boolean kymoFrameMajorEngine = true;
+	/**
+	 * Reuse the columns of an interrupted build (spill files) or the leading columns of the
+	 * existing {@code line*.tiff} kymographs when their build manifest matches the current settings
+	 * and frames, and only analyze the new frames.
+	 */
+	public boolean kymoResumeFromExisting = false;
 
 	public ArrayList<ROI2D> listROIStoBuildKymos = new ArrayList<ROI2D>();
 	public JComboBoxExperimentLazy expList;
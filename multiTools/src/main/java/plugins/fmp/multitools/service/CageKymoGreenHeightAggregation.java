@@ -8,6 +8,7 @@ import java.util.Set;
 import plugins.fmp.multitools.experiment.cage.CageSpotStimulusAggregation.StimulusConcKey;
 import plugins.fmp.multitools.experiment.spot.Spot;
 import plugins.fmp.multitools.service.KymoAnalysisResult.SpotKymoSeries;
+import plugins.fmp.multitools.tools.results.MeasureColumn;
 
 /**
  * Cage-level kymograph aggregates of per-spot {@code 1 − KYMO_GREEN_HEIGHT_RATIO}, grouped by (stimulus,
@@ -40,7 +41,7 @@ public final class CageKymoGreenHeightAggregation {
 			if (row == null) {
 				continue;
 			}
-			sources.add(new RatioSource(row.spot, row.greenHeightRatio));
+			sources.add(new RatioSource(row.spot, MeasureColumn.of(row.greenHeightRatio)));
 		}
 		return buildSumConsoByStimulusConcFromSources(sources, nBins);
 	}
@@ -55,7 +56,7 @@ public final class CageKymoGreenHeightAggregation {
 			if (spot == null) {
 				continue;
 			}
-			double[] ratio = spot.getKymoGreenHeightRatio().getValues();
+			MeasureColumn ratio = spot.getKymoGreenHeightRatio().getValuesColumn();
 			sources.add(new RatioSource(spot, ratio));
 		}
 		return buildSumConsoByStimulusConcFromSources(sources, nBins);
@@ -63,9 +64,9 @@ public final class CageKymoGreenHeightAggregation {
 
 	private static final class RatioSource {
 		final Spot spot;
-		final double[] ratio;
+		final MeasureColumn ratio;
 
-		RatioSource(Spot spot, double[] ratio) {
+		RatioSource(Spot spot, MeasureColumn ratio) {
 			this.spot = spot;
 			this.ratio = ratio;
 		}
@@ -94,10 +95,10 @@ public final class CageKymoGreenHeightAggregation {
 					continue;
 				}
 				nExposed++;
-				double[] ratio = src.ratio;
-				int len = ratio != null ? Math.min(nBins, ratio.length) : 0;
+				MeasureColumn ratio = src.ratio;
+				int len = ratio != null ? Math.min(nBins, ratio.size()) : 0;
 				for (int j = 0; j < len; j++) {
-					double v = ratio[j];
+					double v = ratio.get(j);
 					if (!Double.isFinite(v)) {
 						continue;
 					}
@@ -31,6 +31,7 @@ import plugins.fmp.multitools.series.CageKymographViewerUtil;
 import plugins.fmp.multitools.series.options.BuildSeriesOptions;
 import plugins.fmp.multitools.tools.Comparators;
 import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.ROI2D.CompiledMasks;
 import plugins.fmp.multitools.tools.TiffTifSiblingPaths;
 
 /**
@@ -47,14 +48,20 @@ public class CageSpotKymographBuilder {
 		final String fileBaseName;
 		final ArrayList<int[]> channelBuffers;
 		final int imageWidth;
+		/** One row per stacked kymograph row (spot strips in name order). */
+		final CompiledMasks masks;
+		/** Rows standing for a spot without valid bounds (written as 0). */
+		final boolean[] placeholderRows;
 
 		CageKymoPlan(List<Spot> spots, int stackHeight, String fileBaseName, ArrayList<int[]> channelBuffers,
-				int imageWidth) {
+				int imageWidth, CompiledMasks masks, boolean[] placeholderRows) {
 			this.spots = spots;
 			this.stackHeight = stackHeight;
 			this.fileBaseName = fileBaseName;
 			this.channelBuffers = channelBuffers;
 			this.imageWidth = imageWidth;
+			this.masks = masks;
+			this.placeholderRows = placeholderRows;
 		}
 	}
 
@@ -154,7 +161,8 @@ public class CageSpotKymographBuilder {
 		final int refSizey = seq.getSizeY();
 		final int kymoSizeC = Math.max(1, seq.getSizeC());
 
-		PlansBundle bundle = buildPlans(cages, spots, expectedWidth, kymoSizeC, refSizex, refSizey);
+		PlansBundle bundle = buildPlans(cages, spots, expectedWidth, kymoSizeC, refSizex, refSizey,
+				Math.max(0, options.diskRadius));
 		List<CageKymoPlan> plans = bundle.plans;
 		int globalHeight = bundle.globalHeight;
 		if (plans.isEmpty()) {
@@ -164,9 +172,11 @@ public class CageSpotKymographBuilder {
 
 		/*
 		 * One column at a time (copyPreviousColumn reads col-1) but cages share the same
-		 * source frame: extract int[] rasters once per column, then fill plans in parallel
+		 * source frame: extract int[] rasters once per column (recycled through a
+		 * DecodedFrame pool), then fill plans in parallel
 		 * with bounded concurrency. Avoids the old "one future per column" pattern that
-		 * pinned every loaded frame until all workers drained.
+		 * pinned every loaded frame until all workers drained. With the frame-major engine
+		 * (default) the plans are sampled together in one pass instead.
 		 */
 		ProgressFrame progress = new ProgressFrame("Cage kymographs");
 		int sourceLastImageIndex = nTotalFrames;
@@ -178,6 +188,18 @@ public class CageSpotKymographBuilder {
 			planProcessor.setThreadName("cageSpotKymoPlan");
 			planProcessor.setPriority(Processor.NORM_PRIORITY);
 		}
+		final DecodedFrame.Pool framePool = new DecodedFrame.Pool(1);
+		FrameMajorKymoEngine engine = null;
+		long[][] sums = null;
+		if (options.kymoFrameMajorEngine) {
+			// all cage plans sampled in one ascending pass over each frame
+			ArrayList<CompiledMasks> planMasks = new ArrayList<>(nPlans);
+			for (CageKymoPlan plan : plans) {
+				planMasks.add(plan.masks);
+			}
+			engine = new FrameMajorKymoEngine(planMasks);
+			sums = new long[3][engine.getTotalRows()];
+		}
 		for (int col = 0; col < expectedWidth; col++) {
 			int sourceImageIndex = frameIndices.get(col);
 			if (sourceImageIndex < 0) {
@@ -189,6 +211,7 @@ public class CageSpotKymographBuilder {
 					+ " / " + sourceLastImageIndex + ")");
 
 			IcyBufferedImage sourceImage = null;
+			DecodedFrame frame = null;
 			try {
 				sourceImage = loader.imageIORead(seqCamData.getFileNameFromImageList(sourceImageIndex));
 				int imgW = sourceImage.getWidth();
@@ -197,19 +220,22 @@ public class CageSpotKymographBuilder {
 					Logger.warn("CageSpotKymographBuilder: image size " + imgW + "x" + imgH + " differs from sequence "
 							+ refSizex + "x" + refSizey);
 				}
-				final int srcSizeC = Math.max(1, sourceImage.getSizeC());
-				int[] src0 = Array1DUtil.arrayToIntArray(sourceImage.getDataXY(0), sourceImage.isSignedDataType());
-				int[] src1 = srcSizeC > 1
-						? Array1DUtil.arrayToIntArray(sourceImage.getDataXY(1), sourceImage.isSignedDataType())
-						: null;
-				int[] src2 = srcSizeC > 2
-						? Array1DUtil.arrayToIntArray(sourceImage.getDataXY(2), sourceImage.isSignedDataType())
-						: null;
-
-				if (planParallelism <= 1) {
+				frame = framePool.acquire(sourceImage);
+				int[] src0 = frame.getChannel(0);
+				int[] src1 = frame.getChannel(1);
+				int[] src2 = frame.getChannel(2);
+
+				if (engine != null && imgW == refSizex && imgH == refSizey) {
+					long[] sums1 = src1 != null ? sums[1] : null;
+					long[] sums2 = src2 != null ? sums[2] : null;
+					engine.accumulate(src0, src1, src2, sums[0], sums1, sums2);
+					for (int i = 0; i < nPlans; i++) {
+						scatterColumn(plans.get(i), engine, i, sums[0], sums1, sums2, kymoCol, globalHeight,
+								kymoSizeC);
+					}
+				} else if (planParallelism <= 1) {
 					for (CageKymoPlan plan : plans) {
-						fillColumnRaster(plan, src0, src1, src2, imgW, kymoCol, globalHeight, refSizex, refSizey,
-								kymoSizeC, options);
+						fillColumnRaster(plan, src0, src1, src2, kymoCol, globalHeight, kymoSizeC);
 					}
 				} else {
 					final Processor proc = Objects.requireNonNull(planProcessor,
@@ -217,15 +243,18 @@ public class CageSpotKymographBuilder {
 					ArrayList<Future<?>> tasks = new ArrayList<>(nPlans);
 					for (CageKymoPlan plan : plans) {
 						final CageKymoPlan p = plan;
-						tasks.add(proc.submit(() -> fillColumnRaster(p, src0, src1, src2, imgW, kymoCol,
-								globalHeight, refSizex, refSizey, kymoSizeC, options)));
+						tasks.add(proc.submit(() -> fillColumnRaster(p, src0, src1, src2, kymoCol, globalHeight,
+								kymoSizeC)));
 					}
 					waitFutures(proc, tasks);
 				}
 			} finally {
+				framePool.release(frame);
+				frame = null;
 				sourceImage = null;
 			}
 		}
+		framePool.clear();
 		progress.close();
 
 		if (options.doCreateBinDir) {
@@ -260,7 +289,7 @@ public class CageSpotKymographBuilder {
 	}
 
 	private PlansBundle buildPlans(Cages cages, Spots allSpots, int imageWidth, int kymoSizeC, int refSizex,
-			int refSizey) {
+			int refSizey, int diskR) {
 		List<CageKymoPlan> out = new ArrayList<>();
 		for (Cage cage : cages.cagesList) {
 			List<Spot> raw = cage.getSpotList(allSpots);
@@ -270,12 +299,22 @@ public class CageSpotKymographBuilder {
 			ArrayList<Spot> sorted = new ArrayList<>(raw);
 			Collections.sort(sorted, new Comparators.Spot_Name());
 
+			// Sampling masks depend only on spot geometry: compile them once for all columns.
+			CompiledMasks.Builder masks = new CompiledMasks.Builder(refSizex, sorted.size() * 16);
+			ArrayList<Integer> placeholders = new ArrayList<>();
 			int stackHeight = 0;
 			for (Spot s : sorted) {
 				Rectangle b = getSpotBounds(s, refSizex, refSizey);
 				if (b == null || b.height <= 0 || b.width <= 0) {
+					placeholders.add(stackHeight);
+					masks.endRow();
 					stackHeight += 1;
 				} else {
+					int cx = (int) Math.round(b.getCenterX());
+					for (int y = b.y; y <= b.y + b.height - 1; y++) {
+						addHorizontalStripMask(masks, cx, y, diskR, refSizex, refSizey);
+						masks.endRow();
+					}
 					stackHeight += b.height;
 				}
 			}
@@ -287,8 +326,13 @@ public class CageSpotKymographBuilder {
 			if (fileBase == null) {
 				continue;
 			}
+			boolean[] placeholderRows = new boolean[stackHeight];
+			for (int row : placeholders) {
+				placeholderRows[row] = true;
+			}
 			ArrayList<int[]> buffers = new ArrayList<>(kymoSizeC);
-			out.add(new CageKymoPlan(sorted, stackHeight, fileBase, buffers, imageWidth));
+			out.add(new CageKymoPlan(sorted, stackHeight, fileBase, buffers, imageWidth, masks.build(),
+					placeholderRows));
 		}
 
 		int globalHeight = 0;
@@ -333,56 +377,99 @@ public class CageSpotKymographBuilder {
 	 * Fills one kymograph column for one cage plan from pre-extracted per-channel rasters (shared,
 	 * read-only across parallel plan workers for the same column).
 	 */
-	private static void fillColumnRaster(CageKymoPlan plan, int[] src0, int[] src1, int[] src2, int imgW,
-			int kymographColumn, int globalHeight, int refSizex, int refSizey, int kymoSizeC,
-			BuildSeriesOptions options) {
-		int diskR = Math.max(0, options.diskRadius);
+	private static void fillColumnRaster(CageKymoPlan plan, int[] src0, int[] src1, int[] src2, int kymographColumn,
+			int globalHeight, int kymoSizeC) {
 		int W = plan.imageWidth;
+		int nch = plan.channelBuffers.size();
+		int[] dst0 = nch > 0 ? plan.channelBuffers.get(0) : null;
+		int[] dst1 = (kymoSizeC > 1 && src1 != null && nch > 1) ? plan.channelBuffers.get(1) : null;
+		int[] dst2 = (kymoSizeC > 2 && src2 != null && nch > 2) ? plan.channelBuffers.get(2) : null;
+		final int[] offsets = plan.masks.getOffsets();
+		final int[] rowStart = plan.masks.getRowStart();
+		final int nRows = Math.min(plan.masks.getRowCount(), globalHeight);
 
 		int row = 0;
-		for (Spot spot : plan.spots) {
-			Rectangle b = getSpotBounds(spot, refSizex, refSizey);
-			if (b == null || b.height <= 0 || b.width <= 0) {
+		for (; row < nRows; row++) {
+			if (plan.placeholderRows[row]) {
 				int dst = row * W + kymographColumn;
-				for (int ch = 0; ch < plan.channelBuffers.size(); ch++) {
+				for (int ch = 0; ch < nch; ch++) {
 					plan.channelBuffers.get(ch)[dst] = 0;
 				}
-				row++;
 				continue;
 			}
-			int cx = (int) Math.round(b.getCenterX());
+			int from = rowStart[row];
+			int to = rowStart[row + 1];
+			int n = to - from;
+			if (n == 0) {
+				copyPreviousColumn(plan.channelBuffers, kymographColumn, row, W, globalHeight, kymoSizeC);
+				continue;
+			}
+			long sum0 = 0;
+			long sum1 = 0;
+			long sum2 = 0;
+			for (int i = from; i < to; i++) {
+				int pix = offsets[i];
+				sum0 += src0[pix];
+				if (dst1 != null) {
+					sum1 += src1[pix];
+				}
+				if (dst2 != null) {
+					sum2 += src2[pix];
+				}
+			}
+			int dst = row * W + kymographColumn;
+			if (dst0 != null) {
+				dst0[dst] = (int) (sum0 / n);
+			}
+			if (dst1 != null) {
+				dst1[dst] = (int) (sum1 / n);
+			}
+			if (dst2 != null) {
+				dst2[dst] = (int) (sum2 / n);
+			}
+		}
+		while (row < globalHeight) {
+			copyPreviousColumn(plan.channelBuffers, kymographColumn, row, W, globalHeight, kymoSizeC);
+			row++;
+		}
+	}
 
-			for (int y = b.y; y <= b.y + b.height - 1 && row < globalHeight; y++) {
-				ArrayList<int[]> mask = horizontalStripMask(cx, y, diskR, refSizex, refSizey);
-				if (mask.isEmpty()) {
-					copyPreviousColumn(plan.channelBuffers, kymographColumn, row, W, globalHeight, kymoSizeC);
-				} else {
-					long sum0 = 0;
-					long sum1 = 0;
-					long sum2 = 0;
-					for (int[] m : mask) {
-						int pix = m[0] + m[1] * imgW;
-						sum0 += src0[pix];
-						if (src1 != null) {
-							sum1 += src1[pix];
-						}
-						if (src2 != null) {
-							sum2 += src2[pix];
-						}
-					}
-					int n = mask.size();
-					int dst = row * W + kymographColumn;
-					if (!plan.channelBuffers.isEmpty() && n > 0) {
-						plan.channelBuffers.get(0)[dst] = (int) (sum0 / n);
-					}
-					if (kymoSizeC > 1 && src1 != null && plan.channelBuffers.size() > 1 && n > 0) {
-						plan.channelBuffers.get(1)[dst] = (int) (sum1 / n);
-					}
-					if (kymoSizeC > 2 && src2 != null && plan.channelBuffers.size() > 2 && n > 0) {
-						plan.channelBuffers.get(2)[dst] = (int) (sum2 / n);
-					}
+	/**
+	 * Same output as {@link #fillColumnRaster} from per-row sums computed by a
+	 * {@link FrameMajorKymoEngine} over all plans ({@code target} is the plan index).
+	 */
+	private static void scatterColumn(CageKymoPlan plan, FrameMajorKymoEngine engine, int target, long[] sums0,
+			long[] sums1, long[] sums2, int kymographColumn, int globalHeight, int kymoSizeC) {
+		int W = plan.imageWidth;
+		int nch = plan.channelBuffers.size();
+		int[] dst0 = nch > 0 ? plan.channelBuffers.get(0) : null;
+		int[] dst1 = (kymoSizeC > 1 && sums1 != null && nch > 1) ? plan.channelBuffers.get(1) : null;
+		int[] dst2 = (kymoSizeC > 2 && sums2 != null && nch > 2) ? plan.channelBuffers.get(2) : null;
+		int base = engine.getRowBase(target);
+		int nRows = Math.min(engine.getRowCount(target), globalHeight);
+
+		int row = 0;
+		for (; row < nRows; row++) {
+			int dst = row * W + kymographColumn;
+			if (plan.placeholderRows[row]) {
+				for (int ch = 0; ch < nch; ch++) {
+					plan.channelBuffers.get(ch)[dst] = 0;
 				}
-				row++;
+				continue;
+			}
+			int n = engine.getPixelCount(base + row);
+			if (n == 0) {
+				copyPreviousColumn(plan.channelBuffers, kymographColumn, row, W, globalHeight, kymoSizeC);
+				continue;
+			}
+			if (dst0 != null) {
+				dst0[dst] = (int) (sums0[base + row] / n);
+			}
+			if (dst1 != null) {
+				dst1[dst] = (int) (sums1[base + row] / n);
+			}
+			if (dst2 != null) {
+				dst2[dst] = (int) (sums2[base + row] / n);
 			}
 		}
 		while (row < globalHeight) {
@@ -469,25 +556,20 @@ public class CageSpotKymographBuilder {
 	}
 
 	/** Same geometry as {@link KymographBuilder} capillary sampling (horizontal strip at fixed y). */
-	private static ArrayList<int[]> horizontalStripMask(int cx, int y, int diskRadius, int sizex, int sizey) {
-		ArrayList<int[]> maskAroundPixel = new ArrayList<>();
+	private static void addHorizontalStripMask(CompiledMasks.Builder mask, int cx, int y, int diskRadius, int sizex,
+			int sizey) {
 		double m1 = cx;
 		double m2 = y;
 		double radiusSquared = (double) diskRadius * diskRadius;
 		int minX = clip(cx - diskRadius, 0, sizex - 1);
 		int maxX = clip(cx + diskRadius, minX, sizex - 1);
-		int minY = y;
-		int maxY = y;
 		for (int x = minX; x <= maxX; x++) {
-			for (int yy = minY; yy <= maxY; yy++) {
-				double dx = x - m1;
-				double dy = yy - m2;
-				if (dx * dx + dy * dy <= radiusSquared) {
-					maskAroundPixel.add(new int[] { x, yy });
-				}
+			double dx = x - m1;
+			double dy = y - m2;
+			if (dx * dx + dy * dy <= radiusSquared) {
+				mask.addPixel(x, y, sizey);
 			}
 		}
-		return maskAroundPixel;
 	}
 
 	private static int clip(int v, int min, int max) {
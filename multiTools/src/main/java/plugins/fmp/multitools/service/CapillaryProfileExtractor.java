@@ -7,6 +7,7 @@ import java.util.List;
 import icy.image.IcyBufferedImage;
 import icy.roi.ROI2D;
 import icy.type.collection.array.Array1DUtil;
+import plugins.fmp.multitools.tools.ROI2D.CompiledMasks;
 import plugins.fmp.multitools.tools.ROI2D.ROI2DUtilities;
 import plugins.fmp.multitools.tools.polyline.Bresenham;
 
@@ -108,6 +109,22 @@ public final class CapillaryProfileExtractor {
 		return v;
 	}
 
+	/**
+	 * Compiled form of {@link #buildMasksAlongRoi}: build once per ROI / time interval and reuse for
+	 * every frame.
+	 */
+	public static CompiledMasks compileMasksAlongRoi(ROI2D roi, int imageWidth, int imageHeight, int diskRadius) {
+		return CompiledMasks.compile(buildMasksAlongRoi(roi, imageWidth, imageHeight, diskRadius), imageWidth,
+				imageHeight);
+	}
+
+	/** Compiled form of {@link #buildMasksAlongRoiPerpendicular}. */
+	public static CompiledMasks compileMasksAlongRoiPerpendicular(ROI2D roi, int imageWidth, int imageHeight,
+			int halfLength) {
+		return CompiledMasks.compile(buildMasksAlongRoiPerpendicular(roi, imageWidth, imageHeight, halfLength),
+				imageWidth, imageHeight);
+	}
+
 	/**
 	 * Extracts a 1D profile (one value per mask) by averaging pixel values in each
 	 * mask. Uses channel 0 of the source image.
@@ -121,20 +138,25 @@ public final class CapillaryProfileExtractor {
 		int h = sourceImage.getSizeY();
 		Object data = sourceImage.getDataXY(0);
 		int[] channel = Array1DUtil.arrayToIntArray(data, sourceImage.isSignedDataType());
-		int[] profile = new int[masks.size()];
-		for (int i = 0; i < masks.size(); i++) {
-			ArrayList<int[]> mask = masks.get(i);
-			long sum = 0;
-			int n = 0;
-			for (int[] p : mask) {
-				int x = p[0];
-				int y = p[1];
-				if (x >= 0 && x < w && y >= 0 && y < h) {
-					sum += channel[x + y * w];
-					n++;
-				}
-			}
-			profile[i] = n > 0 ? (int) (sum / n) : 0;
+		return extractProfile(channel, CompiledMasks.compile(masks, w, h));
+	}
+
+	/**
+	 * Same as {@link #extractProfileFromMasks(IcyBufferedImage, List)} on a frame already
+	 * converted once for all capillaries, with masks compiled for the frame width.
+	 */
+	public static int[] extractProfileFromMasks(DecodedFrame frame, CompiledMasks masks) {
+		if (frame == null || masks == null || masks.isEmpty())
+			return new int[0];
+		return extractProfile(frame.getChannel(0), masks);
+	}
+
+	private static int[] extractProfile(int[] channel, CompiledMasks masks) {
+		int n = masks.getRowCount();
+		int[] profile = new int[n];
+		for (int i = 0; i < n; i++) {
+			int count = masks.getRowSize(i);
+			profile[i] = count > 0 ? (int) (masks.sumRow(channel, i) / count) : 0;
 		}
 		return profile;
 	}
@@ -149,32 +171,26 @@ public final class CapillaryProfileExtractor {
 	public static int[][] extractRgbProfileFromMasks(IcyBufferedImage sourceImage, List<ArrayList<int[]>> masks) {
 		if (sourceImage == null || masks == null || masks.isEmpty())
 			return null;
-		int w = sourceImage.getSizeX();
-		int h = sourceImage.getSizeY();
-		int nCh = Math.min(3, sourceImage.getSizeC());
-		int[][] channels = new int[nCh][];
-		for (int c = 0; c < nCh; c++) {
-			Object data = sourceImage.getDataXY(c);
-			channels[c] = Array1DUtil.arrayToIntArray(data, sourceImage.isSignedDataType());
-		}
-		int n = masks.size();
+		return extractRgbProfileFromMasks(DecodedFrame.of(sourceImage),
+				CompiledMasks.compile(masks, sourceImage.getSizeX(), sourceImage.getSizeY()));
+	}
+
+	/**
+	 * Same as {@link #extractRgbProfileFromMasks(IcyBufferedImage, List)} on a frame already
+	 * converted once for all capillaries, with masks compiled for the frame width.
+	 */
+	public static int[][] extractRgbProfileFromMasks(DecodedFrame frame, CompiledMasks masks) {
+		if (frame == null || masks == null || masks.isEmpty())
+			return null;
+		int nCh = Math.min(3, frame.getSizeC());
+		int n = masks.getRowCount();
 		int[][] rgb = new int[3][n];
-		for (int i = 0; i < n; i++) {
-			ArrayList<int[]> mask = masks.get(i);
-			long[] sum = new long[3];
-			int count = 0;
-			for (int[] p : mask) {
-				int x = p[0];
-				int y = p[1];
-				if (x >= 0 && x < w && y >= 0 && y < h) {
-					int idx = x + y * w;
-					for (int c = 0; c < nCh; c++)
-						sum[c] += channels[c][idx];
-					count++;
-				}
+		for (int c = 0; c < nCh; c++) {
+			int[] channel = frame.getChannel(c);
+			for (int i = 0; i < n; i++) {
+				int count = masks.getRowSize(i);
+				rgb[c][i] = count > 0 ? (int) (masks.sumRow(channel, i) / count) : 0;
 			}
-			for (int c = 0; c < nCh; c++)
-				rgb[c][i] = count > 0 ? (int) (sum[c] / count) : 0;
 		}
 		if (nCh < 3) {
 			for (int i = 0; i < n; i++) {
@@ -56,17 +56,25 @@ public class CapillaryTracker {
 			Logger.warn("CapillaryTracker: cannot load image at t=" + t0);
 			return result;
 		}
+		int imgW = imgPrev.getWidth();
+		int imgH = imgPrev.getHeight();
+		// region of pathPrev decoded at the previous step, reused while the ROI stays in place
+		IcyBufferedImage regionPrev = null;
+		Rectangle regionPrevRect = null;
 
+		// later frames are only decoded around the capillary
 		int step = tEnd >= t0 ? 1 : -1;
 		for (int t = t0 + step; (step > 0 && t <= tEnd) || (step < 0 && t >= tEnd); t += step) {
 			String pathCurr = seqCamData.getFileNameFromImageList(t);
 			if (pathCurr == null)
 				continue;
-			IcyBufferedImage imgCurr = loadSvc.imageIORead(pathCurr);
-			if (imgCurr == null)
+
+			Rectangle cropRect = cropRectForRoi(roiPrev, imgW, imgH, marginPx);
+			Rectangle readRect = readRectForCrop(cropRect, imgW, imgH);
+			IcyBufferedImage regionCurr = loadSvc.imageIOReadRegion(pathCurr, readRect, 1);
+			if (regionCurr == null)
 				continue;
 
-			Rectangle cropRect = cropRectForRoi(roiPrev, imgCurr.getWidth(), imgCurr.getHeight(), marginPx);
 			if (cropRect.width < 16 || cropRect.height < 16) {
 				Logger.debug("CapillaryTracker: crop too small at t=" + t + ", skipping");
 				ROI2D copy = ROI2DUtilities.translateROI(roiPrev, 0, 0);
@@ -75,17 +83,20 @@ public class CapillaryTracker {
 					result.put((long) t, copy);
 					roiPrev = copy;
 				}
-				imgPrev = imgCurr;
+				pathPrev = pathCurr;
+				regionPrev = regionCurr;
+				regionPrevRect = readRect;
 				continue;
 			}
 
-			IcyBufferedImage cropPrev = IcyBufferedImageUtil.getSubImage(imgPrev, cropRect.x, cropRect.y,
-					cropRect.height, cropRect.width);
-			IcyBufferedImage cropCurr = IcyBufferedImageUtil.getSubImage(imgCurr, cropRect.x, cropRect.y,
-					cropRect.height, cropRect.width);
-
+			if (regionPrev == null || !readRect.equals(regionPrevRect))
+				regionPrev = loadSvc.imageIOReadRegion(pathPrev, readRect, 1);
 			Vector2d translation;
 			try {
+				IcyBufferedImage cropPrev = IcyBufferedImageUtil.getSubImage(regionPrev, 0, 0, cropRect.height,
+						cropRect.width);
+				IcyBufferedImage cropCurr = IcyBufferedImageUtil.getSubImage(regionCurr, 0, 0, cropRect.height,
+						cropRect.width);
 				translation = GaspardRigidRegistration.findTranslation2D(cropCurr, CHANNEL, cropPrev, CHANNEL);
 			} catch (Exception e) {
 				Logger.warn("CapillaryTracker: findTranslation2D failed at t=" + t + ": " + e.getMessage());
@@ -93,7 +104,9 @@ public class CapillaryTracker {
 				copy.setName(roiPrev.getName());
 				result.put((long) t, copy);
 				roiPrev = copy;
-				imgPrev = imgCurr;
+				pathPrev = pathCurr;
+				regionPrev = regionCurr;
+				regionPrevRect = readRect;
 				continue;
 			}
 
@@ -106,7 +119,9 @@ public class CapillaryTracker {
 				roiPrev = roiTranslated;
 			}
 
-			imgPrev = imgCurr;
+			pathPrev = pathCurr;
+			regionPrev = regionCurr;
+			regionPrevRect = readRect;
 		}
 
 		return result;
@@ -153,6 +168,16 @@ public class CapillaryTracker {
 		return roiTranslated;
 	}
 
+	/**
+	 * Area to decode so that cropping it at (0, 0) gives the same pixels as cropping the full frame
+	 * at {@code cropRect}: the crops pass height before width, so the square covering both readings
+	 * is decoded.
+	 */
+	private Rectangle readRectForCrop(Rectangle cropRect, int imgW, int imgH) {
+		int side = Math.max(cropRect.width, cropRect.height);
+		return new Rectangle(cropRect.x, cropRect.y, side, side).intersection(new Rectangle(0, 0, imgW, imgH));
+	}
+
 	private Rectangle cropRectForRoi(ROI2D roi, int imgW, int imgH, int margin) {
 		Rectangle bounds = roi.getBounds();
 		int w = Math.max(32, bounds.width + 2 * margin);
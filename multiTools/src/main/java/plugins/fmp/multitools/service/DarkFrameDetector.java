@@ -1,6 +1,7 @@
 package plugins.fmp.multitools.service;
 
 import java.awt.Dimension;
+import java.awt.Rectangle;
 
 import icy.gui.frame.progress.ProgressFrame;
 import icy.image.IcyBufferedImage;
@@ -91,6 +92,8 @@ public class DarkFrameDetector {
 			return null;
 		}
 
+		// only the monitor rectangle is decoded
+		Rectangle roi = new Rectangle(roiX, roiY, roiWidth, roiHeight);
 		SequenceLoaderService loader = new SequenceLoaderService();
 		ProgressFrame progress = new ProgressFrame("Detect dark frames");
 		try {
@@ -99,8 +102,8 @@ public class DarkFrameDetector {
 					progress.setMessage("Frame " + (t + 1) + "/" + nFrames);
 				}
 
-			    IcyBufferedImage image = loader
-							.imageIORead(exp.getSeqCamData().getFileNameFromImageList(t));
+				IcyBufferedImage image = loader.imageIOReadRegion(exp.getSeqCamData().getFileNameFromImageList(t),
+						roi, 1);
 
 				if (image == null) {
 					lightStatus[t] = 0;
@@ -108,7 +111,7 @@ public class DarkFrameDetector {
 					continue;
 				}
 
-				long sum = computeSumInROI(image, roiX, roiY, roiWidth, roiHeight);
+				long sum = computeSumInROI(image, 0, 0, roiWidth, roiHeight);
 				sumPerFrame[t] = sum;
 				double mean = (double) sum / roiArea;
 				if (sum < minSum)
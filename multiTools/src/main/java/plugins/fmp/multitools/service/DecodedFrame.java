@@ -0,0 +1,120 @@
+package plugins.fmp.multitools.service;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import icy.image.IcyBufferedImage;
+import icy.type.collection.array.Array1DUtil;
+
+/**
+ * Read-only view of one camera frame as primitive {@code int[]} channels ({@code x + y * width}
+ * indexing).
+ * <p>
+ * The conversion from the image data type is done once per frame; every capillary, spot or cage
+ * analyzer working on the same frame then reads the shared arrays instead of calling
+ * {@code Array1DUtil.arrayToIntArray} again. Frames come from a {@link Pool} so the channel
+ * buffers are recycled from one frame to the next.
+ */
+public final class DecodedFrame {
+
+	private final int width;
+	private final int height;
+	private final int sizeC;
+	private final int[][] channels;
+
+	private DecodedFrame(int width, int height, int sizeC) {
+		this.width = width;
+		this.height = height;
+		this.sizeC = sizeC;
+		this.channels = new int[sizeC][width * height];
+	}
+
+	/** Converts {@code image} into a new, non-pooled frame. */
+	public static DecodedFrame of(IcyBufferedImage image) {
+		if (image == null) {
+			return null;
+		}
+		DecodedFrame frame = new DecodedFrame(image.getSizeX(), image.getSizeY(), Math.max(1, image.getSizeC()));
+		frame.fill(image);
+		return frame;
+	}
+
+	private void fill(IcyBufferedImage image) {
+		boolean signed = image.isSignedDataType();
+		int len = width * height;
+		int nC = Math.min(sizeC, image.getSizeC());
+		for (int c = 0; c < nC; c++) {
+			Array1DUtil.arrayToIntArray(image.getDataXY(c), 0, channels[c], 0, len, signed);
+		}
+	}
+
+	private boolean matches(int w, int h, int c) {
+		return width == w && height == h && sizeC == c;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getSizeC() {
+		return sizeC;
+	}
+
+	/** Channel {@code c}, or {@code null} when the frame has fewer channels. Do not modify. */
+	public int[] getChannel(int c) {
+		return (c >= 0 && c < sizeC) ? channels[c] : null;
+	}
+
+	/**
+	 * Recycles {@link DecodedFrame} buffers between frames of identical geometry. Thread-safe; a
+	 * frame must be {@link #release released} only once nobody reads it anymore.
+	 */
+	public static final class Pool {
+		private static final int DEFAULT_MAX_POOLED = 8;
+
+		private final ConcurrentLinkedQueue<DecodedFrame> free = new ConcurrentLinkedQueue<>();
+		private final int maxPooled;
+
+		public Pool() {
+			this(DEFAULT_MAX_POOLED);
+		}
+
+		public Pool(int maxPooled) {
+			this.maxPooled = Math.max(1, maxPooled);
+		}
+
+		public DecodedFrame acquire(IcyBufferedImage image) {
+			if (image == null) {
+				return null;
+			}
+			int w = image.getSizeX();
+			int h = image.getSizeY();
+			int c = Math.max(1, image.getSizeC());
+			DecodedFrame frame;
+			while ((frame = free.poll()) != null) {
+				if (frame.matches(w, h, c)) {
+					break;
+				}
+				// geometry changed: drop stale buffers
+			}
+			if (frame == null) {
+				frame = new DecodedFrame(w, h, c);
+			}
+			frame.fill(image);
+			return frame;
+		}
+
+		public void release(DecodedFrame frame) {
+			if (frame != null && free.size() < maxPooled) {
+				free.offer(frame);
+			}
+		}
+
+		public void clear() {
+			free.clear();
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package plugins.fmp.multitools.service;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import icy.image.IcyBufferedImage;
+import icy.system.SystemUtil;
+import icy.system.thread.Processor;
+import plugins.fmp.multitools.tools.Logger;
+
+/**
+ * Ordered, bounded read-ahead of camera frames.
+ * <p>
+ * Several decoder threads read the files of {@code fileNames} in parallel, but at most
+ * {@code depth} frames are decoded (or being decoded) ahead of the consumer. {@link #next()}
+ * returns frames strictly in list order and only then schedules the next file, so heap use is
+ * capped by {@code depth} frames whatever the length of the series. Frames are read with
+ * {@link SequenceLoaderService#imageIOReadStreaming}: a build reads each frame once and must not
+ * push the viewer's frames out of the shared decoded-frame cache.
+ */
+public class FramePrefetcher {
+
+	private final SequenceLoaderService loader;
+	private final List<String> fileNames;
+	private final Processor processor;
+	private final ArrayDeque<Future<IcyBufferedImage>> pending;
+	private final int depth;
+	private int nextToSubmit = 0;
+	private int nextToTake = 0;
+
+	public FramePrefetcher(SequenceLoaderService loader, List<String> fileNames, int nDecoders, int depth) {
+		this.loader = loader != null ? loader : new SequenceLoaderService();
+		this.fileNames = fileNames;
+		int nThreads = Math.max(1, Math.min(nDecoders, SystemUtil.getNumberOfCPUs()));
+		this.depth = Math.max(nThreads, depth);
+		this.pending = new ArrayDeque<Future<IcyBufferedImage>>(this.depth);
+		this.processor = new Processor(nThreads);
+		processor.setThreadName("framePrefetcher");
+		processor.setPriority(Processor.NORM_PRIORITY);
+		while (pending.size() < this.depth && submitNext()) {
+			// prime the ring
+		}
+	}
+
+	public boolean hasNext() {
+		return nextToTake < fileNames.size();
+	}
+
+	/** Index in {@code fileNames} of the frame returned by the next call to {@link #next()}. */
+	public int nextIndex() {
+		return nextToTake;
+	}
+
+	/**
+	 * Blocks until the next frame in list order is decoded. Returns {@code null} when the file
+	 * could not be read (the frame is still consumed).
+	 */
+	public IcyBufferedImage next() throws InterruptedException {
+		Future<IcyBufferedImage> f = pending.poll();
+		if (f == null) {
+			return null;
+		}
+		int index = nextToTake++;
+		submitNext();
+		try {
+			return f.get();
+		} catch (ExecutionException e) {
+			Logger.error("FramePrefetcher: failed to decode frame " + index + ": " + fileNames.get(index), e);
+			return null;
+		}
+	}
+
+	public void close() {
+		for (Future<IcyBufferedImage> f : pending) {
+			f.cancel(true);
+		}
+		pending.clear();
+		processor.shutdownNow();
+	}
+
+	private boolean submitNext() {
+		if (nextToSubmit >= fileNames.size()) {
+			return false;
+		}
+		final String fileName = fileNames.get(nextToSubmit++);
+		pending.add(processor.submit(() -> fileName != null ? loader.imageIOReadStreaming(fileName) : null));
+		return true;
+	}
+
+	/**
+	 * Read-ahead depth for frames of the given geometry: at least {@code requested}, reduced so the
+	 * decoded ring never takes more than a quarter of the remaining heap.
+	 */
+	public static int depthForMemory(int requested, int sizeX, int sizeY, int sizeC) {
+		long frameBytes = Math.max(1L, (long) sizeX * sizeY * Math.max(1, sizeC));
+		Runtime rt = Runtime.getRuntime();
+		long available = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+		// decoded BufferedImage + IcyBufferedImage copy + int[] rasters while analyzed
+		long perFrame = frameBytes * 6;
+		int byMemory = (int) Math.max(1L, (available / 4) / perFrame);
+		return Math.max(1, Math.min(requested, byMemory));
+	}
+}
@@ -3,7 +3,6 @@ package plugins.fmp.multitools.service;
 import java.awt.geom.Point2D;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -25,6 +24,7 @@ import plugins.fmp.multitools.series.options.GulpThresholdSmoothing;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.SavitzkyGolayFilter;
 import plugins.fmp.multitools.tools.polyline.Level2D;
+import plugins.fmp.multitools.tools.stats.RobustStats;
 
 public class GulpDetector {
 
@@ -283,10 +283,7 @@ public class GulpDetector {
 			return null;
 		}
 
-		List<Double> noiseList = new ArrayList<>(npoints);
-		for (int i = 0; i < npoints; i++)
-			noiseList.add(temporalNoise[i]);
-		double globalNoise = computeMedian(noiseList);
+		double globalNoise = npoints > 0 ? RobustStats.median(temporalNoise.clone(), npoints) : 0.0;
 
 		double[] thresholdValues = new double[npoints];
 		double[] xpoints = new double[npoints];
@@ -311,27 +308,6 @@ public class GulpDetector {
 		return thresholdMeasure;
 	}
 
-	private double computeMean(List<Double> values) {
-		if (values.isEmpty())
-			return 0.0;
-		double sum = 0.0;
-		for (Double value : values) {
-			sum += value;
-		}
-		return sum / values.size();
-	}
-
-	private double computeStdDev(List<Double> values, double mean) {
-		if (values.size() < 2)
-			return 0.0;
-		double sumSquaredDiff = 0.0;
-		for (Double value : values) {
-			double diff = value - mean;
-			sumSquaredDiff += diff * diff;
-		}
-		return Math.sqrt(sumSquaredDiff / values.size());
-	}
-
 //	private double computeThresholdAtT(List<Double> values, BuildSeriesOptions options) {
 //		GulpThresholdMethod method = options.thresholdMethod;
 //		double k = options.thresholdSdMultiplier;
@@ -357,44 +333,6 @@ public class GulpDetector {
 //		}
 //	}
 
-	private double computeMedian(List<Double> values) {
-		if (values.isEmpty())
-			return 0.0;
-		double[] sorted = new double[values.size()];
-		int i = 0;
-		for (Double v : values)
-			sorted[i++] = v;
-		Arrays.sort(sorted);
-		int mid = sorted.length / 2;
-		if (sorted.length % 2 == 0)
-			return (sorted[mid - 1] + sorted[mid]) / 2;
-		return sorted[mid];
-	}
-
-	private double computeMAD(List<Double> values, double median) {
-		if (values.isEmpty())
-			return 0.0;
-		List<Double> absDevs = new ArrayList<>();
-		for (Double v : values)
-			absDevs.add(Math.abs(v - median));
-		return computeMedian(absDevs);
-	}
-
-	private double computeIQR(List<Double> values) {
-		if (values.size() < 2)
-			return 0.0;
-		double[] sorted = new double[values.size()];
-		int i = 0;
-		for (Double v : values)
-			sorted[i++] = v;
-		Arrays.sort(sorted);
-		int q1idx = values.size() / 4;
-		int q3idx = (3 * values.size()) / 4;
-		if (q3idx >= sorted.length)
-			q3idx = sorted.length - 1;
-		return sorted[q3idx] - sorted[q1idx];
-	}
-
 	private double[] applySmoothing(double[] data, BuildSeriesOptions options) {
 		if (options.thresholdSmoothing == GulpThresholdSmoothing.NONE)
 			return data;
@@ -437,21 +375,16 @@ public class GulpDetector {
 		double[] referenceCurve = new double[npoints];
 
 		for (int t = 0; t < npoints; t++) {
-			List<Double> derivativeValuesAtT = new ArrayList<>();
-
+			double sum = 0.0;
+			int count = 0;
 			for (Capillary cap : emptyCageCapillaries) {
 				if (cap.getDerivative() != null && cap.getDerivative().polylineLevel != null
 						&& t < cap.getDerivative().polylineLevel.npoints) {
-					double derivValue = cap.getDerivative().polylineLevel.ypoints[t];
-					derivativeValuesAtT.add(derivValue);
+					sum += cap.getDerivative().polylineLevel.ypoints[t];
+					count++;
 				}
 			}
-
-			if (derivativeValuesAtT.isEmpty()) {
-				referenceCurve[t] = 0.0;
-			} else {
-				referenceCurve[t] = computeMean(derivativeValuesAtT);
-			}
+			referenceCurve[t] = count > 0 ? sum / count : 0.0;
 		}
 
 		return applySmoothing(referenceCurve, options);
@@ -479,10 +412,11 @@ public class GulpDetector {
 
 		double[] temporalNoise = new double[npoints];
 		int temporalWindow = Math.max(5, options.thresholdSmoothingWindow);
+		// one buffer for all windows, refilled at each t (the statistics reorder it)
+		double[] window = new double[residualArrays.size() * (2 * (temporalWindow / 2) + 1)];
 
 		for (int t = 0; t < npoints; t++) {
-			List<Double> residualsInWindow = new ArrayList<>();
-
+			int n = 0;
 			int windowStart = Math.max(0, t - temporalWindow / 2);
 			int windowEnd = Math.min(npoints, t + temporalWindow / 2 + 1);
 
@@ -491,35 +425,35 @@ public class GulpDetector {
 					continue;
 
 				for (int w = windowStart; w < windowEnd && w < residuals.length; w++) {
-					residualsInWindow.add(residuals[w]);
+					window[n++] = residuals[w];
 				}
 			}
 
-			if (residualsInWindow.isEmpty()) {
+			if (n == 0) {
 				temporalNoise[t] = 0.0;
 			} else {
 				GulpThresholdMethod method = options.thresholdMethod;
 				switch (method) {
 				case MEAN_PLUS_SD: {
-					double mean = computeMean(residualsInWindow);
-					double std = computeStdDev(residualsInWindow, mean);
+					double mean = RobustStats.mean(window, n);
+					double std = RobustStats.stdDev(window, n, mean);
 					temporalNoise[t] = Math.abs(std);
 					break;
 				}
 				case MEDIAN_PLUS_IQR: {
-					double iqr = computeIQR(residualsInWindow);
+					double iqr = RobustStats.iqr(window, n);
 					temporalNoise[t] = Math.abs(iqr);
 					break;
 				}
 				case MEDIAN_PLUS_MAD: {
-					double median = computeMedian(residualsInWindow);
-					double mad = computeMAD(residualsInWindow, median);
+					double median = RobustStats.median(window, n);
+					double mad = RobustStats.mad(window, n, median);
 					temporalNoise[t] = Math.abs(mad);
 					break;
 				}
 				default: {
-					double mean = computeMean(residualsInWindow);
-					double std = computeStdDev(residualsInWindow, mean);
+					double mean = RobustStats.mean(window, n);
+					double std = RobustStats.stdDev(window, n, mean);
 					temporalNoise[t] = Math.abs(std);
 					break;
 				}
@@ -633,20 +567,27 @@ class GulpDetectorFromTopraw {
 		if (capillaries == null || capillaries.isEmpty() || options == null) {
 			return null;
 		}
-		List<Double> absDy = new ArrayList<Double>();
+		int capacity = 0;
+		for (Capillary cap : capillaries) {
+			if (cap != null && cap.getNFlies() == 0) {
+				double[] y = toprawY(cap);
+				capacity += y != null ? Math.max(0, y.length - 1) : 0;
+			}
+		}
+		double[] absDy = new double[capacity];
+		int n = 0;
 		for (Capillary cap : capillaries) {
 			if (cap == null || cap.getNFlies() != 0) {
 				continue;
 			}
-			double[] y = toprawY(cap);
-			collectAbsDeltaY(y, absDy);
+			n = collectAbsDeltaY(toprawY(cap), absDy, n);
 		}
-		if (absDy.isEmpty()) {
+		if (n == 0) {
 			return null;
 		}
 		GulpThresholdMethod method = options.thresholdMethod != null ? options.thresholdMethod
 				: GulpThresholdMethod.MEAN_PLUS_SD;
-		return robustScale(absDy, method, options.thresholdSdMultiplier);
+		return robustScale(absDy, n, method, options.thresholdSdMultiplier);
 	}
 
 	static void collectAbsDeltaY(double[] y, List<Double> dest) {
@@ -661,26 +602,53 @@ class GulpDetectorFromTopraw {
 		}
 	}
 
+	/** Appends |y[t] - y[t-1]| from index {@code n} of {@code dest}; returns the new count. */
+	static int collectAbsDeltaY(double[] y, double[] dest, int n) {
+		if (y == null || y.length < 2) {
+			return n;
+		}
+		for (int t = 1; t < y.length; t++) {
+			if (Double.isNaN(y[t]) || Double.isNaN(y[t - 1])) {
+				continue;
+			}
+			dest[n++] = Math.abs(y[t] - y[t - 1]);
+		}
+		return n;
+	}
+
 	static double robustScale(List<Double> values, GulpThresholdMethod method, double k) {
 		if (values == null || values.isEmpty()) {
 			return Double.NaN;
 		}
+		double[] array = new double[values.size()];
+		int n = 0;
+		for (Double v : values) {
+			array[n++] = v;
+		}
+		return robustScale(array, n, method, k);
+	}
+
+	/** {@link #robustScale(List, GulpThresholdMethod, double)} of the first {@code n} values, which it reorders. */
+	static double robustScale(double[] values, int n, GulpThresholdMethod method, double k) {
+		if (values == null || n <= 0) {
+			return Double.NaN;
+		}
 		GulpThresholdMethod m = method != null ? method : GulpThresholdMethod.MEAN_PLUS_SD;
 		switch (m) {
 		case MEDIAN_PLUS_IQR: {
-			double median = computeMedian(values);
-			double iqr = computeIQR(values);
+			double iqr = RobustStats.iqr(values, n);
+			double median = RobustStats.median(values, n);
 			return median + k * Math.abs(iqr);
 		}
 		case MEDIAN_PLUS_MAD: {
-			double median = computeMedian(values);
-			double mad = computeMAD(values, median);
+			double median = RobustStats.median(values, n);
+			double mad = RobustStats.mad(values, n, median);
 			return median + k * Math.abs(mad);
 		}
 		case MEAN_PLUS_SD:
 		default: {
-			double mean = computeMean(values);
-			double std = computeStdDev(values, mean);
+			double mean = RobustStats.mean(values, n);
+			double std = RobustStats.stdDev(values, n, mean);
 			return mean + k * Math.abs(std);
 		}
 		}
@@ -759,73 +727,4 @@ class GulpDetectorFromTopraw {
 		}
 		return "";
 	}
-
-	private static double computeMean(List<Double> values) {
-		if (values.isEmpty()) {
-			return 0.0;
-		}
-		double sum = 0.0;
-		for (Double value : values) {
-			sum += value;
-		}
-		return sum / values.size();
-	}
-
-	private static double computeStdDev(List<Double> values, double mean) {
-		if (values.size() < 2) {
-			return 0.0;
-		}
-		double sumSquaredDiff = 0.0;
-		for (Double value : values) {
-			double diff = value - mean;
-			sumSquaredDiff += diff * diff;
-		}
-		return Math.sqrt(sumSquaredDiff / values.size());
-	}
-
-	private static double computeMedian(List<Double> values) {
-		if (values.isEmpty()) {
-			return 0.0;
-		}
-		double[] sorted = new double[values.size()];
-		int i = 0;
-		for (Double v : values) {
-			sorted[i++] = v;
-		}
-		Arrays.sort(sorted);
-		int mid = sorted.length / 2;
-		if (sorted.length % 2 == 0) {
-			return (sorted[mid - 1] + sorted[mid]) / 2;
-		}
-		return sorted[mid];
-	}
-
-	private static double computeMAD(List<Double> values, double median) {
-		if (values.isEmpty()) {
-			return 0.0;
-		}
-		List<Double> absDevs = new ArrayList<Double>();
-		for (Double v : values) {
-			absDevs.add(Math.abs(v - median));
-		}
-		return computeMedian(absDevs);
-	}
-
-	private static double computeIQR(List<Double> values) {
-		if (values.size() < 2) {
-			return 0.0;
-		}
-		double[] sorted = new double[values.size()];
-		int i = 0;
-		for (Double v : values) {
-			sorted[i++] = v;
-		}
-		Arrays.sort(sorted);
-		int q1idx = values.size() / 4;
-		int q3idx = (3 * values.size()) / 4;
-		if (q3idx >= sorted.length) {
-			q3idx = sorted.length - 1;
-		}
-		return sorted[q3idx] - sorted[q1idx];
-	}
 }
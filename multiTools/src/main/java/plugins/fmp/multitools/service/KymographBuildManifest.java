@@ -0,0 +1,177 @@
+package plugins.fmp.multitools.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.registration.FrameTransformTable;
+
+/**
+ * Sidecar written next to the capillary kymographs: the build settings (as one signature string)
+ * and, for each kymograph column, the source frame file name, its time stamp and a
+ * {@link #frameStamp stamp} of the pixels that went into it (file size, modification time and
+ * registration correction of the frame).
+ * <p>
+ * When a recording keeps growing, a new build compares its own manifest with the one on disk: the
+ * columns of the longest common prefix can be copied from the existing TIFFs and only the new
+ * frames need to be analyzed. A frame rewritten on disk or registered again ends the prefix, so
+ * its column and every later one are rebuilt.
+ */
+public final class KymographBuildManifest {
+
+	public static final String FILE_NAME = "kymographs_manifest.txt";
+
+	private static final String HEADER = "#kymograph manifest v2";
+	private static final String SETTINGS_KEY = "settings=";
+
+	private final String settings;
+	private final List<String> frameNames;
+	private final List<Long> frameMs;
+	private final List<String> frameStamps;
+
+	public KymographBuildManifest(String settings, List<String> frameNames, List<Long> frameMs,
+			List<String> frameStamps) {
+		this.settings = settings != null ? settings : "";
+		this.frameNames = frameNames;
+		this.frameMs = frameMs;
+		this.frameStamps = frameStamps;
+	}
+
+	/**
+	 * Stamp recorded for the column built from frame {@code path}:
+	 * {@code size;mtime;transform}, where transform is a hash of the frame's
+	 * {@link FrameTransformTable} entry ({@code -} when the frame is used as it is on disk).
+	 */
+	public static String frameStamp(String path) {
+		if (path == null) {
+			return "-1;-1;-";
+		}
+		File file = new File(path);
+		FrameTransformTable table = FrameTransformTable.forFrame(path);
+		FrameTransformTable.Transform t = table != null ? table.get(path) : null;
+		String transform = "-";
+		if (t != null) {
+			transform = Long.toHexString(fnv1a64(t.dx + ":" + t.dy + ":" + t.angleRad + ":" + t.pivotX + ":" + t.pivotY));
+		}
+		return file.length() + ";" + file.lastModified() + ";" + transform;
+	}
+
+	/** 64-bit FNV-1a hash of {@code text}, for short signatures of long descriptions. */
+	static long fnv1a64(CharSequence text) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < text.length(); i++) {
+			hash ^= text.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	public String getSettings() {
+		return settings;
+	}
+
+	public int getColumnCount() {
+		return frameNames.size();
+	}
+
+	/**
+	 * Number of leading columns this (previous) manifest shares with {@code current}: 0 when the
+	 * settings differ, otherwise the count of identical (frame name, time, stamp) columns from
+	 * column 0.
+	 */
+	public int matchingPrefix(KymographBuildManifest current) {
+		if (current == null || !settings.equals(current.settings)) {
+			return 0;
+		}
+		int n = Math.min(getColumnCount(), current.getColumnCount());
+		for (int i = 0; i < n; i++) {
+			if (!frameNames.get(i).equals(current.frameNames.get(i))
+					|| frameMs.get(i).longValue() != current.frameMs.get(i).longValue()
+					|| !frameStamps.get(i).equals(current.frameStamps.get(i))) {
+				return i;
+			}
+		}
+		return n;
+	}
+
+	/** Reads the manifest stored in {@code dir}; null when absent or unreadable. */
+	public static KymographBuildManifest read(Path dir) {
+		Path file = dir.resolve(FILE_NAME);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		String settings = null;
+		ArrayList<String> names = new ArrayList<String>();
+		ArrayList<Long> times = new ArrayList<Long>();
+		ArrayList<String> stamps = new ArrayList<String>();
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line = reader.readLine();
+			if (!HEADER.equals(line)) {
+				return null;
+			}
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(SETTINGS_KEY)) {
+					settings = line.substring(SETTINGS_KEY.length());
+					continue;
+				}
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				// column;ms;size;mtime;transform;frame file name (file names may contain ';')
+				int[] sep = new int[5];
+				int from = 0;
+				for (int k = 0; k < sep.length; k++) {
+					sep[k] = line.indexOf(';', from);
+					if (sep[k] < 0) {
+						return null;
+					}
+					from = sep[k] + 1;
+				}
+				if (Integer.parseInt(line.substring(0, sep[0])) != names.size()) {
+					return null;
+				}
+				times.add(Long.parseLong(line.substring(sep[0] + 1, sep[1])));
+				stamps.add(line.substring(sep[1] + 1, sep[4]));
+				names.add(line.substring(sep[4] + 1));
+			}
+		} catch (IOException | NumberFormatException e) {
+			Logger.warn("KymographBuildManifest: cannot read " + file + " : " + e.getMessage());
+			return null;
+		}
+		return settings != null ? new KymographBuildManifest(settings, names, times, stamps) : null;
+	}
+
+	/** Writes the manifest into {@code dir} (temp file, then replace). */
+	public void write(Path dir) throws IOException {
+		Path file = dir.resolve(FILE_NAME);
+		Path tmp = dir.resolve(FILE_NAME + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+			writer.write(HEADER);
+			writer.newLine();
+			writer.write(SETTINGS_KEY + settings);
+			writer.newLine();
+			for (int i = 0; i < frameNames.size(); i++) {
+				writer.write(i + ";" + frameMs.get(i) + ";" + frameStamps.get(i) + ";" + frameNames.get(i));
+				writer.newLine();
+			}
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/** Removes the manifest of {@code dir} (kymographs there no longer match any build). */
+	public static void delete(Path dir) {
+		try {
+			Files.deleteIfExists(dir.resolve(FILE_NAME));
+		} catch (IOException e) {
+			Logger.debug("KymographBuildManifest: could not delete manifest in " + dir + " : " + e.getMessage());
+		}
+	}
+}
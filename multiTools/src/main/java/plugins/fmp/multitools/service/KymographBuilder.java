@@ -9,23 +9,23 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import icy.common.exception.UnsupportedFormatException;
+import icy.file.Loader;
 import icy.file.Saver;
 import icy.gui.frame.progress.ProgressFrame;
 import icy.image.IcyBufferedImage;
-import icy.sequence.Sequence;
 import icy.system.SystemUtil;
 import icy.system.thread.Processor;
 import icy.type.DataType;
-import icy.type.collection.array.Array1DUtil;
 import loci.formats.FormatException;
 import plugins.fmp.multitools.experiment.Experiment;
 import plugins.fmp.multitools.experiment.capillary.Capillary;
@@ -35,12 +35,19 @@ import plugins.fmp.multitools.tools.Comparators;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.TiffTifSiblingPaths;
 import plugins.fmp.multitools.tools.ROI2D.AlongT;
+import plugins.fmp.multitools.tools.ROI2D.CompiledMasks;
 import plugins.fmp.multitools.tools.ROI2D.ROI2DUtilities;
 import plugins.fmp.multitools.tools.polyline.Bresenham;
 
 public class KymographBuilder {
 
-	private Map<Capillary, ArrayList<int[]>> capIntegerArrays = new HashMap<>();
+	/** Column tiles spilled to disk while a kymograph is built (see {@link KymographColumnStore}). */
+	private static final int KYMO_SPILL_TILE_WIDTH = 64;
+	private static final String KYMO_SPILL_DIRECTORY = "kymospill";
+
+	private final Map<Capillary, KymographColumnStore> capStores = new ConcurrentHashMap<>();
+	/** One gather plan per distinct set of active capillary intervals (usually a handful). */
+	private final Map<List<CompiledMasks>, FrameMajorKymoEngine> kymoEngines = new ConcurrentHashMap<>();
 
 	public static final class LockProbeReport {
 		public final Path directory;
@@ -232,6 +239,8 @@ public class KymographBuilder {
 
 		getCapillariesToProcess(exp, options);
 		clearAllAlongTMasks(exp);
+		kymoEngines.clear();
+		closeCapStores(true);
 
 		SequenceLoaderService loader = new SequenceLoaderService();
 		// Canonical behavior: time origin for analyses is the first valid (visible)
@@ -304,40 +313,86 @@ public class KymographBuilder {
 		final int refSizex = exp.getSeqCamData().getSequence().getSizeX();
 		final int refSizey = exp.getSeqCamData().getSequence().getSizeY();
 
-		ProgressFrame progress = new ProgressFrame("Analyze series");
-
-		final Processor processor = new Processor(SystemUtil.getNumberOfCPUs());
-		processor.setThreadName("buildKymograph");
-		processor.setPriority(Processor.NORM_PRIORITY);
-		int ntasks = exp.getCapillaries().getList().size();
-		ArrayList<Future<?>> tasks = new ArrayList<Future<?>>(ntasks);
-		tasks.clear();
-
+		ArrayList<String> fileNames = new ArrayList<String>(expectedWidth);
 		for (int iToColumn = 0; iToColumn < expectedWidth; iToColumn++) {
 			int sourceImageIndex = frameIndices.get(iToColumn);
-			if (sourceImageIndex < 0)
-				continue;
+			fileNames.add(sourceImageIndex < 0 ? null
+					: exp.getSeqCamData().getFileNameFromImageList(sourceImageIndex));
+		}
+		KymographBuildManifest manifest = buildManifest(exp, options, frameIndices, fileNames, camImages_ms);
+		int recovered = recoverSpilledColumns(exp, manifest);
+		final int firstColumn = recovered > 0 ? recovered : resumeFromExistingKymographs(exp, options, manifest);
+		writeSpillManifest(exp, manifest);
 
-			final int fromSourceImageIndex = sourceImageIndex;
+		ProgressFrame progress = new ProgressFrame("Analyze series");
 
-			final int viewT = fromSourceImageIndex;
-			final int kymographColumn = iToColumn;
-			progress.setMessage("Processing file: " + (sourceImageIndex + 1) + "//" + sourceLastImageIndex);
+		// Decode frames on several threads ahead of the analyzers, but never more than
+		// prefetchDepth frames in flight, and never more than maxAnalysisInFlight frames
+		// waiting for analysis: heap use stays bounded whatever the length of the series.
+		final int nCPUs = SystemUtil.getNumberOfCPUs();
+		final int nDecoders = Math.max(1, Math.min(options.maxConcurrentTasks, nCPUs));
+		final int sizeCRef = Math.max(1, exp.getSeqCamData().getSequence().getSizeC());
+		final int prefetchDepth = FramePrefetcher.depthForMemory(Math.max(2 * nDecoders, options.batchSize), refSizex,
+				refSizey, sizeCRef);
+		final int maxAnalysisInFlight = Math.max(1, Math.min(nCPUs, prefetchDepth));
 
-			final IcyBufferedImage sourceImage = loader
-					.imageIORead(exp.getSeqCamData().getFileNameFromImageList(fromSourceImageIndex));
+		FramePrefetcher prefetcher = new FramePrefetcher(loader, fileNames.subList(firstColumn, expectedWidth),
+				nDecoders, prefetchDepth);
 
-			tasks.add(processor.submit(() -> {
-				for (Capillary capi : exp.getCapillaries().getList()) {
-					if (!capi.getKymographBuild())
-						continue;
-					analyzeImageUnderCapillary(sourceImage, capi, viewT, kymographColumn, refSizex, refSizey, options);
+		final Processor processor = new Processor(nCPUs);
+		processor.setThreadName("buildKymograph");
+		processor.setPriority(Processor.NORM_PRIORITY);
+		ArrayList<Future<?>> tasks = new ArrayList<Future<?>>(maxAnalysisInFlight + 1);
+		final DecodedFrame.Pool framePool = new DecodedFrame.Pool(maxAnalysisInFlight + 1);
+
+		try {
+			for (int iToColumn = firstColumn; iToColumn < expectedWidth; iToColumn++) {
+				int sourceImageIndex = frameIndices.get(iToColumn);
+				final IcyBufferedImage sourceImage = prefetcher.next();
+				if (sourceImageIndex < 0)
+					continue;
+				if (sourceImage == null) {
+					Logger.warn("KymographBuilder: could not read frame " + sourceImageIndex + ", column " + iToColumn
+							+ " left empty");
+					completeColumn(exp.getCapillaries().getList(), iToColumn);
+					continue;
 				}
-			}));
+
+				final int viewT = sourceImageIndex;
+				final int kymographColumn = iToColumn;
+				progress.setMessage("Processing file: " + (sourceImageIndex + 1) + "//" + sourceLastImageIndex);
+
+				tasks.add(processor.submit(() -> {
+					DecodedFrame frame = framePool.acquire(sourceImage);
+					try {
+						if (options.kymoFrameMajorEngine) {
+							analyzeImageFrameMajor(frame, exp.getCapillaries().getList(), viewT, kymographColumn,
+									refSizex, refSizey, options);
+						} else {
+							for (Capillary capi : exp.getCapillaries().getList()) {
+								if (!capi.getKymographBuild())
+									continue;
+								analyzeImageUnderCapillary(frame, capi, viewT, kymographColumn, refSizex, refSizey,
+										options);
+							}
+						}
+					} finally {
+						framePool.release(frame);
+						completeColumn(exp.getCapillaries().getList(), kymographColumn);
+					}
+				}));
+				waitOldestFutures(tasks, maxAnalysisInFlight);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			Logger.warn("KymographBuilder:buildKymograph - interrupted while reading frames");
+		} finally {
+			prefetcher.close();
 		}
 
 		progress.close();
 		waitFuturesCompletion(processor, tasks);
+		kymoEngines.clear();
 
 		SequenceCamData seqCamData = exp.getSeqCamData();
 		int sizeC = seqCamData.getSequence().getSizeC();
@@ -353,10 +408,176 @@ public class KymographBuilder {
 		}
 
 		archiveExistingKymographTiffsBeforeExport(exp);
-		exportCapillaryKymographs(exp, sizeC);
+		String directory = exp.getDirectoryToSaveResults();
+		if (directory != null)
+			KymographBuildManifest.delete(Paths.get(directory));
+		if (exportCapillaryKymographs(exp, sizeC) && directory != null) {
+			try {
+				manifest.write(Paths.get(directory));
+			} catch (IOException e) {
+				Logger.warn("KymographBuilder: could not write kymograph manifest in " + directory + " : "
+						+ e.getMessage());
+			}
+		}
 		return true;
 	}
 
+	/**
+	 * Describes this build: every setting that changes pixel values (disk radius, downsampling,
+	 * kymograph geometry, capillary intervals and ROIs) goes into the settings signature, and each
+	 * column records its source frame with its size, modification time and registration correction.
+	 */
+	private KymographBuildManifest buildManifest(Experiment exp, BuildSeriesOptions options,
+			List<Integer> frameIndices, List<String> fileNames, long[] camImages_ms) {
+		StringBuilder geometry = new StringBuilder();
+		KymographColumnStore anyStore = null;
+		for (Capillary cap : exp.getCapillaries().getList()) {
+			if (!cap.getKymographBuild())
+				continue;
+			if (anyStore == null)
+				anyStore = capStores.get(cap);
+			geometry.append(cap.getKymographName()).append('|');
+			for (AlongT capT : cap.getAlongTList()) {
+				geometry.append(capT.getStart()).append(':');
+				for (Point2D p : ROI2DUtilities.getCapillaryPoints(capT.getRoi()))
+					geometry.append(p.getX()).append(',').append(p.getY()).append(' ');
+			}
+			geometry.append('\n');
+		}
+		String settings = "diskRadius=" + options.diskRadius + ";downsample=" + Math.max(1, options.kymoDownsampleFactor)
+				+ ";fixedWindow=" + options.isFrameFixed + ";height=" + (anyStore != null ? anyStore.getHeight() : 0)
+				+ ";sizeC=" + (anyStore != null ? anyStore.getSizeC() : 0) + ";geometry="
+				+ Long.toHexString(KymographBuildManifest.fnv1a64(geometry));
+
+		ArrayList<String> names = new ArrayList<String>(fileNames.size());
+		ArrayList<Long> times = new ArrayList<Long>(fileNames.size());
+		ArrayList<String> stamps = new ArrayList<String>(fileNames.size());
+		for (int i = 0; i < fileNames.size(); i++) {
+			String fileName = fileNames.get(i);
+			names.add(fileName != null ? Paths.get(fileName).getFileName().toString() : "");
+			stamps.add(KymographBuildManifest.frameStamp(fileName));
+			int frame = frameIndices.get(i);
+			times.add((camImages_ms != null && frame >= 0 && frame < camImages_ms.length) ? camImages_ms[frame] : -1L);
+		}
+		return new KymographBuildManifest(settings, names, times, stamps);
+	}
+
+	/**
+	 * Incremental build of a growing series: when the manifest next to the existing kymographs
+	 * matches {@code current} on its first N columns, copies those columns from every
+	 * {@code line*.tiff} into the capillary stores and returns N (the first column left to
+	 * analyze). Returns 0, with fresh stores, if any kymograph is missing or does not fit.
+	 */
+	private int resumeFromExistingKymographs(Experiment exp, BuildSeriesOptions options,
+			KymographBuildManifest current) {
+		if (!options.kymoResumeFromExisting)
+			return 0;
+		Path dir = kymographTargetDirectory(exp, options);
+		if (dir == null || !Files.isDirectory(dir))
+			return 0;
+		KymographBuildManifest previous = KymographBuildManifest.read(dir);
+		int nColumns = previous != null ? previous.matchingPrefix(current) : 0;
+		if (nColumns <= 0)
+			return 0;
+
+		for (Capillary cap : exp.getCapillaries().getList()) {
+			if (!cap.getKymographBuild())
+				continue;
+			KymographColumnStore store = capStores.get(cap);
+			File file = TiffTifSiblingPaths.pickExistingPreferNewerMtime(
+					dir.resolve(cap.getKymographName() + ".tiff").toFile(),
+					dir.resolve(cap.getKymographName() + ".tif").toFile());
+			if (store == null || file == null || !copyExistingColumns(file, store, nColumns)) {
+				Logger.info("KymographBuilder: existing kymograph for " + cap.getKymographName()
+						+ " cannot be reused, rebuilding from the first frame");
+				resetCapStores(exp);
+				return 0;
+			}
+		}
+		Logger.info("KymographBuilder: reusing " + nColumns + " existing columns from " + dir + ", analyzing "
+				+ (current.getColumnCount() - nColumns) + " new frames");
+		return nColumns;
+	}
+
+	/**
+	 * Crash recovery: when the stores were reopened on the spill files of an interrupted build
+	 * (see {@link #buildCapStore}) and the manifest saved next to them matches {@code current},
+	 * keeps the columns every capillary had completed and returns their count. Returns 0, with
+	 * every recovered tile forgotten, otherwise.
+	 */
+	private int recoverSpilledColumns(Experiment exp, KymographBuildManifest current) {
+		int nColumns = -1;
+		for (Capillary cap : exp.getCapillaries().getList()) {
+			if (!cap.getKymographBuild())
+				continue;
+			KymographColumnStore store = capStores.get(cap);
+			int columns = store != null ? store.getRecoveredColumns() : 0;
+			nColumns = nColumns < 0 ? columns : Math.min(nColumns, columns);
+		}
+		if (nColumns > 0) {
+			KymographBuildManifest previous = KymographBuildManifest.read(spillDirectory(exp));
+			nColumns = previous != null ? Math.min(nColumns, previous.matchingPrefix(current)) : 0;
+		}
+		int kept = Math.max(0, nColumns);
+		for (Capillary cap : exp.getCapillaries().getList()) {
+			KymographColumnStore store = capStores.get(cap);
+			if (store != null && cap.getKymographBuild())
+				kept = Math.min(kept, store.keepRecoveredColumns(nColumns));
+		}
+		if (kept > 0)
+			Logger.info("KymographBuilder: recovered " + kept + " columns of an interrupted build from "
+					+ spillDirectory(exp) + ", analyzing " + (current.getColumnCount() - kept) + " remaining frames");
+		return kept;
+	}
+
+	/** Saves {@code manifest} next to the spill files so a crashed build can be recovered. */
+	private void writeSpillManifest(Experiment exp, KymographBuildManifest manifest) {
+		Path spillDir = spillDirectory(exp);
+		if (!Files.isDirectory(spillDir))
+			return;
+		try {
+			manifest.write(spillDir);
+		} catch (IOException e) {
+			Logger.warn("KymographBuilder: could not write kymograph manifest in " + spillDir + " : "
+					+ e.getMessage());
+		}
+	}
+
+	private boolean copyExistingColumns(File file, KymographColumnStore store, int nColumns) {
+		IcyBufferedImage image;
+		try {
+			image = Loader.loadImage(file.getAbsolutePath());
+		} catch (UnsupportedFormatException | IOException | InterruptedException e) {
+			Logger.warn("KymographBuilder: cannot read existing kymograph " + file + " : " + e.getMessage());
+			return false;
+		}
+		if (image == null || image.getDataType_() != DataType.UBYTE || image.getSizeX() < nColumns
+				|| image.getSizeY() != store.getHeight() || image.getSizeC() != store.getSizeC())
+			return false;
+
+		int width = image.getSizeX();
+		for (int chan = 0; chan < store.getSizeC(); chan++) {
+			byte[] data = image.getDataXYAsByte(chan);
+			for (int row = 0; row < store.getHeight(); row++) {
+				int rowOffset = row * width;
+				for (int col = 0; col < nColumns; col++)
+					store.set(chan, row, col, data[rowOffset + col] & 0xFF);
+			}
+		}
+		for (int col = 0; col < nColumns; col++)
+			store.columnCompleted(col);
+		return true;
+	}
+
+	/** Directory the kymographs of this build are exported to (see {@link #chooseWritableBinSubDirectory}). */
+	private static Path kymographTargetDirectory(Experiment exp, BuildSeriesOptions options) {
+		String resultsDir = exp.getResultsDirectory();
+		if (resultsDir == null)
+			return null;
+		String binDir = options.doCreateBinDir ? exp.getBinNameFromKymoFrameStep() : exp.getBinSubDirectory();
+		return binDir != null ? resolveResultsBinDirectory(resultsDir, binDir) : Paths.get(resultsDir);
+	}
+
 	private static String chooseWritableBinSubDirectory(Experiment exp, String preferredBinDir, BuildSeriesOptions options) {
 		if (exp == null || preferredBinDir == null) {
 			return preferredBinDir;
@@ -430,7 +651,23 @@ public class KymographBuilder {
 		}
 	}
 
-	void analyzeImageUnderCapillary(IcyBufferedImage sourceImage, Capillary cap, int t, int kymographColumn,
+	/** Back-pressure: blocks on the oldest submitted tasks until at most {@code maxInFlight} remain. */
+	private void waitOldestFutures(ArrayList<Future<?>> futuresArray, int maxInFlight) {
+		while (futuresArray.size() > maxInFlight) {
+			final Future<?> f = futuresArray.remove(0);
+			try {
+				f.get();
+			} catch (ExecutionException e) {
+				Logger.error("KymographBuilder:waitOldestFutures - Execution exception", e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				Logger.warn("KymographBuilder:waitOldestFutures - Interrupted exception: " + e.getMessage());
+				return;
+			}
+		}
+	}
+
+	void analyzeImageUnderCapillary(DecodedFrame sourceImage, Capillary cap, int t, int kymographColumn,
 			int refSizex, int refSizey, BuildSeriesOptions options) {
 		AlongT alongT = cap.getAlongTAtT(t);
 		if (alongT == null) {
@@ -446,32 +683,23 @@ public class KymographBuilder {
 					+ " differs from reference " + refSizex + "x" + refSizey + " (t=" + t
 					+ "), mask indices may be wrong");
 
-		if (alongT.getMasksList() == null || alongT.getMasksList().isEmpty())
-			buildMasks(alongT, refSizex, refSizey, options);
-		ArrayList<ArrayList<int[]>> masksList = alongT.getMasksList();
-		if (masksList == null) {
-			Logger.warn("KymographBuilder:analyzeImageUnderCapillary - masksList still null after build for t=" + t
+		CompiledMasks masks = alongT.getMasks();
+		if (masks == null || masks.isEmpty())
+			masks = buildMasks(alongT, refSizex, refSizey, options);
+		if (masks == null) {
+			Logger.warn("KymographBuilder:analyzeImageUnderCapillary - masks still null after build for t=" + t
 					+ " cap=" + (cap.getRoiName() != null ? cap.getRoiName() : cap.getKymographName())
 					+ ", skipping column " + kymographColumn);
 			return;
 		}
-		if (masksList.isEmpty()) {
+		if (masks.isEmpty()) {
 			// A degenerate ROI (e.g. tracking failure at this frame) can produce zero
 			// masks.
 			// Leaving the column uninitialized results in a black column; instead, copy
 			// previous column if available so the kymograph remains visually consistent.
-			IcyBufferedImage capImage = cap.getCap_Image();
-			int kymoImageWidth = capImage.getWidth();
-			ArrayList<int[]> capInteger = capIntegerArrays.get(cap);
-			if (capInteger != null && kymographColumn > 0) {
-				for (int chan = 0; chan < capInteger.size(); chan++) {
-					int[] capImageChannel = capInteger.get(chan);
-					for (int row = 0; row < capImage.getHeight(); row++) {
-						int dst = row * kymoImageWidth + kymographColumn;
-						int src = row * kymoImageWidth + (kymographColumn - 1);
-						capImageChannel[dst] = capImageChannel[src];
-					}
-				}
+			KymographColumnStore store = capStores.get(cap);
+			if (store != null && kymographColumn > 0) {
+				store.copyColumn(kymographColumn - 1, kymographColumn);
 			}
 			Logger.warn("KymographBuilder:analyzeImageUnderCapillary - empty masksList (degenerate ROI?) t=" + t
 					+ " cap=" + (cap.getRoiName() != null ? cap.getRoiName() : cap.getKymographName()) + " column="
@@ -479,54 +707,100 @@ public class KymographBuilder {
 			return;
 		}
 
-		IcyBufferedImage capImage = cap.getCap_Image();
-		int kymoImageWidth = capImage.getWidth();
-		ArrayList<int[]> capInteger = capIntegerArrays.get(cap);
-		if (capInteger == null || capInteger.isEmpty()) {
-			Logger.warn("KymographBuilder:analyzeImageUnderCapillary - capInteger missing for cap="
-					+ (cap.getRoiName() != null ? cap.getRoiName() : cap.getKymographName()));
-			return;
-		}
-		final int kymoSizeC = Math.max(1, capImage.getSizeC());
-		if (capInteger.size() < kymoSizeC) {
-			Logger.warn("KymographBuilder:analyzeImageUnderCapillary - capInteger.size=" + capInteger.size()
-					+ " < kymoSizeC=" + kymoSizeC + " for cap="
+		KymographColumnStore store = capStores.get(cap);
+		if (store == null) {
+			Logger.warn("KymographBuilder:analyzeImageUnderCapillary - kymograph store missing for cap="
 					+ (cap.getRoiName() != null ? cap.getRoiName() : cap.getKymographName()));
 			return;
 		}
-
-		int sourceImageWidth = sourceImage.getWidth();
-		final int srcSizeC = Math.max(1, sourceImage.getSizeC());
-		int[] src0 = Array1DUtil.arrayToIntArray(sourceImage.getDataXY(0), sourceImage.isSignedDataType());
-		int[] src1 = (srcSizeC > 1)
-				? Array1DUtil.arrayToIntArray(sourceImage.getDataXY(1), sourceImage.isSignedDataType())
-				: null;
-		int[] src2 = (srcSizeC > 2)
-				? Array1DUtil.arrayToIntArray(sourceImage.getDataXY(2), sourceImage.isSignedDataType())
-				: null;
-
-		int cnt = 0;
-		for (ArrayList<int[]> mask : masksList) {
+		final int kymoSizeC = store.getSizeC();
+		final int kymoHeight = store.getHeight();
+
+		int[] src0 = sourceImage.getChannel(0);
+		int[] src1 = kymoSizeC > 1 ? sourceImage.getChannel(1) : null;
+		int[] src2 = kymoSizeC > 2 ? sourceImage.getChannel(2) : null;
+
+		final int[] offsets = masks.getOffsets();
+		final int[] rowStart = masks.getRowStart();
+		final int nRows = Math.min(masks.getRowCount(), kymoHeight);
+		for (int row = 0; row < nRows; row++) {
+			int from = rowStart[row];
+			int to = rowStart[row + 1];
+			int n = to - from;
+			if (n == 0)
+				continue;
 			long sum0 = 0;
 			long sum1 = 0;
 			long sum2 = 0;
-			for (int[] m : mask) {
-				int idx = m[0] + m[1] * sourceImageWidth;
+			for (int i = from; i < to; i++) {
+				int idx = offsets[i];
 				sum0 += src0[idx];
 				if (src1 != null)
 					sum1 += src1[idx];
 				if (src2 != null)
 					sum2 += src2[idx];
 			}
-			if (!mask.isEmpty()) {
-				int dst = cnt * kymoImageWidth + kymographColumn;
-				capInteger.get(0)[dst] = (int) (sum0 / mask.size());
-				if (kymoSizeC > 1 && src1 != null)
-					capInteger.get(1)[dst] = (int) (sum1 / mask.size());
-				if (kymoSizeC > 2 && src2 != null)
-					capInteger.get(2)[dst] = (int) (sum2 / mask.size());
+			store.set(0, row, kymographColumn, (int) (sum0 / n));
+			if (src1 != null)
+				store.set(1, row, kymographColumn, (int) (sum1 / n));
+			if (src2 != null)
+				store.set(2, row, kymographColumn, (int) (sum2 / n));
+		}
+	}
+
+	/**
+	 * Same result as calling {@link #analyzeImageUnderCapillary} for each capillary, but all
+	 * capillaries are sampled in one ascending pass over the frame through a cached
+	 * {@link FrameMajorKymoEngine}. Capillaries without usable masks at {@code t} keep the
+	 * per-capillary path (warnings, previous-column copy).
+	 */
+	void analyzeImageFrameMajor(DecodedFrame sourceImage, List<Capillary> capillaries, int t, int kymographColumn,
+			int refSizex, int refSizey, BuildSeriesOptions options) {
+		boolean sameSize = sourceImage.getWidth() == refSizex && sourceImage.getHeight() == refSizey;
+		ArrayList<Capillary> targets = new ArrayList<Capillary>(capillaries.size());
+		ArrayList<CompiledMasks> targetMasks = new ArrayList<CompiledMasks>(capillaries.size());
+		for (Capillary cap : capillaries) {
+			if (!cap.getKymographBuild())
+				continue;
+			AlongT alongT = cap.getAlongTAtT(t);
+			CompiledMasks masks = alongT != null ? alongT.getMasks() : null;
+			if (!sameSize || masks == null || masks.isEmpty() || capStores.get(cap) == null) {
+				analyzeImageUnderCapillary(sourceImage, cap, t, kymographColumn, refSizex, refSizey, options);
+				continue;
+			}
+			targets.add(cap);
+			targetMasks.add(masks);
+		}
+		if (targets.isEmpty())
+			return;
+
+		FrameMajorKymoEngine engine = kymoEngines.computeIfAbsent(targetMasks, FrameMajorKymoEngine::new);
+		int nRows = engine.getTotalRows();
+		int[] src0 = sourceImage.getChannel(0);
+		int[] src1 = sourceImage.getChannel(1);
+		int[] src2 = sourceImage.getChannel(2);
+		long[] sums0 = new long[nRows];
+		long[] sums1 = src1 != null ? new long[nRows] : null;
+		long[] sums2 = src2 != null ? new long[nRows] : null;
+		engine.accumulate(src0, src1, src2, sums0, sums1, sums2);
+
+		for (int i = 0; i < targets.size(); i++) {
+			KymographColumnStore store = capStores.get(targets.get(i));
+			int kymoSizeC = store.getSizeC();
+			boolean has1 = kymoSizeC > 1 && sums1 != null;
+			boolean has2 = kymoSizeC > 2 && sums2 != null;
+			int base = engine.getRowBase(i);
+			int rows = Math.min(engine.getRowCount(i), store.getHeight());
+			for (int row = 0; row < rows; row++) {
+				int n = engine.getPixelCount(base + row);
+				if (n == 0)
+					continue;
+				store.set(0, row, kymographColumn, (int) (sums0[base + row] / n));
+				if (has1)
+					store.set(1, row, kymographColumn, (int) (sums1[base + row] / n));
+				if (has2)
+					store.set(2, row, kymographColumn, (int) (sums2[base + row] / n));
 			}
-			cnt++;
 		}
 	}
 
@@ -739,7 +1013,8 @@ public class KymographBuilder {
 		}
 	}
 
-	private void exportCapillaryKymographs(Experiment exp, final int sizeC) {
+	/** Returns true when every kymograph was saved. */
+	private boolean exportCapillaryKymographs(Experiment exp, final int sizeC) {
 		final Processor processor = new Processor(SystemUtil.getNumberOfCPUs());
 		processor.setThreadName("buildKymograph");
 		processor.setPriority(Processor.NORM_PRIORITY);
@@ -749,7 +1024,7 @@ public class KymographBuilder {
 
 		String directory = exp.getDirectoryToSaveResults();
 		if (directory == null)
-			return;
+			return false;
 
 		for (int icap = 0; icap < nbcapillaries; icap++) {
 			final Capillary cap = exp.getCapillaries().getList().get(icap);
@@ -759,33 +1034,27 @@ public class KymographBuilder {
 			tasks.add(processor.submit(new Runnable() {
 				@Override
 				public void run() {
-					IcyBufferedImage capImage = cap.getCap_Image();
-					ArrayList<int[]> capInteger = capIntegerArrays.get(cap);
-					if (capInteger != null) {
-						int kymoSizeC = capImage.getSizeC();
-						if (capInteger.size() != kymoSizeC) {
-							Logger.warn("KymographBuilder:exportCapillaryKymographs - channel count mismatch for cap="
-									+ (cap.getRoiName() != null ? cap.getRoiName() : cap.getKymographName()) + " kymoSizeC="
-									+ kymoSizeC + " capInteger.size=" + capInteger.size() + " (input sizeC=" + sizeC + ")");
-						}
-						boolean isSignedDataType = capImage.isSignedDataType();
-						int nch = Math.min(kymoSizeC, capInteger.size());
-						for (int chan = 0; chan < nch; chan++) {
-							int[] tabValues = capInteger.get(chan);
-							Object destArray = capImage.getDataXY(chan);
-							Array1DUtil.intArrayToSafeArray(tabValues, 0, destArray, 0, -1, isSignedDataType,
-									isSignedDataType);
-							capImage.setDataXY(chan, destArray);
-						}
+					KymographColumnStore store = capStores.get(cap);
+					if (store == null)
+						return;
+					if (store.getSizeC() != sizeC) {
+						Logger.warn("KymographBuilder:exportCapillaryKymographs - channel count mismatch for cap="
+								+ (cap.getRoiName() != null ? cap.getRoiName() : cap.getKymographName()) + " kymoSizeC="
+								+ store.getSizeC() + " (input sizeC=" + sizeC + ")");
 					}
 
 					String filename = directory + File.separator + cap.getKymographFileName();
 					File file = new File(filename);
 					Logger.debug("file saved= " + filename);
 					try {
-						saveImageSafely(capImage, file);
+						// stream the columns strip by strip; only odd channel counts need the full image
+						if (KymographTiffWriter.supports(store))
+							saveSafely(tmpFile -> KymographTiffWriter.write(store, tmpFile), file);
+						else
+							saveImageSafely(store.toImage(), file);
 						cap.setCap_Image(null);
-						capIntegerArrays.remove(cap);
+						capStores.remove(cap);
+						store.close(true);
 					} catch (FormatException e) {
 						Logger.error("KymographBuilder: Failed to save kymograph (format error): " + filename, e);
 					} catch (IOException e) {
@@ -796,6 +1065,39 @@ public class KymographBuilder {
 		}
 
 		waitFuturesCompletion(processor, tasks);
+		// stores left here failed to export; their spill files are scratch space only
+		boolean allSaved = capStores.isEmpty();
+		closeCapStores(true);
+		KymographBuildManifest.delete(spillDirectory(exp));
+		return allSaved;
+	}
+
+	/** Marks {@code column} done in every capillary store so full tiles get spilled to disk. */
+	private void completeColumn(List<Capillary> capillaries, int column) {
+		for (Capillary cap : capillaries) {
+			if (!cap.getKymographBuild())
+				continue;
+			KymographColumnStore store = capStores.get(cap);
+			if (store != null)
+				store.columnCompleted(column);
+		}
+	}
+
+	/** Replaces every capillary store by an empty one of the same geometry. */
+	private void resetCapStores(Experiment exp) {
+		for (Capillary cap : exp.getCapillaries().getList()) {
+			KymographColumnStore store = capStores.remove(cap);
+			if (store == null)
+				continue;
+			store.close(true);
+			buildCapStore(exp, cap, store.getWidth(), store.getHeight(), store.getSizeC(), false);
+		}
+	}
+
+	private void closeCapStores(boolean deleteFiles) {
+		for (KymographColumnStore store : capStores.values())
+			store.close(deleteFiles);
+		capStores.clear();
 	}
 
 	/**
@@ -804,7 +1106,20 @@ public class KymographBuilder {
 	 * when overwriting kymographs.
 	 */
 	private static void saveImageSafely(IcyBufferedImage image, File target) throws FormatException, IOException {
-		if (image == null || target == null) {
+		if (image == null) {
+			throw new IOException("saveImageSafely: null image");
+		}
+		saveSafely(tmpFile -> Saver.saveImage(image, tmpFile, true), target);
+	}
+
+	/** Writes one temporary kymograph file; see {@link #saveSafely}. */
+	private interface TmpFileWriter {
+		void write(File tmpFile) throws FormatException, IOException;
+	}
+
+	/** Same temp-then-replace sequence as {@link #saveImageSafely}, for any writer. */
+	private static void saveSafely(TmpFileWriter writer, File target) throws FormatException, IOException {
+		if (writer == null || target == null) {
 			throw new IOException("saveImageSafely: null image or target");
 		}
 		Path targetPath = target.toPath();
@@ -826,7 +1141,7 @@ public class KymographBuilder {
 		File tmpFile = tmpPath.toFile();
 		try {
 			// Always overwrite the tmp file if it already exists.
-			Saver.saveImage(image, tmpFile, true);
+			writer.write(tmpFile);
 			try {
 				moveWithRetries(tmpPath, targetPath);
 			} catch (IOException moveEx) {
@@ -1012,7 +1327,7 @@ public class KymographBuilder {
 			if (!cap.getKymographBuild())
 				continue;
 			for (AlongT capT : cap.getAlongTList())
-				capT.setMasksList(null);
+				capT.setMasks(null);
 		}
 	}
 
@@ -1042,12 +1357,14 @@ public class KymographBuilder {
 		// Global max height over every capillary and AlongT segment. Allocating inside a single
 		// combined loop was wrong: earlier capillaries used max height only over caps processed
 		// so far, so later (taller) caps produced taller TIFFs → Sequence load fails on 1px+ mismatch.
+		// Masks are compiled here once per capillary interval (single-threaded) and reused
+		// for every frame by the analysis tasks.
 		int globalImageHeight = 0;
 		for (Capillary cap : exp.getCapillaries().getList()) {
 			if (!cap.getKymographBuild())
 				continue;
 			for (AlongT capT : cap.getAlongTList()) {
-				int imageHeight_i = buildMasksCount(capT, sizex, sizey, options);
+				int imageHeight_i = buildMasks(capT, sizex, sizey, options).getRowCount();
 				if (imageHeight_i > globalImageHeight)
 					globalImageHeight = imageHeight_i;
 			}
@@ -1055,47 +1372,71 @@ public class KymographBuilder {
 		for (Capillary cap : exp.getCapillaries().getList()) {
 			if (!cap.getKymographBuild())
 				continue;
-			buildCapInteger(cap, exp.getSeqCamData().getSequence(), kymoImageWidth, globalImageHeight, kymoSizeC);
+			buildCapStore(exp, cap, kymoImageWidth, globalImageHeight, kymoSizeC, options.kymoResumeFromExisting);
 		}
 	}
 
-	private int buildMasksCount(AlongT capT, int sizex, int sizey, BuildSeriesOptions options) {
-		ArrayList<ArrayList<int[]>> masks = new ArrayList<ArrayList<int[]>>();
-		ArrayList<Point2D> capPoints = ROI2DUtilities.getCapillaryPoints(capT.getRoi());
-		getPointsfromROIPolyLineUsingBresenham(capPoints, masks, options.diskRadius, sizex, sizey);
-		return masks.size();
-	}
-
-	private int buildMasks(AlongT capT, int sizex, int sizey, BuildSeriesOptions options) {
+	private CompiledMasks buildMasks(AlongT capT, int sizex, int sizey, BuildSeriesOptions options) {
 		ArrayList<Point2D> capPoints = ROI2DUtilities.getCapillaryPoints(capT.getRoi());
-		ArrayList<ArrayList<int[]>> masks = new ArrayList<ArrayList<int[]>>();
-		getPointsfromROIPolyLineUsingBresenham(capPoints, masks, options.diskRadius, sizex, sizey);
-		capT.setMasksList(masks);
-		return masks.size();
+		CompiledMasks masks = getPointsfromROIPolyLineUsingBresenham(capPoints, options.diskRadius, sizex, sizey);
+		capT.setMasks(masks);
+		return masks;
 	}
 
-	private void buildCapInteger(Capillary cap, Sequence seq, int imageWidth, int imageHeight, int sizeC) {
+	/**
+	 * Kymograph columns are written into a {@link KymographColumnStore} spilling to
+	 * {@code results/kymospill/<kymographName>.kyspill}; the heap only holds the column tiles
+	 * still being filled. With {@code recover}, a spill file left by an interrupted build of the
+	 * same geometry is reopened instead of truncated (see {@link #recoverSpilledColumns}). Falls
+	 * back to an in-memory store if the spill file cannot be created.
+	 */
+	private void buildCapStore(Experiment exp, Capillary cap, int imageWidth, int imageHeight, int sizeC,
+			boolean recover) {
 		int kymoSizeC = Math.max(1, sizeC);
-		cap.setCap_Image(new IcyBufferedImage(imageWidth, imageHeight, kymoSizeC, DataType.UBYTE));
-
-		int len = imageWidth * imageHeight;
-		ArrayList<int[]> capInteger = new ArrayList<int[]>(kymoSizeC);
-		for (int chan = 0; chan < kymoSizeC; chan++) {
-			capInteger.add(new int[len]);
+		cap.setCap_Image(null);
+		Path spillFile = spillDirectory(exp).resolve(cap.getKymographName() + KymographColumnStore.SPILL_EXTENSION);
+		KymographColumnStore store = null;
+		if (recover) {
+			try {
+				store = KymographColumnStore.recover(spillFile, imageWidth, imageHeight, kymoSizeC,
+						KYMO_SPILL_TILE_WIDTH);
+			} catch (IOException e) {
+				Logger.warn("KymographBuilder: cannot reopen spill file " + spillFile + " : " + e.getMessage());
+			}
+		}
+		if (store == null) {
+			try {
+				store = KymographColumnStore.create(spillFile, imageWidth, imageHeight, kymoSizeC,
+						KYMO_SPILL_TILE_WIDTH);
+			} catch (IOException e) {
+				Logger.warn("KymographBuilder: cannot create spill file " + spillFile + " (" + e.getMessage()
+						+ "), building kymograph in memory");
+				store = KymographColumnStore.inMemory(imageWidth, imageHeight, kymoSizeC);
+			}
 		}
-		capIntegerArrays.put(cap, capInteger);
+		capStores.put(cap, store);
 	}
 
-	private void getPointsfromROIPolyLineUsingBresenham(ArrayList<Point2D> pointsList, List<ArrayList<int[]>> masks,
-			double diskRadius, int sizex, int sizey) {
+	private static Path spillDirectory(Experiment exp) {
+		String resultsDir = exp.getResultsDirectory();
+		return resultsDir != null ? Paths.get(resultsDir, KYMO_SPILL_DIRECTORY)
+				: Paths.get(System.getProperty("java.io.tmpdir"), KYMO_SPILL_DIRECTORY);
+	}
+
+	private CompiledMasks getPointsfromROIPolyLineUsingBresenham(ArrayList<Point2D> pointsList, double diskRadius,
+			int sizex, int sizey) {
 		ArrayList<int[]> pixels = Bresenham.getPixelsAlongLineFromROI2D(pointsList);
+		CompiledMasks.Builder masks = new CompiledMasks.Builder(sizex, pixels.size());
 		int idiskRadius = (int) diskRadius;
-		for (int[] pixel : pixels)
-			masks.add(getAllPixelsAroundPixel(pixel, idiskRadius, sizex, sizey));
+		for (int[] pixel : pixels) {
+			addAllPixelsAroundPixel(masks, pixel, idiskRadius, sizex, sizey);
+			masks.endRow();
+		}
+		return masks.build();
 	}
 
-	private ArrayList<int[]> getAllPixelsAroundPixel(int[] pixel, int diskRadius, int sizex, int sizey) {
-		ArrayList<int[]> maskAroundPixel = new ArrayList<int[]>();
+	private void addAllPixelsAroundPixel(CompiledMasks.Builder maskAroundPixel, int[] pixel, int diskRadius,
+			int sizex, int sizey) {
 		double m1 = pixel[0];
 		double m2 = pixel[1];
 		double radiusSquared = diskRadius * diskRadius;
@@ -1110,11 +1451,10 @@ public class KymographBuilder {
 				double dy = y - m2;
 				double distanceSquared = dx * dx + dy * dy;
 				if (distanceSquared <= radiusSquared) {
-					maskAroundPixel.add(new int[] { x, y });
+					maskAroundPixel.addPixel(x, y, sizey);
 				}
 			}
 		}
-		return maskAroundPixel;
 	}
 
 	private int clipValueToLimits(int x, int min, int max) {
@@ -0,0 +1,445 @@
+package plugins.fmp.multitools.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import icy.image.IcyBufferedImage;
+import icy.type.DataType;
+import plugins.fmp.multitools.tools.Logger;
+
+/**
+ * Column-appending store for one UBYTE kymograph being built frame by frame.
+ * <p>
+ * Columns are grouped in tiles of {@code tileWidth} columns. A tile lives on the heap only while
+ * some of its columns are still being computed; once every column of the tile is
+ * {@link #columnCompleted completed} it is written to the spill file and dropped, so heap use is
+ * bounded by the tiles in flight instead of the series length. Columns may complete in any order
+ * (parallel frame analysis).
+ * <p>
+ * Spill file layout (little endian): a {@value #HEADER_BYTES}-byte header (magic, version,
+ * width, height, sizeC, tileWidth), one flag byte per tile, then the tiles, each stored as
+ * {@code [channel][row][column-in-tile]}. A tile's flag is set only once its data is written,
+ * so after a crash {@link #recover} can reopen the file and keep the leading tiles that were
+ * complete. {@link #create} truncates the file; {@link #readRows} reads it back row band by row
+ * band when the kymograph is exported.
+ */
+public final class KymographColumnStore {
+
+	public static final String SPILL_EXTENSION = ".kyspill";
+
+	private static final int MAGIC = 0x4B595350; // "KYSP"
+	private static final int VERSION = 3;
+	private static final int HEADER_BYTES = 32;
+	private static final byte TILE_WRITTEN = 1;
+
+	private final int width;
+	private final int height;
+	private final int sizeC;
+	private final int tileWidth;
+	private final int nTiles;
+	private final Path file;
+	private final FileChannel channel;
+	private final ConcurrentHashMap<Integer, Tile> tiles = new ConcurrentHashMap<>();
+	/** 1 for tiles whose data in the spill file is valid (the heap copy, if any, takes precedence). */
+	private final AtomicIntegerArray spilled;
+	/** Leading columns found complete in the spill file by {@link #recover}. */
+	private int recoveredColumns = 0;
+
+	private static final class Tile {
+		final byte[][] data;
+		final int columns;
+		final AtomicInteger completed = new AtomicInteger(0);
+		volatile boolean flushed = false;
+
+		Tile(int sizeC, int height, int columns) {
+			this.columns = columns;
+			this.data = new byte[sizeC][height * columns];
+		}
+	}
+
+	private KymographColumnStore(int width, int height, int sizeC, int tileWidth, Path file, FileChannel channel) {
+		this.width = width;
+		this.height = height;
+		this.sizeC = sizeC;
+		this.tileWidth = tileWidth;
+		this.nTiles = (width + tileWidth - 1) / tileWidth;
+		this.file = file;
+		this.channel = channel;
+		this.spilled = new AtomicIntegerArray(nTiles);
+	}
+
+	/** Store spilling completed tiles to {@code file} (created or truncated). */
+	public static KymographColumnStore create(Path file, int width, int height, int sizeC, int tileWidth)
+			throws IOException {
+		int tw = Math.max(1, Math.min(tileWidth, Math.max(1, width)));
+		Path parent = file.getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		KymographColumnStore store = new KymographColumnStore(width, height, Math.max(1, sizeC), tw, file, ch);
+		try {
+			store.writeHeader();
+		} catch (IOException e) {
+			ch.close();
+			throw e;
+		}
+		return store;
+	}
+
+	/**
+	 * Reopens the spill file left by an interrupted build of the same geometry. Leading tiles
+	 * flagged as written are kept (see {@link #getRecoveredColumns()}); any later tile is
+	 * forgotten and will be rebuilt. Returns null when the file is missing or was written for
+	 * another geometry.
+	 */
+	public static KymographColumnStore recover(Path file, int width, int height, int sizeC, int tileWidth)
+			throws IOException {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		int tw = Math.max(1, Math.min(tileWidth, Math.max(1, width)));
+		FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		KymographColumnStore store = new KymographColumnStore(width, height, Math.max(1, sizeC), tw, file, ch);
+		try {
+			if (!store.headerMatches()) {
+				ch.close();
+				return null;
+			}
+			store.readTileFlags();
+		} catch (IOException e) {
+			ch.close();
+			throw e;
+		}
+		return store;
+	}
+
+	/** Heap-only store (no spill file): every tile is kept until {@link #toImage()}. */
+	public static KymographColumnStore inMemory(int width, int height, int sizeC) {
+		int w = Math.max(1, width);
+		return new KymographColumnStore(w, height, Math.max(1, sizeC), w, null, null);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getSizeC() {
+		return sizeC;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/** Number of leading columns already built when this store was {@link #recover recovered}. */
+	public int getRecoveredColumns() {
+		return recoveredColumns;
+	}
+
+	/**
+	 * Keeps the recovered tiles that lie entirely within the first {@code columns} columns and
+	 * forgets the others (their frames changed since the interrupted build). Returns the number of
+	 * recovered columns kept, a multiple of the tile width unless it reaches the last column.
+	 */
+	public int keepRecoveredColumns(int columns) {
+		int kept = 0;
+		for (int k = 0; k < nTiles; k++) {
+			if (spilled.get(k) == 0) {
+				continue;
+			}
+			if (kept == k * tileWidth && kept + tileColumns(k) <= columns) {
+				kept += tileColumns(k);
+				continue;
+			}
+			spilled.set(k, 0);
+			try {
+				writeTileFlag(k, (byte) 0);
+			} catch (IOException e) {
+				Logger.warn("KymographColumnStore: could not reset tile " + k + " in " + file + ": " + e.getMessage());
+			}
+		}
+		recoveredColumns = kept;
+		return kept;
+	}
+
+	/** Stores {@code value} clamped to [0, 255]. */
+	public void set(int c, int row, int col, int value) {
+		Tile tile = tileFor(col);
+		int v = value < 0 ? 0 : (value > 255 ? 255 : value);
+		tile.data[c][row * tile.columns + (col % tileWidth)] = (byte) v;
+	}
+
+	public int get(int c, int row, int col) {
+		int k = col / tileWidth;
+		Tile tile = tiles.get(k);
+		if (tile != null) {
+			return tile.data[c][row * tile.columns + (col % tileWidth)] & 0xFF;
+		}
+		if (channel == null || spilled.get(k) == 0) {
+			return 0;
+		}
+		ByteBuffer one = ByteBuffer.allocate(1);
+		int columns = tileColumns(k);
+		long pos = tileOffset(k) + ((long) c * height + row) * columns + (col % tileWidth);
+		try {
+			synchronized (channel) {
+				if (channel.read(one, pos) < 1) {
+					return 0;
+				}
+			}
+		} catch (IOException e) {
+			return 0;
+		}
+		return one.get(0) & 0xFF;
+	}
+
+	/** Copies every channel of column {@code fromCol} into {@code toCol}. */
+	public void copyColumn(int fromCol, int toCol) {
+		if (fromCol < 0 || fromCol >= width) {
+			return;
+		}
+		for (int c = 0; c < sizeC; c++) {
+			for (int row = 0; row < height; row++) {
+				set(c, row, toCol, get(c, row, fromCol));
+			}
+		}
+	}
+
+	/**
+	 * Marks column {@code col} as final. When the last column of a tile completes, the tile is
+	 * written to the spill file and released. Call exactly once per column.
+	 */
+	public void columnCompleted(int col) {
+		int k = col / tileWidth;
+		Tile tile = tileFor(col);
+		if (tile.completed.incrementAndGet() < tile.columns || channel == null) {
+			return;
+		}
+		try {
+			flushTile(k, tile);
+			// readers that no longer find the tile on the heap must already see it on disk
+			synchronized (tiles) {
+				spilled.set(k, 1);
+				tiles.remove(k);
+			}
+		} catch (IOException e) {
+			Logger.warn("KymographColumnStore: could not spill tile " + k + " to " + file + " (kept in memory): "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * Assembles the whole kymograph (flushed tiles are read back from the spill file). Prefer
+	 * {@link #readRows} when the consumer can take the image band by band.
+	 */
+	public IcyBufferedImage toImage() throws IOException {
+		IcyBufferedImage image = new IcyBufferedImage(width, height, sizeC, DataType.UBYTE);
+		for (int c = 0; c < sizeC; c++) {
+			readRows(c, 0, height, image.getDataXYAsByte(c));
+		}
+		image.dataChanged();
+		return image;
+	}
+
+	/**
+	 * Copies rows {@code [fromRow, toRow)} of channel {@code c} into {@code dest}, row-major with
+	 * a stride of {@link #getWidth()}. Spilled tiles are read from the file one tile band at a
+	 * time, so the heap cost is {@code dest} plus one band of one tile.
+	 */
+	public void readRows(int c, int fromRow, int toRow, byte[] dest) throws IOException {
+		int rows = toRow - fromRow;
+		if (rows <= 0) {
+			return;
+		}
+		byte[] band = null;
+		for (int k = 0; k < nTiles; k++) {
+			int columns = tileColumns(k);
+			int x0 = k * tileWidth;
+			Tile tile = tiles.get(k);
+			byte[] src;
+			int srcOffset;
+			if (tile != null) {
+				src = tile.data[c];
+				srcOffset = fromRow * columns;
+			} else if (channel != null && spilled.get(k) != 0) {
+				int length = rows * columns;
+				if (band == null || band.length < length) {
+					band = new byte[rows * tileWidth];
+				}
+				synchronized (channel) {
+					readFully(channel, ByteBuffer.wrap(band, 0, length),
+							tileOffset(k) + ((long) c * height + fromRow) * columns);
+				}
+				src = band;
+				srcOffset = 0;
+			} else {
+				for (int row = 0; row < rows; row++) {
+					Arrays.fill(dest, row * width + x0, row * width + x0 + columns, (byte) 0);
+				}
+				continue;
+			}
+			for (int row = 0; row < rows; row++) {
+				System.arraycopy(src, srcOffset + row * columns, dest, row * width + x0, columns);
+			}
+		}
+	}
+
+	/** Releases the spill file; deletes it when {@code deleteFile} (e.g. after a successful export). */
+	public void close(boolean deleteFile) {
+		tiles.clear();
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			Logger.debug("KymographColumnStore: close failed " + file + " : " + e.getMessage());
+		}
+		if (deleteFile) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				Logger.debug("KymographColumnStore: could not delete " + file + " : " + e.getMessage());
+			}
+		}
+	}
+
+	private Tile tileFor(int col) {
+		int k = col / tileWidth;
+		Tile tile = tiles.get(k);
+		if (tile != null) {
+			return tile;
+		}
+		synchronized (tiles) {
+			return tiles.computeIfAbsent(k, key -> spilled.get(key) != 0 ? reloadTile(key)
+					: new Tile(sizeC, height, tileColumns(key)));
+		}
+	}
+
+	/**
+	 * Late write into a spilled tile: bring it back so the next completion rewrites it. Readers
+	 * keep using the file until the reloaded tile is in the map, but a crash before the rewrite
+	 * must not recover the stale copy, so its flag is cleared.
+	 */
+	private Tile reloadTile(int k) {
+		Tile tile = new Tile(sizeC, height, tileColumns(k));
+		try {
+			synchronized (channel) {
+				readTile(channel, tileOffset(k), tile.data);
+			}
+			writeTileFlag(k, (byte) 0);
+		} catch (IOException e) {
+			Logger.warn("KymographColumnStore: could not reload tile " + k + " from " + file + ": " + e.getMessage());
+		}
+		tile.completed.set(tile.columns - 1);
+		return tile;
+	}
+
+	private int tileColumns(int k) {
+		return Math.min(tileWidth, width - k * tileWidth);
+	}
+
+	private long tileOffset(int k) {
+		return HEADER_BYTES + nTiles + (long) k * tileWidth * height * sizeC;
+	}
+
+	private void writeHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + nTiles).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(sizeC).putInt(tileWidth);
+		// tile flags all cleared
+		header.position(header.capacity());
+		header.flip();
+		writeFully(channel, header, 0);
+	}
+
+	private boolean headerMatches() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, header, 0);
+		if (header.hasRemaining()) {
+			return false;
+		}
+		header.flip();
+		return header.getInt() == MAGIC && header.getInt() == VERSION && header.getInt() == width
+				&& header.getInt() == height && header.getInt() == sizeC && header.getInt() == tileWidth;
+	}
+
+	/** Marks the leading written tiles as spilled and clears the flags of any later one. */
+	private void readTileFlags() throws IOException {
+		ByteBuffer flags = ByteBuffer.allocate(nTiles);
+		readFully(channel, flags, HEADER_BYTES);
+		long size = channel.size();
+		boolean leading = true;
+		for (int k = 0; k < nTiles; k++) {
+			boolean written = k < flags.position() && flags.get(k) == TILE_WRITTEN;
+			if (leading && written && tileOffset(k) + (long) tileColumns(k) * height * sizeC <= size) {
+				spilled.set(k, 1);
+				recoveredColumns += tileColumns(k);
+				continue;
+			}
+			leading = false;
+			if (written) {
+				writeTileFlag(k, (byte) 0);
+			}
+		}
+	}
+
+	private void writeTileFlag(int k, byte flag) throws IOException {
+		synchronized (channel) {
+			writeFully(channel, ByteBuffer.wrap(new byte[] { flag }), HEADER_BYTES + k);
+		}
+	}
+
+	private void flushTile(int k, Tile tile) throws IOException {
+		if (tile.flushed) {
+			return;
+		}
+		long pos = tileOffset(k);
+		synchronized (channel) {
+			for (int c = 0; c < sizeC; c++) {
+				ByteBuffer buf = ByteBuffer.wrap(tile.data[c]);
+				writeFully(channel, buf, pos);
+				pos += tile.data[c].length;
+			}
+			writeFully(channel, ByteBuffer.wrap(new byte[] { TILE_WRITTEN }), HEADER_BYTES + k);
+		}
+		tile.flushed = true;
+	}
+
+	private static void readTile(FileChannel ch, long pos, byte[][] data) throws IOException {
+		for (byte[] channelData : data) {
+			readFully(ch, ByteBuffer.wrap(channelData), pos);
+			pos += channelData.length;
+		}
+	}
+
+	private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+		while (buf.hasRemaining()) {
+			pos += ch.write(buf, pos);
+		}
+	}
+
+	private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+		while (buf.hasRemaining()) {
+			int n = ch.read(buf, pos);
+			if (n < 0) {
+				break;
+			}
+			pos += n;
+		}
+	}
+}
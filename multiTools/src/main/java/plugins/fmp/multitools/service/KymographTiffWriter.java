@@ -0,0 +1,167 @@
+package plugins.fmp.multitools.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a {@link KymographColumnStore} as an uncompressed baseline TIFF, one strip at a time,
+ * so the full kymograph never has to exist on the heap.
+ * <p>
+ * The file is little endian, 8 bits per sample, with one plane per channel (planar
+ * configuration 2) so each strip comes straight from {@link KymographColumnStore#readRows}.
+ * Grey (1 channel) and RGB (3 channels) kymographs are supported; other channel counts, and
+ * images past the 4 GB offset limit of classic TIFF, must go through {@code Saver}.
+ */
+final class KymographTiffWriter {
+
+	/** Target strip size; one strip buffer is the only per-image heap cost of an export. */
+	private static final int STRIP_BYTES = 256 * 1024;
+
+	private static final int HEADER_BYTES = 8;
+	private static final int ENTRY_BYTES = 12;
+
+	private static final short TYPE_SHORT = 3;
+	private static final short TYPE_LONG = 4;
+
+	private static final int TAG_IMAGE_WIDTH = 256;
+	private static final int TAG_IMAGE_LENGTH = 257;
+	private static final int TAG_BITS_PER_SAMPLE = 258;
+	private static final int TAG_COMPRESSION = 259;
+	private static final int TAG_PHOTOMETRIC = 262;
+	private static final int TAG_STRIP_OFFSETS = 273;
+	private static final int TAG_SAMPLES_PER_PIXEL = 277;
+	private static final int TAG_ROWS_PER_STRIP = 278;
+	private static final int TAG_STRIP_BYTE_COUNTS = 279;
+	private static final int TAG_PLANAR_CONFIGURATION = 284;
+
+	private KymographTiffWriter() {
+	}
+
+	/** True when {@link #write} can stream this store. */
+	static boolean supports(KymographColumnStore store) {
+		int sizeC = store.getSizeC();
+		long dataBytes = (long) store.getWidth() * store.getHeight() * sizeC;
+		return (sizeC == 1 || sizeC == 3) && store.getWidth() > 0 && store.getHeight() > 0
+				&& dataBytes + (1L << 20) < 0xFFFFFFFFL;
+	}
+
+	/** Writes {@code store} to {@code file} (created or overwritten). */
+	static void write(KymographColumnStore store, File file) throws IOException {
+		if (!supports(store)) {
+			throw new IOException("KymographTiffWriter: unsupported kymograph " + store.getWidth() + "x"
+					+ store.getHeight() + "x" + store.getSizeC());
+		}
+		int width = store.getWidth();
+		int height = store.getHeight();
+		int sizeC = store.getSizeC();
+		int rowsPerStrip = Math.max(1, Math.min(height, STRIP_BYTES / width));
+		int stripsPerPlane = (height + rowsPerStrip - 1) / rowsPerStrip;
+		int nStrips = stripsPerPlane * sizeC;
+		long planeBytes = (long) width * height;
+
+		long[] offsets = new long[nStrips];
+		long[] counts = new long[nStrips];
+		for (int c = 0; c < sizeC; c++) {
+			for (int s = 0; s < stripsPerPlane; s++) {
+				int rows = Math.min(rowsPerStrip, height - s * rowsPerStrip);
+				offsets[c * stripsPerPlane + s] = HEADER_BYTES + c * planeBytes + (long) s * rowsPerStrip * width;
+				counts[c * stripsPerPlane + s] = (long) rows * width;
+			}
+		}
+		long ifdOffset = HEADER_BYTES + sizeC * planeBytes;
+		ifdOffset += ifdOffset & 1;
+
+		try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt((int) ifdOffset);
+			header.flip();
+			writeFully(ch, header, 0);
+
+			byte[] strip = new byte[rowsPerStrip * width];
+			for (int c = 0; c < sizeC; c++) {
+				for (int s = 0; s < stripsPerPlane; s++) {
+					int fromRow = s * rowsPerStrip;
+					int rows = Math.min(rowsPerStrip, height - fromRow);
+					store.readRows(c, fromRow, fromRow + rows, strip);
+					writeFully(ch, ByteBuffer.wrap(strip, 0, rows * width), offsets[c * stripsPerPlane + s]);
+				}
+			}
+
+			writeFully(ch, directory(width, height, sizeC, rowsPerStrip, offsets, counts, ifdOffset), ifdOffset);
+		}
+	}
+
+	/** The image file directory, followed by its out-of-line values, laid out for {@code ifdOffset}. */
+	private static ByteBuffer directory(int width, int height, int sizeC, int rowsPerStrip, long[] offsets,
+			long[] counts, long ifdOffset) {
+		int nEntries = sizeC > 1 ? 10 : 9;
+		int nStrips = offsets.length;
+		long extra = ifdOffset + 2 + (long) nEntries * ENTRY_BYTES + 4;
+		long bitsOffset = extra;
+		if (sizeC > 2)
+			extra += 2L * sizeC;
+		long offsetsOffset = extra;
+		if (nStrips > 1)
+			extra += 4L * nStrips;
+		long countsOffset = extra;
+		if (nStrips > 1)
+			extra += 4L * nStrips;
+
+		ByteBuffer buf = ByteBuffer.allocate((int) (extra - ifdOffset)).order(ByteOrder.LITTLE_ENDIAN);
+		buf.putShort((short) nEntries);
+		putEntry(buf, TAG_IMAGE_WIDTH, TYPE_LONG, 1, width);
+		putEntry(buf, TAG_IMAGE_LENGTH, TYPE_LONG, 1, height);
+		if (sizeC > 2)
+			putEntry(buf, TAG_BITS_PER_SAMPLE, TYPE_SHORT, sizeC, bitsOffset);
+		else
+			putShortsEntry(buf, TAG_BITS_PER_SAMPLE, sizeC, 8);
+		putEntry(buf, TAG_COMPRESSION, TYPE_SHORT, 1, 1);
+		putEntry(buf, TAG_PHOTOMETRIC, TYPE_SHORT, 1, sizeC == 3 ? 2 : 1);
+		putEntry(buf, TAG_STRIP_OFFSETS, TYPE_LONG, nStrips, nStrips > 1 ? offsetsOffset : offsets[0]);
+		putEntry(buf, TAG_SAMPLES_PER_PIXEL, TYPE_SHORT, 1, sizeC);
+		putEntry(buf, TAG_ROWS_PER_STRIP, TYPE_LONG, 1, rowsPerStrip);
+		putEntry(buf, TAG_STRIP_BYTE_COUNTS, TYPE_LONG, nStrips, nStrips > 1 ? countsOffset : counts[0]);
+		if (sizeC > 1)
+			putEntry(buf, TAG_PLANAR_CONFIGURATION, TYPE_SHORT, 1, 2);
+		buf.putInt(0); // no next directory
+
+		if (sizeC > 2)
+			for (int c = 0; c < sizeC; c++)
+				buf.putShort((short) 8);
+		if (nStrips > 1) {
+			for (long offset : offsets)
+				buf.putInt((int) offset);
+			for (long count : counts)
+				buf.putInt((int) count);
+		}
+		buf.flip();
+		return buf;
+	}
+
+	/** Entry whose single value (or value offset) fits the 4-byte field. */
+	private static void putEntry(ByteBuffer buf, int tag, short type, int count, long value) {
+		buf.putShort((short) tag).putShort(type).putInt(count);
+		if (type == TYPE_SHORT && count == 1)
+			buf.putShort((short) value).putShort((short) 0);
+		else
+			buf.putInt((int) value);
+	}
+
+	/** SHORT entry with {@code count <= 2} copies of {@code value} stored inline. */
+	private static void putShortsEntry(ByteBuffer buf, int tag, int count, int value) {
+		buf.putShort((short) tag).putShort(TYPE_SHORT).putInt(count);
+		for (int i = 0; i < 2; i++)
+			buf.putShort(i < count ? (short) value : 0);
+	}
+
+	private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+		while (buf.hasRemaining()) {
+			pos += ch.write(buf, pos);
+		}
+	}
+}
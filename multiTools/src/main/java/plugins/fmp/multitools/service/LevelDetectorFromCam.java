@@ -4,6 +4,8 @@ import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -20,6 +22,7 @@ import plugins.fmp.multitools.series.options.BuildSeriesOptions;
 import plugins.fmp.multitools.tools.Comparators;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.ROI2D.AlongT;
+import plugins.fmp.multitools.tools.ROI2D.CompiledMasks;
 import plugins.fmp.multitools.tools.imageTransform.CanvasImageTransformOptions;
 import plugins.fmp.multitools.tools.imageTransform.ImageTransformInterface;
 
@@ -102,6 +105,9 @@ public class LevelDetectorFromCam {
 		processor.setThreadName("detectlevel-cam");
 		processor.setPriority(Processor.NORM_PRIORITY);
 		ArrayList<Future<?>> futures = new ArrayList<>();
+		final DecodedFrame.Pool framePool = new DecodedFrame.Pool(SystemUtil.getNumberOfCPUs());
+		// masks depend only on the capillary ROI of each interval: compile once, reuse for every frame
+		final Map<AlongT, CompiledMasks> masksByInterval = new ConcurrentHashMap<>();
 
 		for (int t = 0; t < nTimeBins; t++) {
 			long timeMs = firstMs + t * stepMs;
@@ -119,32 +125,40 @@ public class LevelDetectorFromCam {
 			final int camH = camImage.getSizeY();
 
 			futures.add(processor.submit(() -> {
-				for (int capIdx = 0; capIdx < toProcess.size(); capIdx++) {
-					Capillary cap = toProcess.get(capIdx);
-					AlongT at = cap.getAlongTAtT(camFrameIndex);
-					if (at == null || at.getRoi() == null)
-						continue;
-					List<ArrayList<int[]>> masks = options.profilePerpendicular
-							? CapillaryProfileExtractor.buildMasksAlongRoiPerpendicular(at.getRoi(), camW, camH,
-									diskRadius)
-							: CapillaryProfileExtractor.buildMasksAlongRoi(at.getRoi(), camW, camH, diskRadius);
-					if (masks.isEmpty())
-						continue;
-					int[][] rgbProfile = CapillaryProfileExtractor.extractRgbProfileFromMasks(camImage, masks);
-					if (rgbProfile == null || rgbProfile[0].length == 0)
-						continue;
-
-					IcyBufferedImage thinImage = rgbProfileToImage(rgbProfile);
-					int profileLen = rgbProfile[0].length;
-					Rectangle searchRect = new Rectangle(0, 0, 1, profileLen);
-					detectPass1OneColumn(thinImage, transformPass1, cap, profileLen, searchRect, timeIndex, options,
-							levelDetector);
+				// one conversion of the cam frame shared by all capillaries
+				DecodedFrame frame = framePool.acquire(camImage);
+				try {
+					for (int capIdx = 0; capIdx < toProcess.size(); capIdx++) {
+						Capillary cap = toProcess.get(capIdx);
+						AlongT at = cap.getAlongTAtT(camFrameIndex);
+						if (at == null || at.getRoi() == null)
+							continue;
+						CompiledMasks masks = masksByInterval.computeIfAbsent(at,
+								k -> options.profilePerpendicular
+										? CapillaryProfileExtractor.compileMasksAlongRoiPerpendicular(k.getRoi(), camW,
+												camH, diskRadius)
+										: CapillaryProfileExtractor.compileMasksAlongRoi(k.getRoi(), camW, camH,
+												diskRadius));
+						if (masks.isEmpty())
+							continue;
+						int[][] rgbProfile = CapillaryProfileExtractor.extractRgbProfileFromMasks(frame, masks);
+						if (rgbProfile == null || rgbProfile[0].length == 0)
+							continue;
 
+						IcyBufferedImage thinImage = rgbProfileToImage(rgbProfile);
+						int profileLen = rgbProfile[0].length;
+						Rectangle searchRect = new Rectangle(0, 0, 1, profileLen);
+						detectPass1OneColumn(thinImage, transformPass1, cap, profileLen, searchRect, timeIndex,
+								options, levelDetector);
+					}
+				} finally {
+					framePool.release(frame);
 				}
 			}));
 		}
 
 		waitFutures(processor, futures);
+		framePool.clear();
 
 		int columnFirst = 0;
 		int columnLast = nTimeBins - 1;
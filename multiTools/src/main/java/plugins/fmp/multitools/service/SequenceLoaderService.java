@@ -1,5 +1,6 @@
 package plugins.fmp.multitools.service;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.File;
@@ -17,7 +18,9 @@ import icy.sequence.Sequence;
 import plugins.fmp.multitools.experiment.Experiment;
 import plugins.fmp.multitools.experiment.ExperimentDirectories;
 import plugins.fmp.multitools.experiment.sequence.SequenceCamData;
+import plugins.fmp.multitools.tools.DecodedFrameCache;
 import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.registration.FrameTransformTable;
 
 public class SequenceLoaderService {
 	public enum ReferenceImageKind {
@@ -179,13 +182,59 @@ public class SequenceLoaderService {
 		}
 	}
 
+	/**
+	 * Decoded frame {@code name} through the shared {@link DecodedFrameCache}, with its registration
+	 * correction ({@link FrameTransformTable}) applied; the caller owns the copy.
+	 */
 	public IcyBufferedImage imageIORead(String name) {
-		BufferedImage image = null;
 		try {
-			image = ImageIO.read(new File(name));
+			return FrameTransformTable.applyTo(name, DecodedFrameCache.shared().read(name));
 		} catch (IOException e) {
 			Logger.error("SequenceLoaderService:imageIORead() Failed to read image: " + name, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Part of frame {@code name} inside {@code region}, one pixel in {@code subsampling} along x
+	 * and y, for scans that only look at a small area of each frame: the JPEG is decoded for that
+	 * region only. Frames with a registration correction are read whole, corrected, then cropped.
+	 */
+	public IcyBufferedImage imageIOReadRegion(String name, Rectangle region, int subsampling) {
+		try {
+			if (FrameTransformTable.hasTransform(name)) {
+				return DecodedFrameCache.subImage(
+						FrameTransformTable.applyTo(name, DecodedFrameCache.shared().readStreaming(name)), region,
+						subsampling);
+			}
+			return DecodedFrameCache.shared().readRegion(name, region, subsampling);
+		} catch (IOException e) {
+			Logger.error("SequenceLoaderService:imageIOReadRegion() Failed to read image: " + name, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Frame {@code name} for single-pass scans, corrected like {@link #imageIORead}: read through
+	 * {@link DecodedFrameCache#readStreaming}, so it does not fill the shared cache. The image may
+	 * be shared and must not be modified.
+	 */
+	public IcyBufferedImage imageIOReadStreaming(String name) {
+		try {
+			return FrameTransformTable.applyTo(name, DecodedFrameCache.shared().readStreaming(name));
+		} catch (IOException e) {
+			Logger.error("SequenceLoaderService:imageIOReadStreaming() Failed to read image: " + name, e);
+			return null;
+		}
+	}
+
+	/** Same as {@link #imageIORead} without the copy: the image is shared and must not be modified. */
+	public IcyBufferedImage imageIOReadShared(String name) {
+		try {
+			return FrameTransformTable.applyTo(name, DecodedFrameCache.shared().readShared(name));
+		} catch (IOException e) {
+			Logger.error("SequenceLoaderService:imageIOReadShared() Failed to read image: " + name, e);
+			return null;
 		}
-		return IcyBufferedImage.createFrom(image);
 	}
 }
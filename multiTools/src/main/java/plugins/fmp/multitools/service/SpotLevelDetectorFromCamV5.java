@@ -7,7 +7,6 @@ import java.util.List;
 import icy.gui.frame.progress.ProgressFrame;
 import icy.image.IcyBufferedImage;
 import icy.image.IcyBufferedImageCursor;
-import icy.type.collection.array.Array1DUtil;
 import plugins.fmp.multitools.experiment.Experiment;
 import plugins.fmp.multitools.experiment.sequence.SequenceCamData;
 import plugins.fmp.multitools.experiment.spot.Spot;
@@ -136,6 +135,8 @@ public class SpotLevelDetectorFromCamV5 implements SpotLevelDetectionRunner {
 		IcyBufferedImage camImage = null;
 		IcyBufferedImage spotImage = null;
 		IcyBufferedImage flyImage = null;
+		DecodedFrame camFrame = null;
+		final DecodedFrame.Pool framePool = new DecodedFrame.Pool(1);
 
 		final long tLoopStart = System.nanoTime();
 		try {
@@ -186,12 +187,15 @@ public class SpotLevelDetectorFromCamV5 implements SpotLevelDetectionRunner {
 					}
 					final int iw = camImage.getWidth();
 					final int ih = camImage.getHeight();
-					int[] fullRn = Array1DUtil.arrayToIntArray(camImage.getDataXY(0), camImage.isSignedDataType());
-					int[] fullGn = Array1DUtil.arrayToIntArray(camImage.getDataXY(1), camImage.isSignedDataType());
-					int[] fullBn = Array1DUtil.arrayToIntArray(camImage.getDataXY(2), camImage.isSignedDataType());
+					camFrame = framePool.acquire(camImage);
+					int[] fullRn = camFrame.getChannel(0);
+					int[] fullGn = camFrame.getChannel(1);
+					int[] fullBn = camFrame.getChannel(2);
 					final int spotR = SumDiffLocalMeanRgb.defaultBoxHalfWidth(iw, ih);
 					updateSpotsAtTimeIndexRoiLocal(toProcess, cursorFly, iw, ih, fullRn, fullGn, fullBn, spotR, t,
 							options);
+					framePool.release(camFrame);
+					camFrame = null;
 				} else {
 					IcyBufferedImageCursor cursorSpot = new IcyBufferedImageCursor(spotImage);
 					updateSpotsAtTimeIndex(toProcess, cursorSpot, cursorFly, spotImage, t, options);
@@ -203,6 +207,8 @@ public class SpotLevelDetectorFromCamV5 implements SpotLevelDetectionRunner {
 			camImage = null;
 			spotImage = null;
 			flyImage = null;
+			camFrame = null;
+			framePool.clear();
 		}
 		final long tLoopEnd = System.nanoTime();
 
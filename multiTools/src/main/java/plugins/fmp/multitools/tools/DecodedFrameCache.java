@@ -0,0 +1,354 @@
+package plugins.fmp.multitools.tools;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import icy.image.IcyBufferedImage;
+import icy.image.IcyBufferedImageUtil;
+
+/**
+ * Process-wide LRU of decoded camera frames, keyed by file path and modification time (a file
+ * rewritten on disk is decoded again) and bounded by a byte budget. Fly detection, background
+ * subtraction, kymograph building and the camera viewer all read the same JPEGs, often the same
+ * frame several times in a row (frame t, then t as the background of t + 1): only the first read
+ * decodes.
+ * <p>
+ * {@link #read} hands out an image of its own, which callers may modify; {@link #readShared} returns
+ * the cached image itself and is reserved to read-only consumers. Concurrent reads of a frame
+ * being decoded wait for that decode instead of starting another one. The budget defaults to a
+ * quarter of the maximum heap, capped at {@value #MAX_DEFAULT_BUDGET_MB} MB, and can be changed
+ * with {@link #setBudgetBytes} ({@code 0} disables caching).
+ * <p>
+ * {@link #readStreaming} serves single-pass scans (kymograph builds): it uses a cached frame when
+ * there is one but does not add what it decodes, so a long scan does not evict the frames the
+ * viewer keeps coming back to. {@link #readRegion} serves scans that only look at a small part of each frame: it crops the
+ * cached frame when there is one and otherwise decodes just that region, without caching it.
+ */
+public final class DecodedFrameCache {
+
+	private static final long MAX_DEFAULT_BUDGET_MB = 1024;
+
+	private static final class Key {
+		final String path;
+		final long lastModified;
+		final long length;
+
+		Key(File file) {
+			this.path = file.getAbsolutePath();
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return lastModified == k.lastModified && length == k.length && path.equals(k.path);
+		}
+
+		@Override
+		public int hashCode() {
+			return path.hashCode() * 31 + Long.hashCode(lastModified);
+		}
+	}
+
+	private static final DecodedFrameCache SHARED = new DecodedFrameCache(defaultBudgetBytes());
+
+	private final LinkedHashMap<Key, IcyBufferedImage> entries = new LinkedHashMap<Key, IcyBufferedImage>(64,
+			0.75f, true);
+	private final Map<Key, CompletableFuture<IcyBufferedImage>> inFlight = new HashMap<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private long budgetBytes;
+	private long usedBytes;
+
+	public DecodedFrameCache(long budgetBytes) {
+		this.budgetBytes = Math.max(0, budgetBytes);
+	}
+
+	public static DecodedFrameCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Decoded frame {@code path}, as an image the caller owns. On a miss the caller gets the decode
+	 * itself and the cache keeps a copy, made only when the frame fits in the budget. Throws when
+	 * the file cannot be read or decoded.
+	 */
+	public IcyBufferedImage read(String path) throws IOException {
+		return load(path, true);
+	}
+
+	/** Decoded frame {@code path} as held by the cache: must not be modified. */
+	public IcyBufferedImage readShared(String path) throws IOException {
+		return load(path, false);
+	}
+
+	private IcyBufferedImage load(String path, boolean owned) throws IOException {
+		File file = new File(path);
+		if (!file.isFile()) {
+			throw new IOException("no such file: " + path);
+		}
+		Key key = new Key(file);
+		CompletableFuture<IcyBufferedImage> pending;
+		CompletableFuture<IcyBufferedImage> task = null;
+		synchronized (this) {
+			IcyBufferedImage img = entries.get(key);
+			if (img != null) {
+				hits.incrementAndGet();
+				return owned ? IcyBufferedImageUtil.getCopy(img) : img;
+			}
+			pending = inFlight.get(key);
+			if (pending != null) {
+				hits.incrementAndGet();
+			} else {
+				misses.incrementAndGet();
+				task = new CompletableFuture<IcyBufferedImage>();
+				inFlight.put(key, task);
+			}
+		}
+		if (pending != null) {
+			IcyBufferedImage img = await(pending, path);
+			if (img == null) {
+				// decoded for a caller that owns it and too large to be cached: decode our own
+				return decode(file);
+			}
+			return owned ? IcyBufferedImageUtil.getCopy(img) : img;
+		}
+		try {
+			IcyBufferedImage img = decode(file);
+			// an owned decode may be modified by its caller: the cache and concurrent readers get a copy
+			IcyBufferedImage shared = owned ? (fitsBudget(img) ? IcyBufferedImageUtil.getCopy(img) : null) : img;
+			if (shared != null) {
+				put(key, shared);
+			}
+			task.complete(shared);
+			return img;
+		} catch (Throwable t) {
+			task.completeExceptionally(t);
+			throw t;
+		} finally {
+			synchronized (this) {
+				inFlight.remove(key);
+			}
+		}
+	}
+
+	private static IcyBufferedImage await(CompletableFuture<IcyBufferedImage> pending, String path)
+			throws IOException {
+		try {
+			return pending.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while decoding " + path, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("cannot decode " + path, cause);
+		}
+	}
+
+	/**
+	 * Pixels of frame {@code path} inside {@code region} (clipped to the frame), keeping one pixel
+	 * in {@code subsampling} along x and y starting at the region corner, as a copy the caller
+	 * owns. Crops the cached frame if there is one; otherwise the reader decodes only that region
+	 * and the result is not cached. Throws when the file cannot be read or the region misses the
+	 * frame.
+	 */
+	public IcyBufferedImage readRegion(String path, Rectangle region, int subsampling) throws IOException {
+		File file = new File(path);
+		if (!file.isFile()) {
+			throw new IOException("no such file: " + path);
+		}
+		IcyBufferedImage cached;
+		synchronized (this) {
+			cached = entries.get(new Key(file));
+		}
+		if (cached != null) {
+			hits.incrementAndGet();
+			IcyBufferedImage img = subImage(cached, region, subsampling);
+			if (img == null) {
+				throw new IOException("region " + region + " outside " + path);
+			}
+			return img;
+		}
+		return decodeRegion(file, region, Math.max(1, subsampling));
+	}
+
+	/**
+	 * Pixels of {@code image} inside {@code region} (clipped to the image), one in
+	 * {@code subsampling} along x and y, in a new image; null when the region misses the image.
+	 */
+	public static IcyBufferedImage subImage(IcyBufferedImage image, Rectangle region, int subsampling) {
+		int sizeX = image.getSizeX();
+		Rectangle bounds = region.intersection(new Rectangle(0, 0, sizeX, image.getSizeY()));
+		if (bounds.isEmpty()) {
+			return null;
+		}
+		int step = Math.max(1, subsampling);
+		int width = (bounds.width + step - 1) / step;
+		int height = (bounds.height + step - 1) / step;
+		IcyBufferedImage out = new IcyBufferedImage(width, height, image.getSizeC(), image.getDataType_());
+		for (int c = 0; c < image.getSizeC(); c++) {
+			Object src = image.getDataXY(c);
+			Object dst = out.getDataXY(c);
+			for (int j = 0; j < height; j++) {
+				int from = (bounds.y + j * step) * sizeX + bounds.x;
+				if (step == 1) {
+					System.arraycopy(src, from, dst, j * width, width);
+				} else {
+					for (int i = 0; i < width; i++) {
+						System.arraycopy(src, from + i * step, dst, j * width + i, 1);
+					}
+				}
+			}
+		}
+		out.dataChanged();
+		return out;
+	}
+
+	/**
+	 * Decoded frame {@code path} for a single pass over a series: the cached frame when there is
+	 * one, otherwise a fresh decode that is not added to the cache. Must not be modified.
+	 */
+	public IcyBufferedImage readStreaming(String path) throws IOException {
+		File file = new File(path);
+		if (!file.isFile()) {
+			throw new IOException("no such file: " + path);
+		}
+		IcyBufferedImage cached;
+		synchronized (this) {
+			cached = entries.get(new Key(file));
+		}
+		if (cached != null) {
+			hits.incrementAndGet();
+			return cached;
+		}
+		misses.incrementAndGet();
+		return decode(file);
+	}
+
+	/** Decodes {@code path} into the cache if it is not there yet; errors are ignored. */
+	public void prefetch(String path) {
+		try {
+			readShared(path);
+		} catch (IOException e) {
+			// reported when the frame is actually read
+		}
+	}
+
+	private static IcyBufferedImage decode(File file) throws IOException {
+		BufferedImage image = ImageIO.read(file);
+		if (image == null) {
+			throw new IOException("unsupported image format: " + file);
+		}
+		return IcyBufferedImage.createFrom(image);
+	}
+
+	private static IcyBufferedImage decodeRegion(File file, Rectangle region, int subsampling) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+			if (in == null) {
+				throw new IOException("cannot open " + file);
+			}
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext()) {
+				throw new IOException("unsupported image format: " + file);
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				Rectangle bounds = region.intersection(new Rectangle(0, 0, reader.getWidth(0), reader.getHeight(0)));
+				if (bounds.isEmpty()) {
+					throw new IOException("region " + region + " outside " + file);
+				}
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceRegion(bounds);
+				param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				return IcyBufferedImage.createFrom(reader.read(0, param));
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	private synchronized boolean fitsBudget(IcyBufferedImage img) {
+		return bytesOf(img) <= budgetBytes;
+	}
+
+	private synchronized void put(Key key, IcyBufferedImage img) {
+		long bytes = bytesOf(img);
+		if (bytes > budgetBytes) {
+			return;
+		}
+		IcyBufferedImage previous = entries.put(key, img);
+		usedBytes += bytes - (previous != null ? bytesOf(previous) : 0L);
+		trim();
+	}
+
+	private void trim() {
+		Iterator<IcyBufferedImage> it = entries.values().iterator();
+		while (usedBytes > budgetBytes && it.hasNext()) {
+			usedBytes -= bytesOf(it.next());
+			it.remove();
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public synchronized int getFrameCount() {
+		return entries.size();
+	}
+
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	public synchronized long getBudgetBytes() {
+		return budgetBytes;
+	}
+
+	public synchronized void setBudgetBytes(long budgetBytes) {
+		this.budgetBytes = Math.max(0, budgetBytes);
+		trim();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		usedBytes = 0;
+	}
+
+	public static long bytesOf(IcyBufferedImage img) {
+		return Math.max(1L, (long) img.getSizeX() * img.getSizeY() * img.getSizeC() * img.getDataType_().getSize());
+	}
+
+	private static long defaultBudgetBytes() {
+		return Math.min(MAX_DEFAULT_BUDGET_MB * 1024L * 1024L, Runtime.getRuntime().maxMemory() / 4);
+	}
+}
@@ -1,7 +1,5 @@
 package plugins.fmp.multitools.tools.ROI2D;
 
-import java.util.ArrayList;
-
 import org.w3c.dom.Node;
 
 import icy.file.xml.XMLPersistent;
@@ -12,7 +10,7 @@ public class AlongT implements XMLPersistent {
 
 	private ROI2D roi = null;
 	private long start = 0;
-	private ArrayList<ArrayList<int[]>> masksList = null;
+	private CompiledMasks masks = null;
 
 	private final String ID_META = "metaT";
 	private final String ID_START = "startT";
@@ -41,12 +39,13 @@ public class AlongT implements XMLPersistent {
 		this.roi = (ROI2D) roi.getCopy();
 	}
 
-	public void setMasksList(ArrayList<ArrayList<int[]>> masksList) {
-		this.masksList = masksList;
+	/** Kymograph sampling masks of this interval, compiled for the camera image width. */
+	public void setMasks(CompiledMasks masks) {
+		this.masks = masks;
 	}
 
-	public ArrayList<ArrayList<int[]>> getMasksList() {
-		return masksList;
+	public CompiledMasks getMasks() {
+		return masks;
 	}
 
 	@Override
@@ -0,0 +1,125 @@
+package plugins.fmp.multitools.tools.ROI2D;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flat (CSR-style) list of pixel masks for one ROI, compiled once for a given image width.
+ * <p>
+ * Row {@code r} of the kymograph (one sampling position along the ROI) reads the linear pixel
+ * offsets {@code offsets[rowStart[r] .. rowStart[r + 1] - 1]} ({@code x + y * width}). Replaces
+ * the nested {@code ArrayList<ArrayList<int[]>>} of {x, y} pairs so the per-frame summation is
+ * a scan over two primitive arrays.
+ */
+public final class CompiledMasks {
+
+	private final int width;
+	private final int[] offsets;
+	private final int[] rowStart;
+
+	private CompiledMasks(int width, int[] offsets, int[] rowStart) {
+		this.width = width;
+		this.offsets = offsets;
+		this.rowStart = rowStart;
+	}
+
+	/**
+	 * Compiles {x, y} pixel lists (one list per row). Pixels outside
+	 * {@code [0, width) x [0, height)} are dropped.
+	 */
+	public static CompiledMasks compile(List<? extends List<int[]>> masks, int width, int height) {
+		Builder builder = new Builder(width, masks != null ? masks.size() : 0);
+		if (masks != null) {
+			for (List<int[]> mask : masks) {
+				if (mask != null) {
+					for (int[] p : mask) {
+						builder.addPixel(p[0], p[1], height);
+					}
+				}
+				builder.endRow();
+			}
+		}
+		return builder.build();
+	}
+
+	/** Image width the offsets were computed for. */
+	public int getWidth() {
+		return width;
+	}
+
+	public int getRowCount() {
+		return rowStart.length - 1;
+	}
+
+	public int getRowSize(int row) {
+		return rowStart[row + 1] - rowStart[row];
+	}
+
+	public int getTotalPixels() {
+		return rowStart[rowStart.length - 1];
+	}
+
+	public boolean isEmpty() {
+		return getRowCount() == 0;
+	}
+
+	/** Shared backing arrays (do not modify). */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	public int[] getRowStart() {
+		return rowStart;
+	}
+
+	/** Sum of {@code src} over the pixels of {@code row}. */
+	public long sumRow(int[] src, int row) {
+		long sum = 0;
+		for (int i = rowStart[row], end = rowStart[row + 1]; i < end; i++) {
+			sum += src[offsets[i]];
+		}
+		return sum;
+	}
+
+	/**
+	 * Incremental builder: add the pixels of a row, then {@link #endRow()}; rows may be empty.
+	 */
+	public static final class Builder {
+		private final int width;
+		private int[] offsets;
+		private int[] rowStart;
+		private int nOffsets = 0;
+		private int nRows = 0;
+
+		public Builder(int width, int expectedRows) {
+			this.width = width;
+			this.offsets = new int[Math.max(16, expectedRows * 4)];
+			this.rowStart = new int[Math.max(2, expectedRows + 1)];
+		}
+
+		/** Adds pixel (x, y) to the current row if it lies inside the image. */
+		public Builder addPixel(int x, int y, int height) {
+			if (x < 0 || x >= width || y < 0 || y >= height) {
+				return this;
+			}
+			if (nOffsets == offsets.length) {
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			}
+			offsets[nOffsets++] = x + y * width;
+			return this;
+		}
+
+		public Builder endRow() {
+			if (nRows + 2 > rowStart.length) {
+				rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+			}
+			nRows++;
+			rowStart[nRows] = nOffsets;
+			return this;
+		}
+
+		public CompiledMasks build() {
+			return new CompiledMasks(width, Arrays.copyOf(offsets, nOffsets), Arrays.copyOf(rowStart, nRows + 1));
+		}
+	}
+}
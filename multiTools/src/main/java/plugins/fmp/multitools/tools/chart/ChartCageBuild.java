@@ -172,20 +172,20 @@ public class ChartCageBuild {
 		ymin = Double.NaN;
 		xmax = 0;
 
+		// XYSeries keeps its bounds (NaN ignored) as items are added
 		for (int i = 0; i < dataset.getSeriesCount(); i++) {
 			XYSeries series = dataset.getSeries(i);
-			for (int j = 0; j < series.getItemCount(); j++) {
-				double y = series.getY(j).doubleValue();
-				double x = series.getX(j).doubleValue();
-				if (!Double.isNaN(y)) {
-					if (Double.isNaN(ymax) || y > ymax)
-						ymax = y;
-					if (Double.isNaN(ymin) || y < ymin)
-						ymin = y;
-				}
-				if (x > xmax)
-					xmax = x;
-			}
+			if (series.getItemCount() == 0)
+				continue;
+			double seriesYMax = series.getMaxY();
+			double seriesYMin = series.getMinY();
+			double seriesXMax = series.getMaxX();
+			if (!Double.isNaN(seriesYMax) && (Double.isNaN(ymax) || seriesYMax > ymax))
+				ymax = seriesYMax;
+			if (!Double.isNaN(seriesYMin) && (Double.isNaN(ymin) || seriesYMin < ymin))
+				ymin = seriesYMin;
+			if (seriesXMax > xmax)
+				xmax = seriesXMax;
 		}
 		updateGlobalMaxMin();
 	}
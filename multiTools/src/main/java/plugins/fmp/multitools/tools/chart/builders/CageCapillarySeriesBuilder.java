@@ -2,10 +2,9 @@ package plugins.fmp.multitools.tools.chart.builders;
 
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 import org.jfree.chart.ChartColor;
 import org.jfree.data.xy.XYSeries;
@@ -19,6 +18,8 @@ import plugins.fmp.multitools.experiment.capillary.Capillary;
 import plugins.fmp.multitools.experiment.capillary.CapillaryMeasure;
 import plugins.fmp.multitools.tools.Comparators;
 import plugins.fmp.multitools.tools.chart.ChartCageBuild;
+import plugins.fmp.multitools.tools.chart.data.DecimatingXYSeriesCollection;
+import plugins.fmp.multitools.tools.chart.data.PrimitiveXYSeries;
 import plugins.fmp.multitools.tools.chart.style.SeriesStyleCodec;
 import plugins.fmp.multitools.tools.results.EnumResults;
 import plugins.fmp.multitools.tools.results.ResultsOptions;
@@ -66,7 +67,7 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 			return buildLR(exp, cage, options);
 		}
 
-		XYSeriesCollection dataset = new XYSeriesCollection();
+		XYSeriesCollection dataset = new DecimatingXYSeriesCollection();
 		int i = 0;
 		for (Capillary cap : capillaries) {
 			XYSeries series = createXYSeriesFromCapillaryMeasure(exp, cap, options);
@@ -96,7 +97,7 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 	}
 
 	private static XYSeriesCollection buildLR(Experiment exp, Cage cage, ResultsOptions options) {
-		XYSeriesCollection result = new XYSeriesCollection();
+		XYSeriesCollection result = new DecimatingXYSeriesCollection();
 		EnumResults baseType = getBaseType(options.resultType);
 
 		ResultsOptions baseOptions = new ResultsOptions();
@@ -113,7 +114,7 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 			boolean sum = options.resultType == EnumResults.TOPLEVEL_SUM
 					|| options.resultType == EnumResults.SUMGULPS_SUM;
 			String suffix = sum ? "_Sum" : "_PI";
-			XYSeriesCollection filtered = new XYSeriesCollection();
+			XYSeriesCollection filtered = new DecimatingXYSeriesCollection();
 			for (int i = 0; i < sumAndPI.getSeriesCount(); i++) {
 				XYSeries s = sumAndPI.getSeries(i);
 				if (s.getKey() != null && s.getKey().toString().endsWith(suffix)) {
@@ -149,31 +150,82 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 		}
 	}
 
+	/**
+	 * Sum of |y| over L and R capillaries and PI = (L - R) / (L + R) at every x
+	 * present in {@code parts}. Each series contributes the first item found at a
+	 * given x; x values are matched exactly (as {@link Double#equals}).
+	 */
 	static XYSeriesCollection buildSumAndPISeries(Cage cage, XYSeriesCollection parts) {
-		XYSeriesCollection result = new XYSeriesCollection();
+		XYSeriesCollection result = new DecimatingXYSeriesCollection();
 		if (parts == null || parts.getSeriesCount() == 0)
 			return result;
 
-		List<XYSeries> listL = new ArrayList<>();
-		List<XYSeries> listR = new ArrayList<>();
-		for (int i = 0; i < parts.getSeriesCount(); i++) {
-			XYSeries series = parts.getSeries(i);
-			String key = (String) series.getKey();
-			if (CapillaryChartSeriesKeys.isLeftSideKey(key))
-				listL.add(series);
-			else if (CapillaryChartSeriesKeys.isRightSideKey(key))
-				listR.add(series);
+		int nSeries = parts.getSeriesCount();
+		double[][][] items = new double[nSeries][][];
+		int total = 0;
+		for (int i = 0; i < nSeries; i++) {
+			items[i] = parts.getSeries(i).toArray();
+			total += items[i][0].length;
+		}
+
+		// union of all x, sorted and without duplicates
+		double[] allX = new double[total];
+		int n = 0;
+		for (double[][] xy : items) {
+			System.arraycopy(xy[0], 0, allX, n, xy[0].length);
+			n += xy[0].length;
+		}
+		Arrays.sort(allX);
+		int nX = 0;
+		for (int i = 0; i < n; i++) {
+			if (nX == 0 || Double.compare(allX[nX - 1], allX[i]) != 0)
+				allX[nX++] = allX[i];
 		}
 
-		SortedSet<Double> allX = new TreeSet<>();
-		for (int i = 0; i < parts.getSeriesCount(); i++) {
-			XYSeries series = parts.getSeries(i);
-			for (int j = 0; j < series.getItemCount(); j++)
-				allX.add(series.getX(j).doubleValue());
+		double[] sumL = new double[nX];
+		double[] sumR = new double[nX];
+		boolean[] hasL = new boolean[nX];
+		boolean[] hasR = new boolean[nX];
+		int[] lastSeen = new int[nX];
+		Arrays.fill(lastSeen, -1);
+		for (int i = 0; i < nSeries; i++) {
+			String key = (String) parts.getSeriesKey(i);
+			boolean left = CapillaryChartSeriesKeys.isLeftSideKey(key);
+			if (!left && !CapillaryChartSeriesKeys.isRightSideKey(key))
+				continue;
+			double[] x = items[i][0];
+			double[] y = items[i][1];
+			for (int j = 0; j < x.length; j++) {
+				int k = Arrays.binarySearch(allX, 0, nX, x[j]);
+				if (lastSeen[k] == i)
+					continue;
+				lastSeen[k] = i;
+				if (left) {
+					sumL[k] += Math.abs(y[j]);
+					hasL[k] = true;
+				} else {
+					sumR[k] += Math.abs(y[j]);
+					hasR[k] = true;
+				}
+			}
+		}
+
+		double[] xs = new double[nX];
+		double[] sums = new double[nX];
+		double[] pis = new double[nX];
+		int count = 0;
+		for (int k = 0; k < nX; k++) {
+			if (!hasL[k] && !hasR[k])
+				continue;
+			double sum = sumL[k] + sumR[k];
+			xs[count] = allX[k];
+			sums[count] = sum;
+			pis[count] = (sum != 0) ? (sumL[k] - sumR[k]) / sum : 0;
+			count++;
 		}
 
-		XYSeries seriesSum = new XYSeries(cage.getCageID() + "_Sum", false);
-		XYSeries seriesPI = new XYSeries(cage.getCageID() + "_PI", false);
+		XYSeries seriesSum = new PrimitiveXYSeries(cage.getCageID() + "_Sum", xs, sums, count);
+		XYSeries seriesPI = new PrimitiveXYSeries(cage.getCageID() + "_PI", xs, pis, count);
 
 		// Keep legacy side coloring semantics: Sum=Blue, PI=Red
 		CageProperties cageProp = cage.getProperties();
@@ -183,35 +235,6 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 		seriesPI.setDescription(
 				SeriesStyleCodec.buildDescription(cageProp.getCageID(), cageProp.getCageID(), nFlies, Color.RED));
 
-		for (Double x : allX) {
-			double sumL = 0;
-			double sumR = 0;
-			boolean hasL = false;
-			boolean hasR = false;
-
-			for (XYSeries s : listL) {
-				int idx = s.indexOf(x);
-				if (idx >= 0) {
-					sumL += Math.abs(s.getY(idx).doubleValue());
-					hasL = true;
-				}
-			}
-			for (XYSeries s : listR) {
-				int idx = s.indexOf(x);
-				if (idx >= 0) {
-					sumR += Math.abs(s.getY(idx).doubleValue());
-					hasR = true;
-				}
-			}
-
-			if (hasL || hasR) {
-				double sum = sumL + sumR;
-				double pi = (sum != 0) ? (sumL - sumR) / sum : 0;
-				seriesSum.add(x.doubleValue(), sum);
-				seriesPI.add(x.doubleValue(), pi);
-			}
-		}
-
 		result.addSeries(seriesSum);
 		result.addSeries(seriesPI);
 		return result;
@@ -244,8 +267,6 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 		if (exp == null || cap == null || options == null)
 			return null;
 
-		XYSeries seriesXY = new XYSeries(CapillaryChartSeriesKeys.key(cap), false);
-
 		double[] camImages_time_min = exp.getMeasureTimeMinutes();
 
 		CapillaryMeasure capMeasure = cap.getMeasurements(options.resultType, exp, options);
@@ -267,12 +288,13 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 				scalingFactor = cap.getVolume() / cap.getPixels();
 		}
 
+		double[] x = new double[npoints];
+		double[] y = new double[npoints];
 		for (int j = 0; j < npoints; j++) {
-			double x = getDisplayTimeMinutes(exp, camImages_time_min, j, options);
-			double y = capMeasure.getValueAt(j) * scalingFactor;
-			seriesXY.add(x, y);
+			x[j] = getDisplayTimeMinutes(exp, camImages_time_min, j, options);
+			y[j] = capMeasure.getValueAt(j) * scalingFactor;
 		}
-		return seriesXY;
+		return new PrimitiveXYSeries(CapillaryChartSeriesKeys.key(cap), x, y, npoints);
 	}
 
 	private static XYSeries createThresholdSeries(Experiment exp, Cage cage, ResultsOptions options) {
@@ -284,8 +306,6 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 				|| thresholdMeasure.polylineLevel.npoints == 0)
 			return null;
 
-		XYSeries thresholdSeries = new XYSeries(cage.getCageID() + "_threshold", false);
-
 		double[] camImages_time_min = exp.getMeasureTimeMinutes();
 
 		int npoints = thresholdMeasure.getNPoints();
@@ -301,11 +321,13 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 			}
 		}
 
+		double[] x = new double[npoints];
+		double[] y = new double[npoints];
 		for (int j = 0; j < npoints; j++) {
-			double x = getDisplayTimeMinutes(exp, camImages_time_min, j, options);
-			double y = thresholdMeasure.getValueAt(j) * scalingFactor;
-			thresholdSeries.add(x, y);
+			x[j] = getDisplayTimeMinutes(exp, camImages_time_min, j, options);
+			y[j] = thresholdMeasure.getValueAt(j) * scalingFactor;
 		}
+		XYSeries thresholdSeries = new PrimitiveXYSeries(cage.getCageID() + "_threshold", x, y, npoints);
 
 		CageProperties cageProp = cage.getProperties();
 		int nFlies = nFliesFromCapillaries(cage, exp.getCapillaries());
@@ -324,8 +346,6 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 				|| evaporationMeasure.polylineLevel.npoints == 0)
 			return null;
 
-		XYSeries evaporationSeries = new XYSeries(cage.getCageID() + "_evaporation", false);
-
 		double[] camImages_time_min = exp.getMeasureTimeMinutes();
 
 		int npoints = evaporationMeasure.getNPoints();
@@ -340,11 +360,13 @@ public class CageCapillarySeriesBuilder implements CageSeriesBuilder {
 			}
 		}
 
+		double[] x = new double[npoints];
+		double[] y = new double[npoints];
 		for (int j = 0; j < npoints; j++) {
-			double x = getDisplayTimeMinutes(exp, camImages_time_min, j, options);
-			double y = evaporationMeasure.getValueAt(j) * scalingFactor;
-			evaporationSeries.add(x, y);
+			x[j] = getDisplayTimeMinutes(exp, camImages_time_min, j, options);
+			y[j] = evaporationMeasure.getValueAt(j) * scalingFactor;
 		}
+		XYSeries evaporationSeries = new PrimitiveXYSeries(cage.getCageID() + "_evaporation", x, y, npoints);
 
 		CageProperties cageProp = cage.getProperties();
 		int nFlies = nFliesFromCapillaries(cage, exp.getCapillaries());
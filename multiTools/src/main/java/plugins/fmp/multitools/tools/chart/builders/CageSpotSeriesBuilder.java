@@ -20,6 +20,8 @@ import plugins.fmp.multitools.experiment.spot.SpotMeasure;
 import plugins.fmp.multitools.experiment.spots.Spots;
 import plugins.fmp.multitools.tools.Logger;
 import plugins.fmp.multitools.tools.chart.ChartCageBuild;
+import plugins.fmp.multitools.tools.chart.data.DecimatingXYSeriesCollection;
+import plugins.fmp.multitools.tools.chart.data.PrimitiveXYSeries;
 import plugins.fmp.multitools.tools.chart.style.SeriesStyleCodec;
 import plugins.fmp.multitools.tools.results.EnumResults;
 import plugins.fmp.multitools.tools.results.ResultsOptions;
@@ -50,13 +52,13 @@ public class CageSpotSeriesBuilder implements CageSeriesBuilder {
 				|| options.resultType == EnumResults.AGG_SUMCLEAN_V5 || options.resultType == EnumResults.AGG_AREA_COUNT_V5
 				|| options.resultType == EnumResults.AGG_SUMCLEAN_COLOR || options.resultType == EnumResults.AGG_AREA_COUNT_COLOR
 				|| options.resultType == EnumResults.AGG_MEDIANREF)) {
-			XYSeriesCollection dataset = new XYSeriesCollection();
+			XYSeriesCollection dataset = new DecimatingXYSeriesCollection();
 			addAggregateSeries(exp, cage, allSpots, options, dataset);
 			updateGlobalExtremaExcludingMedianRef(dataset);
 			return dataset;
 		}
 
-		XYSeriesCollection dataset = new XYSeriesCollection();
+		XYSeriesCollection dataset = new DecimatingXYSeriesCollection();
 		for (int si = 0; si < spots.size(); si++) {
 			Spot spot = spots.get(si);
 			String seriesKey = SpotChartSeriesKeys.key(spot, si);
@@ -101,8 +103,6 @@ public class CageSpotSeriesBuilder implements CageSeriesBuilder {
 			String seriesKey) {
 		if (exp == null || spot == null || resultOptions == null || seriesKey == null)
 			return null;
-		XYSeries seriesXY = new XYSeries(seriesKey, false);
-
 		if (exp.getSeqCamData().getTimeManager().getCamImagesTime_Ms() == null)
 			exp.getSeqCamData().build_MsTimesArray_From_FileNamesList();
 		double[] camImages_time_min = exp.getSeqCamData().getTimeManager().getCamImagesTime_Minutes();
@@ -127,14 +127,15 @@ public class CageSpotSeriesBuilder implements CageSeriesBuilder {
 		if (camImages_time_min != null && npoints > camImages_time_min.length)
 			npoints = camImages_time_min.length;
 
+		double[] x = new double[npoints];
+		double[] y = new double[npoints];
 		for (int j = 0; j < npoints; j++) {
-			double x = camImages_time_min != null ? camImages_time_min[j] : j;
+			x[j] = camImages_time_min != null ? camImages_time_min[j] : j;
 			double raw = spotMeasure.getValueAt(j);
-			double y = resultOptions.resultType == EnumResults.AREA_FLYPRESENT ? raw * flyPresentToPercent
+			y[j] = resultOptions.resultType == EnumResults.AREA_FLYPRESENT ? raw * flyPresentToPercent
 					: raw / divider;
-			seriesXY.add(x, y);
 		}
-		return seriesXY;
+		return new PrimitiveXYSeries(seriesKey, x, y, npoints);
 	}
 
 	private static void addAggregateSeries(Experiment exp, Cage cage, Spots allSpots, ResultsOptions options,
@@ -163,19 +164,22 @@ public class CageSpotSeriesBuilder implements CageSeriesBuilder {
 				StimulusConcKey key = row.getKey();
 				String seriesKey = SpotChartSeriesKeys.keyAggregate(cage.getProperties().getCageID(), key.stimulus,
 						key.concentration, ai++);
-				XYSeries seriesXY = new XYSeries(seriesKey, false);
 				int npoints = row.getMeasure().getCount();
 				if (camImagesTimeMin != null && npoints > camImagesTimeMin.length) {
 					npoints = camImagesTimeMin.length;
 				}
+				double[] xs = new double[npoints];
+				double[] ys = new double[npoints];
+				int m = 0;
 				for (int k = 0; k < npoints; k++) {
-					double x = camImagesTimeMin != null ? camImagesTimeMin[k] : k;
 					double y = row.getMeasure().getValueAt(k);
 					if (!Double.isFinite(y)) {
 						continue;
 					}
-					seriesXY.add(x, y);
+					xs[m] = camImagesTimeMin != null ? camImagesTimeMin[k] : k;
+					ys[m++] = y;
 				}
+				XYSeries seriesXY = new PrimitiveXYSeries(seriesKey, xs, ys, m);
 				Color color = colorOfFirstSpotMatching(spots, key,
 						fallbackAggregatePaletteColor(ai - 1, globalOrder, key));
 				seriesXY.setDescription(SeriesStyleCodec.buildDescription(cage.getProperties().getCageID(),
@@ -197,16 +201,20 @@ public class CageSpotSeriesBuilder implements CageSeriesBuilder {
 			}
 			String seriesKey = SpotChartSeriesKeys.keyAggregate(cage.getProperties().getCageID(), agg.key.stimulus,
 					agg.key.concentration, ai++);
-			XYSeries seriesXY = new XYSeries(seriesKey, false);
-
-			for (int k = 0; k < agg.values.size(); k++) {
-				double x = camImagesTimeMin != null && k < camImagesTimeMin.length ? camImagesTimeMin[k] : k;
-				double y = agg.values.get(k) != null ? agg.values.get(k) : Double.NaN;
+			int npoints = agg.values.size();
+			double[] xs = new double[npoints];
+			double[] ys = new double[npoints];
+			int m = 0;
+			for (int k = 0; k < npoints; k++) {
+				Double value = agg.values.get(k);
+				double y = value != null ? value : Double.NaN;
 				if (!Double.isFinite(y)) {
 					continue;
 				}
-				seriesXY.add(x, y);
+				xs[m] = camImagesTimeMin != null && k < camImagesTimeMin.length ? camImagesTimeMin[k] : k;
+				ys[m++] = y;
 			}
+			XYSeries seriesXY = new PrimitiveXYSeries(seriesKey, xs, ys, m);
 
 			Color color = colorOfFirstSpotMatching(spots, agg.key,
 					fallbackAggregatePaletteColor(ai - 1, globalOrder, agg.key));
@@ -230,20 +238,23 @@ public class CageSpotSeriesBuilder implements CageSeriesBuilder {
 		}
 		double[] camImagesTimeMin = exp.getSeqCamData().getTimeManager().getCamImagesTime_Minutes();
 		String seriesKey = SpotChartSeriesKeys.keyMedianRef(cage.getProperties().getCageID());
-		XYSeries seriesXY = new XYSeries(seriesKey, false);
 		SpotMeasure m = median.getMeasure();
 		int npoints = m.getCount();
 		if (camImagesTimeMin != null && npoints > camImagesTimeMin.length) {
 			npoints = camImagesTimeMin.length;
 		}
+		double[] xs = new double[npoints];
+		double[] ys = new double[npoints];
+		int count = 0;
 		for (int k = 0; k < npoints; k++) {
-			double x = camImagesTimeMin != null ? camImagesTimeMin[k] : k;
 			double y = m.getValueAt(k);
 			if (!Double.isFinite(y)) {
 				continue;
 			}
-			seriesXY.add(x, y);
+			xs[count] = camImagesTimeMin != null ? camImagesTimeMin[k] : k;
+			ys[count++] = y;
 		}
+		XYSeries seriesXY = new PrimitiveXYSeries(seriesKey, xs, ys, count);
 		seriesXY.setDescription(SeriesStyleCodec.buildDescription(cage.getProperties().getCageID(),
 				cage.getProperties().getCageID(), cage.getProperties().getCageNFlies(), Color.DARK_GRAY));
 		dataset.addSeries(seriesXY);
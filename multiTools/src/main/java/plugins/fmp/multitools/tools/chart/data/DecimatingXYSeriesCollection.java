@@ -0,0 +1,325 @@
+package plugins.fmp.multitools.tools.chart.data;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.xy.XYDomainInfo;
+import org.jfree.data.xy.XYRangeInfo;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+/**
+ * {@link XYSeriesCollection} that shows the renderer about one pixel column's
+ * worth of points per {@link PrimitiveXYSeries} instead of every item.
+ *
+ * <p>
+ * Once {@link #setViewport} has been called (the cage plot renderer does it at
+ * the start of each pass), the item accessors ({@code getItemCount},
+ * {@code getX}, {@code getYValue}, ...) go through a per-series index view: the
+ * visible x range is cut into one bucket per pixel and each bucket keeps its
+ * first, last, lowest and highest point, plus one {@code NaN} item so gaps
+ * still break the line. Lines drawn through these points cover the same pixels
+ * as the full series. One point on each side of the visible range is kept so
+ * lines run to the plot edges.
+ * </p>
+ *
+ * <p>
+ * Bounds and {@link #getSeries(int)} always describe the full data, so axis
+ * auto-range, exports and hit-testing are unchanged. Plain {@link XYSeries}
+ * are shown in full.
+ * </p>
+ */
+public class DecimatingXYSeriesCollection extends XYSeriesCollection implements XYDomainInfo, XYRangeInfo {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Below this many items per bucket a series is shown in full. */
+	private static final int MIN_POINTS_PER_BUCKET = 4;
+
+	/** Cached view meaning "every item". */
+	private static final int[] ALL_ITEMS = { -1 };
+
+	private double viewLow = Double.NaN;
+	private double viewHigh = Double.NaN;
+	private int buckets = 0;
+	private transient int[][] views = null;
+
+	/**
+	 * Sets the visible domain range and the number of buckets (pixel columns) to
+	 * keep per series; {@code buckets <= 0} shows every item. Does not fire a
+	 * dataset event: it is meant to be called while drawing.
+	 */
+	public void setViewport(double low, double high, int buckets) {
+		if (Double.compare(low, viewLow) == 0 && Double.compare(high, viewHigh) == 0 && buckets == this.buckets)
+			return;
+		this.viewLow = low;
+		this.viewHigh = high;
+		this.buckets = buckets;
+		this.views = null;
+	}
+
+	@Override
+	protected void fireDatasetChanged() {
+		views = null;
+		super.fireDatasetChanged();
+	}
+
+	@Override
+	public int getItemCount(int series) {
+		int[] view = view(series);
+		return view != null ? view.length : super.getItemCount(series);
+	}
+
+	/** Index in the full series of the {@code item}-th point shown for {@code series}. */
+	public int itemIndex(int series, int item) {
+		int[] view = view(series);
+		return view != null ? view[item] : item;
+	}
+
+	@Override
+	public Number getX(int series, int item) {
+		return super.getX(series, itemIndex(series, item));
+	}
+
+	@Override
+	public Number getY(int series, int item) {
+		return super.getY(series, itemIndex(series, item));
+	}
+
+	@Override
+	public double getXValue(int series, int item) {
+		XYSeries s = getSeries(series);
+		int index = itemIndex(series, item);
+		if (s instanceof PrimitiveXYSeries)
+			return ((PrimitiveXYSeries) s).getXValue(index);
+		Number x = s.getX(index);
+		return x != null ? x.doubleValue() : Double.NaN;
+	}
+
+	@Override
+	public double getYValue(int series, int item) {
+		XYSeries s = getSeries(series);
+		int index = itemIndex(series, item);
+		if (s instanceof PrimitiveXYSeries)
+			return ((PrimitiveXYSeries) s).getYValue(index);
+		Number y = s.getY(index);
+		return y != null ? y.doubleValue() : Double.NaN;
+	}
+
+	@Override
+	public DomainOrder getDomainOrder() {
+		int n = getSeriesCount();
+		if (n == 0)
+			return DomainOrder.NONE;
+		for (int i = 0; i < n; i++) {
+			XYSeries s = getSeries(i);
+			if (!(s instanceof PrimitiveXYSeries) || !((PrimitiveXYSeries) s).isAscending())
+				return DomainOrder.NONE;
+		}
+		return DomainOrder.ASCENDING;
+	}
+
+	// Cage charts draw lines, not intervals: bounds are those of the full series.
+
+	@Override
+	public Range getDomainBounds(boolean includeInterval) {
+		return super.getDomainBounds(false);
+	}
+
+	@Override
+	public double getDomainLowerBound(boolean includeInterval) {
+		return super.getDomainLowerBound(false);
+	}
+
+	@Override
+	public double getDomainUpperBound(boolean includeInterval) {
+		return super.getDomainUpperBound(false);
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public Range getDomainBounds(List visibleSeriesKeys, boolean includeInterval) {
+		double lower = Double.POSITIVE_INFINITY;
+		double upper = Double.NEGATIVE_INFINITY;
+		for (Object key : visibleSeriesKeys) {
+			int s = getSeriesIndex((Comparable) key);
+			if (s < 0)
+				continue;
+			XYSeries series = getSeries(s);
+			if (series.getItemCount() == 0)
+				continue;
+			double minX = series.getMinX();
+			double maxX = series.getMaxX();
+			if (!Double.isNaN(minX))
+				lower = Math.min(lower, minX);
+			if (!Double.isNaN(maxX))
+				upper = Math.max(upper, maxX);
+		}
+		return lower <= upper ? new Range(lower, upper) : null;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public Range getRangeBounds(List visibleSeriesKeys, Range xRange, boolean includeInterval) {
+		double xLow = xRange.getLowerBound();
+		double xHigh = xRange.getUpperBound();
+		double lower = Double.POSITIVE_INFINITY;
+		double upper = Double.NEGATIVE_INFINITY;
+		for (Object key : visibleSeriesKeys) {
+			int s = getSeriesIndex((Comparable) key);
+			if (s < 0)
+				continue;
+			XYSeries series = getSeries(s);
+			int n = series.getItemCount();
+			if (series instanceof PrimitiveXYSeries) {
+				PrimitiveXYSeries p = (PrimitiveXYSeries) series;
+				int from = p.isAscending() ? firstIndexAtOrAbove(p, xLow) : 0;
+				for (int i = from; i < n; i++) {
+					double x = p.getXValue(i);
+					if (p.isAscending() && x > xHigh)
+						break;
+					double y = p.getYValue(i);
+					if (x >= xLow && x <= xHigh && !Double.isNaN(y)) {
+						lower = Math.min(lower, y);
+						upper = Math.max(upper, y);
+					}
+				}
+			} else {
+				for (int i = 0; i < n; i++) {
+					Number x = series.getX(i);
+					Number y = series.getY(i);
+					if (x == null || y == null || Double.isNaN(y.doubleValue()))
+						continue;
+					if (x.doubleValue() >= xLow && x.doubleValue() <= xHigh) {
+						lower = Math.min(lower, y.doubleValue());
+						upper = Math.max(upper, y.doubleValue());
+					}
+				}
+			}
+		}
+		return lower <= upper ? new Range(lower, upper) : null;
+	}
+
+	/** Index view of {@code series}, or null when every item is shown. */
+	private int[] view(int series) {
+		if (buckets <= 0)
+			return null;
+		XYSeries s = getSeries(series);
+		if (!(s instanceof PrimitiveXYSeries))
+			return null;
+		int[][] cache = views;
+		if (cache == null || cache.length != getSeriesCount()) {
+			cache = new int[getSeriesCount()][];
+			views = cache;
+		}
+		int[] view = cache[series];
+		if (view == null) {
+			view = decimate((PrimitiveXYSeries) s, viewLow, viewHigh, buckets);
+			cache[series] = view;
+		}
+		return view == ALL_ITEMS ? null : view;
+	}
+
+	/**
+	 * Indices of the first, last, lowest, highest and first {@code NaN} item of
+	 * each bucket over the visible part of {@code s}, in increasing order. Buckets
+	 * split the visible x range when x is ascending, the item range otherwise.
+	 * Returns {@link #ALL_ITEMS} when the whole series is shown anyway.
+	 */
+	static int[] decimate(PrimitiveXYSeries s, double low, double high, int buckets) {
+		int n = s.getItemCount();
+		int from = 0;
+		int to = n - 1;
+		boolean byX = s.isAscending() && high > low;
+		if (byX && n > 0) {
+			from = Math.max(0, firstIndexAtOrAbove(s, low) - 1);
+			to = Math.min(n - 1, firstIndexAtOrAbove(s, high));
+		}
+		int count = to - from + 1;
+		if (count <= buckets * MIN_POINTS_PER_BUCKET)
+			return from == 0 && to == n - 1 ? ALL_ITEMS : range(from, to);
+
+		double x0 = 0;
+		double width = 0;
+		if (byX) {
+			x0 = Math.max(low, s.getXValue(from));
+			width = (Math.min(high, s.getXValue(to)) - x0) / buckets;
+		}
+		int[] out = new int[Math.min(count, 5 * buckets + 10)];
+		int[] picks = new int[5];
+		int m = 0;
+		int i = from;
+		while (i <= to) {
+			int bucket = byX ? bucketOf(s.getXValue(i), x0, width, buckets) : indexBucket(i - from, count, buckets);
+			int first = i;
+			int last = i;
+			int lowest = -1;
+			int highest = -1;
+			int gap = -1;
+			for (; i <= to; i++) {
+				int b = byX ? bucketOf(s.getXValue(i), x0, width, buckets) : indexBucket(i - from, count, buckets);
+				if (b != bucket)
+					break;
+				last = i;
+				double y = s.getYValue(i);
+				if (Double.isNaN(y)) {
+					if (gap < 0)
+						gap = i;
+				} else {
+					if (lowest < 0 || y < s.getYValue(lowest))
+						lowest = i;
+					if (highest < 0 || y > s.getYValue(highest))
+						highest = i;
+				}
+			}
+			if (m + picks.length > out.length)
+				out = Arrays.copyOf(out, Math.max(2 * out.length, m + picks.length));
+			picks[0] = first;
+			picks[1] = lowest;
+			picks[2] = highest;
+			picks[3] = gap;
+			picks[4] = last;
+			Arrays.sort(picks);
+			for (int p : picks) {
+				if (p >= 0 && (m == 0 || p > out[m - 1]))
+					out[m++] = p;
+			}
+		}
+		return Arrays.copyOf(out, m);
+	}
+
+	private static int bucketOf(double x, double x0, double width, int buckets) {
+		if (!(width > 0))
+			return 0;
+		double b = (x - x0) / width;
+		if (b < 0)
+			return -1;
+		return b >= buckets ? buckets - 1 : (int) b;
+	}
+
+	private static int indexBucket(int offset, int count, int buckets) {
+		return (int) ((long) offset * buckets / count);
+	}
+
+	private static int firstIndexAtOrAbove(PrimitiveXYSeries s, double x) {
+		int lo = 0;
+		int hi = s.getItemCount() - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (s.getXValue(mid) < x)
+				lo = mid + 1;
+			else
+				hi = mid - 1;
+		}
+		return lo;
+	}
+
+	private static int[] range(int from, int to) {
+		int[] r = new int[Math.max(0, to - from + 1)];
+		for (int i = 0; i < r.length; i++)
+			r[i] = from + i;
+		return r;
+	}
+}
@@ -0,0 +1,257 @@
+package plugins.fmp.multitools.tools.chart.data;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jfree.data.xy.XYDataItem;
+import org.jfree.data.xy.XYSeries;
+
+/**
+ * Read-only {@link XYSeries} over two {@code double[]} arrays, for chart series
+ * of tens of thousands of points: nothing is boxed until a caller asks for a
+ * {@link Number}, and bounds are computed once.
+ *
+ * <p>
+ * The arrays are kept, not copied; the builder hands them over and must not
+ * write to them afterwards. All mutators throw
+ * {@link UnsupportedOperationException}.
+ * </p>
+ */
+public class PrimitiveXYSeries extends XYSeries {
+
+	private static final long serialVersionUID = 1L;
+
+	private final double[] x;
+	private final double[] y;
+	private final int count;
+	private final boolean ascending;
+	private final double minX;
+	private final double maxX;
+	private final double minY;
+	private final double maxY;
+
+	/**
+	 * @param key   series key
+	 * @param x     x values, the first {@code count} are used
+	 * @param y     y values, the first {@code count} are used
+	 * @param count number of items
+	 */
+	public PrimitiveXYSeries(Comparable<?> key, double[] x, double[] y, int count) {
+		super(key, false, true);
+		if (count < 0 || count > x.length || count > y.length)
+			throw new IllegalArgumentException("PrimitiveXYSeries: count " + count + " outside the arrays");
+		this.x = x;
+		this.y = y;
+		this.count = count;
+
+		double lowX = Double.NaN;
+		double highX = Double.NaN;
+		double lowY = Double.NaN;
+		double highY = Double.NaN;
+		boolean sorted = true;
+		for (int i = 0; i < count; i++) {
+			double xi = x[i];
+			double yi = y[i];
+			if (i > 0 && Double.compare(x[i - 1], xi) > 0)
+				sorted = false;
+			if (!Double.isNaN(xi)) {
+				if (!(xi >= lowX))
+					lowX = xi;
+				if (!(xi <= highX))
+					highX = xi;
+			}
+			if (!Double.isNaN(yi)) {
+				if (!(yi >= lowY))
+					lowY = yi;
+				if (!(yi <= highY))
+					highY = yi;
+			}
+		}
+		this.ascending = sorted;
+		this.minX = lowX;
+		this.maxX = highX;
+		this.minY = lowY;
+		this.maxY = highY;
+	}
+
+	/** True when x never decreases along the series (order of {@link Double#compare}). */
+	public boolean isAscending() {
+		return ascending;
+	}
+
+	public double getXValue(int index) {
+		checkIndex(index);
+		return x[index];
+	}
+
+	public double getYValue(int index) {
+		checkIndex(index);
+		return y[index];
+	}
+
+	@Override
+	public int getItemCount() {
+		return count;
+	}
+
+	@Override
+	public Number getX(int index) {
+		return getXValue(index);
+	}
+
+	@Override
+	public Number getY(int index) {
+		return getYValue(index);
+	}
+
+	@Override
+	public XYDataItem getDataItem(int index) {
+		return new XYDataItem(getXValue(index), getYValue(index));
+	}
+
+	@Override
+	public List<XYDataItem> getItems() {
+		return new AbstractList<XYDataItem>() {
+			@Override
+			public XYDataItem get(int index) {
+				return getDataItem(index);
+			}
+
+			@Override
+			public int size() {
+				return count;
+			}
+		};
+	}
+
+	@Override
+	public double getMinX() {
+		return minX;
+	}
+
+	@Override
+	public double getMaxX() {
+		return maxX;
+	}
+
+	@Override
+	public double getMinY() {
+		return minY;
+	}
+
+	@Override
+	public double getMaxY() {
+		return maxY;
+	}
+
+	/** First index whose x equals {@code value} (as {@link Double#equals}), or a negative number. */
+	@Override
+	public int indexOf(Number value) {
+		if (value == null)
+			return -1;
+		double v = value.doubleValue();
+		if (ascending) {
+			int lo = 0;
+			int hi = count - 1;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				if (Double.compare(x[mid], v) < 0)
+					lo = mid + 1;
+				else
+					hi = mid - 1;
+			}
+			return lo < count && Double.compare(x[lo], v) == 0 ? lo : -(lo + 1);
+		}
+		for (int i = 0; i < count; i++)
+			if (Double.compare(x[i], v) == 0)
+				return i;
+		return -1;
+	}
+
+	@Override
+	public double[][] toArray() {
+		double[][] result = new double[2][];
+		result[0] = Arrays.copyOf(x, count);
+		result[1] = Arrays.copyOf(y, count);
+		return result;
+	}
+
+	@Override
+	public XYSeries createCopy(int start, int end) throws CloneNotSupportedException {
+		XYSeries copy = new XYSeries(getKey(), false, true);
+		copy.setDescription(getDescription());
+		for (int i = Math.max(0, start); i <= end && i < count; i++)
+			copy.add(x[i], y[i], false);
+		return copy;
+	}
+
+	@Override
+	public void add(XYDataItem item, boolean notify) {
+		throw readOnly();
+	}
+
+	@Override
+	public XYDataItem addOrUpdate(XYDataItem item) {
+		throw readOnly();
+	}
+
+	@Override
+	public void updateByIndex(int index, Number value) {
+		throw readOnly();
+	}
+
+	@Override
+	public void update(Number xValue, Number yValue) {
+		throw readOnly();
+	}
+
+	@Override
+	public XYDataItem remove(int index) {
+		throw readOnly();
+	}
+
+	@Override
+	public void delete(int start, int end) {
+		throw readOnly();
+	}
+
+	@Override
+	public void clear() {
+		if (count > 0)
+			throw readOnly();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
+		if (!(obj instanceof PrimitiveXYSeries) || !super.equals(obj))
+			return false;
+		PrimitiveXYSeries that = (PrimitiveXYSeries) obj;
+		if (count != that.count)
+			return false;
+		for (int i = 0; i < count; i++)
+			if (Double.compare(x[i], that.x[i]) != 0 || Double.compare(y[i], that.y[i]) != 0)
+				return false;
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = getKey() != null ? getKey().hashCode() : 0;
+		result = 29 * result + count;
+		if (count > 0)
+			result = 29 * result + Double.hashCode(x[0]) + 31 * Double.hashCode(y[0]);
+		return result;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("index " + index + ", count " + count);
+	}
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("PrimitiveXYSeries is read-only");
+	}
+}
@@ -11,6 +11,7 @@ import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import plugins.fmp.multitools.tools.chart.builders.SpotChartSeriesKeys;
+import plugins.fmp.multitools.tools.chart.data.DecimatingXYSeriesCollection;
 import plugins.fmp.multitools.tools.chart.style.SeriesStyleCodec;
 import plugins.fmp.multitools.tools.results.EnumResults;
 
@@ -22,6 +23,12 @@ import plugins.fmp.multitools.tools.results.EnumResults;
  * This class does not know how to extract data (Spot vs Capillary). It only
  * cares about plotting concerns.
  * </p>
+ *
+ * <p>
+ * Datasets built as {@link DecimatingXYSeriesCollection} keep that type when
+ * they are split across range axes, and every renderer made here feeds them
+ * the visible domain range so only about one point per pixel is drawn.
+ * </p>
  */
 public final class CageChartPlotFactory {
 	private static final float DEFAULT_STROKE_WIDTH = 0.5f;
@@ -109,8 +116,8 @@ public final class CageChartPlotFactory {
 	}
 
 	private static XYPlot buildXYPlotAggMedianRef(XYSeriesCollection dataset, NumberAxis xAxis, NumberAxis yAxis) {
-		XYSeriesCollection primary = new XYSeriesCollection();
-		XYSeriesCollection median = new XYSeriesCollection();
+		XYSeriesCollection primary = newCollectionLike(dataset);
+		XYSeriesCollection median = newCollectionLike(dataset);
 
 		for (int i = 0; i < dataset.getSeriesCount(); i++) {
 			XYSeries series = dataset.getSeries(i);
@@ -141,8 +148,8 @@ public final class CageChartPlotFactory {
 	}
 
 	private static XYPlot buildXYPlotLR(XYSeriesCollection dataset, NumberAxis xAxis, NumberAxis yAxis) {
-		XYSeriesCollection sumCollection = new XYSeriesCollection();
-		XYSeriesCollection piCollection = new XYSeriesCollection();
+		XYSeriesCollection sumCollection = newCollectionLike(dataset);
+		XYSeriesCollection piCollection = newCollectionLike(dataset);
 
 		for (int i = 0; i < dataset.getSeriesCount(); i++) {
 			XYSeries series = dataset.getSeries(i);
@@ -171,6 +178,11 @@ public final class CageChartPlotFactory {
 		return xyPlot;
 	}
 
+	private static XYSeriesCollection newCollectionLike(XYSeriesCollection dataset) {
+		return dataset instanceof DecimatingXYSeriesCollection ? new DecimatingXYSeriesCollection()
+				: new XYSeriesCollection();
+	}
+
 	private static void updatePlotBackgroundAccordingToNFlies(XYSeriesCollection dataset, XYPlot xyPlot) {
 		int nFlies = SeriesStyleCodec.getNFliesOrDefault(dataset, -1);
 		setXYPlotBackGroundAccordingToNFlies(xyPlot, nFlies);
@@ -195,7 +207,7 @@ public final class CageChartPlotFactory {
 	}
 
 	private static XYLineAndShapeRenderer createRenderer(XYSeriesCollection dataset) {
-		XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(true, false);
+		XYLineAndShapeRenderer renderer = new DecimatingLineRenderer(true, false);
 		SeriesStyleCodec.applySeriesPaintsFromDescription(dataset, renderer);
 
 		Stroke dashedStroke = new BasicStroke(DEFAULT_STROKE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 1.0f,
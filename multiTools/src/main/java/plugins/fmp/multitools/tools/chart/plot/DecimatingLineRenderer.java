@@ -0,0 +1,48 @@
+package plugins.fmp.multitools.tools.chart.plot;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYItemRendererState;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.xy.XYDataset;
+
+import plugins.fmp.multitools.tools.chart.data.DecimatingXYSeriesCollection;
+
+/**
+ * Line renderer that tells a {@link DecimatingXYSeriesCollection} the domain
+ * range and pixel width it is about to be drawn at, before each pass.
+ *
+ * <p>
+ * The domain axis is looked up through the plot, so subplots of a combined
+ * plot follow the shared axis.
+ * </p>
+ */
+class DecimatingLineRenderer extends XYLineAndShapeRenderer {
+
+	private static final long serialVersionUID = 1L;
+
+	DecimatingLineRenderer(boolean lines, boolean shapes) {
+		super(lines, shapes);
+	}
+
+	@Override
+	public XYItemRendererState initialise(Graphics2D g2, Rectangle2D dataArea, XYPlot plot, XYDataset data,
+			PlotRenderingInfo info) {
+		if (data instanceof DecimatingXYSeriesCollection && plot != null && dataArea != null) {
+			int index = plot.indexOf(data);
+			ValueAxis domainAxis = index >= 0 ? plot.getDomainAxisForDataset(index) : plot.getDomainAxis();
+			if (domainAxis != null) {
+				double pixels = plot.getOrientation() == PlotOrientation.HORIZONTAL ? dataArea.getHeight()
+						: dataArea.getWidth();
+				((DecimatingXYSeriesCollection) data).setViewport(domainAxis.getLowerBound(),
+						domainAxis.getUpperBound(), (int) Math.ceil(pixels));
+			}
+		}
+		return super.initialise(g2, dataArea, plot, data, info);
+	}
+}
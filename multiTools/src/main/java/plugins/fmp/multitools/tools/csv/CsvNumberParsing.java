@@ -5,6 +5,11 @@ package plugins.fmp.multitools.tools.csv;
  */
 public final class CsvNumberParsing {
 
+	/** Powers of ten exactly representable as doubles. */
+	private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
 	private CsvNumberParsing() {
 	}
 
@@ -29,4 +34,131 @@ public final class CsvNumberParsing {
 		}
 		return Double.parseDouble(s);
 	}
+
+	/**
+	 * Same result as {@link #parseDouble(String)} on {@code chars[start, end)}, without creating a
+	 * string for plain decimal numbers (sign, digits, one decimal mark, grouping marks, exponent)
+	 * whose value is exactly {@code mantissa * 10^exponent} with a mantissa below 2^53 and
+	 * |exponent| up to 22: that single correctly rounded operation is what
+	 * {@link Double#parseDouble} returns. Other cells go through {@link #parseDouble(String)}.
+	 */
+	public static double parseDouble(char[] chars, int start, int end) throws NumberFormatException {
+		while (start < end && chars[start] <= ' ')
+			start++;
+		while (end > start && chars[end - 1] <= ' ')
+			end--;
+		if (start == end) {
+			throw new NumberFormatException("empty");
+		}
+
+		int comma = -1;
+		int dot = -1;
+		for (int i = start; i < end; i++) {
+			if (chars[i] == ',')
+				comma = i;
+			else if (chars[i] == '.')
+				dot = i;
+		}
+		// decimal mark and grouping mark, as chosen by parseDouble(String)
+		char decimal = '.';
+		char grouping = 0;
+		if (comma >= 0 && dot >= 0) {
+			decimal = comma > dot ? ',' : '.';
+			grouping = comma > dot ? '.' : ',';
+		} else if (comma >= 0) {
+			decimal = ',';
+		}
+
+		int i = start;
+		boolean negative = false;
+		if (chars[i] == '-' || chars[i] == '+') {
+			negative = chars[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean seenDecimal = false;
+		boolean exact = true;
+		for (; i < end; i++) {
+			char c = chars[i];
+			if (c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				if (mantissa > MAX_EXACT_MANTISSA) {
+					exact = false;
+					break;
+				}
+				digits++;
+				if (seenDecimal)
+					exponent--;
+			} else if (c == decimal && !seenDecimal) {
+				seenDecimal = true;
+			} else if (c == grouping && grouping != 0) {
+				continue;
+			} else {
+				break;
+			}
+		}
+		if (exact && digits > 0 && i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+			int j = i + 1;
+			boolean negativeExponent = false;
+			if (j < end && (chars[j] == '-' || chars[j] == '+')) {
+				negativeExponent = chars[j] == '-';
+				j++;
+			}
+			int e = 0;
+			int expDigits = 0;
+			while (j < end && chars[j] >= '0' && chars[j] <= '9' && e < 10000) {
+				e = e * 10 + (chars[j] - '0');
+				expDigits++;
+				j++;
+			}
+			if (expDigits > 0) {
+				exponent += negativeExponent ? -e : e;
+				i = j;
+			}
+		}
+		if (exact && digits > 0 && i == end && exponent >= -22 && exponent <= 22) {
+			double value = mantissa;
+			if (exponent < 0)
+				value /= POW10[-exponent];
+			else if (exponent > 0)
+				value *= POW10[exponent];
+			return negative ? -value : value;
+		}
+		return parseDouble(new String(chars, start, end - start));
+	}
+
+	/** Same result as {@link Integer#parseInt(String)} on {@code chars[start, end)} of ASCII digits. */
+	public static int parseInt(char[] chars, int start, int end) throws NumberFormatException {
+		int i = start;
+		if (i == end) {
+			throw new NumberFormatException("empty");
+		}
+		boolean negative = false;
+		if (chars[i] == '-' || chars[i] == '+') {
+			negative = chars[i] == '-';
+			i++;
+			if (i == end) {
+				throw new NumberFormatException(new String(chars, start, end - start));
+			}
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			char c = chars[i];
+			if (c < '0' || c > '9') {
+				throw new NumberFormatException(new String(chars, start, end - start));
+			}
+			value = value * 10 + (c - '0');
+			if (value > (long) Integer.MAX_VALUE + 1) {
+				throw new NumberFormatException(new String(chars, start, end - start));
+			}
+		}
+		if (negative)
+			value = -value;
+		if (value > Integer.MAX_VALUE) {
+			throw new NumberFormatException(new String(chars, start, end - start));
+		}
+		return (int) value;
+	}
 }
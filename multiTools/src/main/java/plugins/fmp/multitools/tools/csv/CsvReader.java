@@ -0,0 +1,214 @@
+package plugins.fmp.multitools.tools.csv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Single-pass CSV tokenizer: lines are copied from a char buffer into a reusable line buffer and
+ * split into cell offsets, so reading a row allocates nothing and numbers are parsed in place
+ * ({@link #getDouble}, {@link #getInt}). Cells are those of {@code line.split(sep)}; there is no
+ * quoting, as in the files written by the persistence classes.
+ * <p>
+ * Like the loaders it replaces, a line starting with {@code '#'} sets the separator to its second
+ * character (e.g. {@code #;version;2.1.0}) before being split.
+ */
+public final class CsvReader implements CsvRow, Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Reader in;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
+	private boolean skipLineFeed = false;
+
+	private char[] line = new char[256];
+	private int lineLength = 0;
+	/** Cell i is line[starts[i], ends[i]) */
+	private int[] starts = new int[64];
+	private int[] ends = new int[64];
+	private int cells = 0;
+	private char separator;
+	private int lineNumber = 0;
+
+	public CsvReader(Reader in, char separator) {
+		this.in = in;
+		this.separator = separator;
+	}
+
+	/** Reader of {@code file} in the platform charset, as {@link java.io.FileReader}. */
+	public static CsvReader open(File file, char separator) throws IOException {
+		return new CsvReader(new InputStreamReader(new FileInputStream(file)), separator);
+	}
+
+	public char getSeparator() {
+		return separator;
+	}
+
+	/** Number of lines read so far. */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Reads the next line and splits it.
+	 *
+	 * @return false at the end of the input
+	 */
+	public boolean nextRow() throws IOException {
+		if (!readLine()) {
+			cells = 0;
+			return false;
+		}
+		lineNumber++;
+		if (lineLength > 1 && line[0] == '#')
+			separator = line[1];
+		split();
+		return true;
+	}
+
+	/** True when the row starts with {@code '#'} (section header or comment). */
+	public boolean isComment() {
+		return lineLength > 0 && line[0] == '#';
+	}
+
+	/** True when the current line contains {@code text}. */
+	public boolean lineContains(String text) {
+		int n = text.length();
+		outer: for (int i = 0; i + n <= lineLength; i++) {
+			for (int k = 0; k < n; k++) {
+				if (line[i + k] != text.charAt(k))
+					continue outer;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/** Current line as a new string. */
+	public String getLine() {
+		return new String(line, 0, lineLength);
+	}
+
+	@Override
+	public int size() {
+		return cells;
+	}
+
+	@Override
+	public String get(int i) {
+		checkCell(i);
+		return new String(line, starts[i], ends[i] - starts[i]);
+	}
+
+	@Override
+	public boolean cellEquals(int i, String text) {
+		checkCell(i);
+		int length = ends[i] - starts[i];
+		if (length != text.length())
+			return false;
+		for (int k = 0; k < length; k++) {
+			if (line[starts[i] + k] != text.charAt(k))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public char charAt(int i, int index) {
+		checkCell(i);
+		if (index < 0 || index >= ends[i] - starts[i])
+			throw new StringIndexOutOfBoundsException(index);
+		return line[starts[i] + index];
+	}
+
+	@Override
+	public double getDouble(int i) {
+		checkCell(i);
+		return CsvNumberParsing.parseDouble(line, starts[i], ends[i]);
+	}
+
+	@Override
+	public int getInt(int i) {
+		checkCell(i);
+		return CsvNumberParsing.parseInt(line, starts[i], ends[i]);
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private void checkCell(int i) {
+		if (i < 0 || i >= cells)
+			throw new ArrayIndexOutOfBoundsException(i);
+	}
+
+	/** Same line breaks as {@link java.io.BufferedReader#readLine()}: \n, \r or \r\n. */
+	private boolean readLine() throws IOException {
+		lineLength = 0;
+		boolean any = false;
+		while (true) {
+			if (position == limit) {
+				limit = in.read(buffer, 0, BUFFER_SIZE);
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					return any;
+				}
+			}
+			if (skipLineFeed) {
+				skipLineFeed = false;
+				if (buffer[position] == '\n') {
+					position++;
+					continue;
+				}
+			}
+			any = true;
+			int start = position;
+			while (position < limit && buffer[position] != '\n' && buffer[position] != '\r')
+				position++;
+			append(start, position);
+			if (position < limit) {
+				skipLineFeed = buffer[position] == '\r';
+				position++;
+				return true;
+			}
+		}
+	}
+
+	private void append(int from, int to) {
+		int n = to - from;
+		if (lineLength + n > line.length)
+			line = Arrays.copyOf(line, Math.max(2 * line.length, lineLength + n));
+		System.arraycopy(buffer, from, line, lineLength, n);
+		lineLength += n;
+	}
+
+	/** Cells of {@code String.split}: an empty line is one empty cell, trailing empty cells are dropped. */
+	private void split() {
+		cells = 0;
+		int start = 0;
+		for (int i = 0; i <= lineLength; i++) {
+			if (i == lineLength || line[i] == separator) {
+				if (cells == starts.length) {
+					starts = Arrays.copyOf(starts, 2 * cells);
+					ends = Arrays.copyOf(ends, 2 * cells);
+				}
+				starts[cells] = start;
+				ends[cells] = i;
+				cells++;
+				start = i + 1;
+			}
+		}
+		if (lineLength == 0)
+			return;
+		while (cells > 0 && ends[cells - 1] == starts[cells - 1])
+			cells--;
+	}
+}
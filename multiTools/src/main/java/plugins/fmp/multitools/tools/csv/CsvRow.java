@@ -0,0 +1,75 @@
+package plugins.fmp.multitools.tools.csv;
+
+/**
+ * Cells of one CSV row, numbered like the array returned by {@code line.split(sep)} (trailing
+ * empty cells are dropped). Implemented by {@link CsvReader} over its line buffer, so numbers are
+ * parsed without creating a {@link String} per cell, and by {@link #of(String[])} for parsers
+ * still handed split lines.
+ */
+public interface CsvRow {
+
+	/** Number of cells. */
+	int size();
+
+	/** Cell {@code i} as a new string. */
+	String get(int i);
+
+	/** True when cell {@code i} is exactly {@code text}. */
+	boolean cellEquals(int i, String text);
+
+	/** Character {@code index} of cell {@code i}. */
+	char charAt(int i, int index);
+
+	/** Cell {@code i} read by {@link CsvNumberParsing#parseDouble}. */
+	double getDouble(int i) throws NumberFormatException;
+
+	/** Cell {@code i} read as by {@link Integer#parseInt(String)}. */
+	int getInt(int i) throws NumberFormatException;
+
+	/** All cells as new strings. */
+	default String[] toArray() {
+		String[] cells = new String[size()];
+		for (int i = 0; i < cells.length; i++)
+			cells[i] = get(i);
+		return cells;
+	}
+
+	static CsvRow of(String[] cells) {
+		return new CsvRow() {
+			@Override
+			public int size() {
+				return cells.length;
+			}
+
+			@Override
+			public String get(int i) {
+				return cells[i];
+			}
+
+			@Override
+			public boolean cellEquals(int i, String text) {
+				return cells[i].equals(text);
+			}
+
+			@Override
+			public char charAt(int i, int index) {
+				return cells[i].charAt(index);
+			}
+
+			@Override
+			public double getDouble(int i) {
+				return CsvNumberParsing.parseDouble(cells[i]);
+			}
+
+			@Override
+			public int getInt(int i) {
+				return Integer.parseInt(cells[i]);
+			}
+
+			@Override
+			public String[] toArray() {
+				return cells;
+			}
+		};
+	}
+}
@@ -0,0 +1,157 @@
+package plugins.fmp.multitools.tools.csv;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Buffered writer of a CSV file that replaces the target only when complete: text goes to a
+ * sibling {@code .tmp} file, which {@link #commit()} moves over the target (atomically when the
+ * file system allows it). Closing without committing deletes the temporary file and leaves the
+ * previous version in place, so a failed or interrupted save never leaves a truncated CSV.
+ * <p>
+ * Typical use:
+ *
+ * <pre>
+ * try (CsvWriter writer = CsvWriter.open(csvPath)) {
+ * 	writer.write(...);
+ * 	writer.commit();
+ * }
+ * </pre>
+ */
+public final class CsvWriter extends Writer {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Path target;
+	private final Path tmp;
+	private final Writer out;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int count = 0;
+	private boolean closed = false;
+	private boolean committed = false;
+
+	private CsvWriter(Path target) throws IOException {
+		this.target = target;
+		this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+		// platform charset, as java.io.FileWriter
+		this.out = new OutputStreamWriter(new FileOutputStream(tmp.toFile()));
+	}
+
+	public static CsvWriter open(Path target) throws IOException {
+		return new CsvWriter(target);
+	}
+
+	public Path getTarget() {
+		return target;
+	}
+
+	@Override
+	public void write(char[] chars, int offset, int length) throws IOException {
+		ensureOpen();
+		if (length >= BUFFER_SIZE) {
+			flushBuffer();
+			out.write(chars, offset, length);
+			return;
+		}
+		if (count + length > BUFFER_SIZE)
+			flushBuffer();
+		System.arraycopy(chars, offset, buffer, count, length);
+		count += length;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		ensureOpen();
+		if (count == BUFFER_SIZE)
+			flushBuffer();
+		buffer[count++] = (char) c;
+	}
+
+	@Override
+	public void write(String text, int offset, int length) throws IOException {
+		append(text, offset, offset + length);
+	}
+
+	@Override
+	public Writer append(CharSequence text) throws IOException {
+		if (text == null)
+			text = "null";
+		return append(text, 0, text.length());
+	}
+
+	/** Copies {@code text} into the buffer without creating a string (e.g. from a StringBuilder). */
+	@Override
+	public Writer append(CharSequence text, int start, int end) throws IOException {
+		ensureOpen();
+		if (text == null)
+			text = "null";
+		while (start < end) {
+			if (count == BUFFER_SIZE)
+				flushBuffer();
+			int n = Math.min(end - start, BUFFER_SIZE - count);
+			if (text instanceof String)
+				((String) text).getChars(start, start + n, buffer, count);
+			else if (text instanceof StringBuilder)
+				((StringBuilder) text).getChars(start, start + n, buffer, count);
+			else
+				for (int i = 0; i < n; i++)
+					buffer[count + i] = text.charAt(start + i);
+			count += n;
+			start += n;
+		}
+		return this;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		flushBuffer();
+		out.flush();
+	}
+
+	/** Writes the remaining text and moves the temporary file over the target. */
+	public void commit() throws IOException {
+		ensureOpen();
+		flushBuffer();
+		closed = true;
+		out.close();
+		try {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+		committed = true;
+	}
+
+	/** Discards the temporary file unless {@link #commit()} succeeded. */
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			out.close();
+		}
+		if (!committed)
+			Files.deleteIfExists(tmp);
+	}
+
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			out.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed)
+			throw new IOException("CsvWriter: " + target + " already closed");
+	}
+}
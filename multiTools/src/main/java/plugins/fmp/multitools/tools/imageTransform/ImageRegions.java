@@ -0,0 +1,124 @@
+package plugins.fmp.multitools.tools.imageTransform;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Union of rectangles of a frame (cages, spots...) stored as sorted, non-overlapping spans
+ * {@code [x0, x1)} per row, so that a transform can visit only the pixels that an analysis reads
+ * ({@link TransformChain#apply(icy.image.IcyBufferedImage, icy.image.IcyBufferedImage, ImageRegions)}).
+ */
+public final class ImageRegions {
+
+	private final Rectangle bounds;
+	/** Spans of row {@code bounds.y + i} are {@code spans[2k], spans[2k+1]} for k in [rowFirst[i], rowFirst[i+1]). */
+	private final int[] rowFirst;
+	private final int[] spans;
+	private final long area;
+
+	private ImageRegions(Rectangle bounds, int[] rowFirst, int[] spans, long area) {
+		this.bounds = bounds;
+		this.rowFirst = rowFirst;
+		this.spans = spans;
+		this.area = area;
+	}
+
+	/** Regions covering {@code rectangles}, or null when there is no non-empty rectangle. */
+	public static ImageRegions of(Collection<? extends Rectangle> rectangles) {
+		List<Rectangle> list = new ArrayList<Rectangle>();
+		Rectangle bounds = null;
+		if (rectangles != null) {
+			for (Rectangle r : rectangles) {
+				if (r == null || r.isEmpty())
+					continue;
+				list.add(r);
+				if (bounds == null)
+					bounds = new Rectangle(r);
+				else
+					bounds.add(r);
+			}
+		}
+		if (bounds == null)
+			return null;
+		list.sort((a, b) -> Integer.compare(a.x, b.x));
+
+		int[] rowFirst = new int[bounds.height + 1];
+		int[] spans = new int[16];
+		int nSpans = 0;
+		long area = 0;
+		for (int i = 0; i < bounds.height; i++) {
+			int y = bounds.y + i;
+			rowFirst[i] = nSpans;
+			int start = 0;
+			int end = 0;
+			boolean open = false;
+			for (Rectangle r : list) {
+				if (y < r.y || y >= r.y + r.height)
+					continue;
+				if (open && r.x <= end) {
+					end = Math.max(end, r.x + r.width);
+					continue;
+				}
+				if (open) {
+					spans = append(spans, nSpans++, start, end);
+					area += end - start;
+				}
+				start = r.x;
+				end = r.x + r.width;
+				open = true;
+			}
+			if (open) {
+				spans = append(spans, nSpans++, start, end);
+				area += end - start;
+			}
+		}
+		rowFirst[bounds.height] = nSpans;
+		return new ImageRegions(bounds, rowFirst, Arrays.copyOf(spans, 2 * nSpans), area);
+	}
+
+	private static int[] append(int[] spans, int index, int x0, int x1) {
+		if (2 * index + 2 > spans.length)
+			spans = Arrays.copyOf(spans, spans.length * 2);
+		spans[2 * index] = x0;
+		spans[2 * index + 1] = x1;
+		return spans;
+	}
+
+	public Rectangle getBounds() {
+		return new Rectangle(bounds);
+	}
+
+	/** Number of pixels covered. */
+	public long getArea() {
+		return area;
+	}
+
+	int firstRow() {
+		return bounds.y;
+	}
+
+	int endRow() {
+		return bounds.y + bounds.height;
+	}
+
+	/** Index of the first span of row {@code y} (within {@link #firstRow()}..{@link #endRow()}). */
+	int firstSpan(int y) {
+		return rowFirst[y - bounds.y];
+	}
+
+	/** Index after the last span of row {@code y}. */
+	int endSpan(int y) {
+		return rowFirst[y - bounds.y + 1];
+	}
+
+	int spanStart(int span) {
+		return spans[2 * span];
+	}
+
+	int spanEnd(int span) {
+		return spans[2 * span + 1];
+	}
+}
@@ -0,0 +1,335 @@
+package plugins.fmp.multitools.tools.imageTransform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import icy.image.IcyBufferedImage;
+import icy.type.DataType;
+import icy.type.collection.array.Array1DUtil;
+import plugins.fmp.multitools.tools.imageTransform.transforms.LinearCombination;
+import plugins.fmp.multitools.tools.imageTransform.transforms.None;
+import plugins.fmp.multitools.tools.imageTransform.transforms.RGBtoHSV;
+import plugins.fmp.multitools.tools.imageTransform.transforms.SubtractReferenceImage;
+import plugins.fmp.multitools.tools.imageTransform.transforms.SubtractReferenceImage.DifferencePolarity;
+import plugins.fmp.multitools.tools.imageTransform.transforms.SumDiff;
+
+/**
+ * Transforms applied one after the other to a frame, each with its own options.
+ * <p>
+ * When every step works pixel by pixel (reference subtraction, {@link SumDiff}, then optionally a
+ * {@link LinearCombination} or {@link RGBtoHSV} as last step) and the frame is a 3-channel UBYTE
+ * image, the chain runs as one pass over the rows of the frame, with no intermediate image and
+ * with the result written into the caller's buffer when it fits, and optionally only over the
+ * regions that the caller reads ({@link ImageRegions}). Any other chain runs step by step
+ * through {@link ImageTransformInterface#getTransformedImage}, with the same result.
+ * <p>
+ * Options are kept by reference: callers may update them (e.g. the background image) between
+ * frames. A chain can be shared between threads.
+ */
+public class TransformChain {
+
+	private enum Kind {
+		IDENTITY, SUBTRACT, SUM_DIFF, LINEAR, HSV, OTHER
+	}
+
+	private static final class Step {
+		final ImageTransformEnums transform;
+		final CanvasImageTransformOptions options;
+		final Kind kind;
+		final double[] weights;
+		final int channelOut;
+
+		Step(ImageTransformEnums transform, CanvasImageTransformOptions options) {
+			ImageTransformInterface function = transform.getFunction();
+			this.transform = transform;
+			this.options = options;
+			this.kind = kindOf(function);
+			this.weights = kind == Kind.LINEAR ? ((LinearCombination) function).getWeights() : null;
+			this.channelOut = kind == Kind.HSV ? ((RGBtoHSV) function).getChannelOut() : -1;
+		}
+	}
+
+	/** Per-thread row buffers of the fused pass. */
+	private static final class Rows {
+		int[] r = new int[0];
+		int[] g = new int[0];
+		int[] b = new int[0];
+		double[] out = new double[0];
+		final double[] hsv = new double[3];
+
+		void ensure(int width) {
+			if (r.length < width) {
+				r = new int[width];
+				g = new int[width];
+				b = new int[width];
+				out = new double[width];
+			}
+		}
+	}
+
+	private final List<Step> steps = new ArrayList<Step>();
+	private final ThreadLocal<Rows> rows = ThreadLocal.withInitial(Rows::new);
+
+	public TransformChain add(ImageTransformEnums transform, CanvasImageTransformOptions options) {
+		if (transform == null)
+			return this;
+		// None returns its input: nothing to run
+		Step step = new Step(transform, options);
+		if (step.kind != Kind.IDENTITY)
+			steps.add(step);
+		return this;
+	}
+
+	public int size() {
+		return steps.size();
+	}
+
+	/**
+	 * Result of the chain on {@code source}: {@code source} itself when the chain is empty,
+	 * {@code reuseBuffer} when it is compatible (same size, 3 UBYTE channels, distinct from the
+	 * inputs), otherwise a new image; null when a step fails.
+	 */
+	public IcyBufferedImage apply(IcyBufferedImage source, IcyBufferedImage reuseBuffer) {
+		return apply(source, reuseBuffer, null);
+	}
+
+	/**
+	 * As {@link #apply(IcyBufferedImage, IcyBufferedImage)}, computing only the pixels of
+	 * {@code regions} (all pixels when null) when the chain runs as a single pass. Pixels outside
+	 * the regions are then left as they are in the buffer (0 in a new image) and must not be read.
+	 */
+	public IcyBufferedImage apply(IcyBufferedImage source, IcyBufferedImage reuseBuffer, ImageRegions regions) {
+		if (source == null)
+			return null;
+		if (steps.isEmpty())
+			return source;
+		if (isFusable(source))
+			return applyFused(source, reuseBuffer, regions);
+
+		IcyBufferedImage image = source;
+		for (int i = 0; i < steps.size() && image != null; i++) {
+			Step step = steps.get(i);
+			ImageTransformInterface function = step.transform.getFunction();
+			if (i == steps.size() - 1 && reuseBuffer != null && reuseBuffer != image)
+				image = function.getTransformedImage(image, step.options, reuseBuffer);
+			else
+				image = function.getTransformedImage(image, step.options);
+		}
+		return image;
+	}
+
+	/** True when {@link #apply} runs as a single pass over {@code source}. */
+	public boolean isFusable(IcyBufferedImage source) {
+		if (!isUnsignedByteRgb(source))
+			return false;
+		for (int i = 0; i < steps.size(); i++) {
+			Step step = steps.get(i);
+			if (step.options == null)
+				return false;
+			switch (step.kind) {
+			case SUBTRACT:
+				IcyBufferedImage background = step.options.backgroundImage;
+				if (!isUnsignedByteRgb(background) || background.getSizeX() != source.getSizeX()
+						|| background.getSizeY() != source.getSizeY())
+					return false;
+				break;
+			case SUM_DIFF:
+				break;
+			case HSV:
+				if (step.channelOut < 0 || step.channelOut > 2)
+					return false;
+				// fall through
+			case LINEAR:
+				// produce doubles: only as last step
+				if (i != steps.size() - 1)
+					return false;
+				break;
+			default:
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private IcyBufferedImage applyFused(IcyBufferedImage source, IcyBufferedImage reuseBuffer, ImageRegions regions) {
+		int width = source.getSizeX();
+		int height = source.getSizeY();
+		IcyBufferedImage result = reuseBuffer;
+		if (!isCompatibleOutput(result, source)) {
+			result = new IcyBufferedImage(width, height, 3, DataType.UBYTE);
+		}
+
+		Rows row = rows.get();
+		row.ensure(width);
+		if (regions == null) {
+			for (int y = 0; y < height; y++)
+				applyFusedSpan(source, result, y * width, 0, width, row);
+		} else {
+			int yEnd = Math.min(height, regions.endRow());
+			for (int y = Math.max(0, regions.firstRow()); y < yEnd; y++) {
+				for (int span = regions.firstSpan(y); span < regions.endSpan(y); span++) {
+					int x0 = Math.max(0, regions.spanStart(span));
+					int x1 = Math.min(width, regions.spanEnd(span));
+					if (x0 < x1)
+						applyFusedSpan(source, result, y * width, x0, x1, row);
+				}
+			}
+		}
+
+		for (int c = 0; c < 3; c++)
+			result.setDataXY(c, result.getDataXY(c));
+		return result;
+	}
+
+	/** All steps on pixels [x0, x1) of the row starting at {@code offset}. */
+	private void applyFusedSpan(IcyBufferedImage source, IcyBufferedImage result, int offset, int x0, int x1,
+			Rows row) {
+		byte[] srcR = (byte[]) source.getDataXY(0);
+		byte[] srcG = (byte[]) source.getDataXY(1);
+		byte[] srcB = (byte[]) source.getDataXY(2);
+		byte[] outR = (byte[]) result.getDataXY(0);
+		byte[] outG = (byte[]) result.getDataXY(1);
+		byte[] outB = (byte[]) result.getDataXY(2);
+		int[] r = row.r;
+		int[] g = row.g;
+		int[] b = row.b;
+		for (int x = x0; x < x1; x++) {
+			r[x] = srcR[offset + x] & 0xFF;
+			g[x] = srcG[offset + x] & 0xFF;
+			b[x] = srcB[offset + x] & 0xFF;
+		}
+
+		for (Step step : steps) {
+			switch (step.kind) {
+			case SUBTRACT:
+				subtractSpan(step.options, offset, x0, x1, r, g, b);
+				break;
+			case SUM_DIFF:
+				sumDiffSpan(step.options.copyResultsToThe3planes, x0, x1, r, g, b);
+				break;
+			case LINEAR:
+				linearSpan(step.weights, x0, x1, r, g, b, row.out);
+				break;
+			case HSV:
+				hsvSpan(step.channelOut, x0, x1, r, g, b, row);
+				break;
+			default:
+				break;
+			}
+		}
+
+		int length = x1 - x0;
+		Step last = steps.get(steps.size() - 1);
+		if (last.kind == Kind.LINEAR) {
+			Array1DUtil.doubleArrayToSafeArray(row.out, x0, outR, offset + x0, length, false);
+			if (last.options.copyResultsToThe3planes) {
+				System.arraycopy(outR, offset + x0, outG, offset + x0, length);
+				System.arraycopy(outR, offset + x0, outB, offset + x0, length);
+			} else {
+				Arrays.fill(outG, offset + x0, offset + x1, (byte) 0);
+				Arrays.fill(outB, offset + x0, offset + x1, (byte) 0);
+			}
+		} else if (last.kind == Kind.HSV) {
+			// RGBtoHSV keeps the selected channel in the 3 planes
+			Array1DUtil.doubleArrayToSafeArray(row.out, x0, outR, offset + x0, length, false);
+			System.arraycopy(outR, offset + x0, outG, offset + x0, length);
+			System.arraycopy(outR, offset + x0, outB, offset + x0, length);
+		} else {
+			for (int x = x0; x < x1; x++) {
+				outR[offset + x] = (byte) r[x];
+				outG[offset + x] = (byte) g[x];
+				outB[offset + x] = (byte) b[x];
+			}
+		}
+	}
+
+	/** As {@link SubtractReferenceImage#mappedDifference}, on a span of the 3 channels. */
+	private static void subtractSpan(CanvasImageTransformOptions options, int offset, int x0, int x1, int[] r,
+			int[] g, int[] b) {
+		IcyBufferedImage background = options.backgroundImage;
+		DifferencePolarity polarity = options.differencePolarity != null ? options.differencePolarity
+				: DifferencePolarity.ABSOLUTE;
+		subtractChannelSpan((byte[]) background.getDataXY(0), offset, x0, x1, r, polarity);
+		subtractChannelSpan((byte[]) background.getDataXY(1), offset, x0, x1, g, polarity);
+		subtractChannelSpan((byte[]) background.getDataXY(2), offset, x0, x1, b, polarity);
+	}
+
+	private static void subtractChannelSpan(byte[] reference, int offset, int x0, int x1, int[] values,
+			DifferencePolarity polarity) {
+		for (int x = x0; x < x1; x++) {
+			int ref = reference[offset + x] & 0xFF;
+			int val;
+			switch (polarity) {
+			case DARKER_NOW:
+				val = Math.max(0, ref - values[x]);
+				break;
+			case BRIGHTER_NOW:
+				val = Math.max(0, values[x] - ref);
+				break;
+			case ABSOLUTE:
+			default:
+				val = Math.abs(values[x] - ref);
+				break;
+			}
+			values[x] = 0xFF - val;
+		}
+	}
+
+	/** As {@link SumDiff}, clamped to the UBYTE range like the stored result. */
+	private static void sumDiffSpan(boolean copyResultsToThe3planes, int x0, int x1, int[] r, int[] g, int[] b) {
+		for (int x = x0; x < x1; x++) {
+			int sum = Math.abs(r[x] - b[x]) + Math.abs(r[x] - g[x]) + Math.abs(b[x] - g[x]);
+			int v = Math.min(255, sum);
+			r[x] = v;
+			g[x] = copyResultsToThe3planes ? v : 0;
+			b[x] = copyResultsToThe3planes ? v : 0;
+		}
+	}
+
+	private static void linearSpan(double[] weights, int x0, int x1, int[] r, int[] g, int[] b, double[] out) {
+		double wR = weights[0];
+		double wG = weights[1];
+		double wB = weights[2];
+		for (int x = x0; x < x1; x++)
+			out[x] = r[x] * wR + g[x] * wG + b[x] * wB;
+	}
+
+	private static void hsvSpan(int channelOut, int x0, int x1, int[] r, int[] g, int[] b, Rows row) {
+		for (int x = x0; x < x1; x++) {
+			RGBtoHSV.rgbToHsv(r[x], g[x], b[x], row.hsv);
+			row.out[x] = row.hsv[channelOut] * 100;
+		}
+	}
+
+	private boolean isCompatibleOutput(IcyBufferedImage buffer, IcyBufferedImage source) {
+		if (buffer == null || buffer == source || !isUnsignedByteRgb(buffer) || buffer.getSizeX() != source.getSizeX()
+				|| buffer.getSizeY() != source.getSizeY())
+			return false;
+		for (Step step : steps)
+			if (step.kind == Kind.SUBTRACT && step.options.backgroundImage == buffer)
+				return false;
+		return true;
+	}
+
+	private static boolean isUnsignedByteRgb(IcyBufferedImage image) {
+		return image != null && image.getSizeC() == 3 && image.getDataType_() == DataType.UBYTE;
+	}
+
+	private static Kind kindOf(ImageTransformInterface function) {
+		if (function == null)
+			return Kind.OTHER;
+		Class<?> type = function.getClass();
+		if (type == None.class)
+			return Kind.IDENTITY;
+		if (type == SubtractReferenceImage.class)
+			return Kind.SUBTRACT;
+		if (type == SumDiff.class)
+			return Kind.SUM_DIFF;
+		if (type == LinearCombination.class)
+			return Kind.LINEAR;
+		if (type == RGBtoHSV.class)
+			return Kind.HSV;
+		return Kind.OTHER;
+	}
+}
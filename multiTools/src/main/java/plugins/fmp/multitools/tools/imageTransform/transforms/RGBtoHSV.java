@@ -80,7 +80,7 @@ public class RGBtoHSV extends ImageTransformFunctionAbstract implements ImageTra
 	 * @author Nicolas HERVE - nicolas.herve@pasteur.fr
 	 */
 
-	final int UNDEFINED = -1;
+	static final int UNDEFINED = -1;
 
 	/* Fast conversion of Foley p. 592 */
 	/* Given: R,G,B, each in [0,1] */
@@ -97,20 +97,31 @@ public class RGBtoHSV extends ImageTransformFunctionAbstract implements ImageTra
 	 * @param v the v
 	 */
 
+	private final double[] hsv = new double[3];
+
 	void NH_RGB_to_HSV(double r, double g, double b) {
+		rgbToHsv(r, g, b, hsv);
+		h = hsv[0];
+		s = hsv[1];
+		v = hsv[2];
+	}
+
+	/** Same conversion into {@code hsv} (H, S, V), usable from several threads at once. */
+	public static void rgbToHsv(double r, double g, double b, double[] hsv) {
 		double max;
 		double min;
 		double delta;
+		double h = 0;
 
 		max = Math.max(b, Math.max(r, g));
 		min = Math.min(b, Math.min(r, g));
 
-		v = max; /* This is a value v */
+		double v = max; /* This is a value v */
 		/*
 		 * Next calculate saturation, S. Saturation is 0 if red, green and blue are all
 		 * 0
 		 */
-		s = (max != 0.0) ? ((max - min) / max) : 0.0;
+		double s = (max != 0.0) ? ((max - min) / max) : 0.0;
 		if (s == 0.0)
 			h = UNDEFINED;
 		else { /* Chromatic case: Saturation is not 0 */
@@ -131,6 +142,13 @@ public class RGBtoHSV extends ImageTransformFunctionAbstract implements ImageTra
 			if (h < 0.0)
 				h += 360.0; /* Make sure hue is nonnegative */
 		} /* Chromatic case */
+		hsv[0] = h;
+		hsv[1] = s;
+		hsv[2] = v;
+	}
+
+	public int getChannelOut() {
+		return channelOut;
 	}
 
 }
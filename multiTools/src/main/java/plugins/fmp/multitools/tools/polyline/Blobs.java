@@ -4,10 +4,9 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import icy.image.IcyBufferedImage;
 import icy.roi.BooleanMask2D;
@@ -18,28 +17,32 @@ import plugins.fmp.multitools.tools.Logger;
  * Blob detection and analysis utility class for processing binary images. This
  * class provides methods for connected component analysis, blob extraction, and
  * geometric operations on detected blobs.
- * 
+ *
  * <p>
  * The class supports:
  * <ul>
- * <li>Connected component labeling using 4-connectivity</li>
+ * <li>Connected component labeling using 8-connectivity (two passes with a
+ * union-find table of provisional labels)</li>
+ * <li>Per-blob statistics gathered during the labeling: area, bounding box,
+ * centroid, second-order moments and left/right boundary of each row</li>
  * <li>Blob polygon extraction</li>
  * <li>Boolean mask generation</li>
  * <li>Bounding rectangle computation</li>
  * <li>Hole filling within blobs</li>
  * </ul>
- * 
+ * The geometric getters read the statistics or the blob's own bounding box, so
+ * extracting k blobs no longer rescans the whole image k times.
+ *
  * <p>
  * Usage example:
- * 
+ *
  * <pre>
  * IcyBufferedImage binaryImage = ...;
  * Blobs blobs = new Blobs(binaryImage);
  * int numBlobs = blobs.getPixelsConnected();
- * blobs.getBlobsConnected();
  * Polygon2D blobPolygon = blobs.getBlobPolygon2D(1);
  * </pre>
- * 
+ *
  * @author MultiSPOTS96
  */
 public class Blobs {
@@ -56,9 +59,15 @@ public class Blobs {
 	/** Offset for converting pixel coordinates to polygon coordinates */
 	private static final double PIXEL_CENTER_OFFSET = 0.5;
 
-	/** Binary image data as a 1D array */
+	/**
+	 * Binary image data as a 1D array; holds the blob numbers once labeled
+	 */
 	private final int[] binaryData;
 
+	/** Image origin (pixel coordinates of binaryData[0]) */
+	private final int originX;
+	private final int originY;
+
 	/** Image width in pixels */
 	private final int imageWidth;
 
@@ -68,9 +77,12 @@ public class Blobs {
 	/** Total number of pixels in the image */
 	private final int totalPixels;
 
+	/** Blobs indexed by blob number - 1, null until labeled */
+	private List<Blob> blobs = null;
+
 	/**
 	 * Creates a new Blobs instance from a binary image.
-	 * 
+	 *
 	 * @param image the binary image to analyze
 	 * @throws IllegalArgumentException if image is null or has invalid dimensions
 	 */
@@ -79,6 +91,8 @@ public class Blobs {
 			throw new IllegalArgumentException("Image cannot be null");
 		}
 
+		this.originX = 0;
+		this.originY = 0;
 		this.imageWidth = image.getSizeX();
 		this.imageHeight = image.getSizeY();
 
@@ -95,94 +109,138 @@ public class Blobs {
 	}
 
 	/**
-	 * Performs connected component labeling on the binary image. This method
-	 * assigns unique labels to connected regions of non-zero pixels.
-	 * 
-	 * @return the number of distinct blobs found
+	 * Creates a new Blobs instance from a mask covering {@code bounds}; blob
+	 * coordinates are then expressed in the same frame as {@code bounds}.
+	 *
+	 * @param mask   foreground pixels, row by row
+	 * @param bounds area covered by the mask
+	 * @throws IllegalArgumentException if mask or bounds are invalid
 	 */
-	public int getPixelsConnected() {
-		int currentBlobNumber = FIRST_BLOB_NUMBER;
-
-		try {
-			for (int y = 0; y < imageHeight; y++) {
-				for (int x = 0; x < imageWidth; x++) {
-					int currentIndex = getPixelIndex(x, y);
+	public Blobs(boolean[] mask, Rectangle bounds) {
+		if (mask == null || bounds == null) {
+			throw new IllegalArgumentException("Mask and bounds cannot be null");
+		}
 
-					if (binaryData[currentIndex] <= BACKGROUND_VALUE) {
-						continue;
-					}
+		this.originX = bounds.x;
+		this.originY = bounds.y;
+		this.imageWidth = bounds.width;
+		this.imageHeight = bounds.height;
+		this.totalPixels = imageWidth * imageHeight;
 
-					// Check neighboring pixels and assign label
-					int assignedLabel = findNeighborLabel(x, y);
+		if (imageWidth < 0 || imageHeight < 0 || mask.length < totalPixels) {
+			throw new IllegalArgumentException("Invalid mask for bounds " + bounds);
+		}
 
-					if (assignedLabel > BACKGROUND_VALUE) {
-						binaryData[currentIndex] = assignedLabel;
-					} else {
-						// New blob found
-						binaryData[currentIndex] = currentBlobNumber;
-						currentBlobNumber++;
-					}
-				}
+		this.binaryData = new int[totalPixels];
+		for (int i = 0; i < totalPixels; i++) {
+			if (mask[i]) {
+				binaryData[i] = FIRST_BLOB_NUMBER;
 			}
+		}
+	}
 
-			int numBlobs = currentBlobNumber - FIRST_BLOB_NUMBER;
-			return numBlobs;
+	/**
+	 * Creates a new Blobs instance labeling {@code binaryData} in place: pixels
+	 * greater than 0 are foreground, and the array then holds the blob numbers. It
+	 * may be longer than the {@code bounds} area, so that callers can reuse one
+	 * buffer.
+	 *
+	 * @param binaryData foreground pixels, row by row
+	 * @param bounds     area covered by the data
+	 * @throws IllegalArgumentException if data or bounds are invalid
+	 */
+	public Blobs(int[] binaryData, Rectangle bounds) {
+		if (binaryData == null || bounds == null) {
+			throw new IllegalArgumentException("Data and bounds cannot be null");
+		}
 
-		} catch (Exception e) {
-			Logger.error("Error during connected component labeling", e);
-			return 0;
+		this.originX = bounds.x;
+		this.originY = bounds.y;
+		this.imageWidth = bounds.width;
+		this.imageHeight = bounds.height;
+		this.totalPixels = imageWidth * imageHeight;
+
+		if (imageWidth < 0 || imageHeight < 0 || binaryData.length < totalPixels) {
+			throw new IllegalArgumentException("Invalid data for bounds " + bounds);
 		}
+
+		this.binaryData = binaryData;
 	}
 
 	/**
-	 * Merges connected components that were initially labeled separately. This
-	 * method handles cases where components are connected through diagonal
-	 * neighbors that weren't detected in the initial labeling pass.
+	 * Creates a new Blobs instance from an ICY mask.
+	 *
+	 * @param mask the mask to analyze
 	 */
-	public void getBlobsConnected() {
-		try {
-			for (int y = 0; y < imageHeight; y++) {
-				for (int x = 0; x < imageWidth; x++) {
-					int currentIndex = getPixelIndex(x, y);
+	public Blobs(BooleanMask2D mask) {
+		this(mask.mask, mask.bounds);
+	}
 
-					if (binaryData[currentIndex] <= BACKGROUND_VALUE) {
-						continue;
-					}
+	/**
+	 * Performs connected component labeling on the binary image. This method
+	 * assigns unique labels to connected regions of non-zero pixels and gathers
+	 * the statistics of each blob. Calling it again returns the same result.
+	 *
+	 * @return the number of distinct blobs found
+	 */
+	public int getPixelsConnected() {
+		return getBlobs().size();
+	}
 
-					int currentValue = binaryData[currentIndex];
+	/**
+	 * Kept for compatibility: {@link #getPixelsConnected()} already merges the
+	 * provisional labels of pixels connected through any of their 8 neighbors.
+	 */
+	public void getBlobsConnected() {
+		getBlobs();
+	}
 
-					// Check all 8 neighbors for different labels
-					mergeWithNeighbors(x, y, currentValue);
-				}
-			}
-		} catch (Exception e) {
-			Logger.error("Error during blob merging", e);
+	/**
+	 * Blobs found in the image, in raster order of their first pixel; the blob
+	 * number of {@code getBlobs().get(i)} is {@code i + 1}.
+	 *
+	 * @return an unmodifiable list of blobs
+	 */
+	public List<Blob> getBlobs() {
+		if (blobs == null) {
+			blobs = Collections.unmodifiableList(label());
+		}
+		return blobs;
+	}
+
+	/**
+	 * Gets the statistics of a blob.
+	 *
+	 * @param blobNumber the blob number
+	 * @return the blob, or null if there is no such blob
+	 */
+	public Blob getBlob(int blobNumber) {
+		List<Blob> list = getBlobs();
+		if (blobNumber < FIRST_BLOB_NUMBER || blobNumber > list.size()) {
+			return null;
 		}
+		return list.get(blobNumber - FIRST_BLOB_NUMBER);
 	}
 
 	/**
 	 * Fills gaps within blobs by setting all pixels between the first and last
-	 * occurrence of a blob on each row to the same blob value.
+	 * occurrence of a blob on each row to the same blob value. Blob statistics
+	 * keep describing the pixels found by the labeling.
 	 */
 	public void fillBlanksPixelsWithinBlobs() {
 		try {
+			getBlobs();
 			for (int y = 0; y < imageHeight; y++) {
 				for (int x = 0; x < imageWidth; x++) {
-					int currentIndex = getPixelIndex(x, y);
-					int blobValue = binaryData[currentIndex];
+					int blobValue = binaryData[getPixelIndex(x, y)];
 
 					if (blobValue <= BACKGROUND_VALUE) {
 						continue;
 					}
 
-					// Find the extent of this blob on the current row
-					int firstX = x;
-					int lastX = findLastOccurrenceInRow(y, x, blobValue);
-
-					// Fill all pixels between first and last occurrence
-					for (int fillX = firstX; fillX <= lastX; fillX++) {
-						binaryData[getPixelIndex(fillX, y)] = blobValue;
-					}
+					// Fill up to the last occurrence of this blob on the current row
+					int lastX = getBlob(blobValue).getRowRight(y + originY) - originX;
+					Arrays.fill(binaryData, getPixelIndex(x, y), getPixelIndex(lastX, y) + 1, blobValue);
 
 					// Skip to the end of this blob to avoid redundant processing
 					x = lastX;
@@ -195,51 +253,38 @@ public class Blobs {
 
 	/**
 	 * Gets the blob number at the specified coordinates.
-	 * 
+	 *
 	 * @param x the x coordinate
 	 * @param y the y coordinate
 	 * @return the blob number at the specified position
 	 * @throws IllegalArgumentException if coordinates are out of bounds
 	 */
 	public int getBlobAt(int x, int y) {
-		if (!isValidCoordinate(x, y)) {
+		if (!isValidCoordinate(x - originX, y - originY)) {
 			throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
 		}
 
-		return binaryData[getPixelIndex(x, y)];
+		getBlobs();
+		return binaryData[getPixelIndex(x - originX, y - originY)];
 	}
 
 	/**
 	 * Gets a list of all unique blob numbers in the image.
-	 * 
+	 *
 	 * @return a list of unique blob numbers, excluding background (0)
 	 */
 	public List<Integer> getListOfBlobs() {
-		Set<Integer> uniqueBlobs = new HashSet<>();
-
-		for (int value : binaryData) {
-			if (value > BACKGROUND_VALUE) {
-				uniqueBlobs.add(value);
-			}
+		int n = getBlobs().size();
+		List<Integer> result = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			result.add(FIRST_BLOB_NUMBER + i);
 		}
-
-		List<Integer> result = new ArrayList<>(uniqueBlobs);
-		Collections.sort(result);
 		return result;
 	}
 
-//	/**
-//	 * @deprecated Use {@link #getListOfBlobs()} instead
-//	 */
-//	@Deprecated
-//	public List<Integer> getListOfBlobs(int[] binaryData) {
-//		Logger.warn("Using deprecated method getListOfBlobs(int[])");
-//		return getListOfBlobs();
-//	}
-
 	/**
 	 * Creates a polygon representation of the specified blob's boundary.
-	 * 
+	 *
 	 * @param blobNumber the blob number to extract
 	 * @return a Polygon2D representing the blob boundary
 	 * @throws IllegalArgumentException if blobNumber is invalid
@@ -250,43 +295,23 @@ public class Blobs {
 		}
 
 		try {
-			List<Point> leftBoundary = new ArrayList<>();
-			List<Point> rightBoundary = new ArrayList<>();
-
-			// Extract left and right boundaries for each row
-			for (int y = 0; y < imageHeight; y++) {
-				Point leftPoint = null;
-				Point rightPoint = null;
-
-				for (int x = 0; x < imageWidth; x++) {
-					if (binaryData[getPixelIndex(x, y)] == blobNumber) {
-						if (leftPoint == null) {
-							leftPoint = new Point(x, y);
-						}
-						rightPoint = new Point(x, y);
-					}
-				}
-
-				if (leftPoint != null) {
-					leftBoundary.add(leftPoint);
-					if (!leftPoint.equals(rightPoint)) {
-						rightBoundary.add(rightPoint);
-					}
-				}
+			Blob blob = getBlob(blobNumber);
+			if (blob == null) {
+				Logger.warn("No pixels found for blob " + blobNumber);
+				return new Polygon2D();
 			}
 
-			// Combine boundaries to form polygon
-			List<Point> allBoundaryPoints = new ArrayList<>();
-			allBoundaryPoints.addAll(leftBoundary);
-
-			// Add right boundary in reverse order
-			Collections.reverse(rightBoundary);
-			allBoundaryPoints.addAll(rightBoundary);
-
-			// Convert to Point2D with pixel center offset
-			List<Point2D> polygonPoints = new ArrayList<>(allBoundaryPoints.size());
-			for (Point point : allBoundaryPoints) {
-				polygonPoints.add(new Point2D.Double(point.x + PIXEL_CENTER_OFFSET, point.y + PIXEL_CENTER_OFFSET));
+			// Left boundary top-down, then right boundary bottom-up
+			List<Point2D> polygonPoints = new ArrayList<>(2 * blob.rows);
+			for (int i = 0; i < blob.rows; i++) {
+				polygonPoints.add(new Point2D.Double(blob.rowLeft[i] + PIXEL_CENTER_OFFSET,
+						blob.minY + i + PIXEL_CENTER_OFFSET));
+			}
+			for (int i = blob.rows - 1; i >= 0; i--) {
+				if (blob.rowRight[i] != blob.rowLeft[i]) {
+					polygonPoints.add(new Point2D.Double(blob.rowRight[i] + PIXEL_CENTER_OFFSET,
+							blob.minY + i + PIXEL_CENTER_OFFSET));
+				}
 			}
 
 			return Polygon2D.getPolygon2D(polygonPoints, POLYGON_DEVIATION);
@@ -298,8 +323,9 @@ public class Blobs {
 	}
 
 	/**
-	 * Creates a boolean mask for the specified blob.
-	 * 
+	 * Creates a boolean mask for the specified blob, scanning only its bounding
+	 * box.
+	 *
 	 * @param blobNumber the blob number to extract
 	 * @return a BooleanMask2D representing the blob
 	 * @throws IllegalArgumentException if blobNumber is invalid
@@ -310,23 +336,21 @@ public class Blobs {
 		}
 
 		try {
-			List<Point> blobPoints = new ArrayList<>();
-
-			for (int y = 0; y < imageHeight; y++) {
-				for (int x = 0; x < imageWidth; x++) {
-					if (binaryData[getPixelIndex(x, y)] == blobNumber) {
-						blobPoints.add(new Point(x, y));
-					}
-				}
-			}
-
-			if (blobPoints.isEmpty()) {
+			Blob blob = getBlob(blobNumber);
+			if (blob == null) {
 				Logger.warn("No pixels found for blob " + blobNumber);
 				return new BooleanMask2D(new Point[0]);
 			}
 
-			Point[] pointArray = blobPoints.toArray(new Point[0]);
-			return new BooleanMask2D(pointArray);
+			Rectangle r = blob.getBounds();
+			boolean[] mask = new boolean[r.width * r.height];
+			for (int i = 0; i < blob.rows; i++) {
+				int y = r.y + i - originY;
+				for (int x = blob.rowLeft[i]; x <= blob.rowRight[i]; x++) {
+					mask[x - r.x + i * r.width] = binaryData[getPixelIndex(x - originX, y)] == blobNumber;
+				}
+			}
+			return new BooleanMask2D(r, mask);
 
 		} catch (Exception e) {
 			Logger.error("Error creating boolean mask for blob " + blobNumber, e);
@@ -336,7 +360,7 @@ public class Blobs {
 
 	/**
 	 * Calculates the bounding rectangle of the specified blob.
-	 * 
+	 *
 	 * @param blobNumber the blob number to analyze
 	 * @return a Rectangle representing the blob's bounding box
 	 * @throws IllegalArgumentException if blobNumber is invalid
@@ -346,42 +370,17 @@ public class Blobs {
 			throw new IllegalArgumentException("Invalid blob number: " + blobNumber);
 		}
 
-		try {
-			int minX = imageWidth;
-			int maxX = -1;
-			int minY = imageHeight;
-			int maxY = -1;
-
-			boolean blobFound = false;
-
-			for (int y = 0; y < imageHeight; y++) {
-				for (int x = 0; x < imageWidth; x++) {
-					if (binaryData[getPixelIndex(x, y)] == blobNumber) {
-						blobFound = true;
-						minX = Math.min(minX, x);
-						maxX = Math.max(maxX, x);
-						minY = Math.min(minY, y);
-						maxY = Math.max(maxY, y);
-					}
-				}
-			}
-
-			if (!blobFound) {
-				Logger.warn("No pixels found for blob " + blobNumber);
-				return new Rectangle(0, 0, 0, 0);
-			}
-
-			return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
-
-		} catch (Exception e) {
-			Logger.error("Error calculating rectangle for blob " + blobNumber, e);
+		Blob blob = getBlob(blobNumber);
+		if (blob == null) {
+			Logger.warn("No pixels found for blob " + blobNumber);
 			return new Rectangle(0, 0, 0, 0);
 		}
+		return blob.getBounds();
 	}
 
 	/**
 	 * Gets the image dimensions.
-	 * 
+	 *
 	 * @return a Point containing width and height
 	 */
 	public Point getImageDimensions() {
@@ -390,106 +389,268 @@ public class Blobs {
 
 	/**
 	 * Gets the total number of pixels in the image.
-	 * 
+	 *
 	 * @return the total pixel count
 	 */
 	public int getTotalPixels() {
 		return totalPixels;
 	}
 
-	// Private helper methods
-
 	/**
-	 * Converts 2D coordinates to 1D array index.
+	 * Statistics of one 8-connected blob, in image coordinates.
 	 */
-	private int getPixelIndex(int x, int y) {
-		return x + imageWidth * y;
-	}
+	public static final class Blob {
+		private final int number;
+		private int area;
+		private int minX;
+		private int maxX;
+		private final int minY;
+		/** Sums over the pixels, relative to (minX0, minY) to limit rounding */
+		private final int minX0;
+		private double sumX;
+		private double sumY;
+		private double sumXX;
+		private double sumXY;
+		private double sumYY;
+		/** Leftmost and rightmost x of rows minY .. minY + rows - 1 */
+		private int[] rowLeft = new int[4];
+		private int[] rowRight = new int[4];
+		private int rows;
+
+		private Blob(int number, int x, int y) {
+			this.number = number;
+			this.minX = x;
+			this.maxX = x;
+			this.minY = y;
+			this.minX0 = x;
+		}
 
-	/**
-	 * Checks if the given coordinates are within image bounds.
-	 */
-	private boolean isValidCoordinate(int x, int y) {
-		return x >= 0 && x < imageWidth && y >= 0 && y < imageHeight;
-	}
+		private void add(int x, int y) {
+			int row = y - minY;
+			if (row == rows) {
+				if (rows == rowLeft.length) {
+					rowLeft = Arrays.copyOf(rowLeft, 2 * rows);
+					rowRight = Arrays.copyOf(rowRight, 2 * rows);
+				}
+				rowLeft[row] = x;
+				rows++;
+			}
+			rowRight[row] = x;
+			if (x < minX)
+				minX = x;
+			if (x > maxX)
+				maxX = x;
+			double dx = x - minX0;
+			double dy = row;
+			area++;
+			sumX += dx;
+			sumY += dy;
+			sumXX += dx * dx;
+			sumXY += dx * dy;
+			sumYY += dy * dy;
+		}
 
-	/**
-	 * Finds a neighboring pixel label for connected component labeling.
-	 */
-	private int findNeighborLabel(int x, int y) {
-		// Check 4-connectivity neighbors in order: up, up-left, up-right, left
+		public int getNumber() {
+			return number;
+		}
+
+		/** Number of pixels. */
+		public int getArea() {
+			return area;
+		}
+
+		public Rectangle getBounds() {
+			return new Rectangle(minX, minY, maxX - minX + 1, rows);
+		}
+
+		/** Mean pixel position (pixel centers at integer coordinates). */
+		public Point2D getCentroid() {
+			return new Point2D.Double(minX0 + sumX / area, minY + sumY / area);
+		}
+
+		/** Second-order central moment sum (x - cx)^2 over the pixels. */
+		public double getMu20() {
+			return sumXX - sumX * sumX / area;
+		}
+
+		/** Second-order central moment sum (x - cx)(y - cy) over the pixels. */
+		public double getMu11() {
+			return sumXY - sumX * sumY / area;
+		}
 
-		// Check up (x, y-1)
-		if (y > 0 && binaryData[getPixelIndex(x, y - 1)] > BACKGROUND_VALUE) {
-			return binaryData[getPixelIndex(x, y - 1)];
+		/** Second-order central moment sum (y - cy)^2 over the pixels. */
+		public double getMu02() {
+			return sumYY - sumY * sumY / area;
 		}
 
-		// Check up-left (x-1, y-1)
-		if (x > 0 && y > 0 && binaryData[getPixelIndex(x - 1, y - 1)] > BACKGROUND_VALUE) {
-			return binaryData[getPixelIndex(x - 1, y - 1)];
+		/** Angle of the principal axis, in radians from the x axis. */
+		public double getOrientation() {
+			return 0.5 * Math.atan2(2.0 * getMu11(), getMu20() - getMu02());
 		}
 
-		// Check up-right (x+1, y-1)
-		if (x < imageWidth - 1 && y > 0 && binaryData[getPixelIndex(x + 1, y - 1)] > BACKGROUND_VALUE) {
-			return binaryData[getPixelIndex(x + 1, y - 1)];
+		/** Leftmost x of row {@code y}, which must be within the bounds. */
+		public int getRowLeft(int y) {
+			return rowLeft[y - minY];
 		}
 
-		// Check left (x-1, y)
-		if (x > 0 && binaryData[getPixelIndex(x - 1, y)] > BACKGROUND_VALUE) {
-			return binaryData[getPixelIndex(x - 1, y)];
+		/** Rightmost x of row {@code y}, which must be within the bounds. */
+		public int getRowRight(int y) {
+			return rowRight[y - minY];
 		}
 
-		return BACKGROUND_VALUE;
+		/**
+		 * Returns an orientation-invariant aspect ratio estimate, based on the
+		 * principal axis ({@link #getOrientation()}) and the bounding box oriented
+		 * along it. Extremes of a projection are reached at the ends of the rows, so
+		 * only the row boundaries are projected.
+		 * <p>
+		 * ratio = max(extentU, extentV) / min(extentU, extentV)
+		 * </p>
+		 */
+		public double getOrientedAspectRatio() {
+			if (area < 2) {
+				return 1.0;
+			}
+			double theta = getOrientation();
+			double cos = Math.cos(theta);
+			double sin = Math.sin(theta);
+
+			double minU = Double.POSITIVE_INFINITY;
+			double maxU = Double.NEGATIVE_INFINITY;
+			double minV = Double.POSITIVE_INFINITY;
+			double maxV = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < rows; i++) {
+				for (int k = 0; k < 2; k++) {
+					double dx = (k == 0 ? rowLeft[i] : rowRight[i]) - minX0;
+					double dy = i;
+					double u = dx * cos + dy * sin;
+					double v = -dx * sin + dy * cos;
+					if (u < minU)
+						minU = u;
+					if (u > maxU)
+						maxU = u;
+					if (v < minV)
+						minV = v;
+					if (v > maxV)
+						maxV = v;
+				}
+			}
+
+			double extentU = maxU - minU;
+			double extentV = maxV - minV;
+			double minExtent = Math.min(extentU, extentV);
+			double maxExtent = Math.max(extentU, extentV);
+			if (!(minExtent > 0.0)) {
+				return Double.POSITIVE_INFINITY;
+			}
+			return maxExtent / minExtent;
+		}
 	}
 
+	// Private helper methods
+
 	/**
-	 * Merges the current pixel with neighboring pixels that have different labels.
+	 * Two-pass labeling. The first pass gives each foreground pixel the label of an
+	 * already visited neighbor (up-left, up, up-right, left) or a new provisional
+	 * label, and records in a union-find table which provisional labels touch. The
+	 * second pass replaces each label by the blob number of its root and feeds the
+	 * blob statistics.
 	 */
-	private void mergeWithNeighbors(int x, int y, int currentValue) {
-		// Check all 8 neighbors
-		for (int dy = -1; dy <= 1; dy++) {
-			for (int dx = -1; dx <= 1; dx++) {
-				if (dx == 0 && dy == 0)
-					continue; // Skip center pixel
-
-				int neighborX = x + dx;
-				int neighborY = y + dy;
-
-				if (isValidCoordinate(neighborX, neighborY)) {
-					int neighborValue = binaryData[getPixelIndex(neighborX, neighborY)];
-
-					if (neighborValue > BACKGROUND_VALUE && neighborValue != currentValue) {
-						// Merge by changing all pixels with neighborValue to currentValue
-						changeAllBlobNumber(neighborValue, currentValue);
+	private List<Blob> label() {
+		int w = imageWidth;
+		int[] parent = new int[64];
+		int next = FIRST_BLOB_NUMBER;
+
+		for (int y = 0; y < imageHeight; y++) {
+			int row = y * w;
+			for (int x = 0; x < w; x++) {
+				int i = row + x;
+				if (binaryData[i] <= BACKGROUND_VALUE) {
+					binaryData[i] = BACKGROUND_VALUE;
+					continue;
+				}
+
+				int label = BACKGROUND_VALUE;
+				int up = y > 0 ? binaryData[i - w] : BACKGROUND_VALUE;
+				if (up > BACKGROUND_VALUE) {
+					// left, up-left and up-right all touch "up" and are already merged with it
+					label = up;
+				} else {
+					if (x > 0) {
+						label = binaryData[i - 1];
+						if (label == BACKGROUND_VALUE && y > 0)
+							label = binaryData[i - w - 1];
 					}
+					if (y > 0 && x < w - 1) {
+						int upRight = binaryData[i - w + 1];
+						if (upRight > BACKGROUND_VALUE)
+							label = label > BACKGROUND_VALUE ? union(parent, label, upRight) : upRight;
+					}
+				}
+
+				if (label == BACKGROUND_VALUE) {
+					if (next == parent.length)
+						parent = Arrays.copyOf(parent, 2 * next);
+					parent[next] = next;
+					label = next++;
 				}
+				binaryData[i] = label;
 			}
 		}
-	}
 
-	/**
-	 * Changes all pixels with oldValue to newValue.
-	 */
-	private void changeAllBlobNumber(int oldValue, int newValue) {
-		for (int i = 0; i < binaryData.length; i++) {
-			if (binaryData[i] == oldValue) {
-				binaryData[i] = newValue;
+		int[] blobNumber = new int[next];
+		List<Blob> list = new ArrayList<>();
+		for (int y = 0; y < imageHeight; y++) {
+			int row = y * w;
+			for (int x = 0; x < w; x++) {
+				int i = row + x;
+				if (binaryData[i] == BACKGROUND_VALUE)
+					continue;
+				int root = find(parent, binaryData[i]);
+				int number = blobNumber[root];
+				if (number == BACKGROUND_VALUE) {
+					number = list.size() + FIRST_BLOB_NUMBER;
+					blobNumber[root] = number;
+					list.add(new Blob(number, x + originX, y + originY));
+				}
+				binaryData[i] = number;
+				list.get(number - FIRST_BLOB_NUMBER).add(x + originX, y + originY);
 			}
 		}
+		return list;
 	}
 
-	/**
-	 * Finds the last occurrence of a blob value in a row.
-	 */
-	private int findLastOccurrenceInRow(int y, int startX, int blobValue) {
-		int lastX = startX;
+	private static int find(int[] parent, int label) {
+		while (parent[label] != label) {
+			parent[label] = parent[parent[label]];
+			label = parent[label];
+		}
+		return label;
+	}
 
-		for (int x = startX; x < imageWidth; x++) {
-			if (binaryData[getPixelIndex(x, y)] == blobValue) {
-				lastX = x;
-			}
+	/** Merges both sets under the smaller root and returns that root. */
+	private static int union(int[] parent, int a, int b) {
+		int ra = find(parent, a);
+		int rb = find(parent, b);
+		if (ra < rb) {
+			parent[rb] = ra;
+			return ra;
 		}
+		parent[ra] = rb;
+		return rb;
+	}
+
+	/**
+	 * Converts 2D coordinates to 1D array index.
+	 */
+	private int getPixelIndex(int x, int y) {
+		return x + imageWidth * y;
+	}
 
-		return lastX;
+	/**
+	 * Checks if the given coordinates are within image bounds.
+	 */
+	private boolean isValidCoordinate(int x, int y) {
+		return x >= 0 && x < imageWidth && y >= 0 && y < imageHeight;
 	}
 }
@@ -0,0 +1,99 @@
+package plugins.fmp.multitools.tools.registration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.vecmath.Vector2d;
+
+import icy.image.IcyBufferedImage;
+import plugins.fmp.multitools.tools.Logger;
+
+/**
+ * Coarse-to-fine drift check of frames against one reference. Each frame is first registered on a
+ * binned copy (coarse level of {@link RigidRegistrationEngine}); only when the coarse translation
+ * exceeds {@link #getStillTolerance()} pixels or the coarse rotation is not zero is the frame
+ * handed to the full-resolution engine ({@link #getFine()}). Most frames of a fixed camera stop at
+ * the coarse level.
+ * <p>
+ * By default frames are binned by {@value #DEFAULT_BINNING} and the tolerance, in full-size pixels,
+ * is the translation threshold of the full-resolution pass (squared length above 0.001), so the
+ * coarse level only skips frames that registration would leave as they are. The four-argument
+ * constructor takes other values: a binning of 1 disables the coarse level, a larger tolerance
+ * trades small corrections for speed.
+ */
+public final class DriftEstimator {
+
+	public static final int DEFAULT_BINNING = 4;
+	public static final double DEFAULT_STILL_PX = Math.sqrt(0.001);
+	/** Coarse level is skipped when the binned reference would be smaller than this. */
+	private static final int MIN_COARSE_SIZE = 32;
+
+	private final RigidRegistrationEngine fine;
+	private final RigidRegistrationEngine coarse;
+	private final double stillTolerance;
+	private final AtomicInteger frames = new AtomicInteger();
+	private final AtomicInteger still = new AtomicInteger();
+	private final AtomicInteger moved = new AtomicInteger();
+
+	public DriftEstimator(IcyBufferedImage reference, int referenceC) {
+		this(reference, referenceC, DEFAULT_BINNING, DEFAULT_STILL_PX);
+	}
+
+	public DriftEstimator(IcyBufferedImage reference, int referenceC, int binning, double stillTolerance) {
+		this.fine = new RigidRegistrationEngine(reference, referenceC);
+		int smallest = Math.min(reference.getWidth(), reference.getHeight());
+		this.coarse = binning > 1 && smallest / binning >= MIN_COARSE_SIZE
+				? new RigidRegistrationEngine(reference, referenceC, binning)
+				: null;
+		this.stillTolerance = stillTolerance;
+	}
+
+	/**
+	 * True when {@code source} has drifted from the reference at the coarse level (or when there is
+	 * no coarse level), i.e. when it has to be registered with {@link #getFine()}.
+	 */
+	public boolean hasMoved(IcyBufferedImage source, int sourceC) {
+		frames.incrementAndGet();
+		if (coarse == null) {
+			moved.incrementAndGet();
+			return true;
+		}
+		Vector2d translation = coarse.findTranslation(source, sourceC);
+		double angle = coarse.findRotation(source, sourceC);
+		boolean drift = translation.length() > stillTolerance || angle != 0.;
+		(drift ? moved : still).incrementAndGet();
+		Logger.debug("DriftEstimator: coarse translation=" + translation + " rotation=" + angle + " -> "
+				+ (drift ? "refine" : "still"));
+		return drift;
+	}
+
+	public RigidRegistrationEngine getFine() {
+		return fine;
+	}
+
+	public int getBinning() {
+		return coarse != null ? coarse.getBinning() : 1;
+	}
+
+	public double getStillTolerance() {
+		return stillTolerance;
+	}
+
+	public int getFrameCount() {
+		return frames.get();
+	}
+
+	/** Frames found still at the coarse level. */
+	public int getStillCount() {
+		return still.get();
+	}
+
+	/** Frames handed to the full-resolution engine. */
+	public int getMovedCount() {
+		return moved.get();
+	}
+
+	public String summary() {
+		return frames.get() + " frames, " + still.get() + " still at 1/" + getBinning() + " resolution, "
+				+ moved.get() + " refined at full resolution";
+	}
+}
@@ -0,0 +1,225 @@
+package plugins.fmp.multitools.tools.registration;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.vecmath.Vector2d;
+
+import icy.image.IcyBufferedImage;
+import plugins.fmp.multitools.tools.Logger;
+import plugins.fmp.multitools.tools.csv.CsvWriter;
+
+/**
+ * Per-frame rigid correction (rotation about a pivot, then translation) found by registration,
+ * applied to the camera frames when they are read instead of being written back into the JPEGs.
+ * Frames are keyed by file name; frames without an entry are used as they are on disk.
+ * <p>
+ * Persisted under {@code results/FrameTransforms.csv}. Tables are registered per images directory
+ * ({@link #register}) and otherwise loaded on first use from {@code <images>/results}, so that every
+ * frame reader ({@link #applyTo}) sees them without access to the experiment. Each lookup checks the
+ * size and modification time of that CSV: once it is rewritten or deleted, the table is read again
+ * (frames of a deleted table are used as they are on disk).
+ */
+public final class FrameTransformTable {
+
+	public static final String FILENAME = "FrameTransforms.csv";
+	private static final String CSV_VERSION = "1.0";
+	private static final String RESULTS = "results";
+
+	/** Correction of one frame: rotate by {@code angleRad} about the pivot, then shift by (dx, dy). */
+	public static final class Transform {
+		public final double dx;
+		public final double dy;
+		public final double angleRad;
+		public final double pivotX;
+		public final double pivotY;
+
+		public Transform(double dx, double dy, double angleRad, double pivotX, double pivotY) {
+			this.dx = dx;
+			this.dy = dy;
+			this.angleRad = angleRad;
+			this.pivotX = pivotX;
+			this.pivotY = pivotY;
+		}
+
+		public IcyBufferedImage apply(IcyBufferedImage image) {
+			return GaspardRigidRegistration.applyRotateAboutPivotThenTranslate2D(image, -1, angleRad, pivotX, pivotY,
+					new Vector2d(dx, dy), true);
+		}
+	}
+
+	/** Table of an images directory, with the state of its CSV when the table was loaded or registered. */
+	private static final class Entry {
+		final FrameTransformTable table;
+		final long csvSize;
+		final long csvModified;
+
+		Entry(FrameTransformTable table, long csvSize, long csvModified) {
+			this.table = table;
+			this.csvSize = csvSize;
+			this.csvModified = csvModified;
+		}
+
+		boolean matches(long size, long modified) {
+			return size == csvSize && modified == csvModified;
+		}
+	}
+
+	private static final Map<String, Entry> REGISTRY = new ConcurrentHashMap<String, Entry>();
+
+	private final Map<String, Transform> transforms = new TreeMap<String, Transform>();
+
+	public synchronized int size() {
+		return transforms.size();
+	}
+
+	public synchronized boolean isEmpty() {
+		return transforms.isEmpty();
+	}
+
+	public synchronized Transform get(String path) {
+		return path != null ? transforms.get(basename(path)) : null;
+	}
+
+	public synchronized void put(String path, Transform transform) {
+		transforms.put(basename(path), transform);
+	}
+
+	public synchronized void remove(String path) {
+		transforms.remove(basename(path));
+	}
+
+	public synchronized void clear() {
+		transforms.clear();
+	}
+
+	/** Table to use for frames of {@code imagesDirectory} from now on, replacing any previous one. */
+	public static void register(String imagesDirectory, FrameTransformTable table) {
+		if (imagesDirectory != null && table != null) {
+			String dir = normalize(imagesDirectory);
+			File csv = csvOf(dir);
+			REGISTRY.put(dir, new Entry(table, csv.length(), csv.lastModified()));
+		}
+	}
+
+	/**
+	 * Table of the images directory of {@code path}, loaded from its results folder on first use and
+	 * again whenever the CSV there changed.
+	 */
+	public static FrameTransformTable forFrame(String path) {
+		File parent = path != null ? new File(path).getAbsoluteFile().getParentFile() : null;
+		if (parent == null) {
+			return null;
+		}
+		String dir = normalize(parent.getPath());
+		// stat before loading: a CSV rewritten meanwhile is read again on the next lookup
+		File csv = csvOf(dir);
+		long size = csv.length();
+		long modified = csv.lastModified();
+		Entry entry = REGISTRY.get(dir);
+		if (entry != null && entry.matches(size, modified)) {
+			return entry.table;
+		}
+		return REGISTRY.compute(dir, (key, previous) -> {
+			if (previous != null && previous.matches(size, modified)) {
+				return previous;
+			}
+			FrameTransformTable table = load(key + File.separator + RESULTS);
+			return new Entry(table != null ? table : new FrameTransformTable(), size, modified);
+		}).table;
+	}
+
+	/**
+	 * {@code image} (frame {@code path}) with the registered correction of that frame applied, or
+	 * {@code image} itself when the frame has none.
+	 */
+	public static IcyBufferedImage applyTo(String path, IcyBufferedImage image) {
+		if (image == null) {
+			return null;
+		}
+		FrameTransformTable table = forFrame(path);
+		Transform transform = table != null ? table.get(path) : null;
+		return transform != null ? transform.apply(image) : image;
+	}
+
+	/** True when frame {@code path} has a registered correction. */
+	public static boolean hasTransform(String path) {
+		FrameTransformTable table = forFrame(path);
+		return table != null && table.get(path) != null;
+	}
+
+	public synchronized boolean save(String resultsDirectory) {
+		if (resultsDirectory == null || resultsDirectory.isEmpty()) {
+			return false;
+		}
+		File dir = new File(resultsDirectory);
+		if (!dir.exists() && !dir.mkdirs()) {
+			Logger.warn("FrameTransformTable: cannot create results directory " + resultsDirectory);
+			return false;
+		}
+		try (CsvWriter writer = CsvWriter.open(new File(dir, FILENAME).toPath())) {
+			writer.write("#;version;" + CSV_VERSION + "\n");
+			writer.write("#;image_file;dx;dy;angle_rad;pivot_x;pivot_y\n");
+			for (Map.Entry<String, Transform> e : transforms.entrySet()) {
+				Transform t = e.getValue();
+				writer.write(e.getKey() + ";" + t.dx + ";" + t.dy + ";" + t.angleRad + ";" + t.pivotX + ";"
+						+ t.pivotY + "\n");
+			}
+			writer.commit();
+			return true;
+		} catch (IOException e) {
+			Logger.warn("FrameTransformTable: save failed: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/** Table saved in {@code resultsDirectory}, or null if there is none. */
+	public static FrameTransformTable load(String resultsDirectory) {
+		if (resultsDirectory == null || resultsDirectory.isEmpty()) {
+			return null;
+		}
+		File in = new File(resultsDirectory, FILENAME);
+		if (!in.isFile()) {
+			return null;
+		}
+		FrameTransformTable table = new FrameTransformTable();
+		try (BufferedReader reader = new BufferedReader(new FileReader(in))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] parts = line.split(";", -1);
+				if (parts.length < 6) {
+					continue;
+				}
+				table.transforms.put(parts[0], new Transform(Double.parseDouble(parts[1]),
+						Double.parseDouble(parts[2]), Double.parseDouble(parts[3]), Double.parseDouble(parts[4]),
+						Double.parseDouble(parts[5])));
+			}
+			return table;
+		} catch (Exception e) {
+			Logger.warn("FrameTransformTable: load failed: " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static File csvOf(String imagesDirectory) {
+		return new File(imagesDirectory + File.separator + RESULTS, FILENAME);
+	}
+
+	private static String normalize(String directory) {
+		return new File(directory).getAbsolutePath();
+	}
+
+	private static String basename(String path) {
+		int slash = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+		return slash >= 0 ? path.substring(slash + 1) : path;
+	}
+}
@@ -26,8 +26,8 @@ import plugins.fmp.multitools.tools.Logger;
  */
 public class GaspardRigidRegistration {
 
-	private static final int DEFAULT_SIZE_THETA = 1080;
-	private static final int DEFAULT_SIZE_RHO = 360;
+	static final int DEFAULT_SIZE_THETA = 1080;
+	static final int DEFAULT_SIZE_RHO = 360;
 	private static final double MIN_TRANSLATION_THRESHOLD = 0.001;
 	private static final double MIN_ROTATION_THRESHOLD = 0.001;
 	/** Below this (radians), skip rotation work (allows fine manual steps well below {@link #MIN_ROTATION_THRESHOLD}). */
@@ -54,7 +54,16 @@ public class GaspardRigidRegistration {
 		float[] _target = Array1DUtil.arrayToFloatArray(target.getDataXY(targetC), target.isSignedDataType());
 
 		float[] correlationMap = spectralCorrelation(_source, _target, width, height);
+		Vector2d translation = translationFromCorrelation(correlationMap, width, height);
+		Logger.debug("Found translation: (" + translation.x + ", " + translation.y + ")");
+		return translation;
+	}
 
+	/**
+	 * Translation of the correlation peak, refined to sub-pixel by a parabolic fit along X and Y
+	 * (shared with {@link RigidRegistrationEngine}).
+	 */
+	static Vector2d translationFromCorrelation(float[] correlationMap, int width, int height) {
 		// Find maximum correlation
 		int argMax = argMax(correlationMap, correlationMap.length);
 
@@ -90,9 +99,7 @@ public class GaspardRigidRegistration {
 		if (finalY > height / 2)
 			finalY -= height;
 
-		Vector2d translation = new Vector2d(-finalX, -finalY);
-		Logger.debug("Found translation: (" + translation.x + ", " + translation.y + ")");
-		return translation;
+		return new Vector2d(-finalX, -finalY);
 	}
 
 	public static Vector2d getTranslation2D(IcyBufferedImage img, IcyBufferedImage ref, int referenceChannel) {
@@ -346,7 +353,13 @@ public class GaspardRigidRegistration {
 		// Compute spectral correlation
 
 		float[] correlationMap = spectralCorrelation(_sourceLogPol, _targetLogPol, width, height);
+		double rotation = rotationFromCorrelation(correlationMap, width);
+		Logger.debug("Found rotation: " + Math.toDegrees(rotation) + " degrees");
+		return rotation;
+	}
 
+	/** Rotation given by the correlation peak of two log-polar images (theta along X). */
+	static double rotationFromCorrelation(float[] correlationMap, int width) {
 		// Find maximum correlation (=> rotation)
 
 		int argMax = argMax(correlationMap, correlationMap.length / 2);
@@ -356,9 +369,7 @@ public class GaspardRigidRegistration {
 
 		if (rotX > width / 2)
 			rotX -= width;
-		double rotation = -rotX * 2 * Math.PI / width;
-		Logger.debug("Found rotation: " + Math.toDegrees(rotation) + " degrees");
-		return rotation;
+		return -rotX * 2 * Math.PI / width;
 	}
 
 	private static IcyBufferedImage toLogPolar(IcyBufferedImage image) {
@@ -0,0 +1,209 @@
+package plugins.fmp.multitools.tools.registration;
+
+import java.util.Arrays;
+
+import javax.vecmath.Vector2d;
+
+import edu.emory.mathcs.jtransforms.fft.FloatFFT_2D;
+import icy.image.IcyBufferedImage;
+import icy.type.collection.array.Array1DUtil;
+
+/**
+ * Registers many frames against one reference, with the same results as
+ * {@link GaspardRigidRegistration#findTranslation2D} and {@link GaspardRigidRegistration#findRotation2D}
+ * (reference as target): the spectrum of the reference and of its log-polar transform are computed
+ * once, and each thread calling the engine keeps its own FFT plans and scratch buffers, so that
+ * frames can be registered concurrently without allocating per frame.
+ * <p>
+ * With a binning factor above 1 the engine works on box-averaged images (and fewer log-polar
+ * radii) as the coarse level of a pyramid: it accepts full-size images and reports translations in
+ * full-size pixels, at a fraction of the cost and precision.
+ */
+public final class RigidRegistrationEngine {
+
+	/** Per-thread FFT plans and buffers. */
+	private final class Workspace {
+		final FloatFFT_2D fft = new FloatFFT_2D(height, width);
+		final FloatFFT_2D fftLogPolar = new FloatFFT_2D(sizeRho, sizeTheta);
+		final float[] pixels = new float[width * height];
+		final float[] fullPixels = binning > 1 ? new float[sourceWidth * sourceHeight] : null;
+		final float[] spectrum = new float[2 * width * height];
+		final float[] correlation = new float[width * height];
+		final float[] logPolar = new float[sizeTheta * sizeRho];
+		final float[] spectrumLogPolar = new float[2 * sizeTheta * sizeRho];
+		final float[] correlationLogPolar = new float[sizeTheta * sizeRho];
+	}
+
+	private final int binning;
+	private final int sourceWidth;
+	private final int sourceHeight;
+	private final int width;
+	private final int height;
+	private final int sizeTheta = GaspardRigidRegistration.DEFAULT_SIZE_THETA;
+	private final int sizeRho;
+	private final float[] cosTheta = new float[sizeTheta];
+	private final float[] sinTheta = new float[sizeTheta];
+	private final float drho;
+	private final float[] referenceSpectrum;
+	private final float[] referenceLogPolarSpectrum;
+	private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+	public RigidRegistrationEngine(IcyBufferedImage reference, int referenceC) {
+		this(reference, referenceC, 1);
+	}
+
+	public RigidRegistrationEngine(IcyBufferedImage reference, int referenceC, int binning) {
+		if (reference == null)
+			throw new IllegalArgumentException("Reference image cannot be null");
+		if (referenceC < 0 || referenceC >= reference.getSizeC())
+			throw new IllegalArgumentException("Invalid reference channel: " + referenceC);
+		if (binning < 1 || binning > Math.min(reference.getWidth(), reference.getHeight()))
+			throw new IllegalArgumentException("Invalid binning: " + binning);
+		this.binning = binning;
+		sourceWidth = reference.getWidth();
+		sourceHeight = reference.getHeight();
+		width = sourceWidth / binning;
+		height = sourceHeight / binning;
+		sizeRho = Math.max(1, GaspardRigidRegistration.DEFAULT_SIZE_RHO / binning);
+
+		double theta = 0.0, dtheta = 2 * Math.PI / sizeTheta;
+		for (int thetaIndex = 0; thetaIndex < sizeTheta; thetaIndex++, theta += dtheta) {
+			cosTheta[thetaIndex] = (float) Math.cos(theta);
+			sinTheta[thetaIndex] = (float) Math.sin(theta);
+		}
+		int centerX = width / 2;
+		int centerY = height / 2;
+		drho = (float) (Math.sqrt(centerX * centerX + centerY * centerY) / sizeRho);
+
+		Workspace ws = workspaces.get();
+		loadChannel(reference, referenceC, ws);
+		referenceSpectrum = new float[ws.spectrum.length];
+		forward(ws.pixels, referenceSpectrum, ws.fft);
+		toLogPolar(ws.pixels, ws.logPolar);
+		referenceLogPolarSpectrum = new float[ws.spectrumLogPolar.length];
+		forward(ws.logPolar, referenceLogPolarSpectrum, ws.fftLogPolar);
+	}
+
+	public int getBinning() {
+		return binning;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/** Translation of {@code source} relative to the reference, in pixels of the full-size image. */
+	public Vector2d findTranslation(IcyBufferedImage source, int sourceC) {
+		checkSource(source, sourceC);
+		Workspace ws = workspaces.get();
+		loadChannel(source, sourceC, ws);
+		correlate(ws.pixels, referenceSpectrum, ws.spectrum, ws.correlation, ws.fft);
+		Vector2d translation = GaspardRigidRegistration.translationFromCorrelation(ws.correlation, width, height);
+		if (binning > 1)
+			translation.scale(binning);
+		return translation;
+	}
+
+	/** Rotation (radians) of {@code source} relative to the reference, about the image centre. */
+	public double findRotation(IcyBufferedImage source, int sourceC) {
+		checkSource(source, sourceC);
+		Workspace ws = workspaces.get();
+		loadChannel(source, sourceC, ws);
+		toLogPolar(ws.pixels, ws.logPolar);
+		correlate(ws.logPolar, referenceLogPolarSpectrum, ws.spectrumLogPolar, ws.correlationLogPolar,
+				ws.fftLogPolar);
+		return GaspardRigidRegistration.rotationFromCorrelation(ws.correlationLogPolar, sizeTheta);
+	}
+
+	private void checkSource(IcyBufferedImage source, int sourceC) {
+		if (source == null)
+			throw new IllegalArgumentException("Source image cannot be null");
+		if (sourceC < 0 || sourceC >= source.getSizeC())
+			throw new IllegalArgumentException("Invalid source channel: " + sourceC);
+		if (source.getWidth() != sourceWidth || source.getHeight() != sourceHeight)
+			throw new UnsupportedOperationException("Cannot register images of different size (yet)");
+	}
+
+	private void loadChannel(IcyBufferedImage image, int c, Workspace ws) {
+		if (binning == 1) {
+			Array1DUtil.arrayToFloatArray(image.getDataXY(c), 0, ws.pixels, 0, ws.pixels.length,
+					image.isSignedDataType());
+			return;
+		}
+		float[] full = ws.fullPixels;
+		Array1DUtil.arrayToFloatArray(image.getDataXY(c), 0, full, 0, full.length, image.isSignedDataType());
+		float[] out = ws.pixels;
+		Arrays.fill(out, 0f);
+		float norm = 1f / (binning * binning);
+		for (int y = 0; y < height * binning; y++) {
+			int row = (y / binning) * width;
+			int offset = y * sourceWidth;
+			for (int x = 0; x < width * binning; x++)
+				out[row + x / binning] += full[offset + x];
+		}
+		for (int i = 0; i < out.length; i++)
+			out[i] *= norm;
+	}
+
+	private static void forward(float[] real, float[] spectrum, FloatFFT_2D fft) {
+		for (int i = 0, j = 0; i < real.length; i++, j += 2) {
+			spectrum[j] = real[i];
+			spectrum[j + 1] = 0f;
+		}
+		fft.complexForward(spectrum);
+	}
+
+	/** Real part of IFFT(FFT(real) x conj(reference)) into {@code out}. */
+	private static void correlate(float[] real, float[] reference, float[] spectrum, float[] out, FloatFFT_2D fft) {
+		forward(real, spectrum, fft);
+		for (int i = 0; i < spectrum.length; i += 2) {
+			float re = spectrum[i];
+			float im = spectrum[i + 1];
+			float refRe = reference[i];
+			float refIm = reference[i + 1];
+			spectrum[i] = re * refRe + im * refIm;
+			spectrum[i + 1] = im * refRe - re * refIm;
+		}
+		fft.complexInverse(spectrum, true);
+		for (int i = 0, j = 0; j < out.length; i += 2, j++)
+			out[j] = spectrum[i];
+	}
+
+	/** Log-polar resampling about the image centre (X = theta, Y = rho), as in GaspardRigidRegistration. */
+	private void toLogPolar(float[] pixels, float[] out) {
+		int centerX = width / 2;
+		int centerY = height / 2;
+		float center = sample(pixels, centerX, centerY);
+		for (int thetaIndex = 0; thetaIndex < sizeTheta; thetaIndex++)
+			out[thetaIndex] = center;
+
+		float rho = drho;
+		int outOffset = sizeTheta;
+		for (int rhoIndex = 1; rhoIndex < sizeRho; rhoIndex++, rho += drho)
+			for (int thetaIndex = 0; thetaIndex < sizeTheta; thetaIndex++, outOffset++)
+				out[outOffset] = sample(pixels, centerX + rho * cosTheta[thetaIndex],
+						centerY + rho * sinTheta[thetaIndex]);
+	}
+
+	/** Bilinear value at the centre of pixel (x, y); 0 on and outside the border. */
+	private float sample(float[] pixels, double x, double y) {
+		x -= 0.5;
+		y -= 0.5;
+		int i = (int) Math.floor(x);
+		int j = (int) Math.floor(y);
+		if (i <= 0 || i >= width - 1 || j <= 0 || j >= height - 1)
+			return 0f;
+
+		int offset = i + j * width;
+		x -= i;
+		y -= j;
+		double mx = 1 - x;
+		double my = 1 - y;
+		return (float) (mx * my * pixels[offset] + x * my * pixels[offset + 1] + mx * y * pixels[offset + width]
+				+ x * y * pixels[offset + 1 + width]);
+	}
+}
@@ -0,0 +1,161 @@
+package plugins.fmp.multitools.tools.results;
+
+import java.util.Arrays;
+
+/**
+ * One measure time series stored as a primitive column, sample {@code i} being frame {@code i}
+ * of the experiment time axis (the axis itself is shared and never stored per measure).
+ * <p>
+ * {@link Encoding#DOUBLE} wraps the caller's {@code double[]} without copying; {@link Encoding#FLOAT}
+ * halves the footprint; {@link Encoding#INT16} quantizes finite values linearly between the series
+ * minimum and maximum (65532 steps) for a quarter of the footprint, with reserved codes keeping NaN
+ * and both infinities exact. Readers use {@link #get(int)} or {@link #copyTo} and never need to know
+ * the encoding.
+ */
+public final class MeasureColumn {
+
+	public enum Encoding {
+		DOUBLE, FLOAT, INT16
+	}
+
+	private static final short INT16_NAN = Short.MIN_VALUE;
+	private static final short INT16_NEGATIVE_INFINITY = Short.MIN_VALUE + 1;
+	private static final short INT16_POSITIVE_INFINITY = Short.MAX_VALUE;
+	/** Code of the series minimum; finite values use codes {@code INT16_ZERO..INT16_ZERO + INT16_STEPS}. */
+	private static final int INT16_ZERO = Short.MIN_VALUE + 2;
+	private static final int INT16_STEPS = 65532;
+
+	private final Encoding encoding;
+	private final int size;
+	private final double[] doubles;
+	private final float[] floats;
+	private final short[] shorts;
+	private final double offset;
+	private final double scale;
+
+	private MeasureColumn(Encoding encoding, int size, double[] doubles, float[] floats, short[] shorts, double offset,
+			double scale) {
+		this.encoding = encoding;
+		this.size = size;
+		this.doubles = doubles;
+		this.floats = floats;
+		this.shorts = shorts;
+		this.offset = offset;
+		this.scale = scale;
+	}
+
+	/** Zero-copy view of {@code values} (later writes to the array are visible). */
+	public static MeasureColumn of(double[] values) {
+		double[] v = values != null ? values : new double[0];
+		return new MeasureColumn(Encoding.DOUBLE, v.length, v, null, null, 0, 1);
+	}
+
+	/** Encodes {@code values} with {@code encoding} (DOUBLE keeps the array, others copy). */
+	public static MeasureColumn encode(double[] values, Encoding encoding) {
+		if (values == null || encoding == Encoding.DOUBLE) {
+			return of(values);
+		}
+		int n = values.length;
+		if (encoding == Encoding.FLOAT) {
+			float[] f = new float[n];
+			for (int i = 0; i < n; i++) {
+				f[i] = (float) values[i];
+			}
+			return new MeasureColumn(Encoding.FLOAT, n, null, f, null, 0, 1);
+		}
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double v : values) {
+			if (Double.isFinite(v)) {
+				min = Math.min(min, v);
+				max = Math.max(max, v);
+			}
+		}
+		if (min > max) {
+			min = 0;
+			max = 0;
+		}
+		double scale = max > min ? (max - min) / INT16_STEPS : 1;
+		short[] s = new short[n];
+		for (int i = 0; i < n; i++) {
+			double v = values[i];
+			if (Double.isFinite(v)) {
+				s[i] = (short) (Math.round((v - min) / scale) + INT16_ZERO);
+			} else if (v == Double.POSITIVE_INFINITY) {
+				s[i] = INT16_POSITIVE_INFINITY;
+			} else if (v == Double.NEGATIVE_INFINITY) {
+				s[i] = INT16_NEGATIVE_INFINITY;
+			} else {
+				s[i] = INT16_NAN;
+			}
+		}
+		return new MeasureColumn(Encoding.INT16, n, null, null, s, min, scale);
+	}
+
+	public Encoding getEncoding() {
+		return encoding;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double get(int index) {
+		switch (encoding) {
+		case FLOAT:
+			return floats[index];
+		case INT16:
+			short s = shorts[index];
+			switch (s) {
+			case INT16_NAN:
+				return Double.NaN;
+			case INT16_NEGATIVE_INFINITY:
+				return Double.NEGATIVE_INFINITY;
+			case INT16_POSITIVE_INFINITY:
+				return Double.POSITIVE_INFINITY;
+			default:
+				return offset + (s - INT16_ZERO) * scale;
+			}
+		default:
+			return doubles[index];
+		}
+	}
+
+	/** Backing array when DOUBLE-encoded (zero copy), otherwise null. */
+	public double[] doublesOrNull() {
+		return encoding == Encoding.DOUBLE ? doubles : null;
+	}
+
+	/** Decodes {@code length} samples starting at {@code from} into {@code dest[destOffset..]}. */
+	public void copyTo(int from, double[] dest, int destOffset, int length) {
+		if (encoding == Encoding.DOUBLE) {
+			System.arraycopy(doubles, from, dest, destOffset, length);
+			return;
+		}
+		for (int i = 0; i < length; i++) {
+			dest[destOffset + i] = get(from + i);
+		}
+	}
+
+	/** Decoded copy of the whole column. */
+	public double[] toDoubleArray() {
+		if (encoding == Encoding.DOUBLE) {
+			return Arrays.copyOf(doubles, size);
+		}
+		double[] out = new double[size];
+		copyTo(0, out, 0, size);
+		return out;
+	}
+
+	/** Approximate heap used by the samples. */
+	public long byteSize() {
+		switch (encoding) {
+		case FLOAT:
+			return 4L * size;
+		case INT16:
+			return 2L * size;
+		default:
+			return 8L * size;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package plugins.fmp.multitools.tools.results;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide LRU budget (in bytes) for measure columns loaded on demand from disk. Owners
+ * report each load with {@link #touch}; when the budget is exceeded the least recently touched
+ * owners are asked to {@link Evictable#evictColumn() drop} their samples, which they reload on
+ * next access.
+ * <p>
+ * The budget defaults to a quarter of the maximum heap, capped at {@value #MAX_DEFAULT_BUDGET_MB} MB,
+ * and can be changed with {@link #setBudgetBytes}.
+ */
+public final class MeasureColumnCache {
+
+	private static final long MAX_DEFAULT_BUDGET_MB = 256;
+
+	/** Holder of one column that can be dropped and reloaded later. */
+	public interface Evictable {
+		void evictColumn();
+	}
+
+	/**
+	 * Identity key (owners may override equals/hashCode on their changing values), weak so that
+	 * the cache never keeps the measures of a closed experiment alive.
+	 */
+	private static final class Key {
+		final WeakReference<Evictable> owner;
+		final int hash;
+
+		Key(Evictable owner) {
+			this.owner = new WeakReference<Evictable>(owner);
+			this.hash = System.identityHashCode(owner);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Evictable mine = owner.get();
+			return mine != null && mine == ((Key) o).owner.get();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	private static final MeasureColumnCache SHARED = new MeasureColumnCache(defaultBudgetBytes());
+
+	private final LinkedHashMap<Key, Long> entries = new LinkedHashMap<Key, Long>(64, 0.75f, true);
+	private long budgetBytes;
+	private long usedBytes;
+
+	public MeasureColumnCache(long budgetBytes) {
+		this.budgetBytes = Math.max(0, budgetBytes);
+	}
+
+	public static MeasureColumnCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Records that {@code owner} holds (or re-used) {@code bytes} of loaded samples, then evicts the
+	 * least recently used other owners until the budget is met. Eviction callbacks run outside the
+	 * cache lock.
+	 */
+	public void touch(Evictable owner, long bytes) {
+		List<Evictable> victims = null;
+		synchronized (this) {
+			Long previous = entries.put(new Key(owner), bytes);
+			usedBytes += bytes - (previous != null ? previous : 0L);
+			if (usedBytes > budgetBytes) {
+				victims = new ArrayList<Evictable>();
+				Iterator<Map.Entry<Key, Long>> it = entries.entrySet().iterator();
+				while (usedBytes > budgetBytes && it.hasNext()) {
+					Map.Entry<Key, Long> e = it.next();
+					Evictable victim = e.getKey().owner.get();
+					if (victim == owner) {
+						continue;
+					}
+					usedBytes -= e.getValue();
+					if (victim != null) {
+						victims.add(victim);
+					}
+					it.remove();
+				}
+			}
+		}
+		if (victims != null) {
+			for (Evictable victim : victims) {
+				victim.evictColumn();
+			}
+		}
+	}
+
+	/** Forgets {@code owner} (its samples are no longer reloadable, e.g. after a modification). */
+	public synchronized void remove(Evictable owner) {
+		Long previous = entries.remove(new Key(owner));
+		if (previous != null) {
+			usedBytes -= previous;
+		}
+	}
+
+	public synchronized boolean contains(Evictable owner) {
+		return entries.containsKey(new Key(owner));
+	}
+
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	public synchronized long getBudgetBytes() {
+		return budgetBytes;
+	}
+
+	public synchronized void setBudgetBytes(long budgetBytes) {
+		this.budgetBytes = Math.max(0, budgetBytes);
+	}
+
+	private static long defaultBudgetBytes() {
+		return Math.min(MAX_DEFAULT_BUDGET_MB * 1024L * 1024L, Runtime.getRuntime().maxMemory() / 4);
+	}
+}
@@ -0,0 +1,154 @@
+package plugins.fmp.multitools.tools.stats;
+
+/**
+ * Mean, standard deviation, median, MAD and interquartile range of primitive arrays; the order
+ * statistics use selection (expected O(n)) instead of sorting. Values are ordered as by {@link java.util.Arrays#sort(double[])}: {@code NaN} after
+ * every number, so results match "sort then index" on the same data.
+ * <p>
+ * The selection methods work on the first {@code n} cells of the array and reorder them; callers
+ * pass a scratch array they refill anyway.
+ */
+public final class RobustStats {
+
+	private RobustStats() {
+	}
+
+	/** Mean of the first {@code n} values, 0 when empty. */
+	public static double mean(double[] values, int n) {
+		if (n <= 0)
+			return 0.0;
+		double sum = 0.0;
+		for (int i = 0; i < n; i++)
+			sum += values[i];
+		return sum / n;
+	}
+
+	/** Population standard deviation of the first {@code n} values around {@code mean}, 0 below two values. */
+	public static double stdDev(double[] values, int n, double mean) {
+		if (n < 2)
+			return 0.0;
+		double sumSquaredDiff = 0.0;
+		for (int i = 0; i < n; i++) {
+			double diff = values[i] - mean;
+			sumSquaredDiff += diff * diff;
+		}
+		return Math.sqrt(sumSquaredDiff / n);
+	}
+
+	/**
+	 * Moves the {@code k}-th smallest of {@code values[from, to)} to index {@code k}, smaller ones
+	 * before it and larger ones after it, and returns it.
+	 */
+	public static double select(double[] values, int from, int to, int k) {
+		if (k < from || k >= to)
+			throw new IndexOutOfBoundsException("k=" + k + " outside [" + from + ", " + to + ")");
+		int lo = from;
+		int hi = to - 1;
+		while (hi > lo) {
+			if (hi - lo < 16) {
+				insertionSort(values, lo, hi);
+				break;
+			}
+			// median of three as pivot, placed at hi
+			int mid = (lo + hi) >>> 1;
+			if (less(values[mid], values[lo]))
+				swap(values, mid, lo);
+			if (less(values[hi], values[lo]))
+				swap(values, hi, lo);
+			if (less(values[mid], values[hi]))
+				swap(values, mid, hi);
+			double pivot = values[hi];
+
+			// three-way partition: [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+			int lt = lo;
+			int gt = hi;
+			int i = lo;
+			while (i <= gt) {
+				double v = values[i];
+				if (less(v, pivot))
+					swap(values, lt++, i++);
+				else if (less(pivot, v))
+					swap(values, i, gt--);
+				else
+					i++;
+			}
+			if (k < lt)
+				hi = lt - 1;
+			else if (k > gt)
+				lo = gt + 1;
+			else
+				break;
+		}
+		return values[k];
+	}
+
+	/** Value at index {@code n / 2} of the sorted first {@code n} values, {@code NaN} when empty. */
+	public static double upperMedian(double[] values, int n) {
+		return n > 0 ? select(values, 0, n, n / 2) : Double.NaN;
+	}
+
+	/**
+	 * Median of the first {@code n} values, the mean of the two middle ones when {@code n} is even;
+	 * {@code NaN} when empty.
+	 */
+	public static double median(double[] values, int n) {
+		if (n <= 0)
+			return Double.NaN;
+		double upper = select(values, 0, n, n / 2);
+		if ((n & 1) == 1)
+			return upper;
+		// the lower middle is the largest value left of n / 2
+		double lower = values[0];
+		for (int i = 1; i < n / 2; i++)
+			if (less(lower, values[i]))
+				lower = values[i];
+		return (lower + upper) / 2;
+	}
+
+	/**
+	 * Median absolute deviation from {@code center} ({@link #median} of {@code |v - center|}); the
+	 * first {@code n} values are replaced by their deviations.
+	 */
+	public static double mad(double[] values, int n, double center) {
+		for (int i = 0; i < n; i++)
+			values[i] = Math.abs(values[i] - center);
+		return median(values, n);
+	}
+
+	/**
+	 * Distance between the sorted values at indices {@code 3n/4} (clamped to n - 1) and {@code n/4};
+	 * 0 for fewer than two values.
+	 */
+	public static double iqr(double[] values, int n) {
+		if (n < 2)
+			return 0.0;
+		int q1 = n / 4;
+		int q3 = Math.min((3 * n) / 4, n - 1);
+		double upper = select(values, 0, n, q3);
+		double lower = q1 < q3 ? select(values, 0, q3, q1) : upper;
+		return upper - lower;
+	}
+
+	/** Order of {@link Double#compare} for all values but signed zeros, which compare equal. */
+	static boolean less(double a, double b) {
+		return a < b || (b != b && a == a);
+	}
+
+	private static void insertionSort(double[] values, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) {
+			double v = values[i];
+			int j = i - 1;
+			while (j >= lo && less(v, values[j])) {
+				values[j + 1] = values[j];
+				j--;
+			}
+			values[j + 1] = v;
+		}
+	}
+
+	private static void swap(double[] values, int i, int j) {
+		double t = values[i];
+		values[i] = values[j];
+		values[j] = t;
+	}
+}
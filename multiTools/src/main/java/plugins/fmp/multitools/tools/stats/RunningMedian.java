@@ -0,0 +1,278 @@
+package plugins.fmp.multitools.tools.stats;
+
+import java.util.Arrays;
+
+/**
+ * Order statistics of a window sliding over a {@code double[]}: samples enter and leave by index,
+ * and {@link #select(int)} returns the k-th smallest sample in the window. The window is kept in
+ * two indexed heaps split at k (largest of the lower part on top of one, smallest of the upper
+ * part on top of the other), so a step costs O(log w) instead of sorting the window again.
+ * <p>
+ * {@code NaN} and infinite samples are not stored; {@link #size()} counts the finite samples only.
+ */
+public final class RunningMedian {
+
+	/** Windows up to this size are kept as a sorted array by {@link #centered}. */
+	private static final int SMALL_WINDOW = 32;
+
+	private final double[] values;
+	private final int capacity;
+	/** Max-heap of the lower samples and min-heap of the upper samples, as indices into values */
+	private final int[] low;
+	private final int[] high;
+	private int lowSize = 0;
+	private int highSize = 0;
+	/** Per window slot (index % capacity): position in low (>= 0), in high (-2 - pos), or -1 */
+	private final int[] slot;
+
+	/**
+	 * @param values   samples, indexed by {@link #add(int)} and {@link #remove(int)}
+	 * @param capacity largest number of samples in the window at once
+	 */
+	public RunningMedian(double[] values, int capacity) {
+		this.values = values;
+		this.capacity = Math.max(1, capacity);
+		this.low = new int[this.capacity];
+		this.high = new int[this.capacity];
+		this.slot = new int[this.capacity];
+		Arrays.fill(slot, -1);
+	}
+
+	/** Number of samples (finite values) in the window. */
+	public int size() {
+		return lowSize + highSize;
+	}
+
+	/** Adds {@code values[index]} to the window; {@code NaN} and infinities are ignored. */
+	public void add(int index) {
+		double v = values[index];
+		if (!Double.isFinite(v))
+			return;
+		int s = index % capacity;
+		if (slot[s] != -1)
+			throw new IllegalStateException("RunningMedian: window holds more than " + capacity + " samples");
+		if (lowSize > 0 && v < values[low[0]]) {
+			low[lowSize] = index;
+			slot[s] = lowSize;
+			siftUpLow(lowSize++);
+		} else {
+			high[highSize] = index;
+			slot[s] = -2 - highSize;
+			siftUpHigh(highSize++);
+		}
+	}
+
+	/** Removes {@code values[index]}, added earlier, from the window. */
+	public void remove(int index) {
+		int s = index % capacity;
+		int pos = slot[s];
+		if (pos == -1)
+			return;
+		slot[s] = -1;
+		if (pos >= 0) {
+			int last = low[--lowSize];
+			if (pos < lowSize) {
+				low[pos] = last;
+				slot[last % capacity] = pos;
+				siftDownLow(siftUpLow(pos));
+			}
+		} else {
+			pos = -2 - pos;
+			int last = high[--highSize];
+			if (pos < highSize) {
+				high[pos] = last;
+				slot[last % capacity] = -2 - pos;
+				siftDownHigh(siftUpHigh(pos));
+			}
+		}
+	}
+
+	/** The {@code k}-th smallest sample of the window (0-based), {@code NaN} when out of range. */
+	public double select(int k) {
+		if (k < 0 || k >= size())
+			return Double.NaN;
+		while (lowSize > k) {
+			int top = popLow();
+			high[highSize] = top;
+			slot[top % capacity] = -2 - highSize;
+			siftUpHigh(highSize++);
+		}
+		while (lowSize < k) {
+			int top = popHigh();
+			low[lowSize] = top;
+			slot[top % capacity] = lowSize;
+			siftUpLow(lowSize++);
+		}
+		return values[high[0]];
+	}
+
+	/** Sample at index {@code size() / 2} of the sorted window (upper median). */
+	public double upperMedian() {
+		return select(size() / 2);
+	}
+
+	/**
+	 * Upper median of the finite values in {@code [i - span / 2, i + span / 2]} (clipped to the
+	 * array) for every {@code i}; {@code NaN} where the window holds no finite value.
+	 */
+	public static double[] centered(double[] values, int span) {
+		int n = values.length;
+		double[] out = new double[n];
+		if (n == 0)
+			return out;
+		int half = Math.max(0, span / 2);
+		if (2 * half + 1 <= SMALL_WINDOW)
+			return centeredSmall(values, half, out);
+		RunningMedian window = new RunningMedian(values, 2 * half + 1);
+		for (int j = 0; j <= Math.min(n - 1, half); j++)
+			window.add(j);
+		for (int i = 0; i < n; i++) {
+			out[i] = window.upperMedian();
+			if (i - half >= 0)
+				window.remove(i - half);
+			if (i + half + 1 < n)
+				window.add(i + half + 1);
+		}
+		return out;
+	}
+
+	/**
+	 * {@link #centered} for short windows: a sorted copy of the window updated by insertion and
+	 * shifts beats the heaps below a few dozen samples.
+	 */
+	private static double[] centeredSmall(double[] values, int half, double[] out) {
+		int n = values.length;
+		double[] sorted = new double[2 * half + 1];
+		int m = 0;
+		for (int j = 0; j <= Math.min(n - 1, half); j++)
+			m = insert(sorted, m, values[j]);
+		for (int i = 0; i < n; i++) {
+			out[i] = m > 0 ? sorted[m / 2] : Double.NaN;
+			if (i - half >= 0)
+				m = delete(sorted, m, values[i - half]);
+			if (i + half + 1 < n)
+				m = insert(sorted, m, values[i + half + 1]);
+		}
+		return out;
+	}
+
+	private static int insert(double[] sorted, int m, double v) {
+		if (!Double.isFinite(v))
+			return m;
+		int at = m;
+		while (at > 0 && sorted[at - 1] > v) {
+			sorted[at] = sorted[at - 1];
+			at--;
+		}
+		sorted[at] = v;
+		return m + 1;
+	}
+
+	private static int delete(double[] sorted, int m, double v) {
+		if (!Double.isFinite(v))
+			return m;
+		int at = 0;
+		while (sorted[at] != v)
+			at++;
+		System.arraycopy(sorted, at + 1, sorted, at, m - at - 1);
+		return m - 1;
+	}
+
+	private int popLow() {
+		int top = low[0];
+		slot[top % capacity] = -1;
+		int last = low[--lowSize];
+		if (lowSize > 0) {
+			low[0] = last;
+			slot[last % capacity] = 0;
+			siftDownLow(0);
+		}
+		return top;
+	}
+
+	private int popHigh() {
+		int top = high[0];
+		slot[top % capacity] = -1;
+		int last = high[--highSize];
+		if (highSize > 0) {
+			high[0] = last;
+			slot[last % capacity] = -2;
+			siftDownHigh(0);
+		}
+		return top;
+	}
+
+	private int siftUpLow(int pos) {
+		int index = low[pos];
+		double v = values[index];
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			int p = low[parent];
+			if (!(values[p] < v))
+				break;
+			low[pos] = p;
+			slot[p % capacity] = pos;
+			pos = parent;
+		}
+		low[pos] = index;
+		slot[index % capacity] = pos;
+		return pos;
+	}
+
+	private void siftDownLow(int pos) {
+		int index = low[pos];
+		double v = values[index];
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= lowSize)
+				break;
+			if (child + 1 < lowSize && values[low[child]] < values[low[child + 1]])
+				child++;
+			int c = low[child];
+			if (!(v < values[c]))
+				break;
+			low[pos] = c;
+			slot[c % capacity] = pos;
+			pos = child;
+		}
+		low[pos] = index;
+		slot[index % capacity] = pos;
+	}
+
+	private int siftUpHigh(int pos) {
+		int index = high[pos];
+		double v = values[index];
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			int p = high[parent];
+			if (!(v < values[p]))
+				break;
+			high[pos] = p;
+			slot[p % capacity] = -2 - pos;
+			pos = parent;
+		}
+		high[pos] = index;
+		slot[index % capacity] = -2 - pos;
+		return pos;
+	}
+
+	private void siftDownHigh(int pos) {
+		int index = high[pos];
+		double v = values[index];
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= highSize)
+				break;
+			if (child + 1 < highSize && values[high[child + 1]] < values[high[child]])
+				child++;
+			int c = high[child];
+			if (!(values[c] < v))
+				break;
+			high[pos] = c;
+			slot[c % capacity] = -2 - pos;
+			pos = child;
+		}
+		high[pos] = index;
+		slot[index % capacity] = -2 - pos;
+	}
+}
@@ -30,6 +30,7 @@ import plugins.fmp.multitools.tools.toExcel.exceptions.ExcelDataException;
 import plugins.fmp.multitools.tools.toExcel.exceptions.ExcelExportException;
 import plugins.fmp.multitools.tools.toExcel.exceptions.ExcelResourceException;
 import plugins.fmp.multitools.tools.toExcel.utils.ExcelResourceManager;
+import plugins.fmp.multitools.tools.toExcel.utils.ExportPrefetcher;
 import plugins.fmp.multitools.tools.toExcel.utils.XLSUtils;
 
 /**
@@ -216,6 +217,10 @@ public abstract class XLSExport {
 		ProgressFrame progress = new ProgressFrame(ExcelExportConstants.DEFAULT_PROGRESS_TITLE);
 
 		int currentIndex = -1;
+		// experiments are loaded ahead on worker threads; this thread writes them in order
+		ExportPrefetcher<Experiment> prefetcher = new ExportPrefetcher<Experiment>(options.experimentIndexFirst,
+				options.experimentIndexLast, ExportPrefetcher.defaultWindow(),
+				index -> loadExperimentForExport(expList.getItemAtNoLoad(index)));
 		try {
 			progress.setLength(Math.max(1, progressLen));
 			int column = 1;
@@ -223,21 +228,7 @@ public abstract class XLSExport {
 
 			for (int index = options.experimentIndexFirst; index <= options.experimentIndexLast; index++) {
 				currentIndex = index;
-				Experiment exp = expList.getItemAt(index);
-				if (exp instanceof LazyExperiment) {
-					((LazyExperiment) exp).loadIfNeeded();
-				}
-
-				// Ensure properties are loaded (reload to ensure they're up to date)
-				exp.loadExperimentDescriptors();
-
-				// Resolve bin before spot/cage measures: kymograph data may live in a different
-				// bin_* than the camera interval suggests (see ExperimentOpenPipeline).
-				ensureBinDirectoryIsDefined(exp);
-				exp.load_spots_description_and_measures();
-				exp.load_capillaries_description_and_measures();
-				// Excel export does not need to push ROIs into the sequence; avoid the cost.
-				exp.loadCagesMeasures(false);
+				Experiment exp = prefetcher.take(index);
 				if (shouldSkipChainedExperiment(exp)) {
 					continue;
 				}
@@ -263,6 +254,7 @@ public abstract class XLSExport {
 					+ " (1-based=" + (currentIndex + 1) + "/" + nbexpts + ")" + expInfo);
 			throw new ExcelExportException("Export execution failed", "execute_export", "export_loop", e);
 		} finally {
+			prefetcher.close();
 			// Ensure progress frame is properly closed
 			if (progress != null) {
 				progress.close();
@@ -270,6 +262,29 @@ public abstract class XLSExport {
 		}
 	}
 
+	/**
+	 * Loads what {@link #exportExperimentData} reads from {@code exp}. Runs on an
+	 * {@link ExportPrefetcher} worker while previous experiments are being written, so it must only
+	 * touch {@code exp}.
+	 */
+	protected Experiment loadExperimentForExport(Experiment exp) {
+		if (exp instanceof LazyExperiment) {
+			((LazyExperiment) exp).loadIfNeeded();
+		}
+
+		// Ensure properties are loaded (reload to ensure they're up to date)
+		exp.loadExperimentDescriptors();
+
+		// Resolve bin before spot/cage measures: kymograph data may live in a different
+		// bin_* than the camera interval suggests (see ExperimentOpenPipeline).
+		ensureBinDirectoryIsDefined(exp);
+		exp.load_spots_description_and_measures();
+		exp.load_capillaries_description_and_measures();
+		// Excel export does not need to push ROIs into the sequence; avoid the cost.
+		exp.loadCagesMeasures(false);
+		return exp;
+	}
+
 	protected void ensureBinDirectoryIsDefined(Experiment exp) {
 		if (exp == null) {
 			return;
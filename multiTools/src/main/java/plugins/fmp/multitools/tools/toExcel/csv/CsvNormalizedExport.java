@@ -27,6 +27,7 @@ import plugins.fmp.multitools.tools.results.ResultsOptions;
 import plugins.fmp.multitools.tools.toExcel.NormalizedExportSupport;
 import plugins.fmp.multitools.tools.toExcel.enums.ExportLayoutMode;
 import plugins.fmp.multitools.tools.toExcel.exceptions.ExcelExportException;
+import plugins.fmp.multitools.tools.toExcel.utils.ExportPrefetcher;
 
 /**
  * Normalized CSV export for multiCAFE capillary levels and gulps.
@@ -81,19 +82,14 @@ public final class CsvNormalizedExport {
 		int[] bx = expList.getExportExperimentIndexBounds(options);
 		int progressLen = (bx[1] >= bx[0]) ? (bx[1] - bx[0] + 1) : nbexpts;
 
-		try (CsvNormalizedExportSupport csv = new CsvNormalizedExportSupport(csvFolder, denseCols, binStepMs, true)) {
+		try (CsvNormalizedExportSupport csv = new CsvNormalizedExportSupport(csvFolder, denseCols, binStepMs, true);
+				ExportPrefetcher<Experiment> prefetcher = new ExportPrefetcher<Experiment>(options.experimentIndexFirst,
+						options.experimentIndexLast, ExportPrefetcher.defaultWindow(),
+						index -> loadExperiment(expList.getItemAtNoLoad(index), expList, options))) {
 			progress.setLength(Math.max(1, progressLen));
 			int iSeries = 0;
 			for (int index = options.experimentIndexFirst; index <= options.experimentIndexLast; index++) {
-				Experiment exp = expList.getItemAt(index);
-				if (exp instanceof LazyExperiment) {
-					((LazyExperiment) exp).loadIfNeeded();
-				}
-				exp.loadExperimentDescriptors();
-				ensureBinDirectory(exp, expList, options);
-				exp.load_spots_description_and_measures();
-				exp.load_capillaries_description_and_measures();
-				exp.loadCagesMeasures(false);
+				Experiment exp = prefetcher.take(index);
 				if (shouldSkipChained(exp, options)) {
 					continue;
 				}
@@ -550,6 +546,19 @@ public final class CsvNormalizedExport {
 		return cam > 0 ? cam : exp.getKymoBin_ms();
 	}
 
+	/** Runs on an {@link ExportPrefetcher} worker, concurrently with the export of previous experiments. */
+	private static Experiment loadExperiment(Experiment exp, JComboBoxExperimentLazy expList, ResultsOptions options) {
+		if (exp instanceof LazyExperiment) {
+			((LazyExperiment) exp).loadIfNeeded();
+		}
+		exp.loadExperimentDescriptors();
+		ensureBinDirectory(exp, expList, options);
+		exp.load_spots_description_and_measures();
+		exp.load_capillaries_description_and_measures();
+		exp.loadCagesMeasures(false);
+		return exp;
+	}
+
 	private static void ensureBinDirectory(Experiment exp, JComboBoxExperimentLazy expList, ResultsOptions options) {
 		String preferred = expList != null ? expList.expListBinSubDirectory : null;
 		exp.resolveActiveBinForMeasuresLoad(preferred, false, false);
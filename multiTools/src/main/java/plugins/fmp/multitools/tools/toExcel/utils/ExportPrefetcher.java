@@ -0,0 +1,112 @@
+package plugins.fmp.multitools.tools.toExcel.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import icy.system.SystemUtil;
+import icy.system.thread.Processor;
+
+/**
+ * Loads the experiments of an export range ahead of the writer on a small worker pool and hands
+ * them back strictly in index order: sheets and CSV files are still assembled by a single thread,
+ * exactly as in a sequential export, while the disk reads and parsing of the next experiments
+ * overlap with the export of the current one.
+ * <p>
+ * At most {@code window} experiments are loading or waiting for the writer, and no new load is
+ * started while less than {@link #MIN_FREE_HEAP_FRACTION} of the maximum heap is free (the
+ * experiment the writer waits for is always loaded). The window defaults to the number of CPUs,
+ * capped at {@value #MAX_DEFAULT_WINDOW} ({@link #defaultWindow()}); a window of {@code 1} loads each
+ * experiment inline, as before.
+ *
+ * @param <T> loaded item (an experiment)
+ */
+public final class ExportPrefetcher<T> implements AutoCloseable {
+
+	/** Loads item {@code index}; runs on a worker thread, concurrently with the writer. */
+	public interface Loader<T> {
+		T load(int index) throws Exception;
+	}
+
+	public static final double MIN_FREE_HEAP_FRACTION = 0.2;
+	private static final int MAX_DEFAULT_WINDOW = 4;
+
+	private final int lastIndex;
+	private final int window;
+	private final Loader<T> loader;
+	private final Processor processor;
+	private final Map<Integer, Future<T>> pending = new HashMap<Integer, Future<T>>();
+	private int nextToSubmit;
+
+	public ExportPrefetcher(int firstIndex, int lastIndex, int window, Loader<T> loader) {
+		this.lastIndex = lastIndex;
+		this.window = Math.max(1, window);
+		this.loader = loader;
+		this.nextToSubmit = firstIndex;
+		if (this.window > 1 && lastIndex > firstIndex) {
+			processor = new Processor(Math.min(this.window, lastIndex - firstIndex + 1));
+			processor.setThreadName("exportPrefetch");
+			processor.setPriority(Processor.NORM_PRIORITY);
+		} else {
+			processor = null;
+		}
+	}
+
+	public static int defaultWindow() {
+		return Math.max(1, Math.min(SystemUtil.getNumberOfCPUs(), MAX_DEFAULT_WINDOW));
+	}
+
+	/**
+	 * Returns item {@code index} once loaded, after starting the loads of the following ones.
+	 * Indices must be taken in increasing order. A load failure is rethrown here, unwrapped.
+	 */
+	public T take(int index) throws Exception {
+		if (processor == null) {
+			return loader.load(index);
+		}
+		fill(index);
+		Future<T> future = pending.remove(index);
+		if (future == null) {
+			throw new IllegalStateException("ExportPrefetcher: index " + index + " taken out of order");
+		}
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	private void fill(int current) {
+		while (nextToSubmit <= lastIndex && nextToSubmit < current + window
+				&& (nextToSubmit <= current || hasHeapHeadroom())) {
+			final int index = nextToSubmit++;
+			pending.put(index, processor.submit(() -> loader.load(index)));
+		}
+	}
+
+	private static boolean hasHeapHeadroom() {
+		Runtime rt = Runtime.getRuntime();
+		long free = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+		return free > (long) (rt.maxMemory() * MIN_FREE_HEAP_FRACTION);
+	}
+
+	/** Cancels loads not started yet (running ones complete) and stops the workers. */
+	@Override
+	public void close() {
+		for (Future<T> future : pending.values()) {
+			future.cancel(false);
+		}
+		pending.clear();
+		if (processor != null) {
+			processor.shutdown();
+		}
+	}
+}
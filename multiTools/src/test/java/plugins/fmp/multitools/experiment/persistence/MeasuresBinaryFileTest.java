@@ -0,0 +1,115 @@
+package plugins.fmp.multitools.experiment.persistence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.Test;
+
+import plugins.fmp.multitools.tools.results.MeasureColumn;
+
+public class MeasuresBinaryFileTest {
+
+	@Test
+	public void roundTripKeepsSectionsRowsAndValues() throws Exception {
+		Path dir = Files.createTempDirectory("mbin");
+		Path csv = dir.resolve("SpotsMeasures.csv");
+		Files.write(csv, "#;version;2.0\n".getBytes("UTF-8"));
+
+		MeasuresBinaryFile out = new MeasuresBinaryFile();
+		out.addDoubles("AREA_SUM", "spot_01", 3, new double[] { 1.5, Double.NaN, -2 }, 3);
+		out.addInts("AREA_FLYPRESENT", "spot_01", 3, new int[] { 0, 1, 1 });
+		out.addDoubles("AREA_SUM", "spot_é", 4, MeasureColumn.encode(new double[] { 7, 8 }, MeasureColumn.Encoding.FLOAT));
+		out.addDoubles("AREA_SUM", "empty", 5, new double[0], 0);
+		assertTrue(out.writeNextTo(csv));
+
+		MeasuresBinaryFile in = MeasuresBinaryFile.readIfCurrent(csv);
+		assertNotNull(in);
+		List<MeasuresBinaryFile.Column> columns = in.getColumns();
+		assertEquals(3, columns.size());
+		assertEquals("AREA_SUM", columns.get(0).getSection());
+		assertEquals("spot_01", columns.get(0).getRow());
+		assertEquals(3, columns.get(0).getIndex());
+		assertArrayEquals(new double[] { 1.5, Double.NaN, -2 }, columns.get(0).getDoubles(), 0);
+		assertTrue(columns.get(1).isInt());
+		assertArrayEquals(new int[] { 0, 1, 1 }, columns.get(1).getInts());
+		assertEquals("spot_é", columns.get(2).getRow());
+		assertArrayEquals(new double[] { 7, 8 }, columns.get(2).getDoubles(), 0);
+	}
+
+	@Test
+	public void indexColumnsReadOnDemandAndFollowRewrites() throws Exception {
+		Path dir = Files.createTempDirectory("mbin");
+		Path csv = dir.resolve("SpotsMeasures.csv");
+		Files.write(csv, "#;version;2.0\n".getBytes("UTF-8"));
+		MeasuresBinaryFile out = new MeasuresBinaryFile();
+		out.addDoubles("AREA_SUM", "spot_01", 1, new double[] { 1, 2, 3 }, 3);
+		out.addInts("AREA_FLYPRESENT", "spot_01", 1, new int[] { 1, 0, 1 });
+		out.writeNextTo(csv);
+
+		MeasuresBinaryFile index = MeasuresBinaryFile.readIndexIfCurrent(csv);
+		assertNotNull(index);
+		MeasuresBinaryFile.Column sum = index.getColumns().get(0);
+		MeasuresBinaryFile.Column present = index.getColumns().get(1);
+		assertEquals(3, sum.size());
+		assertArrayEquals(new double[] { 1, 2, 3 }, sum.readDoubles(), 0);
+		assertArrayEquals(new int[] { 1, 0, 1 }, present.readInts());
+
+		// a save rewrites the file with another layout: columns are found again by name
+		MeasuresBinaryFile rewrite = new MeasuresBinaryFile();
+		rewrite.addDoubles("AREA_SUMCLEAN", "spot_01", 1, new double[] { 9, 9, 9, 9 }, 4);
+		rewrite.addInts("AREA_FLYPRESENT", "spot_01", 1, new int[] { 1, 0, 1 });
+		rewrite.addDoubles("AREA_SUM", "spot_01", 1, new double[] { 1, 2, 3 }, 3);
+		Path bin = MeasuresBinaryFile.siblingOf(csv);
+		rewrite.write(bin);
+		Files.setLastModifiedTime(bin, FileTime.fromMillis(Files.getLastModifiedTime(bin).toMillis() + 2000));
+		assertArrayEquals(new double[] { 1, 2, 3 }, sum.readDoubles(), 0);
+		assertArrayEquals(new int[] { 1, 0, 1 }, present.readInts());
+	}
+
+	@Test
+	public void csvNewerThanBinaryWins() throws Exception {
+		Path dir = Files.createTempDirectory("mbin");
+		Path csv = dir.resolve("CagesMeasures.csv");
+		Files.write(csv, "#;version;2.0\n".getBytes("UTF-8"));
+		MeasuresBinaryFile out = new MeasuresBinaryFile();
+		out.addDoubles("POSITION", "x(i)", 1, new double[] { 10, 11 }, 2);
+		out.writeNextTo(csv);
+		Path bin = MeasuresBinaryFile.siblingOf(csv);
+		assertEquals("CagesMeasures" + MeasuresBinaryFile.EXTENSION, bin.getFileName().toString());
+
+		Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(bin).toMillis() + 5000));
+		assertNull(MeasuresBinaryFile.readIfCurrent(csv));
+
+		Files.write(bin, new byte[] { 1, 2, 3 });
+		Files.setLastModifiedTime(csv, FileTime.fromMillis(0));
+		assertNull(MeasuresBinaryFile.readIfCurrent(csv));
+	}
+
+	@Test
+	public void readReleasesTheFileForTheNextSave() throws Exception {
+		Path dir = Files.createTempDirectory("mbin");
+		Path bin = dir.resolve("SpotsMeasures" + MeasuresBinaryFile.EXTENSION);
+		MeasuresBinaryFile out = new MeasuresBinaryFile();
+		out.addDoubles("AREA_SUM", "spot_01", 1, new double[] { 4, 5, 6 }, 3);
+		out.write(bin);
+
+		MeasuresBinaryFile in = MeasuresBinaryFile.read(bin);
+		// the next save replaces the file, a later cleanup deletes it (both fail on Windows while mapped)
+		MeasuresBinaryFile rewrite = new MeasuresBinaryFile();
+		rewrite.addDoubles("AREA_SUM", "spot_01", 1, new double[] { 7 }, 1);
+		rewrite.write(bin);
+		assertArrayEquals(new double[] { 7 }, MeasuresBinaryFile.read(bin).getColumns().get(0).getDoubles(), 0);
+		Files.delete(bin);
+		assertFalse(Files.exists(bin));
+		assertArrayEquals(new double[] { 4, 5, 6 }, in.getColumns().get(0).getDoubles(), 0);
+	}
+}
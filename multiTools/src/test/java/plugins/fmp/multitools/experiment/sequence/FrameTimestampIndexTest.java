@@ -0,0 +1,112 @@
+package plugins.fmp.multitools.experiment.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class FrameTimestampIndexTest {
+
+	@Test
+	public void recordsSurviveSaveAndLoad() throws IOException {
+		Path dir = Files.createTempDirectory("ftix");
+		Path file = dir.resolve(FrameTimestampIndex.FILENAME);
+		FrameTimestampIndex index = new FrameTimestampIndex();
+		index.record("/stack/2024-01-01_10-00-00.jpg", FrameTimestampIndex.SOURCE_NAME, 1000L);
+		index.record("/stack/2024-01-01_10-01-00.jpg", FrameTimestampIndex.SOURCE_NAME, 61000L);
+		assertTrue(index.save(file));
+		assertFalse(index.isDirty());
+
+		FrameTimestampIndex loaded = FrameTimestampIndex.load(file);
+		assertEquals(2, loaded.size());
+		// keyed by file name: the stack may have moved
+		assertEquals(61000L, loaded.lookup("/moved/2024-01-01_10-01-00.jpg", FrameTimestampIndex.SOURCE_NAME));
+		assertEquals(FrameTimestampIndex.MISSING,
+				loaded.lookup("/stack/2024-01-01_10-02-00.jpg", FrameTimestampIndex.SOURCE_NAME));
+		assertEquals(FrameTimestampIndex.MISSING,
+				loaded.lookup("/stack/2024-01-01_10-00-00.jpg", FrameTimestampIndex.SOURCE_EXIF));
+	}
+
+	@Test
+	public void fileTimesAreDroppedWhenTheFileChanges() throws IOException {
+		Path dir = Files.createTempDirectory("ftix");
+		File frame = dir.resolve("img001.jpg").toFile();
+		Files.write(frame.toPath(), new byte[] { 1, 2, 3 });
+		FrameTimestampIndex index = new FrameTimestampIndex();
+		index.record(frame.getPath(), FrameTimestampIndex.SOURCE_ATTRIBUTES, 5000L);
+		assertEquals(5000L, index.lookup(frame.getPath(), FrameTimestampIndex.SOURCE_ATTRIBUTES));
+
+		Files.write(frame.toPath(), new byte[] { 1, 2, 3, 4 });
+		assertEquals(FrameTimestampIndex.MISSING, index.lookup(frame.getPath(), FrameTimestampIndex.SOURCE_ATTRIBUTES));
+	}
+
+	@Test
+	public void nameTimesAreKeyedByTheirPattern() throws IOException {
+		Path dir = Files.createTempDirectory("ftix");
+		Path file = dir.resolve(FrameTimestampIndex.FILENAME);
+		FrameTimestampIndex index = new FrameTimestampIndex();
+		index.record("/stack/24-01-02_10-00-00.jpg", FrameTimestampIndex.SOURCE_NAME, "yy-MM-dd_HH-mm-ss", 1000L);
+		assertTrue(index.save(file));
+
+		FrameTimestampIndex loaded = FrameTimestampIndex.load(file);
+		assertEquals(1000L,
+				loaded.lookup("/stack/24-01-02_10-00-00.jpg", FrameTimestampIndex.SOURCE_NAME, "yy-MM-dd_HH-mm-ss"));
+		assertEquals(FrameTimestampIndex.MISSING,
+				loaded.lookup("/stack/24-01-02_10-00-00.jpg", FrameTimestampIndex.SOURCE_NAME, "yy.MM.dd_HH.mm.ss"));
+		assertEquals(FrameTimestampIndex.MISSING,
+				loaded.lookup("/stack/24-01-02_10-00-00.jpg", FrameTimestampIndex.SOURCE_NAME));
+	}
+
+	@Test
+	public void namesThatDoNotParseAreNotRecorded() throws IOException {
+		Path dir = Files.createTempDirectory("ftix");
+		ImageLoader loader = new ImageLoader();
+		// the second name matches the "yy.MM.dd_HH.mm.ss" pattern but is not a date in that format
+		loader.setImagesList(Arrays.asList(dir.resolve("2024-01-01_10-00-00.jpg").toString(),
+				dir.resolve("img_24x01x01_10.00.00.jpg").toString()));
+		TimeManager timeManager = new TimeManager();
+		timeManager.setTimestampIndexDirectory(dir.toString());
+		long first = timeManager.getFileTimeFromStructuredName(loader, 0).toMillis();
+		timeManager.getFileTimeFromStructuredName(loader, 1);
+		assertTrue(timeManager.saveTimestampIndex());
+
+		FrameTimestampIndex loaded = FrameTimestampIndex.load(dir.resolve(FrameTimestampIndex.FILENAME));
+		assertEquals(1, loaded.size());
+		assertEquals(first, loaded.lookup(loader.getFileNameFromImageList(0), FrameTimestampIndex.SOURCE_NAME,
+				"yyyy-MM-dd_HH-mm-ss"));
+	}
+
+	@Test
+	public void timesAreWrittenOnlyOnceAResultsDirectoryIsSet() throws IOException {
+		Path dir = Files.createTempDirectory("ftix");
+		ImageLoader loader = new ImageLoader();
+		loader.setImagesList(Arrays.asList(dir.resolve("2024-01-01_10-00-00.jpg").toString()));
+		TimeManager timeManager = new TimeManager();
+		long first = timeManager.getFileTimeFromStructuredName(loader, 0).toMillis();
+		// a plain image folder: nothing is created next to the frames
+		assertFalse(timeManager.saveTimestampIndex());
+		assertFalse(Files.exists(dir.resolve("results")));
+
+		Path results = dir.resolve("results");
+		timeManager.setTimestampIndexDirectory(results.toString());
+		assertTrue(timeManager.saveTimestampIndex());
+		assertEquals(first, FrameTimestampIndex.load(results.resolve(FrameTimestampIndex.FILENAME))
+				.lookup(loader.getFileNameFromImageList(0), FrameTimestampIndex.SOURCE_NAME, "yyyy-MM-dd_HH-mm-ss"));
+	}
+
+	@Test
+	public void unknownFileGivesAnEmptyIndex() throws IOException {
+		Path dir = Files.createTempDirectory("ftix");
+		Path file = dir.resolve(FrameTimestampIndex.FILENAME);
+		Files.write(file, new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 });
+		assertEquals(0, FrameTimestampIndex.load(file).size());
+		assertEquals(0, FrameTimestampIndex.load(dir.resolve("none.bin")).size());
+	}
+}
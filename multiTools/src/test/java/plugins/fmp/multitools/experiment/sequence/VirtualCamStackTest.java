@@ -0,0 +1,109 @@
+package plugins.fmp.multitools.experiment.sequence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import icy.image.IcyBufferedImage;
+import icy.sequence.Sequence;
+
+public class VirtualCamStackTest {
+
+	private static String writeFrame(Path dir, String name, int gray) throws IOException {
+		File file = dir.resolve(name).toFile();
+		BufferedImage image = new BufferedImage(32, 16, BufferedImage.TYPE_3BYTE_BGR);
+		Graphics2D g = image.createGraphics();
+		g.setColor(new Color(gray, gray, gray));
+		g.fillRect(0, 0, 32, 16);
+		g.dispose();
+		ImageIO.write(image, "jpg", file);
+		return file.getPath();
+	}
+
+	/** Three frames; the middle one is not a decodable JPEG. */
+	private static VirtualCamStack openStack(ImageLoader loader, List<String> files) throws IOException {
+		Path dir = Files.createTempDirectory("vcam");
+		files.add(writeFrame(dir, "img0.jpg", 40));
+		Path broken = dir.resolve("img1.jpg");
+		Files.write(broken, new byte[] { 1, 2, 3 });
+		files.add(broken.toString());
+		files.add(writeFrame(dir, "img2.jpg", 200));
+
+		return VirtualCamStack.open(loader, files, "vcam");
+	}
+
+	@Test
+	public void planesAreResolvedWhenRead() throws IOException {
+		ImageLoader loader = new ImageLoader();
+		List<String> files = new ArrayList<String>();
+		VirtualCamStack stack = openStack(loader, files);
+		assertNotNull(stack);
+		try {
+			Sequence seq = stack.getSequence();
+			assertEquals(3, stack.getSizeT());
+			// frame 0 is on display, frame 2 is decoded through the cache although never shown
+			IcyBufferedImage plane = seq.getImage(2, 0);
+			assertNotNull(plane);
+			assertArrayEquals(loader.imageIORead(files.get(2)).getDataXYAsByte(0), plane.getDataXYAsByte(0));
+
+			stack.showFrame(2);
+			assertArrayEquals(loader.imageIORead(files.get(0)).getDataXYAsByte(0), seq.getImage(0, 0).getDataXYAsByte(0));
+		} finally {
+			stack.close();
+		}
+	}
+
+	@Test
+	public void framesOutsideTheStackAreNull() throws IOException {
+		VirtualCamStack stack = openStack(new ImageLoader(), new ArrayList<String>());
+		try {
+			assertNull(stack.getImage(-1));
+			assertNull(stack.getImage(3));
+			assertNull(stack.getSequence().getImage(3, 0));
+			assertNull(stack.resolvePlane(-1));
+			stack.showFrame(7);
+			assertNotNull(stack.getSequence().getImage(0, 0));
+		} finally {
+			stack.close();
+		}
+	}
+
+	@Test
+	public void unreadableFramesReadAsNewBlankPlanes() throws IOException {
+		VirtualCamStack stack = openStack(new ImageLoader(), new ArrayList<String>());
+		try {
+			Sequence seq = stack.getSequence();
+			IcyBufferedImage first = seq.getImage(1, 0);
+			assertNotNull(first);
+			assertEquals(32, first.getSizeX());
+			byte[] data = first.getDataXYAsByte(0);
+			data[0] = 99;
+			first.dataChanged();
+
+			// writing into one blank plane must not show up at another T, nor at the same T later
+			IcyBufferedImage again = seq.getImage(1, 0);
+			assertNotSame(first, again);
+			assertEquals(0, again.getDataXYAsByte(0)[0]);
+			stack.showFrame(2);
+			assertEquals(0, seq.getImage(1, 0).getDataXYAsByte(0)[0]);
+		} finally {
+			stack.close();
+		}
+	}
+}
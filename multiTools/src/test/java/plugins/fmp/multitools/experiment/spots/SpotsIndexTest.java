@@ -0,0 +1,75 @@
+package plugins.fmp.multitools.experiment.spots;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import plugins.fmp.multitools.experiment.ids.SpotID;
+import plugins.fmp.multitools.experiment.spot.Spot;
+
+public class SpotsIndexTest {
+
+	private static Spot spot(int id, int cageID, String name) {
+		Spot spot = new Spot();
+		spot.setSpotUniqueID(new SpotID(id));
+		spot.getProperties().setCageID(cageID);
+		spot.getProperties().setName(name);
+		return spot;
+	}
+
+	@Test
+	public void lookupsFollowListAndKeyChanges() {
+		Spots spots = new Spots();
+		Spot a = spot(1, 0, "spot_000_000");
+		Spot b = spot(2, 0, "spot_000_001");
+		Spot c = spot(3, 1, "spot_001_000");
+		spots.addSpot(a);
+		spots.addSpot(b);
+		spots.addSpot(c);
+
+		assertSame(b, spots.findSpotwithID(new SpotID(2)));
+		assertSame(c, spots.findSpotByName("spot_001_000"));
+		assertEquals(Arrays.asList(a, b), spots.findSpotsInCage(0));
+		assertNull(spots.findSpotwithID(new SpotID(4)));
+
+		// edits to spot keys and direct list edits are both seen
+		long version = spots.getVersion();
+		b.getProperties().setCageID(1);
+		assertNotEquals(version, spots.getVersion());
+		assertEquals(Arrays.asList(b, c), spots.findSpotsInCage(1));
+
+		Spot d = spot(4, 2, "spot_002_000");
+		spots.getSpotList().add(d);
+		assertSame(d, spots.findSpotwithID(new SpotID(4)));
+		spots.getSpotList().set(3, spot(5, 2, "spot_002_001"));
+		assertNull(spots.findSpotByName("spot_002_000"));
+		spots.getSpotList().remove(3);
+		assertFalse(spots.isSpotPresent(spot(6, 2, "spot_002_001")));
+
+		// unchanged spots keep the version
+		version = spots.getVersion();
+		b.getProperties().setCageID(1);
+		spots.findSpotByName("spot_000_001");
+		assertEquals(version, spots.getVersion());
+	}
+
+	@Test
+	public void firstSpotInListOrderWinsOnDuplicates() {
+		Spots spots = new Spots();
+		Spot first = spot(7, 0, "dup");
+		Spot second = spot(8, 0, "dup");
+		spots.addSpot(first);
+		spots.addSpot(second);
+		assertSame(first, spots.findSpotByName("dup"));
+		assertTrue(spots.isSpotPresent(second));
+		spots.removeSpot(first);
+		assertSame(second, spots.findSpotByName("dup"));
+	}
+}
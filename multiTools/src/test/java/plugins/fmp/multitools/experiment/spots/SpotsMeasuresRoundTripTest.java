@@ -0,0 +1,84 @@
+package plugins.fmp.multitools.experiment.spots;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import plugins.fmp.multitools.experiment.ids.SpotID;
+import plugins.fmp.multitools.experiment.persistence.MeasuresBinaryFile;
+import plugins.fmp.multitools.experiment.spot.Spot;
+import plugins.fmp.multitools.experiment.spot.SpotMeasure;
+import plugins.fmp.multitools.tools.results.EnumResults;
+import plugins.fmp.multitools.tools.results.MeasureColumn;
+
+public class SpotsMeasuresRoundTripTest {
+
+	private static final String CSV = "SpotsMeasures.csv";
+	private static final String BIN = "SpotsMeasures" + MeasuresBinaryFile.EXTENSION;
+
+	private static Spots plate(boolean withValues) {
+		Spots spots = new Spots();
+		for (int i = 0; i < 2; i++) {
+			Spot spot = new Spot();
+			spot.setSpotUniqueID(new SpotID(i + 1));
+			spot.getProperties().setCageID(0);
+			spot.getProperties().setName("spot_000_00" + i);
+			if (withValues) {
+				// values that float storage would change
+				spot.getMeasurements(EnumResults.AREA_SUM)
+						.setValues(new double[] { 0.1 + i, 1.0 / 3, 123456.789012345, Double.NaN, 1e-17 });
+				spot.getMeasurements(EnumResults.AREA_FLYPRESENT).setIsPresent(new int[] { 0, 1, 1, 0, 1 });
+			}
+			spots.addSpot(spot);
+		}
+		return spots;
+	}
+
+	private static void assertSameFiles(Path expected, Path actual) throws IOException {
+		assertArrayEquals(Files.readAllBytes(expected.resolve(CSV)), Files.readAllBytes(actual.resolve(CSV)));
+		assertArrayEquals(Files.readAllBytes(expected.resolve(BIN)), Files.readAllBytes(actual.resolve(BIN)));
+	}
+
+	@Test
+	public void loadAndSaveKeepMeasuresByteForByte() throws IOException {
+		Path first = Files.createTempDirectory("spm");
+		Spots spots = plate(true);
+		assertEquals(MeasureColumn.Encoding.DOUBLE, spots.getMeasuresEncoding());
+		assertTrue(spots.saveMeasures(first.toString()));
+
+		// read back through the binary file
+		Spots loaded = plate(false);
+		assertTrue(loaded.loadMeasures(first.toString()));
+		Path second = Files.createTempDirectory("spm");
+		assertTrue(loaded.saveMeasures(second.toString()));
+		assertSameFiles(first, second);
+		assertEquals(1.0 / 3, loaded.getSpotList().get(0).getMeasurements(EnumResults.AREA_SUM).getValueAt(1), 0);
+
+		// and through the CSV alone
+		Files.delete(second.resolve(BIN));
+		Spots parsed = plate(false);
+		assertTrue(parsed.loadMeasures(second.toString()));
+		Path third = Files.createTempDirectory("spm");
+		assertTrue(parsed.saveMeasures(third.toString()));
+		assertSameFiles(first, third);
+	}
+
+	@Test
+	public void floatCompactionIsOptInAndSurvivesEdits() {
+		SpotMeasure measure = new SpotMeasure("AREA_SUM");
+		measure.setValues(new double[] { 0.3, 2.5 });
+		measure.compactValues(MeasureColumn.Encoding.FLOAT);
+		measure.setValueAt(1, 1.0 / 3);
+
+		StringBuilder row = new StringBuilder();
+		assertTrue(measure.exportYDataToCsv(row, ";"));
+		// the untouched float sample is not written as its widened expansion, the edit keeps double
+		assertEquals("2;0.3;" + (1.0 / 3), row.toString());
+	}
+}
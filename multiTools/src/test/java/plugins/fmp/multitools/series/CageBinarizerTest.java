@@ -0,0 +1,98 @@
+package plugins.fmp.multitools.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.Rectangle;
+import java.util.Random;
+
+import org.junit.Test;
+
+import icy.image.IcyBufferedImage;
+import icy.type.DataType;
+import plugins.fmp.multitools.tools.polyline.Blobs;
+
+public class CageBinarizerTest {
+
+	private static final int W = 90;
+	private static final int H = 70;
+
+	/** Full-frame binarization as done before cage-local kernels. */
+	private static boolean[] fullFrame(IcyBufferedImage image, int threshold, boolean trackWhite, int closeRadius) {
+		boolean[] mask = new boolean[W * H];
+		byte[] r = image.getDataXYAsByte(0);
+		byte[] g = image.getDataXYAsByte(1);
+		byte[] b = image.getDataXYAsByte(2);
+		for (int i = 0; i < mask.length; i++) {
+			if (trackWhite)
+				mask[i] = ((r[i] & 0xFF) + (g[i] & 0xFF) + (b[i] & 0xFF)) / 3f > threshold;
+			else
+				mask[i] = (g[i] & 0xFF) < threshold;
+		}
+		return closeRadius > 0 ? DetectFlyTools.morphClose(mask, W, H, closeRadius) : mask;
+	}
+
+	/** Image of dark blobs with thin gaps on a bright noisy background. */
+	private static IcyBufferedImage image(Random random) {
+		IcyBufferedImage image = new IcyBufferedImage(W, H, 3, DataType.UBYTE);
+		for (int c = 0; c < 3; c++) {
+			byte[] plane = (byte[]) image.getDataXY(c);
+			for (int i = 0; i < plane.length; i++)
+				plane[i] = (byte) (150 + random.nextInt(100));
+		}
+		for (int n = 0; n < 40; n++) {
+			int cx = random.nextInt(W);
+			int cy = random.nextInt(H);
+			int rx = 1 + random.nextInt(5);
+			int ry = 1 + random.nextInt(5);
+			for (int y = Math.max(0, cy - ry); y < Math.min(H, cy + ry); y++)
+				for (int x = Math.max(0, cx - rx); x < Math.min(W, cx + rx); x++)
+					if (random.nextInt(6) > 0)
+						for (int c = 0; c < 3; c++)
+							((byte[]) image.getDataXY(c))[x + y * W] = (byte) random.nextInt(60);
+		}
+		return image;
+	}
+
+	@Test
+	public void cageLabelsMatchFullFrameBinarization() {
+		Random random = new Random(7);
+		// inside, across the left/top edges, across the right/bottom edges, wider than 64 pixels
+		Rectangle[] cages = { new Rectangle(20, 15, 30, 25), new Rectangle(-5, -3, 20, 18),
+				new Rectangle(70, 55, 40, 30), new Rectangle(3, 30, 80, 12) };
+		for (int trial = 0; trial < 4; trial++) {
+			IcyBufferedImage image = image(random);
+			for (boolean trackWhite : new boolean[] { false, true }) {
+				int threshold = trackWhite ? 120 : 80;
+				for (int radius = 0; radius <= 3; radius++) {
+					boolean[] expected = fullFrame(image, threshold, trackWhite, radius);
+					CageBinarizer binarizer = new CageBinarizer(image, threshold, trackWhite, 1, radius);
+					for (Rectangle cage : cages) {
+						// elliptic cage mask
+						boolean[] cageMask = new boolean[cage.width * cage.height];
+						for (int y = 0; y < cage.height; y++)
+							for (int x = 0; x < cage.width; x++) {
+								double dx = (x + 0.5) / cage.width - 0.5;
+								double dy = (y + 0.5) / cage.height - 0.5;
+								cageMask[x + y * cage.width] = dx * dx + dy * dy < 0.25;
+							}
+						Blobs blobs = binarizer.label(cage, cageMask);
+						Rectangle clipped = cage.intersection(new Rectangle(0, 0, W, H));
+						for (int y = clipped.y; y < clipped.y + clipped.height; y++)
+							for (int x = clipped.x; x < clipped.x + clipped.width; x++) {
+								boolean in = cageMask[(x - cage.x) + (y - cage.y) * cage.width] && expected[x + y * W];
+								assertEquals(in, blobs.getBlobAt(x, y) > 0);
+							}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void cageOutsideTheFrameHasNoBlobs() {
+		IcyBufferedImage image = new IcyBufferedImage(W, H, 3, DataType.UBYTE);
+		CageBinarizer binarizer = new CageBinarizer(image, 100, false, 0, 1);
+		assertNull(binarizer.label(new Rectangle(W, 0, 10, 10), new boolean[100]));
+	}
+}
@@ -0,0 +1,77 @@
+package plugins.fmp.multitools.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import plugins.fmp.multitools.tools.ROI2D.CompiledMasks;
+
+public class FrameMajorKymoEngineTest {
+
+	private static CompiledMasks randomMasks(Random rnd, int width, int height, int rows) {
+		CompiledMasks.Builder b = new CompiledMasks.Builder(width, rows);
+		for (int r = 0; r < rows; r++) {
+			int n = rnd.nextInt(6);
+			int y = rnd.nextInt(height);
+			int x0 = rnd.nextInt(width);
+			for (int i = 0; i < n; i++) {
+				b.addPixel(x0 + i, y, height);
+			}
+			b.endRow();
+		}
+		return b.build();
+	}
+
+	@Test
+	public void frameMajorSumsMatchRoiByRoiSums() {
+		int width = 64;
+		int height = 48;
+		Random rnd = new Random(42);
+		int[] src0 = new int[width * height];
+		int[] src1 = new int[width * height];
+		for (int i = 0; i < src0.length; i++) {
+			src0[i] = rnd.nextInt(256);
+			src1[i] = rnd.nextInt(256);
+		}
+		List<CompiledMasks> targets = new ArrayList<>();
+		for (int t = 0; t < 5; t++) {
+			targets.add(randomMasks(rnd, width, height, 10 + t));
+		}
+
+		FrameMajorKymoEngine engine = new FrameMajorKymoEngine(targets);
+		long[] sums0 = new long[engine.getTotalRows()];
+		long[] sums1 = new long[engine.getTotalRows()];
+		engine.accumulate(src0, src1, null, sums0, sums1, null);
+
+		for (int t = 0; t < targets.size(); t++) {
+			CompiledMasks m = targets.get(t);
+			assertEquals(m.getRowCount(), engine.getRowCount(t));
+			for (int r = 0; r < m.getRowCount(); r++) {
+				int g = engine.getRowBase(t) + r;
+				assertEquals(m.getRowSize(r), engine.getPixelCount(g));
+				assertEquals(m.sumRow(src0, r), sums0[g]);
+				assertEquals(m.sumRow(src1, r), sums1[g]);
+			}
+		}
+	}
+
+	@Test
+	public void compiledMasksDropOutOfBoundsPixels() {
+		List<List<int[]>> masks = new ArrayList<>();
+		masks.add(Arrays.asList(new int[] { 0, 0 }, new int[] { -1, 0 }, new int[] { 3, 1 }));
+		masks.add(new ArrayList<int[]>());
+		masks.add(Arrays.asList(new int[] { 1, 2 }, new int[] { 1, 5 }));
+		CompiledMasks compiled = CompiledMasks.compile(masks, 4, 3);
+		assertEquals(3, compiled.getRowCount());
+		assertEquals(2, compiled.getRowSize(0));
+		assertEquals(0, compiled.getRowSize(1));
+		assertEquals(1, compiled.getRowSize(2));
+		assertEquals(7, compiled.getOffsets()[1]);
+		assertEquals(9, compiled.getOffsets()[2]);
+	}
+}
@@ -0,0 +1,113 @@
+package plugins.fmp.multitools.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import plugins.fmp.multitools.tools.registration.FrameTransformTable;
+
+public class KymographBuildManifestTest {
+
+	private static final String SETTINGS = "diskRadius=5;downsample=1";
+
+	private static List<String> frames(Path imagesDir, int n) throws IOException {
+		List<String> paths = new ArrayList<String>();
+		for (int i = 0; i < n; i++) {
+			Path frame = imagesDir.resolve("img_" + i + ".jpg");
+			Files.write(frame, new byte[100 + i]);
+			frame.toFile().setLastModified(1_600_000_000_000L + i * 1000L);
+			paths.add(frame.toString());
+		}
+		return paths;
+	}
+
+	private static KymographBuildManifest manifest(List<String> paths) {
+		List<String> names = new ArrayList<String>();
+		List<Long> times = new ArrayList<Long>();
+		List<String> stamps = new ArrayList<String>();
+		for (int i = 0; i < paths.size(); i++) {
+			names.add(new File(paths.get(i)).getName());
+			times.add(i * 60_000L);
+			stamps.add(KymographBuildManifest.frameStamp(paths.get(i)));
+		}
+		return new KymographBuildManifest(SETTINGS, names, times, stamps);
+	}
+
+	@Test
+	public void unchangedFramesAreReusedAfterRoundTrip() throws IOException {
+		Path imagesDir = Files.createTempDirectory("kmimg");
+		Path resultsDir = Files.createTempDirectory("kmres");
+		List<String> paths = frames(imagesDir, 4);
+		manifest(paths).write(resultsDir);
+
+		KymographBuildManifest previous = KymographBuildManifest.read(resultsDir);
+		assertNotNull(previous);
+		assertEquals(4, previous.matchingPrefix(manifest(paths)));
+
+		// a growing series keeps the existing columns
+		List<String> grown = frames(imagesDir, 6);
+		assertEquals(4, previous.matchingPrefix(manifest(grown)));
+	}
+
+	@Test
+	public void rewrittenFrameEndsTheReusablePrefix() throws IOException {
+		Path imagesDir = Files.createTempDirectory("kmimg");
+		List<String> paths = frames(imagesDir, 4);
+		KymographBuildManifest previous = manifest(paths);
+
+		Path frame2 = new File(paths.get(2)).toPath();
+		Files.write(frame2, new byte[500]);
+		frame2.toFile().setLastModified(1_600_000_002_000L);
+		assertEquals(2, previous.matchingPrefix(manifest(paths)));
+
+		// same size, touched on disk
+		new File(paths.get(1)).setLastModified(1_700_000_000_000L);
+		assertEquals(1, previous.matchingPrefix(manifest(paths)));
+	}
+
+	@Test
+	public void changedTransformTableEndsTheReusablePrefix() throws IOException {
+		Path imagesDir = Files.createTempDirectory("kmimg");
+		List<String> paths = frames(imagesDir, 4);
+		FrameTransformTable table = new FrameTransformTable();
+		FrameTransformTable.register(imagesDir.toString(), table);
+		KymographBuildManifest previous = manifest(paths);
+		assertEquals(4, previous.matchingPrefix(manifest(paths)));
+
+		table.put(paths.get(3), new FrameTransformTable.Transform(1.5, 0, 0, 0, 0));
+		KymographBuildManifest registered = manifest(paths);
+		assertEquals(3, previous.matchingPrefix(registered));
+
+		table.put(paths.get(3), new FrameTransformTable.Transform(1.5, 0.25, 0, 0, 0));
+		assertEquals(3, registered.matchingPrefix(manifest(paths)));
+	}
+
+	@Test
+	public void otherSettingsOrOlderManifestsAreNotReused() throws IOException {
+		Path imagesDir = Files.createTempDirectory("kmimg");
+		Path resultsDir = Files.createTempDirectory("kmres");
+		List<String> paths = frames(imagesDir, 2);
+		KymographBuildManifest current = manifest(paths);
+		KymographBuildManifest other = new KymographBuildManifest("diskRadius=3;downsample=1",
+				Arrays.asList("img_0.jpg", "img_1.jpg"), Arrays.asList(0L, 60_000L),
+				Arrays.asList(KymographBuildManifest.frameStamp(paths.get(0)),
+						KymographBuildManifest.frameStamp(paths.get(1))));
+		assertEquals(0, other.matchingPrefix(current));
+
+		// v1 manifests did not record frame stamps
+		Files.write(resultsDir.resolve(KymographBuildManifest.FILE_NAME),
+				("#kymograph manifest v1\nsettings=" + SETTINGS + "\n0;0;img_0.jpg\n").getBytes(StandardCharsets.UTF_8));
+		assertNull(KymographBuildManifest.read(resultsDir));
+	}
+}
@@ -0,0 +1,139 @@
+package plugins.fmp.multitools.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class KymographColumnStoreTest {
+
+	private static final int WIDTH = 50;
+	private static final int HEIGHT = 6;
+	private static final int TILE = 8;
+
+	private static int value(int c, int row, int col) {
+		return (c * 53 + row * 11 + col * 5) & 0xFF;
+	}
+
+	private static void fillColumn(KymographColumnStore store, int col) {
+		for (int c = 0; c < store.getSizeC(); c++)
+			for (int row = 0; row < HEIGHT; row++)
+				store.set(c, row, col, value(c, row, col));
+	}
+
+	/** Builds columns 0..19 and 24..31, then drops the store as a crash would. */
+	private static Path interruptedBuild() throws IOException {
+		Path file = Files.createTempDirectory("kycs").resolve("k.kyspill");
+		KymographColumnStore store = KymographColumnStore.create(file, WIDTH, HEIGHT, 2, TILE);
+		for (int col = 0; col < 32; col++) {
+			if (col >= 20 && col < 24)
+				continue;
+			fillColumn(store, col);
+			store.columnCompleted(col);
+		}
+		store.close(false);
+		return file;
+	}
+
+	@Test
+	public void recoverKeepsLeadingWrittenTiles() throws IOException {
+		Path file = interruptedBuild();
+		KymographColumnStore store = KymographColumnStore.recover(file, WIDTH, HEIGHT, 2, TILE);
+		assertNotNull(store);
+		try {
+			// tiles 0 and 1 are complete, tile 2 is not, tile 3 comes after the gap
+			assertEquals(16, store.getRecoveredColumns());
+			for (int col = 0; col < 16; col++)
+				for (int c = 0; c < 2; c++)
+					assertEquals(value(c, 3, col), store.get(c, 3, col));
+			assertEquals(0, store.get(1, 3, 25));
+
+			// the rest of the build completes and reads back like a fresh one
+			for (int col = 16; col < WIDTH; col++) {
+				fillColumn(store, col);
+				store.columnCompleted(col);
+			}
+			byte[] rows = new byte[HEIGHT * WIDTH];
+			store.readRows(1, 0, HEIGHT, rows);
+			for (int row = 0; row < HEIGHT; row++)
+				for (int col = 0; col < WIDTH; col++)
+					assertEquals(value(1, row, col), rows[row * WIDTH + col] & 0xFF);
+		} finally {
+			store.close(true);
+		}
+	}
+
+	@Test
+	public void recoveredColumnsCanBeCutToTheMatchingFrames() throws IOException {
+		Path file = interruptedBuild();
+		KymographColumnStore store = KymographColumnStore.recover(file, WIDTH, HEIGHT, 2, TILE);
+		try {
+			// only 12 frames are unchanged: the second tile is rebuilt
+			assertEquals(8, store.keepRecoveredColumns(12));
+			assertEquals(8, store.getRecoveredColumns());
+			assertEquals(0, store.get(0, 2, 9));
+		} finally {
+			store.close(false);
+		}
+		KymographColumnStore again = KymographColumnStore.recover(file, WIDTH, HEIGHT, 2, TILE);
+		try {
+			assertEquals(8, again.getRecoveredColumns());
+		} finally {
+			again.close(true);
+		}
+	}
+
+	@Test
+	public void recoverRejectsOtherGeometries() throws IOException {
+		Path file = interruptedBuild();
+		assertNull(KymographColumnStore.recover(file, WIDTH + 1, HEIGHT, 2, TILE));
+		assertNull(KymographColumnStore.recover(file, WIDTH, HEIGHT, 3, TILE));
+		assertNull(KymographColumnStore.recover(file.resolveSibling("none.kyspill"), WIDTH, HEIGHT, 2, TILE));
+
+		// a new build truncates the file: nothing left to recover
+		KymographColumnStore.create(file, WIDTH, HEIGHT, 2, TILE).close(false);
+		KymographColumnStore store = KymographColumnStore.recover(file, WIDTH, HEIGHT, 2, TILE);
+		try {
+			assertEquals(0, store.getRecoveredColumns());
+		} finally {
+			store.close(true);
+		}
+	}
+
+	@Test
+	public void readersNeverSeeASpillingTileAsEmpty() throws Exception {
+		Path file = Files.createTempDirectory("kycs").resolve("k.kyspill");
+		final KymographColumnStore store = KymographColumnStore.create(file, WIDTH, HEIGHT, 1, TILE);
+		final AtomicInteger wrong = new AtomicInteger();
+		final AtomicBoolean done = new AtomicBoolean();
+		Thread reader = new Thread(() -> {
+			while (!done.get()) {
+				// column 0 is written before the reader starts: heap or file, it must read back
+				if (store.get(0, 1, 0) != value(0, 1, 0))
+					wrong.incrementAndGet();
+			}
+		});
+		try {
+			fillColumn(store, 0);
+			reader.start();
+			for (int col = 1; col < TILE; col++)
+				fillColumn(store, col);
+			for (int col = 0; col < TILE; col++)
+				store.columnCompleted(col);
+			for (int i = 0; i < 1000; i++)
+				assertEquals(value(0, 1, 0), store.get(0, 1, 0));
+		} finally {
+			done.set(true);
+			reader.join();
+			store.close(true);
+		}
+		assertEquals(0, wrong.get());
+	}
+}
@@ -0,0 +1,141 @@
+package plugins.fmp.multitools.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class KymographTiffWriterTest {
+
+	private static int value(int c, int row, int col) {
+		return (c * 97 + row * 31 + col * 7) & 0xFF;
+	}
+
+	/** Fills a store, spilling every tile but the last, which stays on the heap. */
+	private static KymographColumnStore filledStore(Path dir, int width, int height, int sizeC) throws IOException {
+		KymographColumnStore store = KymographColumnStore.create(dir.resolve("k.kyspill"), width, height, sizeC, 16);
+		for (int col = 0; col < width; col++) {
+			for (int c = 0; c < sizeC; c++)
+				for (int row = 0; row < height; row++)
+					store.set(c, row, col, value(c, row, col));
+			if (col < width - 1)
+				store.columnCompleted(col);
+		}
+		return store;
+	}
+
+	@Test
+	public void readRowsMatchesColumnsAcrossSpilledAndHeapTiles() throws IOException {
+		Path dir = Files.createTempDirectory("kyst");
+		KymographColumnStore store = filledStore(dir, 70, 9, 3);
+		try {
+			byte[] band = new byte[4 * 70];
+			for (int c = 0; c < 3; c++) {
+				store.readRows(c, 3, 7, band);
+				for (int row = 3; row < 7; row++)
+					for (int col = 0; col < 70; col++)
+						assertEquals(value(c, row, col), band[(row - 3) * 70 + col] & 0xFF);
+			}
+		} finally {
+			store.close(true);
+		}
+		assertFalse(Files.exists(dir.resolve("k.kyspill")));
+		Files.delete(dir);
+	}
+
+	@Test
+	public void writesBaselineTiffOnePlanePerChannel() throws IOException {
+		for (int sizeC : new int[] { 1, 3 }) {
+			Path dir = Files.createTempDirectory("kyst");
+			File tiff = dir.resolve("line0L.tiff").toFile();
+			int width = 5000;
+			int height = 120;
+			KymographColumnStore store = filledStore(dir, width, height, sizeC);
+			try {
+				assertTrue(KymographTiffWriter.supports(store));
+				KymographTiffWriter.write(store, tiff);
+			} finally {
+				store.close(true);
+			}
+
+			ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(tiff.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+			assertEquals('I', file.get(0));
+			assertEquals(42, file.getShort(2));
+			Map<Integer, long[]> tags = readDirectory(file, file.getInt(4));
+			assertEquals(width, tags.get(256)[0]);
+			assertEquals(height, tags.get(257)[0]);
+			assertEquals(1, tags.get(259)[0]);
+			assertEquals(sizeC, tags.get(277)[0]);
+			assertEquals(sizeC == 3 ? 2 : 1, tags.get(262)[0]);
+			long[] bits = tags.get(258);
+			assertEquals(sizeC, bits.length);
+			for (long b : bits)
+				assertEquals(8, b);
+
+			long[] offsets = tags.get(273);
+			long[] counts = tags.get(279);
+			int rowsPerStrip = (int) tags.get(278)[0];
+			int stripsPerPlane = (height + rowsPerStrip - 1) / rowsPerStrip;
+			assertTrue(stripsPerPlane > 1);
+			assertEquals(stripsPerPlane * sizeC, offsets.length);
+			for (int c = 0; c < sizeC; c++) {
+				byte[] plane = new byte[width * height];
+				int filled = 0;
+				for (int s = 0; s < stripsPerPlane; s++) {
+					int k = c * stripsPerPlane + s;
+					for (int i = 0; i < counts[k]; i++)
+						plane[filled++] = file.get((int) offsets[k] + i);
+				}
+				assertEquals(plane.length, filled);
+				byte[] expected = new byte[width * height];
+				for (int row = 0; row < height; row++)
+					for (int col = 0; col < width; col++)
+						expected[row * width + col] = (byte) value(c, row, col);
+				assertArrayEquals(expected, plane);
+			}
+			Files.delete(tiff.toPath());
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	public void twoChannelKymographsAreLeftToSaver() throws IOException {
+		KymographColumnStore store = KymographColumnStore.inMemory(10, 4, 2);
+		assertFalse(KymographTiffWriter.supports(store));
+		store.close(true);
+	}
+
+	/** Tag values of the first directory; SHORT and LONG arrays only. */
+	private static Map<Integer, long[]> readDirectory(ByteBuffer file, int offset) {
+		Map<Integer, long[]> tags = new HashMap<Integer, long[]>();
+		int n = file.getShort(offset) & 0xFFFF;
+		int previous = -1;
+		for (int i = 0; i < n; i++) {
+			int entry = offset + 2 + 12 * i;
+			int tag = file.getShort(entry) & 0xFFFF;
+			assertTrue("tags must be sorted", tag > previous);
+			previous = tag;
+			int type = file.getShort(entry + 2);
+			int count = file.getInt(entry + 4);
+			int size = type == 3 ? 2 : 4;
+			int at = count * size <= 4 ? entry + 8 : file.getInt(entry + 8);
+			long[] values = new long[count];
+			for (int k = 0; k < count; k++)
+				values[k] = size == 2 ? file.getShort(at + 2 * k) & 0xFFFF : file.getInt(at + 4 * k) & 0xFFFFFFFFL;
+			tags.put(tag, values);
+		}
+		assertEquals(0, file.getInt(offset + 2 + 12 * n));
+		return tags;
+	}
+}
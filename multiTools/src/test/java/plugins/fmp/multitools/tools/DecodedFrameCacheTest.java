@@ -0,0 +1,134 @@
+package plugins.fmp.multitools.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import icy.image.IcyBufferedImage;
+
+public class DecodedFrameCacheTest {
+
+	private static File writeFrame(Path dir, String name, int width) throws IOException {
+		File file = dir.resolve(name).toFile();
+		ImageIO.write(new BufferedImage(width, 8, BufferedImage.TYPE_3BYTE_BGR), "jpg", file);
+		return file;
+	}
+
+	@Test
+	public void secondReadIsServedFromCacheAsACopy() throws IOException {
+		Path dir = Files.createTempDirectory("frames");
+		File file = writeFrame(dir, "a.jpg", 16);
+		DecodedFrameCache cache = new DecodedFrameCache(1 << 20);
+
+		IcyBufferedImage first = cache.read(file.getPath());
+		IcyBufferedImage second = cache.read(file.getPath());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertNotSame(first, second);
+		assertSame(cache.readShared(file.getPath()), cache.readShared(file.getPath()));
+		assertEquals(16, second.getSizeX());
+	}
+
+	@Test
+	public void missHandsOutTheDecodeAndCachesACopy() throws IOException {
+		Path dir = Files.createTempDirectory("frames");
+		File file = writeFrame(dir, "a.jpg", 16);
+		DecodedFrameCache cache = new DecodedFrameCache(1 << 20);
+
+		IcyBufferedImage owned = cache.read(file.getPath());
+		IcyBufferedImage cached = cache.readShared(file.getPath());
+		assertNotSame(owned, cached);
+		owned.getDataXYAsByte(0)[0] = 99;
+		owned.dataChanged();
+		assertEquals(0, cached.getDataXYAsByte(0)[0]);
+
+		// too large to be kept: nothing to copy, nothing cached
+		DecodedFrameCache small = new DecodedFrameCache(16);
+		assertEquals(16, small.read(file.getPath()).getSizeX());
+		assertEquals(0, small.getFrameCount());
+	}
+
+	@Test
+	public void rewrittenFileIsDecodedAgain() throws IOException {
+		Path dir = Files.createTempDirectory("frames");
+		File file = writeFrame(dir, "a.jpg", 16);
+		DecodedFrameCache cache = new DecodedFrameCache(1 << 20);
+		cache.read(file.getPath());
+
+		writeFrame(dir, "a.jpg", 24);
+		file.setLastModified(file.lastModified() + 2000);
+		assertEquals(24, cache.read(file.getPath()).getSizeX());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void budgetEvictsLeastRecentlyReadFrames() throws IOException {
+		Path dir = Files.createTempDirectory("frames");
+		File a = writeFrame(dir, "a.jpg", 16);
+		File b = writeFrame(dir, "b.jpg", 16);
+		DecodedFrameCache cache = new DecodedFrameCache(16 * 8 * 3 + 1);
+
+		cache.prefetch(a.getPath());
+		cache.prefetch(b.getPath());
+		assertEquals(1, cache.getFrameCount());
+		cache.read(a.getPath());
+		assertEquals(3, cache.getMisses());
+		assertEquals(16 * 8 * 3, cache.getUsedBytes());
+	}
+
+	@Test
+	public void streamingReadsDoNotFillTheCache() throws IOException {
+		Path dir = Files.createTempDirectory("frames");
+		File a = writeFrame(dir, "a.jpg", 16);
+		File b = writeFrame(dir, "b.jpg", 16);
+		DecodedFrameCache cache = new DecodedFrameCache(1 << 20);
+		IcyBufferedImage cached = cache.readShared(a.getPath());
+
+		assertSame(cached, cache.readStreaming(a.getPath()));
+		assertEquals(16, cache.readStreaming(b.getPath()).getSizeX());
+		assertEquals(1, cache.getFrameCount());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void regionMatchesCropOfFullFrame() throws IOException {
+		Path dir = Files.createTempDirectory("frames");
+		File file = dir.resolve("r.jpg").toFile();
+		BufferedImage source = new BufferedImage(200, 120, BufferedImage.TYPE_3BYTE_BGR);
+		Random random = new Random(7);
+		for (int y = 0; y < 120; y++)
+			for (int x = 0; x < 200; x++)
+				source.setRGB(x, y, random.nextInt(1 << 24));
+		ImageIO.write(source, "jpg", file);
+
+		DecodedFrameCache cache = new DecodedFrameCache(1 << 20);
+		for (int subsampling : new int[] { 1, 3 }) {
+			Rectangle region = new Rectangle(37, 21, 90, 150);
+			// decoded from the file, then cropped from the cached frame
+			IcyBufferedImage decoded = cache.readRegion(file.getPath(), region, subsampling);
+			IcyBufferedImage full = cache.readShared(file.getPath());
+			IcyBufferedImage cropped = cache.readRegion(file.getPath(), region, subsampling);
+			assertEquals((90 + subsampling - 1) / subsampling, decoded.getSizeX());
+			assertEquals((99 + subsampling - 1) / subsampling, decoded.getSizeY());
+			for (IcyBufferedImage part : new IcyBufferedImage[] { decoded, cropped })
+				for (int c = 0; c < full.getSizeC(); c++)
+					for (int y = 0; y < part.getSizeY(); y++)
+						for (int x = 0; x < part.getSizeX(); x++)
+							assertEquals(full.getData(37 + x * subsampling, 21 + y * subsampling, c),
+									part.getData(x, y, c), 0);
+			cache.clear();
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package plugins.fmp.multitools.tools.chart.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.jfree.data.DomainOrder;
+import org.junit.Test;
+
+public class DecimatingXYSeriesCollectionTest {
+
+	private static PrimitiveXYSeries randomSeries(Random random, String key, int n) {
+		double[] x = new double[n];
+		double[] y = new double[n];
+		double t = 0;
+		for (int i = 0; i < n; i++) {
+			t += random.nextInt(4) == 0 ? 0 : random.nextDouble();
+			x[i] = t;
+			y[i] = random.nextInt(20) == 0 ? Double.NaN : random.nextGaussian();
+		}
+		return new PrimitiveXYSeries(key, x, y, n);
+	}
+
+	@Test
+	public void viewKeepsEdgesAndExtremaOfVisibleRange() {
+		Random random = new Random(4);
+		for (int trial = 0; trial < 200; trial++) {
+			PrimitiveXYSeries series = randomSeries(random, "s", 1 + random.nextInt(20000));
+			int n = series.getItemCount();
+			double low = series.getMaxX() * random.nextDouble() * 0.5;
+			double high = low + series.getMaxX() * random.nextDouble();
+			int buckets = 1 + random.nextInt(400);
+
+			DecimatingXYSeriesCollection dataset = new DecimatingXYSeriesCollection();
+			dataset.addSeries(series);
+			assertEquals(n, dataset.getItemCount(0));
+			dataset.setViewport(low, high, buckets);
+			int m = dataset.getItemCount(0);
+			assertTrue(m <= Math.max(n, 5 * buckets + 10));
+			assertEquals(DomainOrder.ASCENDING, dataset.getDomainOrder());
+
+			double fullMin = Double.POSITIVE_INFINITY;
+			double fullMax = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				double x = series.getXValue(i);
+				double y = series.getYValue(i);
+				if (x >= low && x <= high && !Double.isNaN(y)) {
+					fullMin = Math.min(fullMin, y);
+					fullMax = Math.max(fullMax, y);
+				}
+			}
+			double shownMin = Double.POSITIVE_INFINITY;
+			double shownMax = Double.NEGATIVE_INFINITY;
+			int previous = -1;
+			for (int k = 0; k < m; k++) {
+				int index = dataset.itemIndex(0, k);
+				assertTrue(index > previous);
+				previous = index;
+				double x = dataset.getXValue(0, k);
+				assertEquals(series.getXValue(index), x, 0);
+				double y = dataset.getYValue(0, k);
+				if (x >= low && x <= high && !Double.isNaN(y)) {
+					shownMin = Math.min(shownMin, y);
+					shownMax = Math.max(shownMax, y);
+				}
+			}
+			if (fullMin <= fullMax) {
+				assertEquals(fullMin, shownMin, 0);
+				assertEquals(fullMax, shownMax, 0);
+			}
+			if (m > 0) {
+				int first = dataset.itemIndex(0, 0);
+				int last = dataset.itemIndex(0, m - 1);
+				assertTrue(first == 0 || series.getXValue(first) < low);
+				assertTrue(last == n - 1 || series.getXValue(last) >= high);
+			}
+
+			// bounds still describe the whole series
+			assertEquals(series.getMinX(), dataset.getDomainBounds(true).getLowerBound(), 0);
+			assertEquals(series.getMaxX(), dataset.getDomainBounds(true).getUpperBound(), 0);
+		}
+	}
+
+	@Test
+	public void primitiveSeriesMatchesXYSeriesReads() {
+		double[] x = { 0, 1, 1, 2, 5 };
+		double[] y = { 3, Double.NaN, -1, 4, 2 };
+		PrimitiveXYSeries series = new PrimitiveXYSeries("p", x, y, 4);
+		assertEquals(4, series.getItemCount());
+		assertEquals(2.0, series.getMaxX(), 0);
+		assertEquals(-1.0, series.getMinY(), 0);
+		assertEquals(4.0, series.getMaxY(), 0);
+		assertEquals(1, series.indexOf(1.0));
+		assertTrue(series.indexOf(5.0) < 0);
+		assertEquals(-1.0, series.getDataItem(2).getYValue(), 0);
+		assertEquals(4, series.toArray()[0].length);
+	}
+
+	@Test
+	public void primitiveSeriesIsReadOnly() {
+		try {
+			new PrimitiveXYSeries("p", new double[] { 1 }, new double[] { 2 }, 1).add(3, 4);
+			fail("add accepted");
+		} catch (UnsupportedOperationException expected) {
+			// read-only
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package plugins.fmp.multitools.tools.csv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CsvReaderTest {
+
+	private static void assertSameDouble(String cell) {
+		char[] chars = ("xx" + cell + "yy").toCharArray();
+		double actual;
+		try {
+			actual = CsvNumberParsing.parseDouble(chars, 2, 2 + cell.length());
+		} catch (NumberFormatException e) {
+			try {
+				CsvNumberParsing.parseDouble(cell);
+				fail("char[] parser rejected " + cell);
+			} catch (NumberFormatException expected) {
+				// both reject
+			}
+			return;
+		}
+		assertEquals(cell, Double.doubleToLongBits(CsvNumberParsing.parseDouble(cell)),
+				Double.doubleToLongBits(actual));
+	}
+
+	@Test
+	public void charParserMatchesStringParser() {
+		String[] cells = { "0", "-0", "1", "+7", "12.5", "12,5", " 3.25 ", "-0.001", "1.234,5", "1,234.5", "1e3", "2.5E-4",
+				"1e-30", "123456789012345678", "9007199254740993", "0.1", "0.3", "NaN", "-Infinity", "", "  ", "abc",
+				"1..2", "-", ".5", "5.", "1e", "1e+", "3.4028235e38", "4.9e-324", "0x1p3" };
+		for (String cell : cells)
+			assertSameDouble(cell);
+
+		Random random = new Random(3);
+		for (int n = 0; n < 20000; n++) {
+			double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(16) - 6);
+			String cell = Double.toString(value);
+			assertSameDouble(cell);
+			assertSameDouble(cell.replace('.', ','));
+			assertSameDouble(String.format("%.6f", value));
+		}
+	}
+
+	@Test
+	public void charIntParserMatchesIntegerParseInt() {
+		String[] cells = { "0", "-12", "+5", "2147483647", "-2147483648", "2147483648", "", "-", "1.0", " 3" };
+		for (String cell : cells) {
+			char[] chars = cell.toCharArray();
+			Integer expected;
+			try {
+				expected = Integer.parseInt(cell);
+			} catch (NumberFormatException e) {
+				expected = null;
+			}
+			try {
+				assertEquals(cell, expected, Integer.valueOf(CsvNumberParsing.parseInt(chars, 0, chars.length)));
+			} catch (NumberFormatException e) {
+				assertEquals(cell, null, expected);
+			}
+		}
+	}
+
+	@Test
+	public void rowsAreSplitLikeStringSplit() throws Exception {
+		String text = "#;version;2.0\nname;index;npts;yi\r\nspot_01;1;3;0.5;1,5;-2\r\n;;\n\nlast;;x;;\n#,S,v0\na,b;c,,";
+		List<String[]> expected = new ArrayList<String[]>();
+		String sep = ";";
+		for (String line : text.split("\r\n|\n")) {
+			if (line.length() > 1 && line.charAt(0) == '#')
+				sep = String.valueOf(line.charAt(1));
+			expected.add(line.split(sep));
+		}
+
+		try (CsvReader reader = new CsvReader(new StringReader(text), ';')) {
+			for (String[] cells : expected) {
+				assertTrue(reader.nextRow());
+				assertArrayEquals(cells, reader.toArray());
+			}
+			assertFalse(reader.nextRow());
+			assertEquals(expected.size(), reader.getLineNumber());
+		}
+
+		try (CsvReader reader = new CsvReader(new StringReader(text), ';')) {
+			reader.nextRow();
+			assertTrue(reader.isComment());
+			reader.nextRow();
+			assertTrue(reader.lineContains("yi"));
+			assertFalse(reader.lineContains("xi"));
+			reader.nextRow();
+			assertTrue(reader.cellEquals(0, "spot_01"));
+			assertEquals(3, reader.getInt(2));
+			assertEquals(1.5, reader.getDouble(4), 0);
+			assertEquals(-2, reader.getDouble(5), 0);
+		}
+	}
+
+	@Test
+	public void writerReplacesTargetOnlyOnCommit() throws Exception {
+		Path dir = Files.createTempDirectory("csv");
+		Path target = dir.resolve("Measures.csv");
+		Files.write(target, "old\n".getBytes("UTF-8"));
+
+		try (CsvWriter writer = CsvWriter.open(target)) {
+			writer.write("new;1\n");
+			// abandoned without commit
+		}
+		assertEquals("old\n", new String(Files.readAllBytes(target), "UTF-8"));
+
+		StringBuilder large = new StringBuilder();
+		for (int i = 0; i < 30000; i++)
+			large.append("spot_").append(i).append(";0.5\n");
+		try (CsvWriter writer = CsvWriter.open(target)) {
+			writer.write("#;version;2.0\n");
+			writer.append(large);
+			writer.commit();
+		}
+		assertEquals("#;version;2.0\n" + large, new String(Files.readAllBytes(target)));
+		assertFalse(Files.exists(dir.resolve("Measures.csv.tmp")));
+	}
+}
@@ -0,0 +1,93 @@
+package plugins.fmp.multitools.tools.imageTransform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import icy.image.IcyBufferedImage;
+import icy.type.DataType;
+import plugins.fmp.multitools.tools.imageTransform.transforms.SubtractReferenceImage.DifferencePolarity;
+
+public class TransformChainTest {
+
+	private static IcyBufferedImage randomImage(Random random, int width, int height) {
+		IcyBufferedImage image = new IcyBufferedImage(width, height, 3, DataType.UBYTE);
+		for (int c = 0; c < 3; c++)
+			random.nextBytes((byte[]) image.getDataXY(c));
+		return image;
+	}
+
+	private static void assertSamePixels(IcyBufferedImage expected, IcyBufferedImage actual) {
+		for (int c = 0; c < 3; c++)
+			assertArrayEquals((byte[]) expected.getDataXY(c), (byte[]) actual.getDataXY(c));
+	}
+
+	@Test
+	public void fusedChainGivesTheSameImageAsTheStepsIntoTheCallerBuffer() {
+		Random random = new Random(1);
+		ImageTransformEnums[] lastSteps = { ImageTransformEnums.RGB_DIFFS, ImageTransformEnums.R_RGB,
+				ImageTransformEnums.R2MINUS_GB, ImageTransformEnums.V_HSV };
+		for (ImageTransformEnums last : lastSteps) {
+			for (DifferencePolarity polarity : DifferencePolarity.values()) {
+				IcyBufferedImage source = randomImage(random, 31, 17);
+				CanvasImageTransformOptions bgOptions = new CanvasImageTransformOptions();
+				bgOptions.backgroundImage = randomImage(random, 31, 17);
+				bgOptions.differencePolarity = polarity;
+				CanvasImageTransformOptions lastOptions = new CanvasImageTransformOptions();
+				lastOptions.copyResultsToThe3planes = false;
+
+				IcyBufferedImage expected = ImageTransformEnums.SUBTRACT_REF.getFunction().getTransformedImage(source,
+						bgOptions);
+				expected = last.getFunction().getTransformedImage(expected, lastOptions);
+
+				TransformChain chain = new TransformChain().add(ImageTransformEnums.SUBTRACT_REF, bgOptions)
+						.add(last, lastOptions);
+				assertTrue(chain.isFusable(source));
+				IcyBufferedImage buffer = new IcyBufferedImage(31, 17, 3, DataType.UBYTE);
+				IcyBufferedImage result = chain.apply(source, buffer);
+				assertSame(buffer, result);
+				assertSamePixels(expected, result);
+			}
+		}
+	}
+
+	@Test
+	public void regionsRestrictTheComputedPixels() {
+		Random random = new Random(3);
+		IcyBufferedImage source = randomImage(random, 40, 30);
+		CanvasImageTransformOptions options = new CanvasImageTransformOptions();
+		TransformChain chain = new TransformChain().add(ImageTransformEnums.RGB_DIFFS, options);
+		IcyBufferedImage full = chain.apply(source, null);
+
+		// two overlapping rectangles and one partly outside the frame
+		ImageRegions regions = ImageRegions.of(Arrays.asList(new Rectangle(2, 3, 10, 5), new Rectangle(8, 5, 10, 6),
+				new Rectangle(35, 25, 10, 10)));
+		assertEquals(50 + 60 - 12 + 100, regions.getArea());
+		IcyBufferedImage partial = chain.apply(source, null, regions);
+		byte[] expected = (byte[]) full.getDataXY(0);
+		byte[] actual = (byte[]) partial.getDataXY(0);
+		for (int y = 0; y < 30; y++) {
+			for (int x = 0; x < 40; x++) {
+				boolean inside = new Rectangle(2, 3, 10, 5).contains(x, y) || new Rectangle(8, 5, 10, 6).contains(x, y)
+						|| new Rectangle(35, 25, 10, 10).contains(x, y);
+				assertEquals(inside ? expected[x + y * 40] : 0, actual[x + y * 40]);
+			}
+		}
+		assertNull(ImageRegions.of(Arrays.asList(new Rectangle(0, 0, 0, 4))));
+	}
+
+	@Test
+	public void emptyChainReturnsTheSource() {
+		IcyBufferedImage source = randomImage(new Random(2), 8, 8);
+		TransformChain chain = new TransformChain().add(ImageTransformEnums.NONE, new CanvasImageTransformOptions());
+		assertSame(source, chain.apply(source, null));
+	}
+}
@@ -0,0 +1,122 @@
+package plugins.fmp.multitools.tools.polyline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import org.junit.Test;
+
+import plugins.fmp.multitools.tools.polyline.Blobs.Blob;
+
+public class BlobsTest {
+
+	/** Blob numbers by 8-connected flood fill, numbered in raster order of their first pixel. */
+	private static int[] floodFill(boolean[] mask, int w, int h) {
+		int[] labels = new int[w * h];
+		int next = 0;
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int start = 0; start < labels.length; start++) {
+			if (!mask[start] || labels[start] != 0)
+				continue;
+			labels[start] = ++next;
+			queue.add(start);
+			while (!queue.isEmpty()) {
+				int i = queue.poll();
+				int x = i % w;
+				int y = i / w;
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dx = -1; dx <= 1; dx++) {
+						int nx = x + dx;
+						int ny = y + dy;
+						if (nx < 0 || nx >= w || ny < 0 || ny >= h)
+							continue;
+						int n = nx + ny * w;
+						if (mask[n] && labels[n] == 0) {
+							labels[n] = next;
+							queue.add(n);
+						}
+					}
+				}
+			}
+		}
+		return labels;
+	}
+
+	@Test
+	public void labellingMatchesFloodFillAndGathersStatistics() {
+		Random random = new Random(5);
+		int w = 37;
+		int h = 23;
+		Rectangle bounds = new Rectangle(100, 50, w, h);
+		for (int trial = 0; trial < 20; trial++) {
+			boolean[] mask = new boolean[w * h];
+			double density = 0.2 + 0.03 * trial;
+			for (int i = 0; i < mask.length; i++)
+				mask[i] = random.nextDouble() < density;
+
+			int[] expected = floodFill(mask, w, h);
+			Blobs blobs = new Blobs(mask, bounds);
+			int count = blobs.getPixelsConnected();
+			int max = 0;
+			for (int i = 0; i < expected.length; i++) {
+				max = Math.max(max, expected[i]);
+				assertEquals(expected[i], blobs.getBlobAt(bounds.x + i % w, bounds.y + i / w));
+			}
+			assertEquals(max, count);
+
+			for (Blob blob : blobs.getBlobs()) {
+				int area = 0;
+				double sx = 0;
+				double sy = 0;
+				Rectangle r = null;
+				for (int i = 0; i < expected.length; i++) {
+					if (expected[i] != blob.getNumber())
+						continue;
+					int x = bounds.x + i % w;
+					int y = bounds.y + i / w;
+					area++;
+					sx += x;
+					sy += y;
+					if (r == null)
+						r = new Rectangle(x, y, 1, 1);
+					else
+						r.add(new Rectangle(x, y, 1, 1));
+				}
+				assertEquals(area, blob.getArea());
+				assertEquals(r, blob.getBounds());
+				assertEquals(r, blobs.getBlobRectangle(blob.getNumber()));
+				Point2D centroid = blob.getCentroid();
+				assertEquals(sx / area, centroid.getX(), 1e-9);
+				assertEquals(sy / area, centroid.getY(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void momentsAndBoundaryOfAnOrientedBar() {
+		// 2-pixel wide diagonal bar going down to the right
+		int w = 12;
+		int h = 10;
+		boolean[] mask = new boolean[w * h];
+		for (int y = 0; y < h; y++) {
+			mask[y + y * w] = true;
+			mask[y + 1 + y * w] = true;
+		}
+		Blobs blobs = new Blobs(mask, new Rectangle(0, 0, w, h));
+		assertEquals(1, blobs.getPixelsConnected());
+		Blob bar = blobs.getBlob(1);
+		assertEquals(20, bar.getArea());
+		assertEquals(Math.PI / 4, bar.getOrientation(), 1e-2);
+		assertTrue(bar.getOrientedAspectRatio() > 5);
+		// columns spread half a pixel more than rows
+		assertEquals(bar.getMu02() + 5, bar.getMu20(), 1e-9);
+		for (int y = 0; y < h; y++) {
+			assertEquals(y, bar.getRowLeft(y));
+			assertEquals(y + 1, bar.getRowRight(y));
+		}
+	}
+}
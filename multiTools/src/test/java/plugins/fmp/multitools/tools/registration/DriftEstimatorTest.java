@@ -0,0 +1,46 @@
+package plugins.fmp.multitools.tools.registration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import icy.image.IcyBufferedImage;
+
+public class DriftEstimatorTest {
+
+	@Test
+	public void stillFramesStopAtTheCoarseLevel() {
+		IcyBufferedImage reference = RigidRegistrationEngineTest.blobs(0, 0, 0);
+		DriftEstimator estimator = new DriftEstimator(reference, 0, 2, Math.sqrt(0.001));
+		assertEquals(2, estimator.getBinning());
+
+		assertFalse(estimator.hasMoved(RigidRegistrationEngineTest.blobs(0, 0, 0), 0));
+		assertTrue(estimator.hasMoved(RigidRegistrationEngineTest.blobs(3, 0, 0), 0));
+		assertTrue(estimator.hasMoved(RigidRegistrationEngineTest.blobs(0, 0, 0.1), 0));
+		assertEquals(3, estimator.getFrameCount());
+		assertEquals(1, estimator.getStillCount());
+		assertEquals(2, estimator.getMovedCount());
+	}
+
+	@Test
+	public void subPixelDriftIsRefinedWithTheDefaultTolerance() {
+		IcyBufferedImage reference = RigidRegistrationEngineTest.blobs(0, 0, 0);
+		DriftEstimator defaults = new DriftEstimator(reference, 0);
+		assertEquals(Math.sqrt(0.001), defaults.getStillTolerance(), 1e-12);
+		// a drift that the full-resolution pass would correct is not skipped at the coarse level
+		DriftEstimator estimator = new DriftEstimator(reference, 0, 2, Math.sqrt(0.001));
+		assertTrue(estimator.hasMoved(RigidRegistrationEngineTest.blobs(0.4, 0, 0), 0));
+	}
+
+	@Test
+	public void withoutCoarseLevelEveryFrameIsRefined() {
+		IcyBufferedImage reference = RigidRegistrationEngineTest.blobs(0, 0, 0);
+		// 96 / 4 is below the smallest coarse size
+		DriftEstimator estimator = new DriftEstimator(reference, 0, 4, Math.sqrt(0.001));
+		assertEquals(1, estimator.getBinning());
+		assertTrue(estimator.hasMoved(reference, 0));
+		assertEquals(1, estimator.getMovedCount());
+	}
+}
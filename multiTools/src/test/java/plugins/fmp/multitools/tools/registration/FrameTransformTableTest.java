@@ -0,0 +1,66 @@
+package plugins.fmp.multitools.tools.registration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class FrameTransformTableTest {
+
+	@Test
+	public void transformsSurviveSaveAndLoadByFileName() throws IOException {
+		Path results = Files.createTempDirectory("ftt");
+		FrameTransformTable table = new FrameTransformTable();
+		table.put("/stack/img_0001.jpg", new FrameTransformTable.Transform(1.5, -2.25, 0.01, 320, 240));
+		table.put("/stack/img_0002.jpg", new FrameTransformTable.Transform(0, 3, 0, 320, 240));
+		table.remove("/stack/img_0002.jpg");
+		assertEquals(true, table.save(results.toString()));
+
+		FrameTransformTable loaded = FrameTransformTable.load(results.toString());
+		assertEquals(1, loaded.size());
+		FrameTransformTable.Transform t = loaded.get("/elsewhere/img_0001.jpg");
+		assertEquals(1.5, t.dx, 0);
+		assertEquals(-2.25, t.dy, 0);
+		assertEquals(0.01, t.angleRad, 0);
+		assertEquals(320, t.pivotX, 0);
+		assertNull(loaded.get("/stack/img_0002.jpg"));
+	}
+
+	@Test
+	public void framesOfAnUnregisteredStackAreReadAsTheyAre() throws IOException {
+		Path images = Files.createTempDirectory("ftt");
+		String frame = images.resolve("img_0001.jpg").toString();
+		assertEquals(0, FrameTransformTable.forFrame(frame).size());
+		assertNull(FrameTransformTable.applyTo(frame, null));
+		assertNull(FrameTransformTable.load(images.toString()));
+	}
+
+	@Test
+	public void rewrittenOrDeletedTablesAreReadAgain() throws IOException {
+		Path images = Files.createTempDirectory("ftt");
+		Path results = Files.createDirectory(images.resolve("results"));
+		String frame = images.resolve("img_0001.jpg").toString();
+		FrameTransformTable table = new FrameTransformTable();
+		table.put(frame, new FrameTransformTable.Transform(1.5, 0, 0, 320, 240));
+		assertTrue(table.save(results.toString()));
+		assertEquals(1.5, FrameTransformTable.forFrame(frame).get(frame).dx, 0);
+
+		table.put(frame, new FrameTransformTable.Transform(12.25, 0, 0, 320, 240));
+		assertTrue(table.save(results.toString()));
+		assertEquals(12.25, FrameTransformTable.forFrame(frame).get(frame).dx, 0);
+
+		// the registered table goes away with its CSV: frames are read as they are on disk
+		FrameTransformTable.register(images.toString(), table);
+		assertTrue(FrameTransformTable.hasTransform(frame));
+		Files.delete(results.resolve(FrameTransformTable.FILENAME));
+		assertFalse(FrameTransformTable.hasTransform(frame));
+		assertEquals(0, FrameTransformTable.forFrame(frame).size());
+		assertFalse(Files.exists(results.resolve(FrameTransformTable.FILENAME + ".tmp")));
+	}
+}
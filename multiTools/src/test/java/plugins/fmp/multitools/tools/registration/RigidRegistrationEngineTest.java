@@ -0,0 +1,122 @@
+package plugins.fmp.multitools.tools.registration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import javax.vecmath.Vector2d;
+
+import org.junit.Test;
+
+import icy.image.IcyBufferedImage;
+import icy.type.DataType;
+
+public class RigidRegistrationEngineTest {
+
+	private static final int SIZE = 96;
+	/** x, y, sigma and amplitude of the blobs drawn on the test images. */
+	private static final double[][] BLOBS = { { 30, 35, 5, 200 }, { 60, 28, 8, 120 }, { 45, 65, 4, 255 },
+			{ 70, 70, 6, 80 } };
+
+	/** The blob pattern rotated by {@code angle} about the image centre, then shifted by (dx, dy). */
+	static IcyBufferedImage blobs(double dx, double dy, double angle) {
+		IcyBufferedImage image = new IcyBufferedImage(SIZE, SIZE, 1, DataType.FLOAT);
+		float[] data = image.getDataXYAsFloat(0);
+		double center = SIZE / 2;
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				double px = x - dx - center;
+				double py = y - dy - center;
+				double qx = center + cos * px + sin * py;
+				double qy = center - sin * px + cos * py;
+				double value = 0;
+				for (double[] b : BLOBS) {
+					double d2 = (qx - b[0]) * (qx - b[0]) + (qy - b[1]) * (qy - b[1]);
+					value += b[3] * Math.exp(-d2 / (2 * b[2] * b[2]));
+				}
+				data[y * SIZE + x] = (float) value;
+			}
+		}
+		image.dataChanged();
+		return image;
+	}
+
+	@Test
+	public void translationMatchesGaspard() {
+		IcyBufferedImage reference = blobs(0, 0, 0);
+		IcyBufferedImage shifted = blobs(5, -3, 0);
+		RigidRegistrationEngine engine = new RigidRegistrationEngine(reference, 0);
+
+		Vector2d expected = GaspardRigidRegistration.findTranslation2D(shifted, 0, reference, 0);
+		Vector2d found = engine.findTranslation(shifted, 0);
+		assertEquals(expected.x, found.x, 1e-3);
+		assertEquals(expected.y, found.y, 1e-3);
+		// the correction that brings the frame back onto the reference
+		assertEquals(-5, found.x, 0.25);
+		assertEquals(3, found.y, 0.25);
+	}
+
+	@Test
+	public void rotationMatchesGaspard() {
+		IcyBufferedImage reference = blobs(0, 0, 0);
+		IcyBufferedImage rotated = blobs(0, 0, 0.1);
+		RigidRegistrationEngine engine = new RigidRegistrationEngine(reference, 0);
+
+		double expected = GaspardRigidRegistration.findRotation2D(rotated, 0, reference, 0);
+		assertEquals(expected, engine.findRotation(rotated, 0), 1e-9);
+		assertEquals(-0.1, expected, 4 * Math.PI / GaspardRigidRegistration.DEFAULT_SIZE_THETA);
+	}
+
+	@Test
+	public void workspaceIsReusedAcrossCalls() throws InterruptedException {
+		IcyBufferedImage reference = blobs(0, 0, 0);
+		IcyBufferedImage first = blobs(4, 2, 0);
+		IcyBufferedImage second = blobs(-6, 1, 0.05);
+		final RigidRegistrationEngine engine = new RigidRegistrationEngine(reference, 0);
+
+		Vector2d translation = engine.findTranslation(first, 0);
+		double rotation = engine.findRotation(first, 0);
+		// the second frame runs in the same per-thread buffers: nothing of the first one may remain
+		Vector2d secondTranslation = engine.findTranslation(second, 0);
+		double secondRotation = engine.findRotation(second, 0);
+		Vector2d expected = GaspardRigidRegistration.findTranslation2D(second, 0, reference, 0);
+		assertEquals(expected.x, secondTranslation.x, 1e-3);
+		assertEquals(expected.y, secondTranslation.y, 1e-3);
+		assertEquals(GaspardRigidRegistration.findRotation2D(second, 0, reference, 0), secondRotation, 1e-9);
+
+		Vector2d again = engine.findTranslation(first, 0);
+		assertEquals(translation.x, again.x, 0);
+		assertEquals(translation.y, again.y, 0);
+		assertEquals(rotation, engine.findRotation(first, 0), 0);
+
+		// another thread gets its own workspace and the same results
+		final Vector2d[] other = new Vector2d[1];
+		Thread thread = new Thread(() -> other[0] = engine.findTranslation(first, 0));
+		thread.start();
+		thread.join();
+		assertEquals(translation.x, other[0].x, 0);
+		assertEquals(translation.y, other[0].y, 0);
+	}
+
+	@Test
+	public void binnedEngineReportsFullSizeTranslations() {
+		IcyBufferedImage reference = blobs(0, 0, 0);
+		RigidRegistrationEngine engine = new RigidRegistrationEngine(reference, 0, 2);
+		assertEquals(2, engine.getBinning());
+		assertEquals(SIZE / 2, engine.getWidth());
+		assertEquals(SIZE / 2, engine.getHeight());
+
+		Vector2d found = engine.findTranslation(blobs(6, -4, 0), 0);
+		assertEquals(-6, found.x, 1);
+		assertEquals(4, found.y, 1);
+		assertEquals(0, engine.findRotation(reference, 0), 0);
+
+		try {
+			new RigidRegistrationEngine(reference, 0, SIZE + 1);
+			fail("binning larger than the image");
+		} catch (IllegalArgumentException expected) {
+			// coarser than one pixel
+		}
+	}
+}
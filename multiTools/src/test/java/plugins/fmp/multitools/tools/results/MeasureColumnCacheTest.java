@@ -0,0 +1,50 @@
+package plugins.fmp.multitools.tools.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MeasureColumnCacheTest {
+
+	private static final class Owner implements MeasureColumnCache.Evictable {
+		int evictions;
+
+		@Override
+		public void evictColumn() {
+			evictions++;
+		}
+	}
+
+	@Test
+	public void evictsLeastRecentlyTouchedOwnersFirst() {
+		MeasureColumnCache cache = new MeasureColumnCache(250);
+		Owner a = new Owner();
+		Owner b = new Owner();
+		Owner c = new Owner();
+		cache.touch(a, 100);
+		cache.touch(b, 100);
+		cache.touch(a, 100);
+		cache.touch(c, 100);
+
+		assertEquals(0, a.evictions);
+		assertEquals(1, b.evictions);
+		assertFalse(cache.contains(b));
+		assertTrue(cache.contains(a));
+		assertEquals(200, cache.getUsedBytes());
+	}
+
+	@Test
+	public void ownerLargerThanBudgetIsKeptUntilNextTouch() {
+		MeasureColumnCache cache = new MeasureColumnCache(50);
+		Owner a = new Owner();
+		Owner b = new Owner();
+		cache.touch(a, 100);
+		assertEquals(0, a.evictions);
+		cache.touch(b, 10);
+		assertEquals(1, a.evictions);
+		cache.remove(b);
+		assertEquals(0, cache.getUsedBytes());
+	}
+}
@@ -0,0 +1,50 @@
+package plugins.fmp.multitools.tools.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MeasureColumnTest {
+
+	@Test
+	public void doubleColumnIsAZeroCopyView() {
+		double[] values = { 1.5, 2.5, 3.5 };
+		MeasureColumn column = MeasureColumn.of(values);
+		assertSame(values, column.doublesOrNull());
+		values[1] = 7;
+		assertEquals(7, column.get(1), 0);
+	}
+
+	@Test
+	public void int16QuantizationStaysWithinHalfAStepAndKeepsNaN() {
+		double[] values = new double[1000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.sin(i * 0.01) * 1234.5 + 200;
+		}
+		values[10] = Double.NaN;
+		MeasureColumn column = MeasureColumn.encode(values, MeasureColumn.Encoding.INT16);
+		double step = (1234.5 * 2) / 65532;
+		for (int i = 0; i < values.length; i++) {
+			if (i == 10) {
+				assertTrue(Double.isNaN(column.get(i)));
+			} else {
+				assertEquals(values[i], column.get(i), step / 2 + 1e-9);
+			}
+		}
+		assertEquals(2L * values.length, column.byteSize());
+	}
+
+	@Test
+	public void int16KeepsInfinitiesOutsideTheQuantizedRange() {
+		double[] values = { 3, Double.POSITIVE_INFINITY, -2, Double.NEGATIVE_INFINITY, Double.NaN, 7 };
+		MeasureColumn column = MeasureColumn.encode(values, MeasureColumn.Encoding.INT16);
+		assertEquals(Double.POSITIVE_INFINITY, column.get(1), 0);
+		assertEquals(Double.NEGATIVE_INFINITY, column.get(3), 0);
+		assertTrue(Double.isNaN(column.get(4)));
+		assertEquals(-2, column.get(2), 1e-9);
+		assertEquals(7, column.get(5), 1e-9);
+		assertEquals(3, column.get(0), 9.0 / 65532);
+	}
+}
@@ -0,0 +1,104 @@
+package plugins.fmp.multitools.tools.stats;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RunningMedianTest {
+
+	/** Per-window sort of the finite values, as the smoothing code did before. */
+	private static double[] sortedWindows(double[] values, int span) {
+		int n = values.length;
+		double[] out = new double[n];
+		for (int i = 0; i < n; i++) {
+			int start = Math.max(0, i - span / 2);
+			int end = Math.min(n - 1, i + span / 2);
+			double[] window = new double[end - start + 1];
+			int m = 0;
+			for (int j = start; j <= end; j++)
+				if (Double.isFinite(values[j]))
+					window[m++] = values[j];
+			Arrays.sort(window, 0, m);
+			out[i] = m == 0 ? Double.NaN : window[m / 2];
+		}
+		return out;
+	}
+
+	private static double[] randomSeries(Random random, int n, boolean withNaN, boolean withTies) {
+		double[] values = new double[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = withTies ? random.nextInt(5) : random.nextGaussian() * 100;
+			if (withNaN && random.nextInt(4) == 0)
+				values[i] = Double.NaN;
+		}
+		return values;
+	}
+
+	@Test
+	public void centeredMatchesSortedWindows() {
+		Random random = new Random(11);
+		int[] spans = { 0, 1, 2, 3, 10, 11, 64, 501 };
+		for (int n : new int[] { 0, 1, 7, 300, 2000 })
+			for (int span : spans)
+				for (int variant = 0; variant < 4; variant++) {
+					double[] values = randomSeries(random, n, (variant & 1) != 0, (variant & 2) != 0);
+					double[] expected = sortedWindows(values, span);
+					double[] actual = RunningMedian.centered(values, span);
+					for (int i = 0; i < n; i++)
+						assertEquals("n=" + n + " span=" + span + " i=" + i, expected[i], actual[i], 0);
+				}
+	}
+
+	@Test
+	public void selectReturnsAnyOrderStatistic() {
+		Random random = new Random(5);
+		double[] values = randomSeries(random, 400, true, false);
+		int w = 37;
+		RunningMedian window = new RunningMedian(values, w);
+		for (int i = 0; i < values.length; i++) {
+			if (i >= w)
+				window.remove(i - w);
+			window.add(i);
+			double[] finite = new double[w];
+			int m = 0;
+			for (int j = Math.max(0, i - w + 1); j <= i; j++)
+				if (!Double.isNaN(values[j]))
+					finite[m++] = values[j];
+			Arrays.sort(finite, 0, m);
+			assertEquals(m, window.size());
+			int k = m == 0 ? 0 : random.nextInt(m);
+			assertEquals(m == 0 ? Double.NaN : finite[k], window.select(k), 0);
+		}
+	}
+
+	@Test
+	public void selectionStatisticsMatchSorting() {
+		Random random = new Random(9);
+		for (int trial = 0; trial < 500; trial++) {
+			int n = random.nextInt(60);
+			double[] values = randomSeries(random, n, trial % 5 == 0, trial % 3 == 0);
+			double[] sorted = values.clone();
+			Arrays.sort(sorted);
+
+			double median = n == 0 ? Double.NaN
+					: (n & 1) == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+			assertEquals(median, RobustStats.median(values.clone(), n), 0);
+			assertEquals(n == 0 ? Double.NaN : sorted[n / 2], RobustStats.upperMedian(values.clone(), n), 0);
+
+			double iqr = n < 2 ? 0 : sorted[Math.min(3 * n / 4, n - 1)] - sorted[n / 4];
+			assertEquals(iqr, RobustStats.iqr(values.clone(), n), 0);
+
+			if (n > 0 && !Double.isNaN(median)) {
+				double[] dev = new double[n];
+				for (int i = 0; i < n; i++)
+					dev[i] = Math.abs(values[i] - median);
+				Arrays.sort(dev);
+				double mad = (n & 1) == 1 ? dev[n / 2] : (dev[n / 2 - 1] + dev[n / 2]) / 2;
+				assertEquals(mad, RobustStats.mad(values.clone(), n, median), 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package plugins.fmp.multitools.tools.toExcel.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ExportPrefetcherTest {
+
+	@Test
+	public void returnsItemsInIndexOrderAndBoundsLookahead() throws Exception {
+		AtomicInteger maxLoaded = new AtomicInteger(-1);
+		try (ExportPrefetcher<String> prefetcher = new ExportPrefetcher<String>(2, 9, 3, index -> {
+			maxLoaded.accumulateAndGet(index, Math::max);
+			Thread.sleep(5L * (10 - index));
+			return "exp" + index;
+		})) {
+			for (int index = 2; index <= 9; index++) {
+				assertEquals("exp" + index, prefetcher.take(index));
+				assertTrue(maxLoaded.get() <= index + 2);
+			}
+		}
+	}
+
+	@Test
+	public void rethrowsLoadFailureOfTakenIndex() throws Exception {
+		try (ExportPrefetcher<Integer> prefetcher = new ExportPrefetcher<Integer>(0, 3, 2, index -> {
+			if (index == 1) {
+				throw new IOException("broken experiment");
+			}
+			return index;
+		})) {
+			assertEquals(Integer.valueOf(0), prefetcher.take(0));
+			try {
+				prefetcher.take(1);
+				fail();
+			} catch (IOException e) {
+				assertEquals("broken experiment", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void windowOfOneLoadsInline() throws Exception {
+		Thread caller = Thread.currentThread();
+		try (ExportPrefetcher<Boolean> prefetcher = new ExportPrefetcher<Boolean>(0, 1, 1,
+				index -> Thread.currentThread() == caller)) {
+			assertTrue(prefetcher.take(0));
+			assertTrue(prefetcher.take(1));
+		}
+	}
+}